@@ -59,7 +59,7 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-security")
-    implementation("org.modelmapper:modelmapper:3.1.1")
+    testImplementation("org.modelmapper:modelmapper:3.1.1")
     compileOnly("org.projectlombok:lombok")
     annotationProcessor("org.projectlombok:lombok")
     implementation("jakarta.validation:jakarta.validation-api:3.0.2")
@@ -77,6 +77,7 @@ tasks.register<Test>("unitTest") {
 
    filter {
        excludeTestsMatching("*FunctionalTest")
+       excludeTestsMatching("*Benchmark")
    }
 }
 
@@ -90,9 +91,23 @@ tasks.register<Test>("functionalTest") {
    }
 }
 
+tasks.register<Test>("benchmark") {
+   description = "Runs latency benchmarks."
+   group = "verification"
+   testClassesDirs = sourceSets["test"].output.classesDirs
+   classpath = sourceSets["test"].runtimeClasspath
+   testLogging.showStandardStreams = true
+
+
+   filter {
+       includeTestsMatching("*Benchmark")
+   }
+}
+
 tasks.test {
    filter {
        excludeTestsMatching("*FunctionalTest")
+       excludeTestsMatching("*Benchmark")
    }
    finalizedBy(tasks.jacocoTestReport)
 }
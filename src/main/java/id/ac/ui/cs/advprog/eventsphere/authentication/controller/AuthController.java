@@ -5,6 +5,7 @@ import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 import id.ac.ui.cs.advprog.eventsphere.authentication.service.AuthService;
 import id.ac.ui.cs.advprog.eventsphere.authentication.service.AdminUserService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -20,14 +21,16 @@ import java.util.Map;
 @Slf4j
 public class AuthController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final AuthService authService;
     private final AdminUserService adminUserService;
 
     @PostMapping("/login")
-    public ResponseEntity<JwtResponse> login(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<JwtResponse> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
         log.info("Login attempt for user: {}", loginRequest.getEmail());
         try {
-            JwtResponse response = authService.login(loginRequest);
+            JwtResponse response = authService.login(loginRequest, request.getRemoteAddr());
             log.info("Login successful for user: {}", loginRequest.getEmail());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -36,6 +39,12 @@ public class AuthController {
         }
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtResponse> refresh(@RequestBody RefreshTokenRequest refreshTokenRequest) {
+        log.debug("Token refresh attempt");
+        return ResponseEntity.ok(authService.refresh(refreshTokenRequest));
+    }
+
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody RegisterRequest registerRequest) {
         log.info("Registration attempt for user: {}", registerRequest.getEmail());
@@ -66,6 +75,16 @@ public class AuthController {
         }
     }
 
+    @PostMapping("/logout")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Map<String, String>> logout() {
+        authService.logout();
+        return ResponseEntity.ok(Map.of(
+            "status", "success",
+            "message", "Logged out from all sessions"
+        ));
+    }
+
     @GetMapping("/me")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<User> getCurrentUser() {
@@ -73,11 +92,17 @@ public class AuthController {
         return ResponseEntity.ok(authService.getCurrentUser());
     }
     
+    // Paged by ?sort=createdAt|email&direction=desc|asc; the next page's cursor comes back in X-Next-Cursor
     @GetMapping("/admin/users")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<UserResponseDTO>> getAllUsers() {
-        log.info("Admin requesting all users");
-        return ResponseEntity.ok(adminUserService.getAllUsers());
+    public ResponseEntity<List<UserResponseDTO>> getAllUsers(@ModelAttribute UserListFilter filter) {
+        log.info("Admin requesting users");
+        UserPageDTO page = adminUserService.getUsers(filter);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     @GetMapping("/admin/users/{id}")
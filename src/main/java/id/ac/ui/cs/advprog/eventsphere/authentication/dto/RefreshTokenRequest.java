@@ -0,0 +1,8 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.dto;
+
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequest {
+    private String refreshToken;
+}
@@ -0,0 +1,69 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.dto;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+// Query parameters of the admin user listing; every field is optional
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserListFilter {
+
+    public enum SortField {
+        CREATED_AT,
+        EMAIL
+    }
+
+    private String role; // ADMIN, ORGANIZER or ATTENDEE
+    private String emailPrefix; // case-sensitive
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom; // inclusive
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo; // exclusive
+
+    private String sort; // createdAt (default) or email
+    private String direction; // desc (default) or asc
+
+    private String cursor; // nextCursor of the previous page
+    private Integer limit;
+
+    public Role resolveRole() {
+        if (role == null || role.isBlank()) {
+            return null;
+        }
+        try {
+            return Role.valueOf(role.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid role: " + role);
+        }
+    }
+
+    public SortField resolveSort() {
+        if (sort == null || sort.isBlank() || sort.trim().equalsIgnoreCase("createdAt")) {
+            return SortField.CREATED_AT;
+        }
+        if (sort.trim().equalsIgnoreCase("email")) {
+            return SortField.EMAIL;
+        }
+        throw new IllegalArgumentException("Invalid sort: " + sort);
+    }
+
+    public boolean isAscending() {
+        if (direction == null || direction.isBlank() || direction.trim().equalsIgnoreCase("desc")) {
+            return false;
+        }
+        if (direction.trim().equalsIgnoreCase("asc")) {
+            return true;
+        }
+        throw new IllegalArgumentException("Invalid direction: " + direction);
+    }
+}
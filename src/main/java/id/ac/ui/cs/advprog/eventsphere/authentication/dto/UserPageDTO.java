@@ -0,0 +1,17 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPageDTO {
+    private List<UserResponseDTO> items;
+    private String nextCursor; // null on the last page
+}
@@ -1,13 +1,17 @@
 package id.ac.ui.cs.advprog.eventsphere.authentication.dto;
 
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor // used by the constructor projection in UserListingRepositoryImpl
 public class UserResponseDTO {
     private Long id;
     private String email;
@@ -0,0 +1,52 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One signed balance movement. Entries are only ever inserted; {@code foldedAt} is set once
+ * the amount has been folded into {@code users.balance}, which is otherwise never written.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "balance_ledger", indexes = {
+        @Index(name = "idx_balance_ledger_user_folded", columnList = "user_id, folded_at")
+})
+public class BalanceLedgerEntry {
+
+    public enum EntryType {
+        OPENING,
+        TOP_UP,
+        TICKET_PURCHASE,
+        ADJUSTMENT
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String transactionId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    private int amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EntryType entryType;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime foldedAt;
+}
@@ -0,0 +1,5 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.model;
+
+/** Id and email of a user holding a given role, for notification fan-out. */
+public record RoleMember(Long id, String email) {
+}
@@ -1,10 +1,15 @@
 package id.ac.ui.cs.advprog.eventsphere.authentication.model;
 
 import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Formula;
 import java.time.LocalDateTime;
 
 @Data
@@ -12,7 +17,11 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor 
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_role", columnList = "role"),
+        @Index(name = "idx_users_created_at", columnList = "created_at, id"),
+        @Index(name = "idx_users_token_version_changed_at", columnList = "token_version_changed_at")
+})
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -33,10 +42,28 @@ public class User {
 
     private LocalDateTime updatedAt;
 
-    @Column(columnDefinition = "integer default 0")
+    // Snapshot of the folded balance ledger; only the ledger fold writes this column
+    @Column(columnDefinition = "integer default 0", updatable = false)
     @Builder.Default
+    @Setter(AccessLevel.NONE)
     private Integer balance = 0;
 
+    // Bumped whenever the email, role or password changes; tokens carry the value they were issued with
+    @Column(columnDefinition = "integer default 0")
+    @Builder.Default
+    private Integer tokenVersion = 0;
+
+    // When tokenVersion was last bumped; revocation refreshes read only recent changes
+    @JsonIgnore
+    private LocalDateTime tokenVersionChangedAt;
+
+    // Ledger entries not yet folded into the snapshot, read with the row
+    @Formula("(SELECT COALESCE(SUM(l.amount), 0) FROM balance_ledger l WHERE l.user_id = id AND l.folded_at IS NULL)")
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @JsonIgnore
+    private Integer unfoldedBalance;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -49,35 +76,21 @@ public class User {
     }
 
 
-    public void topUp(int amount) {
-        if (amount <= 0) {
-            throw new IllegalArgumentException("Top-up amount must be positive");
-        }
-        if (this.balance == null) {
-            this.balance = 0;
-        }
-        this.balance += amount;
-    }
-
-    public boolean deductBalance(int amount) {
-        if (amount <= 0) {
-            throw new IllegalArgumentException("Deduction amount must be positive");
-        }
-        if (this.balance == null || this.balance < amount) {
-            return false;
-        }
-        this.balance -= amount;
-        return true;
-    }
-
+    // Money moves through UserBalanceService and the ledger, so there is no setter
     public int getBalance() {
-        return this.balance != null ? this.balance : 0;
+        int snapshot = this.balance != null ? this.balance : 0;
+        return this.unfoldedBalance != null ? snapshot + this.unfoldedBalance : snapshot;
     }
     
-    public void setBalance(int balance) {
-        this.balance = balance;
+    public int getTokenVersion() {
+        return this.tokenVersion != null ? this.tokenVersion : 0;
     }
-    
+
+    public void bumpTokenVersion() {
+        this.tokenVersion = getTokenVersion() + 1;
+        this.tokenVersionChangedAt = LocalDateTime.now();
+    }
+
     public String getUsername() {
         if (this.fullName != null && !this.fullName.isEmpty()) {
             return this.fullName;
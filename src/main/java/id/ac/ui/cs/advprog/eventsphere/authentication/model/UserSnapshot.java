@@ -0,0 +1,14 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.model;
+
+/**
+ * Immutable copy of the identity columns of a {@code users} row, safe to share between
+ * threads and requests. The balance is left out on purpose: it changes on every purchase
+ * and is always read from the ledger. So are the password hash and token version, which
+ * login reads from the row itself so that a change made on another instance counts at once.
+ */
+public record UserSnapshot(Long id, String email, String fullName, Role role) {
+
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(user.getId(), user.getEmail(), user.getFullName(), user.getRole());
+    }
+}
@@ -0,0 +1,146 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.repository;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.BalanceLedgerEntry.EntryType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Append-only balance ledger. A user's balance is {@code users.balance}, the snapshot of every
+ * folded entry, plus the sum of the entries that have not been folded yet. Credits are plain
+ * inserts; debits take the user row lock first so that two debits cannot both spend the same
+ * money. Every method that writes expects to run inside a transaction.
+ */
+@Repository
+public class BalanceLedgerJdbcRepository {
+
+    /** Unfolded tail of user {@code u}; used wherever a balance is read in SQL. */
+    public static final String UNFOLDED_SUM =
+            "(SELECT COALESCE(SUM(l.amount), 0) FROM balance_ledger l WHERE l.user_id = u.id AND l.folded_at IS NULL)";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO balance_ledger (transaction_id, user_id, amount, entry_type, created_at) " +
+            "SELECT ?, ?, ?, ?, ? FROM users u WHERE u.id = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM balance_ledger d WHERE d.transaction_id = ?)";
+
+    private static final String GUARDED_INSERT_SQL = INSERT_SQL + " AND u.balance + " + UNFOLDED_SUM + " >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BalanceLedgerJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Appends a credit or debit. Returns false for an unknown user or an already used transaction id. */
+    public boolean append(Long userId, String transactionId, int amount, EntryType type, LocalDateTime timestamp) {
+        return jdbcTemplate.update(INSERT_SQL, transactionId, userId, amount, type.name(),
+                Timestamp.valueOf(timestamp), userId, transactionId) == 1;
+    }
+
+    /**
+     * Appends a debit of {@code amount} only while the balance covers it. Callers must hold
+     * the row lock from {@link #lockBalance(Long)}.
+     */
+    public boolean appendDebit(Long userId, String transactionId, int amount, EntryType type, LocalDateTime timestamp) {
+        return jdbcTemplate.update(GUARDED_INSERT_SQL, transactionId, userId, -amount, type.name(),
+                Timestamp.valueOf(timestamp), userId, transactionId, amount) == 1;
+    }
+
+    /** Locks the user row and returns the balance as of the lock. Empty for an unknown user. */
+    public Optional<Integer> lockBalance(Long userId) {
+        if (!lockUser(userId)) {
+            return Optional.empty();
+        }
+        return Optional.of(balanceOf(userId));
+    }
+
+    public int balanceOf(Long userId) {
+        List<Integer> rows = jdbcTemplate.queryForList(
+                "SELECT u.balance + " + UNFOLDED_SUM + " FROM users u WHERE u.id = ?", Integer.class, userId);
+        return rows.isEmpty() || rows.get(0) == null ? 0 : rows.get(0);
+    }
+
+    public List<Long> findUsersWithUnfoldedEntries(int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT user_id FROM balance_ledger WHERE folded_at IS NULL ORDER BY user_id LIMIT ?",
+                Long.class, limit);
+    }
+
+    /**
+     * Folds up to {@code maxEntries} unfolded entries of one user into the snapshot. Only the
+     * entries read here are marked, so a credit committed meanwhile stays in the tail.
+     * Returns the number of entries folded.
+     */
+    public int fold(Long userId, int maxEntries, LocalDateTime foldedAt) {
+        boolean exists = lockUser(userId);
+        List<Long> ids = new ArrayList<>();
+        long[] total = {0};
+        jdbcTemplate.query("SELECT id, amount FROM balance_ledger WHERE user_id = ? AND folded_at IS NULL " +
+                "ORDER BY id LIMIT ?", rs -> {
+            ids.add(rs.getLong("id"));
+            total[0] += rs.getInt("amount");
+        }, userId, maxEntries);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        // Entries of a deleted user have nothing to fold into, but are marked all the same
+        if (exists && total[0] != 0) {
+            jdbcTemplate.update("UPDATE users SET balance = balance + ? WHERE id = ?", total[0], userId);
+        }
+        markFolded(ids, foldedAt);
+        return ids.size();
+    }
+
+    /** Recomputes the snapshot from the whole ledger and marks every entry folded. */
+    public int rebuild(Long userId, LocalDateTime foldedAt) {
+        if (!lockUser(userId)) {
+            return 0;
+        }
+        Integer total = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(amount), 0) FROM balance_ledger WHERE user_id = ?", Integer.class, userId);
+        jdbcTemplate.update("UPDATE balance_ledger SET folded_at = ? WHERE user_id = ? AND folded_at IS NULL",
+                Timestamp.valueOf(foldedAt), userId);
+        jdbcTemplate.update("UPDATE users SET balance = ? WHERE id = ?", total, userId);
+        return total != null ? total : 0;
+    }
+
+    /** Users whose snapshot no longer equals the sum of their folded entries. */
+    public List<Long> findDrift(int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT u.id FROM users u WHERE COALESCE(u.balance, 0) <> (SELECT COALESCE(SUM(l.amount), 0) " +
+                "FROM balance_ledger l WHERE l.user_id = u.id AND l.folded_at IS NOT NULL) ORDER BY u.id LIMIT ?",
+                Long.class, limit);
+    }
+
+    /**
+     * Gives every balance that predates the ledger a folded opening entry, so that the
+     * snapshot can be rebuilt from the ledger alone. Safe to run repeatedly.
+     */
+    public int seedOpeningBalances(LocalDateTime timestamp) {
+        Timestamp at = Timestamp.valueOf(timestamp);
+        return jdbcTemplate.update(
+                "INSERT INTO balance_ledger (transaction_id, user_id, amount, entry_type, created_at, folded_at) " +
+                "SELECT CONCAT('opening:', CAST(u.id AS VARCHAR(20))), u.id, u.balance, ?, ?, ? FROM users u " +
+                "WHERE u.balance <> 0 AND NOT EXISTS (SELECT 1 FROM balance_ledger l WHERE l.user_id = u.id)",
+                EntryType.OPENING.name(), at, at);
+    }
+
+    private boolean lockUser(Long userId) {
+        return !jdbcTemplate.queryForList("SELECT id FROM users WHERE id = ? FOR UPDATE", Long.class, userId).isEmpty();
+    }
+
+    private void markFolded(List<Long> ids, LocalDateTime foldedAt) {
+        List<Object> args = new ArrayList<>(ids.size() + 1);
+        args.add(Timestamp.valueOf(foldedAt));
+        args.addAll(ids);
+        jdbcTemplate.update("UPDATE balance_ledger SET folded_at = ? WHERE id IN (" +
+                String.join(", ", Collections.nCopies(ids.size(), "?")) + ")", args.toArray());
+    }
+}
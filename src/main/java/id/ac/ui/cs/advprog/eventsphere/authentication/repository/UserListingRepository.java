@@ -0,0 +1,26 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.repository;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.dto.UserListFilter.SortField;
+import id.ac.ui.cs.advprog.eventsphere.authentication.dto.UserResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.util.UserCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface UserListingRepository {
+
+    /**
+     * Keyset page of users ordered by {@code sort} then id. Every filter argument may be null
+     * to skip it. Rows are projected straight into {@link UserResponseDTO}, so no entity or
+     * password hash is loaded.
+     */
+    List<UserResponseDTO> findUserPage(Role role,
+                                       String emailPrefix,
+                                       LocalDateTime createdFrom,
+                                       LocalDateTime createdTo,
+                                       SortField sort,
+                                       boolean ascending,
+                                       UserCursor after,
+                                       int limit);
+}
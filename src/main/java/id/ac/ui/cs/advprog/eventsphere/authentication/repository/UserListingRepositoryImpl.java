@@ -0,0 +1,74 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.repository;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.dto.UserListFilter.SortField;
+import id.ac.ui.cs.advprog.eventsphere.authentication.dto.UserResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.util.UserCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Only the filters that are set end up in the query, so each shape can use its own index
+public class UserListingRepositoryImpl implements UserListingRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserResponseDTO> findUserPage(Role role,
+                                              String emailPrefix,
+                                              LocalDateTime createdFrom,
+                                              LocalDateTime createdTo,
+                                              SortField sort,
+                                              boolean ascending,
+                                              UserCursor after,
+                                              int limit) {
+        StringBuilder jpql = new StringBuilder(
+                "SELECT new " + UserResponseDTO.class.getName() + "(u.id, u.email, u.fullName, u.role, " +
+                "COALESCE(u.balance, 0) + u.unfoldedBalance, u.createdAt, u.updatedAt) FROM User u WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+
+        if (role != null) {
+            jpql.append(" AND u.role = :role");
+            params.put("role", role);
+        }
+        if (emailPrefix != null && !emailPrefix.isEmpty()) {
+            jpql.append(" AND u.email LIKE :emailPrefix ESCAPE '\\'");
+            params.put("emailPrefix", escapeLike(emailPrefix) + "%");
+        }
+        if (createdFrom != null) {
+            jpql.append(" AND u.createdAt >= :createdFrom");
+            params.put("createdFrom", createdFrom);
+        }
+        if (createdTo != null) {
+            jpql.append(" AND u.createdAt < :createdTo");
+            params.put("createdTo", createdTo);
+        }
+
+        String column = sort == SortField.EMAIL ? "u.email" : "u.createdAt";
+        String direction = ascending ? "ASC" : "DESC";
+        if (after != null) {
+            String comparison = ascending ? ">" : "<";
+            jpql.append(" AND (").append(column).append(' ').append(comparison).append(" :afterValue OR (")
+                    .append(column).append(" = :afterValue AND u.id ").append(comparison).append(" :afterId))");
+            params.put("afterValue", sort == SortField.EMAIL ? after.value() : after.createdAt());
+            params.put("afterId", after.id());
+        }
+        jpql.append(" ORDER BY ").append(column).append(' ').append(direction)
+                .append(", u.id ").append(direction);
+
+        TypedQuery<UserResponseDTO> query = entityManager.createQuery(jpql.toString(), UserResponseDTO.class);
+        params.forEach(query::setParameter);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,13 +1,31 @@
 package id.ac.ui.cs.advprog.eventsphere.authentication.repository;
 
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserListingRepository {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    List<User> findByRole(Role role);
+
+    // Served from idx_users_role without loading whole entities
+    @Query("SELECT u.id, u.email FROM User u WHERE u.role = :role ORDER BY u.id")
+    List<Object[]> findIdAndEmailByRole(@Param("role") Role role);
+
+    @Query("SELECT u.id FROM User u WHERE u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    // [id, tokenVersion, tokenVersionChangedAt] of users whose version changed since then;
+    // reads idx_users_token_version_changed_at, so a refresh only touches recent revocations
+    @Query("SELECT u.id, u.tokenVersion, u.tokenVersionChangedAt FROM User u WHERE u.tokenVersionChangedAt >= :since")
+    List<Object[]> findTokenVersionsChangedSince(@Param("since") LocalDateTime since);
 }
@@ -0,0 +1,90 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.security;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import lombok.Getter;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Principal of an authenticated request. Built from the JWT claims, so services can read
+ * who is calling (id, email, role) from the security context of the request without
+ * loading the user row; load the entity only when it is about to be written.
+ */
+@Getter
+public class AuthenticatedUser implements UserDetails, CredentialsContainer {
+
+    private final Long id;
+    private final String email;
+    private final Role role;
+    private final int version;
+    private String password;
+
+    public AuthenticatedUser(Long id, String email, Role role, int version) {
+        this(id, email, role, version, "");
+    }
+
+    private AuthenticatedUser(Long id, String email, Role role, int version, String password) {
+        this.id = id;
+        this.email = email;
+        this.role = role;
+        this.version = version;
+        this.password = password;
+    }
+
+    public static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole(), user.getTokenVersion());
+    }
+
+    /** Principal for the login attempt; carries the password hash until authentication erases it. */
+    public static AuthenticatedUser withPassword(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole(), user.getTokenVersion(),
+                user.getPassword());
+    }
+
+    public boolean isAdmin() {
+        return role == Role.ADMIN;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return role != null ? List.of(new SimpleGrantedAuthority("ROLE_" + role.name())) : List.of();
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        this.password = null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AuthenticatedUser other)) {
+            return false;
+        }
+        return Objects.equals(id, other.id) && Objects.equals(email, other.email);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, email);
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser{id=" + id + ", email='" + email + "', role=" + role + ", version=" + version + '}';
+    }
+}
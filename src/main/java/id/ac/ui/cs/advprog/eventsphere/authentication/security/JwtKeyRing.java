@@ -0,0 +1,97 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * HMAC signing keys by key id. Keys come from {@code jwt.keys} as
+ * {@code kid:base64-secret} pairs separated by commas; new tokens are signed with
+ * {@code jwt.active-key-id} (the first key when unset) and carry it in the {@code kid}
+ * header, while every listed key is still accepted. To rotate, add the new key, make it
+ * active, and drop the old one once the tokens it signed have expired.
+ * Without configured keys a random key is used, so tokens do not survive a restart.
+ */
+@Component
+@Slf4j
+public class JwtKeyRing {
+
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final Map<String, SecretKey> keys;
+    private final String activeKeyId;
+
+    @Autowired
+    public JwtKeyRing(@Value("${jwt.keys:}") String keys,
+                      @Value("${jwt.active-key-id:}") String activeKeyId) {
+        Map<String, SecretKey> parsed = parse(keys);
+        if (parsed.isEmpty()) {
+            String ephemeral = "ephemeral-" + UUID.randomUUID();
+            log.warn("No jwt.keys configured, signing with a random key; tokens will not survive a restart");
+            parsed.put(ephemeral, Keys.secretKeyFor(SignatureAlgorithm.HS256));
+        }
+        String active = activeKeyId == null || activeKeyId.isBlank()
+                ? parsed.keySet().iterator().next()
+                : activeKeyId.trim();
+        if (!parsed.containsKey(active)) {
+            throw new IllegalStateException("jwt.active-key-id '" + active + "' is not in jwt.keys");
+        }
+        this.keys = Collections.unmodifiableMap(parsed);
+        this.activeKeyId = active;
+    }
+
+    public String activeKeyId() {
+        return activeKeyId;
+    }
+
+    public SecretKey activeKey() {
+        return keys.get(activeKeyId);
+    }
+
+    public Optional<SecretKey> find(String keyId) {
+        return Optional.ofNullable(keyId != null ? keys.get(keyId) : null);
+    }
+
+    private static Map<String, SecretKey> parse(String value) {
+        Map<String, SecretKey> parsed = new LinkedHashMap<>();
+        if (value == null || value.isBlank()) {
+            return parsed;
+        }
+        for (String entry : value.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.indexOf(':');
+            if (separator <= 0 || separator == trimmed.length() - 1) {
+                throw new IllegalStateException("jwt.keys entries must look like kid:base64-secret");
+            }
+            String keyId = trimmed.substring(0, separator).trim();
+            byte[] secret;
+            try {
+                secret = Base64.getDecoder().decode(trimmed.substring(separator + 1).trim());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("jwt.keys secret for '" + keyId + "' is not valid base64");
+            }
+            if (secret.length < MIN_SECRET_BYTES) {
+                throw new IllegalStateException("jwt.keys secret for '" + keyId + "' must be at least "
+                        + MIN_SECRET_BYTES + " bytes");
+            }
+            if (parsed.put(keyId, Keys.hmacShaKeyFor(secret)) != null) {
+                throw new IllegalStateException("jwt.keys lists '" + keyId + "' more than once");
+            }
+        }
+        return parsed;
+    }
+}
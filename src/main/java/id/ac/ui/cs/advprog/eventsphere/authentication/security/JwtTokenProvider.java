@@ -1,29 +1,102 @@
 package id.ac.ui.cs.advprog.eventsphere.authentication.security;
 
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import java.util.Arrays;
-import java.util.Collection;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
+/**
+ * Issues and verifies the bearer tokens. Tokens are signed with the active key of the
+ * {@link JwtKeyRing} and name it in the {@code kid} header. Verified tokens are kept in a
+ * bounded LRU keyed by the SHA-256 of the token, together with their expiry, so repeat
+ * requests on the same session skip signature verification and claim parsing until the
+ * token expires; revocation is still checked on every request.
+ */
 @Component
 public class JwtTokenProvider {
 
-    private final SecretKey key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLES_CLAIM = "roles";
+    static final String VERSION_CLAIM = "ver";
 
-    @Value("${jwt.expiration:86400000}")
-    private long jwtExpiration;
+    private final JwtKeyRing keyRing;
+    private final TokenRevocationRegistry revocations;
+    private final JwtParser parser;
+
+    private final long jwtExpiration;
+    private final Map<String, VerifiedToken> verified;
+
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter rejected;
+    private final Counter revoked;
+
+    @Autowired
+    public JwtTokenProvider(JwtKeyRing keyRing,
+                            TokenRevocationRegistry revocations,
+                            MeterRegistry meterRegistry,
+                            @Value("${jwt.expiration:900000}") long jwtExpiration,
+                            @Value("${jwt.cache-size:10000}") int cacheSize) {
+        this.keyRing = keyRing;
+        this.revocations = revocations;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        String keyId = header.getKeyId();
+                        return keyId == null
+                                ? keyRing.activeKey()
+                                : keyRing.find(keyId).orElseThrow(() -> new JwtException("Unknown signing key: " + keyId));
+                    }
+                })
+                .build();
+        this.jwtExpiration = jwtExpiration;
+        this.verified = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > cacheSize;
+            }
+        });
+
+        Gauge.builder("jwt.cache.size", verified, Map::size)
+                .description("Verified tokens held in memory")
+                .register(meterRegistry);
+        this.cacheHits = Counter.builder("jwt.cache.hits")
+                .description("Requests authenticated without verifying the token signature again")
+                .register(meterRegistry);
+        this.cacheMisses = Counter.builder("jwt.cache.misses").register(meterRegistry);
+        this.rejected = Counter.builder("jwt.rejected")
+                .description("Tokens that failed verification or had expired")
+                .register(meterRegistry);
+        this.revoked = Counter.builder("jwt.revoked")
+                .description("Verified tokens refused because their user version was bumped")
+                .register(meterRegistry);
+    }
+
+    /** Access token for a user renewed through a refresh token, without a password check. */
+    public String generateToken(AuthenticatedUser user) {
+        return generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
 
     public String generateToken(Authentication authentication) {
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
@@ -34,48 +107,104 @@ public class JwtTokenProvider {
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.joining(","));
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, keyRing.activeKeyId())
                 .setSubject(userDetails.getUsername())
-                .claim("roles", authorities)
+                .claim(ROLES_CLAIM, authorities);
+        if (userDetails instanceof AuthenticatedUser user) {
+            builder.claim(USER_ID_CLAIM, user.getId())
+                    .claim(VERSION_CLAIM, user.getVersion());
+        }
+        return builder
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(key)
+                .signWith(keyRing.activeKey())
                 .compact();
     }
 
-    public boolean validateToken(String token) {
+    public long getExpirationMillis() {
+        return jwtExpiration;
+    }
+
+    /**
+     * Verifies {@code token} once and returns its authentication; empty when the token is
+     * invalid, expired or revoked. Tokens seen before are answered from the cache until
+     * they expire.
+     */
+    public Optional<Authentication> authenticate(String token) {
+        String cacheKey = hash(token);
+        VerifiedToken cached = verified.get(cacheKey);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > System.currentTimeMillis()) {
+                cacheHits.increment();
+                return accept(cached.principal(), token);
+            }
+            verified.remove(cacheKey);
+        }
+        cacheMisses.increment();
+
+        Claims claims;
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            rejected.increment();
+            return Optional.empty();
+        }
+        AuthenticatedUser principal = toPrincipal(claims);
+        if (claims.getExpiration() != null) {
+            verified.put(cacheKey, new VerifiedToken(principal, claims.getExpiration().getTime()));
         }
+        return accept(principal, token);
     }
 
-    public Authentication getAuthentication(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private Optional<Authentication> accept(AuthenticatedUser principal, String token) {
+        if (revocations.isRevoked(principal.getId(), principal.getVersion())) {
+            revoked.increment();
+            return Optional.empty();
+        }
+        return Optional.of(toAuthentication(principal, token));
+    }
 
-        Collection<? extends GrantedAuthority> authorities =
-                Arrays.stream(claims.get("roles").toString().split(","))
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
+    private static AuthenticatedUser toPrincipal(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        Number version = claims.get(VERSION_CLAIM, Number.class);
+        return new AuthenticatedUser(
+                userId != null ? userId.longValue() : null,
+                claims.getSubject(),
+                toRole(claims.get(ROLES_CLAIM, String.class)),
+                version != null ? version.intValue() : 0);
+    }
 
-        User principal = new User(claims.getSubject(), "", authorities);
+    // A fresh token object per request, so nothing mutable is shared between security contexts
+    private static Authentication toAuthentication(AuthenticatedUser principal, String token) {
+        return new UsernamePasswordAuthenticationToken(principal, token, principal.getAuthorities());
+    }
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+    private static Role toRole(String roles) {
+        if (roles == null) {
+            return null;
+        }
+        for (String authority : roles.split(",")) {
+            if (authority.startsWith("ROLE_")) {
+                try {
+                    return Role.valueOf(authority.substring(5));
+                } catch (IllegalArgumentException e) {
+                    // not one of ours, keep looking
+                }
+            }
+        }
+        return null;
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 
-        return claims.getSubject();
+    private record VerifiedToken(AuthenticatedUser principal, long expiresAtMillis) {
     }
-}
\ No newline at end of file
+}
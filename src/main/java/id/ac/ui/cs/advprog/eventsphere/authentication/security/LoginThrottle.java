@@ -0,0 +1,143 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.security;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.exception.TooManyLoginAttemptsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets for login attempts, one per client IP and one per email, checked before any
+ * password hashing happens. Buckets live in striped LRU maps: a stripe is locked only for
+ * the few arithmetic operations of a take, and the number of tracked keys stays bounded
+ * however many addresses or emails an attacker cycles through.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final int STRIPES = 16;
+
+    private final Limiter byIp;
+    private final Limiter byEmail;
+    private final LongSupplier nanoClock;
+
+    private final Counter rejectedByIp;
+    private final Counter rejectedByEmail;
+
+    @Autowired
+    public LoginThrottle(MeterRegistry meterRegistry,
+                         @Value("${auth.login.ip.capacity:20}") int ipCapacity,
+                         @Value("${auth.login.ip.refill-per-minute:20}") int ipRefillPerMinute,
+                         @Value("${auth.login.email.capacity:5}") int emailCapacity,
+                         @Value("${auth.login.email.refill-per-minute:5}") int emailRefillPerMinute,
+                         @Value("${auth.login.tracked-keys:100000}") int trackedKeys) {
+        this(meterRegistry, ipCapacity, ipRefillPerMinute, emailCapacity, emailRefillPerMinute, trackedKeys,
+                System::nanoTime);
+    }
+
+    LoginThrottle(MeterRegistry meterRegistry, int ipCapacity, int ipRefillPerMinute, int emailCapacity,
+                  int emailRefillPerMinute, int trackedKeys, LongSupplier nanoClock) {
+        this.byIp = new Limiter(ipCapacity, ipRefillPerMinute, trackedKeys);
+        this.byEmail = new Limiter(emailCapacity, emailRefillPerMinute, trackedKeys);
+        this.nanoClock = nanoClock;
+        this.rejectedByIp = Counter.builder("auth.login.rejected")
+                .tag("reason", "ip")
+                .description("Login attempts refused before hashing the password")
+                .register(meterRegistry);
+        this.rejectedByEmail = Counter.builder("auth.login.rejected")
+                .tag("reason", "email")
+                .description("Login attempts refused before hashing the password")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes one attempt from the IP's and the email's bucket, or throws
+     * {@link TooManyLoginAttemptsException} when either is empty.
+     */
+    public void acquire(String email, String clientIp) {
+        long now = nanoClock.getAsLong();
+        if (clientIp != null) {
+            long waitNanos = byIp.take(clientIp, now);
+            if (waitNanos > 0) {
+                rejectedByIp.increment();
+                throw new TooManyLoginAttemptsException("Too many login attempts from this address", seconds(waitNanos));
+            }
+        }
+        if (email != null) {
+            long waitNanos = byEmail.take(email.trim().toLowerCase(Locale.ROOT), now);
+            if (waitNanos > 0) {
+                rejectedByEmail.increment();
+                throw new TooManyLoginAttemptsException("Too many login attempts for this account", seconds(waitNanos));
+            }
+        }
+    }
+
+    private static long seconds(long nanos) {
+        return Math.max(1, (nanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    private static final class Limiter {
+
+        private final double capacity;
+        private final double tokensPerNano;
+        private final Stripe[] stripes = new Stripe[STRIPES];
+
+        private Limiter(int capacity, int refillPerMinute, int trackedKeys) {
+            this.capacity = capacity;
+            this.tokensPerNano = refillPerMinute / 60_000_000_000d;
+            int perStripe = Math.max(1, trackedKeys / STRIPES);
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new Stripe(perStripe);
+            }
+        }
+
+        // Returns 0 when a token was taken, otherwise the nanoseconds until one is available
+        private long take(String key, long now) {
+            Stripe stripe = stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+            synchronized (stripe) {
+                Bucket bucket = stripe.buckets.get(key);
+                if (bucket == null) {
+                    bucket = new Bucket(capacity, now);
+                    stripe.buckets.put(key, bucket);
+                } else {
+                    bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.updatedAt) * tokensPerNano);
+                    bucket.updatedAt = now;
+                }
+                if (bucket.tokens >= 1) {
+                    bucket.tokens -= 1;
+                    return 0;
+                }
+                return tokensPerNano > 0 ? (long) ((1 - bucket.tokens) / tokensPerNano) : Long.MAX_VALUE / 2;
+            }
+        }
+    }
+
+    private static final class Stripe {
+        private final Map<String, Bucket> buckets;
+
+        private Stripe(int maxEntries) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long updatedAt;
+
+        private Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
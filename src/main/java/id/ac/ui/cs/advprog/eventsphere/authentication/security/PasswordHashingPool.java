@@ -0,0 +1,84 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.security;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt work on a small dedicated pool instead of the request thread. The pool has as
+ * many threads as cores and a bounded queue, so a burst of logins can only occupy that much
+ * CPU; once the queue is full further attempts are refused at once with a 503 rather than
+ * piling up on the servlet threads the rest of the API needs. A caller waits at most
+ * {@code auth.hashing.timeout-ms}; past that its task is cancelled so a queued hash nobody is
+ * waiting for never spends CPU.
+ */
+@Component
+public class PasswordHashingPool {
+
+    private final Executor executor;
+    private final long timeoutMillis;
+
+    private final Timer hashTimer;
+    private final Counter rejected;
+
+    @Autowired
+    public PasswordHashingPool(@Qualifier("passwordHashExecutor") Executor executor,
+                               MeterRegistry meterRegistry,
+                               @Value("${auth.hashing.timeout-ms:500}") long timeoutMillis) {
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+        this.hashTimer = Timer.builder("auth.password.hash")
+                .description("Time spent hashing or checking passwords")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.login.rejected")
+                .tag("reason", "busy")
+                .description("Login attempts refused before hashing the password")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code task} on the hashing pool and waits for it. Exceptions thrown by the task,
+     * such as bad credentials, reach the caller unchanged.
+     */
+    public <T> T run(Supplier<T> task) {
+        FutureTask<T> future = new FutureTask<>(() -> hashTimer.record(task));
+        try {
+            executor.execute(future);
+        } catch (RejectedExecutionException e) {
+            throw busy();
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw busy();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        }
+    }
+
+    private PasswordHashingBusyException busy() {
+        rejected.increment();
+        return new PasswordHashingBusyException("Server is busy, please retry shortly", 1);
+    }
+}
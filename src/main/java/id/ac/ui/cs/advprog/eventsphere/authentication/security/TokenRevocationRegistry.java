@@ -0,0 +1,187 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.security;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory copy of recent {@code users.token_version} changes. A token is revoked when its
+ * {@code ver} claim is below the current version of its user; logout and credential changes
+ * bump the version. Each refresh reads only the versions that changed since the previous one,
+ * so revocations reach every instance without rescanning users. A version older than the
+ * access token lifetime is dropped, since every token issued before it has expired by then.
+ * A lookup is a probe into primitive arrays: no database access and no allocation per request.
+ */
+@Component
+@Slf4j
+public class TokenRevocationRegistry {
+
+    // Re-read before the previous refresh, for bumps whose transaction committed after it ran
+    static final long REFRESH_OVERLAP_MILLIS = 60_000;
+
+    private final UserRepository userRepository;
+    private final long tokenLifetimeMillis;
+    private final LongSupplier clock;
+    private volatile VersionTable table = VersionTable.EMPTY;
+    // Only touched by refresh(), which the scheduler never runs concurrently; 0 before the first one
+    private long lastRefreshMillis;
+
+    @Autowired
+    public TokenRevocationRegistry(UserRepository userRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${jwt.expiration:900000}") long tokenLifetimeMillis) {
+        this(userRepository, meterRegistry, tokenLifetimeMillis, System::currentTimeMillis);
+    }
+
+    TokenRevocationRegistry(UserRepository userRepository, MeterRegistry meterRegistry, long tokenLifetimeMillis,
+                            LongSupplier clock) {
+        this.userRepository = userRepository;
+        this.tokenLifetimeMillis = tokenLifetimeMillis;
+        this.clock = clock;
+        Gauge.builder("jwt.revocation.users", this, registry -> registry.table.size())
+                .description("Users with recently revoked tokens known to this instance")
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(Long userId, int tokenVersion) {
+        return userId != null && tokenVersion < table.get(userId);
+    }
+
+    /** Rejects this user's tokens older than {@code version} right away on this instance. */
+    public synchronized void revokeBefore(long userId, int version) {
+        if (version > table.get(userId)) {
+            table = table.with(userId, version, clock.getAsLong());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval:30000}")
+    public void refresh() {
+        long now = clock.getAsLong();
+        long horizon = now - tokenLifetimeMillis - REFRESH_OVERLAP_MILLIS;
+        long since = lastRefreshMillis == 0 ? horizon : Math.max(horizon, lastRefreshMillis - REFRESH_OVERLAP_MILLIS);
+        try {
+            List<Object[]> rows = userRepository.findTokenVersionsChangedSince(toDateTime(since));
+            synchronized (this) {
+                // Versions only grow, so keeping the larger value never un-revokes a token
+                table = VersionTable.merge(rows, table, horizon);
+            }
+            lastRefreshMillis = now;
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh token revocations, keeping the previous table: {}", e.getMessage());
+        }
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Open-addressing map from user id to version and the time it changed; ids are positive,
+     * so 0 marks a free slot.
+     */
+    static final class VersionTable {
+
+        static final VersionTable EMPTY = new VersionTable(new long[2], new int[2], new long[2], 0);
+
+        private final long[] ids;
+        private final int[] versions;
+        private final long[] changedAt;
+        private final int mask;
+        private int size;
+
+        private VersionTable(long[] ids, int[] versions, long[] changedAt, int size) {
+            this.ids = ids;
+            this.versions = versions;
+            this.changedAt = changedAt;
+            this.mask = ids.length - 1;
+            this.size = size;
+        }
+
+        int get(long userId) {
+            int slot = slot(userId);
+            while (ids[slot] != 0) {
+                if (ids[slot] == userId) {
+                    return versions[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        VersionTable with(long userId, int version, long changedAtMillis) {
+            VersionTable copy = allocate(size + 1);
+            copy.copyFrom(this, Long.MIN_VALUE);
+            copy.put(userId, version, changedAtMillis);
+            return copy;
+        }
+
+        /** The rows added to the entries of {@code current} that changed at or after {@code horizon}. */
+        static VersionTable merge(List<Object[]> rows, VersionTable current, long horizon) {
+            VersionTable merged = allocate(rows.size() + current.size);
+            for (Object[] row : rows) {
+                merged.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue(),
+                        toEpochMillis((LocalDateTime) row[2]));
+            }
+            merged.copyFrom(current, horizon);
+            return merged;
+        }
+
+        private static VersionTable allocate(int entries) {
+            int capacity = Integer.highestOneBit(Math.max(2, entries * 2) - 1) << 1;
+            return new VersionTable(new long[capacity], new int[capacity], new long[capacity], 0);
+        }
+
+        private void copyFrom(VersionTable other, long horizon) {
+            for (int i = 0; i < other.ids.length; i++) {
+                if (other.ids[i] != 0 && other.changedAt[i] >= horizon) {
+                    put(other.ids[i], other.versions[i], other.changedAt[i]);
+                }
+            }
+        }
+
+        // Only used while building a table that has not been published yet
+        private void put(long userId, int version, long changedAtMillis) {
+            if (userId <= 0) {
+                return;
+            }
+            int slot = slot(userId);
+            while (ids[slot] != 0 && ids[slot] != userId) {
+                slot = (slot + 1) & mask;
+            }
+            if (ids[slot] == 0) {
+                ids[slot] = userId;
+                versions[slot] = version;
+                changedAt[slot] = changedAtMillis;
+                size++;
+            } else {
+                // The later time is kept, so an entry is only dropped once all its tokens expired
+                versions[slot] = Math.max(versions[slot], version);
+                changedAt[slot] = Math.max(changedAt[slot], changedAtMillis);
+            }
+        }
+
+        private int slot(long userId) {
+            long h = userId * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
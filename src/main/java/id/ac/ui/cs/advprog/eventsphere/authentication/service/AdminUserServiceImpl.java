@@ -1,10 +1,14 @@
 package id.ac.ui.cs.advprog.eventsphere.authentication.service;
 
 import id.ac.ui.cs.advprog.eventsphere.authentication.dto.UpdateUserRequest;
+import id.ac.ui.cs.advprog.eventsphere.authentication.dto.UserListFilter;
+import id.ac.ui.cs.advprog.eventsphere.authentication.dto.UserPageDTO;
 import id.ac.ui.cs.advprog.eventsphere.authentication.dto.UserResponseDTO;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.authentication.security.AuthenticatedUser;
+import id.ac.ui.cs.advprog.eventsphere.authentication.util.UserCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -20,16 +24,47 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AdminUserServiceImpl implements AdminUserService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserBalanceService userBalanceService;
+    private final UserDirectory userDirectory;
 
     @Override
     @Transactional(readOnly = true)
-    public List<UserResponseDTO> getAllUsers() {
-        return userRepository.findAll()
-                .stream()
-                .map(this::toResponseDTO)
-                .collect(Collectors.toList());
+    public UserPageDTO getUsers(UserListFilter filter) {
+        int limit = filter.getLimit() != null ? filter.getLimit() : DEFAULT_PAGE_SIZE;
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        UserListFilter.SortField sort = filter.resolveSort();
+        UserCursor after = filter.getCursor() != null && !filter.getCursor().isBlank()
+                ? UserCursor.decode(filter.getCursor(), sort)
+                : null;
+
+        // Fetches one row past the page to learn whether another page exists
+        List<UserResponseDTO> rows = userRepository.findUserPage(
+                filter.resolveRole(),
+                filter.getEmailPrefix(),
+                filter.getCreatedFrom(),
+                filter.getCreatedTo(),
+                sort,
+                filter.isAscending(),
+                after,
+                limit + 1);
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            UserResponseDTO last = rows.get(limit - 1);
+            nextCursor = UserCursor.after(sort, last.getCreatedAt(), last.getEmail(), last.getId()).encode();
+        }
+        return UserPageDTO.builder()
+                .items(rows)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     @Override
@@ -45,6 +80,8 @@ public class AdminUserServiceImpl implements AdminUserService {
     public UserResponseDTO updateUser(Long id, UpdateUserRequest updateRequest) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        String previousEmail = user.getEmail();
+        Role previousRole = user.getRole();
 
         if (updateRequest.getEmail() != null && !updateRequest.getEmail().trim().isEmpty()) {
             if (userRepository.existsByEmail(updateRequest.getEmail()) && 
@@ -62,16 +99,26 @@ public class AdminUserServiceImpl implements AdminUserService {
             user.setRole(updateRequest.getRole());
         }
 
+        Integer balance = null;
         if (updateRequest.getBalance() != null) {
-            user.setBalance(updateRequest.getBalance());
+            balance = userBalanceService.adjustBalance(user, updateRequest.getBalance());
         }
 
         if (updateRequest.getPassword() != null && !updateRequest.getPassword().trim().isEmpty()) {
             user.setPassword(passwordEncoder.encode(updateRequest.getPassword()));
         }
 
+        if (credentialsChanged(user, previousEmail, previousRole, updateRequest)) {
+            user.bumpTokenVersion();
+        }
+
         User savedUser = userRepository.save(user);
-        return toResponseDTO(savedUser);
+        userDirectory.evict(savedUser.getId());
+        UserResponseDTO response = toResponseDTO(savedUser);
+        if (balance != null) {
+            response.setBalance(balance);
+        }
+        return response;
     }
 
     @Override
@@ -88,16 +135,19 @@ public class AdminUserServiceImpl implements AdminUserService {
         }
 
         userRepository.delete(user);
+        userDirectory.evict(user.getId());
     }
 
     @Override
     @Transactional
     public UserResponseDTO updateOwnProfile(UpdateUserRequest updateRequest) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUserEmail = ((UserDetails) auth.getPrincipal()).getUsername();
-        
-        User user = userRepository.findByEmail(currentUserEmail)
+        AuthenticatedUser principal = (AuthenticatedUser) auth.getPrincipal();
+
+        User user = userRepository.findById(principal.getId())
                 .orElseThrow(() -> new RuntimeException("Current user not found"));
+        String previousEmail = user.getEmail();
+        Role previousRole = user.getRole();
 
         if (updateRequest.getEmail() != null && !updateRequest.getEmail().trim().isEmpty()) {
             if (userRepository.existsByEmail(updateRequest.getEmail()) && 
@@ -119,20 +169,31 @@ public class AdminUserServiceImpl implements AdminUserService {
             user.setRole(updateRequest.getRole());
         }
 
+        if (credentialsChanged(user, previousEmail, previousRole, updateRequest)) {
+            user.bumpTokenVersion();
+        }
+
         User savedUser = userRepository.save(user);
+        userDirectory.evict(savedUser.getId());
         return toResponseDTO(savedUser);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<UserResponseDTO> getUsersByRole(Role role) {
-        return userRepository.findAll()
+        return userRepository.findByRole(role)
                 .stream()
-                .filter(user -> user.getRole() == role)
                 .map(this::toResponseDTO)
                 .collect(Collectors.toList());
     }
 
+    // Tokens carry email, role and version, so any of these changing makes older tokens stale
+    private static boolean credentialsChanged(User user, String previousEmail, Role previousRole,
+                                              UpdateUserRequest updateRequest) {
+        boolean passwordChanged = updateRequest.getPassword() != null && !updateRequest.getPassword().trim().isEmpty();
+        return passwordChanged || !user.getEmail().equals(previousEmail) || user.getRole() != previousRole;
+    }
+
     private UserResponseDTO toResponseDTO(User user) {
         return UserResponseDTO.builder()
                 .id(user.getId())
@@ -4,7 +4,9 @@ import id.ac.ui.cs.advprog.eventsphere.authentication.dto.*;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 
 public interface AuthService {
-    JwtResponse login(LoginRequest loginRequest);
+    JwtResponse login(LoginRequest loginRequest, String clientIp);
+    JwtResponse refresh(RefreshTokenRequest refreshTokenRequest);
     User register(RegisterRequest registerRequest);
     User getCurrentUser();
+    void logout();
 }
@@ -3,14 +3,17 @@ package id.ac.ui.cs.advprog.eventsphere.authentication.service;
 import id.ac.ui.cs.advprog.eventsphere.authentication.dto.*;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.authentication.security.AuthenticatedUser;
 import id.ac.ui.cs.advprog.eventsphere.authentication.security.JwtTokenProvider;
+import id.ac.ui.cs.advprog.eventsphere.authentication.security.LoginThrottle;
+import id.ac.ui.cs.advprog.eventsphere.authentication.security.PasswordHashingPool;
+import id.ac.ui.cs.advprog.eventsphere.authentication.security.TokenRevocationRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -23,19 +26,26 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final RefreshTokenService refreshTokenService;
+    private final LoginThrottle loginThrottle;
+    private final PasswordHashingPool passwordHashingPool;
+    private final UserDirectory userDirectory;
 
     @Override
-    public JwtResponse login(LoginRequest loginRequest) {
+    public JwtResponse login(LoginRequest loginRequest, String clientIp) {
         String email = loginRequest.getEmail();
         log.debug("Authenticating user: {}", email);
         
         try {
-            Authentication authentication = authenticationManager.authenticate(
+            // Refused attempts never reach BCrypt
+            loginThrottle.acquire(email, clientIp);
+            Authentication authentication = passwordHashingPool.run(() -> authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             loginRequest.getEmail(),
                             loginRequest.getPassword()
                     )
-            );
+            ));
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
             String jwt = jwtTokenProvider.generateToken(authentication);
@@ -44,11 +54,7 @@ public class AuthServiceImpl implements AuthService {
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             log.debug("Login successful for user: {}", email);
-            return JwtResponse.builder()
-                    .token(jwt)
-                    .email(user.getEmail())
-                    .role(user.getRole())
-                    .build();
+            return tokenResponse(jwt, refreshTokenService.issue(user), user);
                     
         } catch (Exception e) {
             log.warn("Login failed for user: {} - {}", email, e.getMessage());
@@ -56,6 +62,16 @@ public class AuthServiceImpl implements AuthService {
         }
     }
 
+    // Renews the access token from a refresh token; no password hashing on this path
+    @Override
+    public JwtResponse refresh(RefreshTokenRequest refreshTokenRequest) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshTokenRequest.getRefreshToken());
+        User user = rotation.user();
+        String jwt = jwtTokenProvider.generateToken(AuthenticatedUser.of(user));
+        log.debug("Access token refreshed for user: {}", user.getEmail());
+        return tokenResponse(jwt, rotation.refreshToken(), user);
+    }
+
     @Override
     public User register(RegisterRequest registerRequest) {
         String email = registerRequest.getEmail();
@@ -68,11 +84,13 @@ public class AuthServiceImpl implements AuthService {
 
         User user = new User();
         user.setEmail(registerRequest.getEmail());
-        user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
+        user.setPassword(passwordHashingPool.run(() -> passwordEncoder.encode(registerRequest.getPassword())));
         user.setFullName(registerRequest.getFullName());
         user.setRole(registerRequest.getRole());
 
         User savedUser = userRepository.save(user);
+        // A new user may join a role the directory has cached
+        userDirectory.evict(savedUser.getId());
         log.debug("Registration successful for user: {}", email);
         return savedUser;
     }
@@ -80,8 +98,32 @@ public class AuthServiceImpl implements AuthService {
     @Override
     public User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        return userRepository.findByEmail(userDetails.getUsername())
+        AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+        return userRepository.findById(principal.getId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
-}
\ No newline at end of file
+
+    // Bumps the token version, which revokes every token issued to this user so far
+    @Override
+    public void logout() {
+        User user = getCurrentUser();
+        user.bumpTokenVersion();
+        User saved = userRepository.save(user);
+        userDirectory.evict(saved.getId());
+        // Other instances pick this up on their next revocation refresh
+        tokenRevocationRegistry.revokeBefore(saved.getId(), saved.getTokenVersion());
+        refreshTokenService.revokeAll(saved.getId());
+        SecurityContextHolder.clearContext();
+        log.debug("Logged out user: {}", saved.getEmail());
+    }
+
+    private JwtResponse tokenResponse(String jwt, String refreshToken, User user) {
+        return JwtResponse.builder()
+                .token(jwt)
+                .refreshToken(refreshToken)
+                .expiresIn(jwtTokenProvider.getExpirationMillis() / 1000)
+                .email(user.getEmail())
+                .role(user.getRole())
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.service;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.BalanceLedgerJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background upkeep of the balance ledger: folds the unfolded tail of each user into the
+ * {@code users.balance} snapshot, and audits snapshots against the ledger. Each user is
+ * folded in a transaction of its own, so the row lock is held only briefly.
+ */
+@Component
+@Slf4j
+public class BalanceLedgerMaintenance {
+
+    private final BalanceLedgerJdbcRepository ledgerRepository;
+    private final TransactionTemplate writeTemplate;
+    private final int foldBatchSize;
+    private final int usersPerRun;
+    private final boolean repairDrift;
+
+    private final Counter folded;
+    private final AtomicInteger drift = new AtomicInteger();
+
+    @Autowired
+    public BalanceLedgerMaintenance(BalanceLedgerJdbcRepository ledgerRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${balance.ledger.fold-batch-size:1000}") int foldBatchSize,
+                                    @Value("${balance.ledger.fold-users-per-run:500}") int usersPerRun,
+                                    @Value("${balance.ledger.audit-repair:false}") boolean repairDrift) {
+        this.ledgerRepository = ledgerRepository;
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.writeTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.foldBatchSize = foldBatchSize;
+        this.usersPerRun = usersPerRun;
+        this.repairDrift = repairDrift;
+
+        this.folded = Counter.builder("balance.ledger.folded")
+                .description("Ledger entries folded into balance snapshots")
+                .register(meterRegistry);
+        Gauge.builder("balance.ledger.drift", drift, AtomicInteger::get)
+                .description("Users whose snapshot disagreed with the ledger at the last audit")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOpeningBalances() {
+        Integer seeded = writeTemplate.execute(status -> ledgerRepository.seedOpeningBalances(LocalDateTime.now()));
+        if (seeded != null && seeded > 0) {
+            log.info("Seeded {} opening balance ledger entries", seeded);
+        }
+    }
+
+    /** Folds the tails of up to {@code fold-users-per-run} users. Returns the entries folded. */
+    @Scheduled(fixedDelayString = "${balance.ledger.fold-interval:60000}")
+    public int foldAll() {
+        int total = 0;
+        for (Long userId : ledgerRepository.findUsersWithUnfoldedEntries(usersPerRun)) {
+            try {
+                total += fold(userId);
+            } catch (RuntimeException e) {
+                log.error("Failed to fold balance ledger for user {}: {}", userId, e.getMessage());
+            }
+        }
+        return total;
+    }
+
+    public int fold(Long userId) {
+        Integer count = writeTemplate.execute(status ->
+                ledgerRepository.fold(userId, foldBatchSize, LocalDateTime.now()));
+        int entries = count != null ? count : 0;
+        folded.increment(entries);
+        return entries;
+    }
+
+    /** Recomputes one user's snapshot from the full ledger. Returns the rebuilt balance. */
+    public int rebuild(Long userId) {
+        Integer balance = writeTemplate.execute(status -> ledgerRepository.rebuild(userId, LocalDateTime.now()));
+        log.info("Rebuilt balance of user {} from the ledger: {}", userId, balance);
+        return balance != null ? balance : 0;
+    }
+
+    /** Lists users whose snapshot disagrees with their folded entries, rebuilding them if configured to. */
+    @Scheduled(cron = "${balance.ledger.audit-cron:0 30 3 * * *}")
+    public List<Long> audit() {
+        List<Long> drifted = ledgerRepository.findDrift(usersPerRun);
+        drift.set(drifted.size());
+        if (!drifted.isEmpty()) {
+            log.warn("Balance snapshot drift for {} users: {}", drifted.size(), drifted);
+            if (repairDrift) {
+                drifted.forEach(this::rebuild);
+            }
+        }
+        return drifted;
+    }
+}
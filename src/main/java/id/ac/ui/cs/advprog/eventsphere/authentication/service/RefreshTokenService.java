@@ -0,0 +1,150 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.service;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.RefreshToken;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.RefreshTokenRepository;
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Opaque, single-use refresh tokens. A refresh is a hash lookup and two small writes, so
+ * clients renew their short-lived access tokens without another password check. Tokens are
+ * random, stored as SHA-256 only, and rotated on every use; a token presented twice revokes
+ * its whole family, and bumping the user's token version (logout) retires all of them.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final String INVALID = "Refresh token is invalid or expired";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final long ttlMinutes;
+    private final SecureRandom random = new SecureRandom();
+
+    private final Counter rotations;
+    private final Counter reuseDetected;
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${jwt.refresh.ttl-minutes:20160}") long ttlMinutes) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.ttlMinutes = ttlMinutes;
+        this.rotations = Counter.builder("jwt.refresh.rotations")
+                .description("Access tokens renewed with a refresh token")
+                .register(meterRegistry);
+        this.reuseDetected = Counter.builder("jwt.refresh.reuse")
+                .description("Already used refresh tokens presented again; their family is revoked")
+                .register(meterRegistry);
+    }
+
+    /** Starts a new token family for {@code user}, typically at login. */
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Consumes {@code rawToken} and returns its user together with the next token of the
+     * family. Throws {@link CredentialsExpiredException} when the token is unknown, expired,
+     * already used or issued before the user's last logout.
+     */
+    public Rotation rotate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            throw new CredentialsExpiredException(INVALID);
+        }
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new CredentialsExpiredException(INVALID));
+
+        LocalDateTime now = LocalDateTime.now();
+        if (token.getUsedAt() != null) {
+            revokeFamily(token);
+            throw new CredentialsExpiredException(INVALID);
+        }
+        if (!token.getExpiresAt().isAfter(now)) {
+            throw new CredentialsExpiredException(INVALID);
+        }
+
+        User user = userRepository.findById(token.getUserId()).orElse(null);
+        if (user == null || user.getTokenVersion() != token.getTokenVersion()) {
+            refreshTokenRepository.deleteFamily(token.getFamilyId());
+            throw new CredentialsExpiredException(INVALID);
+        }
+        // Losing this race means another request rotated the same token first
+        if (refreshTokenRepository.markUsed(token.getId(), now) == 0) {
+            revokeFamily(token);
+            throw new CredentialsExpiredException(INVALID);
+        }
+
+        rotations.increment();
+        return new Rotation(user, issue(user, token.getFamilyId()));
+    }
+
+    /** Drops every refresh token of the user, e.g. on logout. */
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh.cleanup-interval:3600000}")
+    public void purgeExpired() {
+        int removed = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (removed > 0) {
+            log.info("Purged {} expired refresh tokens", removed);
+        }
+    }
+
+    private String issue(User user, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .userId(user.getId())
+                .familyId(familyId)
+                .tokenVersion(user.getTokenVersion())
+                .createdAt(now)
+                .expiresAt(now.plusMinutes(ttlMinutes))
+                .build());
+        return rawToken;
+    }
+
+    private void revokeFamily(RefreshToken token) {
+        reuseDetected.increment();
+        int removed = refreshTokenRepository.deleteFamily(token.getFamilyId());
+        log.warn("Refresh token reused for user {}, revoked {} tokens of its family", token.getUserId(), removed);
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public record Rotation(User user, String refreshToken) {
+    }
+}
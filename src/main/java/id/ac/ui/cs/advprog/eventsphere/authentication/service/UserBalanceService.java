@@ -1,38 +1,65 @@
 package id.ac.ui.cs.advprog.eventsphere.authentication.service;
 
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.BalanceLedgerEntry.EntryType;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
-import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.BalanceLedgerJdbcRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Balance changes as ledger appends. Every movement is keyed by the id of the transaction
+ * that caused it, so retrying the same transaction never moves money twice.
+ */
 @Service
 public class UserBalanceService {
     
-    private final UserRepository userRepository;
+    private final BalanceLedgerJdbcRepository ledgerRepository;
     
     @Autowired
-    public UserBalanceService(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public UserBalanceService(BalanceLedgerJdbcRepository ledgerRepository) {
+        this.ledgerRepository = ledgerRepository;
     }
     
     @Transactional
-    public void topUp(User user, int amount) {
-        user.topUp(amount);
-        userRepository.save(user);
+    public void topUp(User user, int amount, String transactionId) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Top-up amount must be positive");
+        }
+        if (!ledgerRepository.append(user.getId(), transactionId, amount, EntryType.TOP_UP, LocalDateTime.now())) {
+            throw new IllegalStateException("Balance already credited for transaction " + transactionId);
+        }
     }
     
     @Transactional
-    public boolean deductBalance(User user, int amount) {
-        boolean success = user.deductBalance(amount);
-        if (success) {
-            userRepository.save(user);
+    public boolean deductBalance(User user, int amount, String transactionId) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Deduction amount must be positive");
+        }
+        if (ledgerRepository.lockBalance(user.getId()).isEmpty()) {
+            return false;
+        }
+        return ledgerRepository.appendDebit(user.getId(), transactionId, amount, EntryType.TICKET_PURCHASE,
+                LocalDateTime.now());
+    }
+
+    /** Moves the balance to {@code target} with a single adjustment entry. Returns the new balance. */
+    @Transactional
+    public int adjustBalance(User user, int target) {
+        int current = ledgerRepository.lockBalance(user.getId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (target != current) {
+            ledgerRepository.append(user.getId(), "adjustment:" + UUID.randomUUID(), target - current,
+                    EntryType.ADJUSTMENT, LocalDateTime.now());
         }
-        return success;
+        return target;
     }
     
     @Transactional(readOnly = true)
     public int getBalance(User user) {
-        return user.getBalance();
+        return ledgerRepository.balanceOf(user.getId());
     }
-}
\ No newline at end of file
+}
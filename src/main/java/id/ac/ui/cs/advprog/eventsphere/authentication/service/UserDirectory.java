@@ -0,0 +1,180 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.service;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.RoleMember;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.UserSnapshot;
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of {@link UserSnapshot}s by id and by email, bounded in size and
+ * expiring after {@code user.directory.ttl-seconds}. Writers call {@link #evict(Long)};
+ * inside a transaction the entry is dropped again once it completes, and a lookup that
+ * raced with an eviction does not store what it read, so a committed change is never
+ * shadowed by the row it replaced. Other instances see the change once their entry expires.
+ * The members of each role are kept the same way; any user write drops them, since a role,
+ * email or deletion change can move a user in or out of a role.
+ */
+@Service
+public class UserDirectory {
+
+    private final UserRepository userRepository;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    private final Map<Long, Cached> byId;
+    private final Map<String, Cached> byEmail;
+    private final Map<Role, CachedMembers> byRole = new EnumMap<>(Role.class);
+    // Bumped by every eviction; guarded by this
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    @Autowired
+    public UserDirectory(UserRepository userRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${user.directory.max-size:10000}") int maxSize,
+                         @Value("${user.directory.ttl-seconds:60}") long ttlSeconds) {
+        this(userRepository, meterRegistry, maxSize, ttlSeconds, System::nanoTime);
+    }
+
+    UserDirectory(UserRepository userRepository, MeterRegistry meterRegistry, int maxSize, long ttlSeconds,
+                  LongSupplier nanoClock) {
+        this.userRepository = userRepository;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.nanoClock = nanoClock;
+        this.byId = lru(maxSize);
+        this.byEmail = lru(maxSize);
+
+        Gauge.builder("user.directory.size", this, UserDirectory::size)
+                .description("Users held in the directory cache")
+                .register(meterRegistry);
+        this.hits = Counter.builder("user.directory.hits").register(meterRegistry);
+        this.misses = Counter.builder("user.directory.misses").register(meterRegistry);
+    }
+
+    public Optional<UserSnapshot> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return lookup(byId, id, () -> userRepository.findById(id));
+    }
+
+    public Optional<UserSnapshot> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        return lookup(byEmail, email, () -> userRepository.findByEmail(email));
+    }
+
+    /** Id and email of every user with {@code role}, ordered by id. */
+    public List<RoleMember> membersOf(Role role) {
+        long observedGeneration;
+        synchronized (this) {
+            CachedMembers cached = byRole.get(role);
+            if (cached != null && cached.expiresAt - nanoClock.getAsLong() > 0) {
+                hits.increment();
+                return cached.members;
+            }
+            observedGeneration = generation;
+        }
+        misses.increment();
+
+        List<RoleMember> members = userRepository.findIdAndEmailByRole(role).stream()
+                .map(row -> new RoleMember(((Number) row[0]).longValue(), (String) row[1]))
+                .toList();
+        synchronized (this) {
+            if (generation == observedGeneration) {
+                byRole.put(role, new CachedMembers(members, nanoClock.getAsLong() + ttlNanos));
+            }
+        }
+        return members;
+    }
+
+    /** Forgets the user now and, when called inside a transaction, again once it completes. */
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(userId);
+                }
+            });
+        }
+    }
+
+    private <K> Optional<UserSnapshot> lookup(Map<K, Cached> map, K key, Supplier<Optional<User>> loader) {
+        long observedGeneration;
+        synchronized (this) {
+            Cached cached = map.get(key);
+            if (cached != null && cached.expiresAt - nanoClock.getAsLong() > 0) {
+                hits.increment();
+                return Optional.of(cached.user);
+            }
+            observedGeneration = generation;
+        }
+        misses.increment();
+
+        Optional<UserSnapshot> loaded = loader.get().map(UserSnapshot::of);
+        loaded.ifPresent(user -> store(user, observedGeneration));
+        return loaded;
+    }
+
+    private synchronized void store(UserSnapshot user, long observedGeneration) {
+        if (generation != observedGeneration) {
+            return;
+        }
+        Cached cached = new Cached(user, nanoClock.getAsLong() + ttlNanos);
+        byId.put(user.id(), cached);
+        byEmail.put(user.email(), cached);
+    }
+
+    private synchronized void remove(Long userId) {
+        generation++;
+        byId.remove(userId);
+        // An email change leaves the old address behind, so match on the id
+        byEmail.values().removeIf(cached -> userId.equals(cached.user.id()));
+        byRole.clear();
+    }
+
+    private synchronized int size() {
+        return byId.size();
+    }
+
+    private static <K> Map<K, Cached> lru(int maxSize) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Cached> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    private record Cached(UserSnapshot user, long expiresAt) {
+    }
+
+    private record CachedMembers(List<RoleMember> members, long expiresAt) {
+    }
+}
@@ -0,0 +1,46 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.util;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.dto.UserListFilter.SortField;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the admin user listing: the sort key and id of the last row of a page.
+ * Clients receive it as an opaque URL-safe token; it is only valid for the sort it came from.
+ */
+public record UserCursor(SortField sort, String value, Long id) {
+
+    public static UserCursor after(SortField sort, LocalDateTime createdAt, String email, Long id) {
+        return new UserCursor(sort, sort == SortField.EMAIL ? email : String.valueOf(createdAt), id);
+    }
+
+    public LocalDateTime createdAt() {
+        return LocalDateTime.parse(value);
+    }
+
+    public String encode() {
+        // The value goes last because an email may contain the separator
+        String raw = sort + "|" + id + "|" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static UserCursor decode(String token, SortField expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length != 3 || parts[2].isEmpty() || SortField.valueOf(parts[0]) != expectedSort) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            UserCursor cursor = new UserCursor(expectedSort, parts[2], Long.parseLong(parts[1]));
+            if (expectedSort == SortField.CREATED_AT) {
+                cursor.createdAt();
+            }
+            return cursor;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
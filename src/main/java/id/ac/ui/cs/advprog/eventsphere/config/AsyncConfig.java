@@ -1,11 +1,14 @@
 package id.ac.ui.cs.advprog.eventsphere.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
 @EnableAsync
@@ -21,4 +24,36 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+
+    // Drains the flash-sale purchase queues; one lane is drained by at most one thread at a time
+    @Bean(name = "purchaseQueueExecutor")
+    public Executor purchaseQueueExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("EventSphere-PurchaseQueue-");
+        executor.initialize();
+        return executor;
+    }
+
+    // BCrypt only; no caller-runs fallback, a full queue means the login is refused
+    @Bean(name = "passwordHashExecutor")
+    public Executor passwordHashExecutor(@Value("${auth.hashing.threads:0}") int threads,
+                                         @Value("${auth.hashing.queue-capacity:32}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("EventSphere-PasswordHash-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Event detail fan-out; a virtual thread per part, so a part waiting on the database only parks itself
+    @Bean(name = "eventDetailExecutor", destroyMethod = "close")
+    public ExecutorService eventDetailExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("EventSphere-EventDetail-", 0).factory());
+    }
+}
@@ -1,14 +1,26 @@
 package id.ac.ui.cs.advprog.eventsphere.event.controller;
 
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventBrowseFilter;
 import id.ac.ui.cs.advprog.eventsphere.event.dto.EventCreateDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventDetailDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventPageDTO;
 import id.ac.ui.cs.advprog.eventsphere.event.dto.EventResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventSearchResultDTO;
 import id.ac.ui.cs.advprog.eventsphere.event.dto.EventUpdateDTO;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.event.service.EventCatalog;
+import id.ac.ui.cs.advprog.eventsphere.event.service.EventDetailService;
 import id.ac.ui.cs.advprog.eventsphere.event.service.EventService;
+import id.ac.ui.cs.advprog.eventsphere.event.exception.EventNotFoundException;
+import id.ac.ui.cs.advprog.eventsphere.event.util.EventEtags;
 import id.ac.ui.cs.advprog.eventsphere.event.exception.UnauthorizedAccessException;
+import id.ac.ui.cs.advprog.eventsphere.ticket.dto.TicketResponse;
+import id.ac.ui.cs.advprog.eventsphere.ticket.service.TicketService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -27,8 +39,14 @@ import java.util.Optional;
 @RequestMapping("/api/events")
 @RequiredArgsConstructor
 public class EventController {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
     
     private final EventService eventService;
+    private final EventCatalog eventCatalog;
+    private final EventDetailService eventDetailService;
+    private final TicketService ticketService;
     private final UserRepository userRepository;
     
     @PostMapping
@@ -46,13 +64,55 @@ public class EventController {
     }
     
     @GetMapping
-    public ResponseEntity<List<EventResponseDTO>> getAllEvents() {
-        return ResponseEntity.ok(eventService.getAllActiveEvents());
+    public ResponseEntity<List<EventResponseDTO>> getAllEvents(
+            @ModelAttribute EventBrowseFilter filter,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        EventPageDTO page = eventService.browseEvents(filter);
+        HttpHeaders headers = new HttpHeaders();
+        if (page.getNextCursor() != null) {
+            headers.set(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return conditional(page.getEtag(), ifNoneMatch, page.getItems(), headers);
+    }
+    
+    @GetMapping("/search")
+    public ResponseEntity<List<EventResponseDTO>> searchEvents(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer limit) {
+        EventSearchResultDTO result = eventService.searchEvents(query, offset, limit);
+        return ResponseEntity.ok()
+            .header(TOTAL_COUNT_HEADER, String.valueOf(result.getTotal()))
+            .body(result.getItems());
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<EventResponseDTO> getActiveEventById(@PathVariable Long id) {
-        return ResponseEntity.ok(eventService.getActiveEventById(id));
+    public ResponseEntity<EventResponseDTO> getActiveEventById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        EventCatalog.Entry entry = eventCatalog.find(id)
+            .orElseThrow(() -> new EventNotFoundException("Active event not found with id: " + id));
+        return conditional(entry.etag(), ifNoneMatch, entry.event(), new HttpHeaders());
+    }
+
+    @GetMapping("/{id}/tickets")
+    public ResponseEntity<List<TicketResponse>> getEventTickets(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean available) {
+        eventCatalog.find(id)
+            .orElseThrow(() -> new EventNotFoundException("Active event not found with id: " + id));
+        return ResponseEntity.ok(ticketService.getTickets(id, available));
+    }
+
+    // Event, tickets, rating and first review page in one round trip; parts that were too slow are listed in missingParts
+    @GetMapping("/{id}/detail")
+    public ResponseEntity<EventDetailDTO> getEventDetail(@PathVariable Long id) {
+        EventDetailDTO detail = eventDetailService.getEventDetail(id);
+        if (!detail.getMissingParts().isEmpty()) {
+            // A degraded page should not be reused by caches in front of us
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(detail);
+        }
+        return ResponseEntity.ok(detail);
     }
     
     @GetMapping("/my-events")
@@ -120,4 +180,14 @@ public class EventController {
             )
         );
     }
-}
\ No newline at end of file
+
+    // Clients revalidate every time; unchanged data costs a 304 and no body
+    private static <T> ResponseEntity<T> conditional(String etag, String ifNoneMatch, T body, HttpHeaders headers) {
+        boolean notModified = EventEtags.matches(ifNoneMatch, etag);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+            .headers(headers)
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache());
+        return notModified ? response.build() : response.body(body);
+    }
+}
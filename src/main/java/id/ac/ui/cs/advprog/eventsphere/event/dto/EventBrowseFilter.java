@@ -0,0 +1,65 @@
+package id.ac.ui.cs.advprog.eventsphere.event.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+// Query parameters of the public event listing; every field is optional
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventBrowseFilter {
+
+    public enum Window {
+        UPCOMING,
+        PAST,
+        ALL
+    }
+
+    private String window; // upcoming (default), past or all
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from; // inclusive, on eventDate
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to; // exclusive, on eventDate
+
+    private Boolean includeCancelled; // false by default
+    private String direction; // asc, except desc by default for past events
+
+    private String cursor; // nextCursor of the previous page
+    private Integer limit;
+
+    public Window resolveWindow() {
+        if (window == null || window.isBlank()) {
+            return Window.UPCOMING;
+        }
+        try {
+            return Window.valueOf(window.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid window: " + window);
+        }
+    }
+
+    public boolean isAscending() {
+        if (direction == null || direction.isBlank()) {
+            return resolveWindow() != Window.PAST;
+        }
+        if (direction.trim().equalsIgnoreCase("asc")) {
+            return true;
+        }
+        if (direction.trim().equalsIgnoreCase("desc")) {
+            return false;
+        }
+        throw new IllegalArgumentException("Invalid direction: " + direction);
+    }
+
+    public boolean isCancelledIncluded() {
+        return Boolean.TRUE.equals(includeCancelled);
+    }
+}
@@ -0,0 +1,23 @@
+package id.ac.ui.cs.advprog.eventsphere.event.dto;
+
+import id.ac.ui.cs.advprog.eventsphere.review.model.Review;
+import id.ac.ui.cs.advprog.eventsphere.ticket.dto.TicketResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventDetailDTO {
+    private EventResponseDTO event;
+    private List<TicketResponse> tickets;
+    private Double averageRating; // 0.0 when the event has no reviews yet
+    private Long reviewCount;
+    private List<Review> reviews; // first page, newest first
+    private List<String> missingParts; // parts that failed or timed out; their fields are null
+}
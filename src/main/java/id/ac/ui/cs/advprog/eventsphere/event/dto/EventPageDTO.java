@@ -0,0 +1,18 @@
+package id.ac.ui.cs.advprog.eventsphere.event.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventPageDTO {
+    private List<EventResponseDTO> items;
+    private String nextCursor; // null on the last page
+    private String etag; // of the items and nextCursor, as EventEtags.ofPage computes it
+}
@@ -1,11 +1,15 @@
 package id.ac.ui.cs.advprog.eventsphere.event.dto;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class EventResponseDTO {
     private Long id;
     private String title;
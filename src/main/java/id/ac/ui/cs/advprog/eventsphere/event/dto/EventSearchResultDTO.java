@@ -0,0 +1,17 @@
+package id.ac.ui.cs.advprog.eventsphere.event.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventSearchResultDTO {
+    private List<EventResponseDTO> items; // best match first
+    private int total; // matches across all pages
+}
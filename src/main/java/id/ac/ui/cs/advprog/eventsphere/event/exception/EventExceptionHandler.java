@@ -107,6 +107,18 @@ public class EventExceptionHandler {
         );
     }
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidParameter(
+            IllegalArgumentException ex,
+            WebRequest request) {
+        return buildErrorResponse(
+            ex,
+            HttpStatus.BAD_REQUEST,
+            "INVALID_PARAMETER",
+            request
+        );
+    }
+
     @ExceptionHandler(EventConflictException.class)
     public ResponseEntity<ErrorResponse> handleConflictException(
             EventConflictException ex, 
@@ -10,7 +10,9 @@ import java.time.LocalDateTime;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "events")
+@Table(name = "events", indexes = {
+        @Index(name = "idx_events_browse", columnList = "is_active, is_cancelled, event_date, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,22 @@
+package id.ac.ui.cs.advprog.eventsphere.event.repository;
+
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.util.EventCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EventBrowsingRepository {
+
+    /**
+     * Keyset page of active events ordered by event date then id, limited to
+     * {@code [from, to)} when those bounds are set. Rows are projected straight into
+     * {@link EventResponseDTO} with the organizer joined in.
+     */
+    List<EventResponseDTO> findEventPage(LocalDateTime from,
+                                         LocalDateTime to,
+                                         boolean includeCancelled,
+                                         boolean ascending,
+                                         EventCursor after,
+                                         int limit);
+}
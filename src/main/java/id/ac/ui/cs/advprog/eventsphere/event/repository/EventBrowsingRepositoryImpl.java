@@ -0,0 +1,59 @@
+package id.ac.ui.cs.advprog.eventsphere.event.repository;
+
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.util.EventCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Walks idx_events_browse (is_active, is_cancelled, event_date, id), so each page reads only its own rows
+public class EventBrowsingRepositoryImpl implements EventBrowsingRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EventResponseDTO> findEventPage(LocalDateTime from,
+                                                LocalDateTime to,
+                                                boolean includeCancelled,
+                                                boolean ascending,
+                                                EventCursor after,
+                                                int limit) {
+        StringBuilder jpql = new StringBuilder(EventRepository.EVENT_DTO_SELECT).append("WHERE e.isActive = true");
+        Map<String, Object> params = new HashMap<>();
+
+        if (!includeCancelled) {
+            jpql.append(" AND e.isCancelled = false");
+        }
+        if (from != null) {
+            jpql.append(" AND e.eventDate >= :from");
+            params.put("from", from);
+        }
+        if (to != null) {
+            jpql.append(" AND e.eventDate < :to");
+            params.put("to", to);
+        }
+
+        String direction = ascending ? "ASC" : "DESC";
+        if (after != null) {
+            String comparison = ascending ? ">" : "<";
+            jpql.append(" AND (e.eventDate ").append(comparison).append(" :afterDate OR (e.eventDate = :afterDate AND e.id ")
+                    .append(comparison).append(" :afterId))");
+            params.put("afterDate", after.eventDate());
+            params.put("afterId", after.id());
+        }
+        jpql.append(" ORDER BY e.eventDate ").append(direction).append(", e.id ").append(direction);
+
+        TypedQuery<EventResponseDTO> query = entityManager.createQuery(jpql.toString(), EventResponseDTO.class);
+        params.forEach(query::setParameter);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+}
@@ -1,20 +1,48 @@
 package id.ac.ui.cs.advprog.eventsphere.event.repository;
  
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventResponseDTO;
 import id.ac.ui.cs.advprog.eventsphere.event.model.Event;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface EventRepository extends JpaRepository<Event, Long> {
+public interface EventRepository extends JpaRepository<Event, Long>, EventBrowsingRepository {
+
+    // Response rows with the organizer joined in: one statement per list, no entities loaded
+    String EVENT_DTO_SELECT = "SELECT new id.ac.ui.cs.advprog.eventsphere.event.dto.EventResponseDTO("
+            + "e.id, e.title, e.description, e.eventDate, e.location, e.price, "
+            + "o.id, o.fullName, o.role, e.createdAt, e.updatedAt, e.isActive, e.isCancelled, e.cancellationTime) "
+            + "FROM Event e JOIN e.organizer o ";
+
     List<Event> findByOrganizer(User organizer);
     List<Event> findByIsActiveTrue();
+
+    @Query(EVENT_DTO_SELECT + "WHERE e.isActive = true ORDER BY e.id")
+    List<EventResponseDTO> findActiveEventDTOs();
+
+    @Query(EVENT_DTO_SELECT + "WHERE o.id = :organizerId AND e.isActive = true ORDER BY e.id")
+    List<EventResponseDTO> findActiveEventDTOsByOrganizerId(@Param("organizerId") Long organizerId);
+
     List<Event> findByEventDateAfter(LocalDateTime date);
+    // Scalar rows read in batches through a cursor; must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT e.id, e.title, e.description, e.location FROM Event e " +
+           "WHERE e.isActive = true AND e.isCancelled = false ORDER BY e.id")
+    Stream<Object[]> streamSearchableEvents();
+
     List<Event> findByOrganizerAndIsActiveTrue(User organizer);
     Optional<Event> findByIdAndIsActiveTrue(Long id);
     List<Event> findByOrganizerAndEventDateAfter(User organizer, LocalDateTime date);
+    boolean existsByIdAndOrganizerEmail(Long id, String email);
 }
\ No newline at end of file
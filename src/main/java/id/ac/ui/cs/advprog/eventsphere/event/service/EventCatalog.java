@@ -0,0 +1,175 @@
+package id.ac.ui.cs.advprog.eventsphere.event.service;
+
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.repository.EventRepository;
+import id.ac.ui.cs.advprog.eventsphere.event.util.EventEtags;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory copy of the active events as response DTOs, projected with their organizers
+ * in one query. Every event write calls {@link #invalidate()}, which bumps the catalog
+ * generation now and again once the surrounding transaction completes; the next read
+ * rebuilds the snapshot, and a rebuild that raced with a write is served but not kept.
+ * Other instances pick up changes after {@code event.catalog.ttl-seconds}.
+ * <p>
+ * Snapshots are shared between requests: the lists and maps are unmodifiable and the
+ * DTOs in them must be treated as read-only. Each event carries an ETag derived from its
+ * content, so it is the same on every instance. The snapshot also keeps the events that are
+ * not cancelled in date order, which is all the default public listing needs.
+ */
+@Service
+public class EventCatalog {
+
+    private final EventRepository eventRepository;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    private final Object loadLock = new Object();
+    private volatile long generation;
+    private volatile Loaded loaded;
+
+    private final Counter hits;
+    private final Counter rebuilds;
+
+    @Autowired
+    public EventCatalog(EventRepository eventRepository,
+                        MeterRegistry meterRegistry,
+                        @Value("${event.catalog.ttl-seconds:30}") long ttlSeconds) {
+        this(eventRepository, meterRegistry, ttlSeconds, System::nanoTime);
+    }
+
+    EventCatalog(EventRepository eventRepository, MeterRegistry meterRegistry, long ttlSeconds,
+                 LongSupplier nanoClock) {
+        this.eventRepository = eventRepository;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.nanoClock = nanoClock;
+
+        Gauge.builder("event.catalog.size", this, catalog -> {
+                    Loaded current = catalog.loaded;
+                    return current != null ? current.snapshot.events().size() : 0;
+                })
+                .description("Active events held in the catalog snapshot")
+                .register(meterRegistry);
+        this.hits = Counter.builder("event.catalog.hits").register(meterRegistry);
+        this.rebuilds = Counter.builder("event.catalog.rebuilds")
+                .description("Catalog snapshots loaded from the database")
+                .register(meterRegistry);
+    }
+
+    /** The current snapshot, rebuilt first when an event changed or it expired. */
+    public Snapshot snapshot() {
+        Loaded current = loaded;
+        if (isFresh(current)) {
+            hits.increment();
+            return current.snapshot;
+        }
+        // One rebuild at a time; callers that waited find the fresh snapshot
+        synchronized (loadLock) {
+            current = loaded;
+            if (isFresh(current)) {
+                hits.increment();
+                return current.snapshot;
+            }
+            long observedGeneration = generation;
+            rebuilds.increment();
+            Snapshot snapshot = build(eventRepository.findActiveEventDTOs());
+            if (generation == observedGeneration) {
+                loaded = new Loaded(snapshot, observedGeneration, nanoClock.getAsLong() + ttlNanos);
+            }
+            return snapshot;
+        }
+    }
+
+    public Optional<Entry> find(Long id) {
+        return snapshot().find(id);
+    }
+
+    /** Drops the snapshot now and, when called inside a transaction, again once it completes. */
+    public void invalidate() {
+        bump();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    bump();
+                }
+            });
+        }
+    }
+
+    private synchronized void bump() {
+        generation++;
+        loaded = null;
+    }
+
+    private boolean isFresh(Loaded current) {
+        return current != null
+                && current.generation == generation
+                && current.expiresAt - nanoClock.getAsLong() > 0;
+    }
+
+    private static Snapshot build(List<EventResponseDTO> events) {
+        Map<Long, Entry> byId = new LinkedHashMap<>();
+        List<Entry> schedule = new ArrayList<>();
+        for (EventResponseDTO dto : events) {
+            Entry entry = new Entry(dto, EventEtags.of(dto));
+            byId.put(dto.getId(), entry);
+            if (!dto.isCancelled() && dto.getEventDate() != null) {
+                schedule.add(entry);
+            }
+        }
+        schedule.sort(SCHEDULE_ORDER);
+        return new Snapshot(List.copyOf(events), Map.copyOf(byId), List.copyOf(schedule));
+    }
+
+    // Same order as the upcoming listing in EventBrowsingRepositoryImpl
+    private static final Comparator<Entry> SCHEDULE_ORDER = Comparator
+            .comparing((Entry entry) -> entry.event().getEventDate())
+            .thenComparing(entry -> entry.event().getId());
+
+    /** Active events in id order, with their ETags, and the ones not cancelled by date then id. */
+    public record Snapshot(List<EventResponseDTO> events, Map<Long, Entry> byId, List<Entry> schedule) {
+
+        public Optional<Entry> find(Long id) {
+            return Optional.ofNullable(id != null ? byId.get(id) : null);
+        }
+
+        /** Up to {@code count} events that are not cancelled and start at or after {@code from}. */
+        public List<Entry> upcoming(LocalDateTime from, int count) {
+            int low = 0;
+            int high = schedule.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (schedule.get(mid).event().getEventDate().isBefore(from)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return schedule.subList(low, Math.min(schedule.size(), low + count));
+        }
+    }
+
+    public record Entry(EventResponseDTO event, String etag) {
+    }
+
+    private record Loaded(Snapshot snapshot, long generation, long expiresAt) {
+    }
+}
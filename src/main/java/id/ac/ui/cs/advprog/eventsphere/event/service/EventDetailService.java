@@ -0,0 +1,176 @@
+package id.ac.ui.cs.advprog.eventsphere.event.service;
+
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventDetailDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.review.model.Review;
+import id.ac.ui.cs.advprog.eventsphere.review.service.ReviewService;
+import id.ac.ui.cs.advprog.eventsphere.ticket.dto.TicketResponse;
+import id.ac.ui.cs.advprog.eventsphere.ticket.service.TicketService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Everything the event page shows, in one call: the event, its tickets, the rating and the
+ * first page of reviews are loaded at the same time, each on its own virtual thread. The
+ * event is required and its errors propagate as they would from {@code GET /api/events/{id}}.
+ * The other parts get {@code event.detail.part-timeout-ms} from the start of the request;
+ * a part that fails or is still running then is cancelled and named in
+ * {@link EventDetailDTO#getMissingParts()}, and the rest of the page is returned without it.
+ */
+@Service
+@Slf4j
+public class EventDetailService {
+
+    static final String TICKETS = "tickets";
+    static final String RATING = "rating";
+    static final String REVIEWS = "reviews";
+    static final int REVIEW_PAGE_SIZE = 10;
+
+    private final EventService eventService;
+    private final TicketService ticketService;
+    private final ReviewService reviewService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService executor;
+    private final long partTimeoutNanos;
+
+    private final Timer duration;
+    private final Map<String, Counter> missing;
+
+    @Autowired
+    public EventDetailService(EventService eventService,
+                              TicketService ticketService,
+                              ReviewService reviewService,
+                              PlatformTransactionManager transactionManager,
+                              @Qualifier("eventDetailExecutor") ExecutorService executor,
+                              MeterRegistry meterRegistry,
+                              @Value("${event.detail.part-timeout-ms:500}") long partTimeoutMillis) {
+        this.eventService = eventService;
+        this.ticketService = ticketService;
+        this.reviewService = reviewService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.executor = executor;
+        this.partTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(partTimeoutMillis);
+
+        this.duration = Timer.builder("event.detail.duration").register(meterRegistry);
+        this.missing = Map.of(
+                TICKETS, missingCounter(meterRegistry, TICKETS),
+                RATING, missingCounter(meterRegistry, RATING),
+                REVIEWS, missingCounter(meterRegistry, REVIEWS));
+    }
+
+    public EventDetailDTO getEventDetail(Long id) {
+        return duration.record(() -> load(id));
+    }
+
+    private EventDetailDTO load(Long id) {
+        long deadline = System.nanoTime() + partTimeoutNanos;
+        Future<EventResponseDTO> event = executor.submit(() -> eventService.getActiveEventById(id));
+        Future<List<TicketResponse>> tickets = executor.submit(() -> ticketService.getTickets(id, false));
+        Future<Double> rating = executor.submit(() -> reviewService.getAverageRatingForEvent(id));
+        Future<Page<Review>> reviews = executor.submit(() -> firstReviewPage(id));
+
+        EventResponseDTO eventDTO;
+        try {
+            eventDTO = required(event);
+        } catch (RuntimeException e) {
+            tickets.cancel(true);
+            rating.cancel(true);
+            reviews.cancel(true);
+            throw e;
+        }
+
+        List<String> missingParts = new ArrayList<>();
+        List<TicketResponse> ticketList = optional(tickets, TICKETS, deadline, missingParts);
+        Double averageRating = optional(rating, RATING, deadline, missingParts);
+        Page<Review> reviewPage = optional(reviews, REVIEWS, deadline, missingParts);
+        if (!missingParts.contains(RATING) && averageRating == null) {
+            averageRating = 0.0;
+        }
+
+        return EventDetailDTO.builder()
+                .event(eventDTO)
+                .tickets(ticketList)
+                .averageRating(averageRating)
+                .reviewCount(reviewPage != null ? reviewPage.getTotalElements() : null)
+                .reviews(reviewPage != null ? reviewPage.getContent() : null)
+                .missingParts(missingParts)
+                .build();
+    }
+
+    // The response is written after this transaction ends and outside any open session
+    private Page<Review> firstReviewPage(Long eventId) {
+        return readOnlyTransaction.execute(status -> {
+            Page<Review> page = reviewService.getReviewsByEventIdPaginated(eventId, PageRequest.of(0, REVIEW_PAGE_SIZE));
+            // Jackson walks these too, including the users behind the lazy proxies
+            page.forEach(review -> {
+                Hibernate.initialize(review.getResponses());
+                review.getResponses().forEach(response -> Hibernate.initialize(response.getOrganizer()));
+                Hibernate.initialize(review.getReports());
+                review.getReports().forEach(report -> {
+                    Hibernate.initialize(report.getReporter());
+                    Hibernate.initialize(report.getAdmin());
+                });
+            });
+            return page;
+        });
+    }
+
+    private static <T> T required(Future<T> part) {
+        try {
+            return part.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading the event", e);
+        }
+    }
+
+    private <T> T optional(Future<T> part, String name, long deadline, List<String> missingParts) {
+        try {
+            return part.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            part.cancel(true);
+            log.warn("Event detail part '{}' timed out, leaving it out", name);
+        } catch (ExecutionException e) {
+            log.warn("Event detail part '{}' failed, leaving it out: {}", name, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            part.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+        missingParts.add(name);
+        missing.get(name).increment();
+        return null;
+    }
+
+    private static Counter missingCounter(MeterRegistry meterRegistry, String part) {
+        return Counter.builder("event.detail.missing")
+                .description("Event detail responses returned without this part")
+                .tag("part", part)
+                .register(meterRegistry);
+    }
+}
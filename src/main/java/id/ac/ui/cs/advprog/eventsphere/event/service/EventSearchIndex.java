@@ -0,0 +1,169 @@
+package id.ac.ui.cs.advprog.eventsphere.event.service;
+
+import id.ac.ui.cs.advprog.eventsphere.event.model.Event;
+import id.ac.ui.cs.advprog.eventsphere.event.repository.EventRepository;
+import id.ac.ui.cs.advprog.eventsphere.event.util.InvertedIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
+
+/**
+ * Full-text search over active, non-cancelled events, answered from an in-process
+ * {@link InvertedIndex}. The index is rebuilt at startup from a streamed scan of the
+ * events table and then kept current by {@link EventServiceImpl}, whose writes are
+ * applied once their transaction commits. Writes that land while a rebuild is running are
+ * replayed onto the new index before it is swapped in. Other instances see a change after
+ * their next rebuild, which runs every {@code event.search.refresh-seconds}.
+ */
+@Service
+@Slf4j
+public class EventSearchIndex {
+
+    private final EventRepository eventRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private InvertedIndex index = new InvertedIndex();
+    private List<Consumer<InvertedIndex>> pendingDuringRebuild;
+
+    private final Timer searchTime;
+
+    @Autowired
+    public EventSearchIndex(EventRepository eventRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
+        this.eventRepository = eventRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        Gauge.builder("event.search.documents", this, search -> search.read(InvertedIndex::size))
+                .description("Events in the search index")
+                .register(meterRegistry);
+        Gauge.builder("event.search.terms", this, search -> search.read(InvertedIndex::termCount))
+                .register(meterRegistry);
+        this.searchTime = Timer.builder("event.search.duration").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${event.search.refresh-seconds:300}",
+            initialDelayString = "${event.search.refresh-seconds:300}",
+            timeUnit = TimeUnit.SECONDS)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                return;
+            }
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        InvertedIndex fresh = new InvertedIndex();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = eventRepository.streamSearchableEvents()) {
+                    rows.forEach(row -> fresh.put(((Number) row[0]).longValue(),
+                            (String) row[1], (String) row[2], (String) row[3]));
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not rebuild the event search index, keeping the current one: {}", e.getMessage());
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild.forEach(update -> update.accept(fresh));
+            pendingDuringRebuild = null;
+            index = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Event search index rebuilt with {} events and {} terms", fresh.size(), fresh.termCount());
+    }
+
+    /** Ranked event ids matching every word of {@code query}, or their prefixes, among those {@code include} accepts. */
+    public InvertedIndex.Hits search(String query, int offset, int limit, LongPredicate include) {
+        return searchTime.record(() -> read(current -> current.search(query, offset, limit, include)));
+    }
+
+    /** Indexes the event as it is now, or drops it when it is cancelled or deleted. */
+    public void index(Event event) {
+        long eventId = event.getId();
+        if (!event.isActive() || event.isCancelled()) {
+            remove(eventId);
+            return;
+        }
+        // Copied now, since the entity may change before the transaction commits
+        String title = event.getTitle();
+        String description = event.getDescription();
+        String location = event.getLocation();
+        afterCommit(current -> current.put(eventId, title, description, location));
+    }
+
+    public void remove(long eventId) {
+        afterCommit(current -> current.remove(eventId));
+    }
+
+    private void afterCommit(Consumer<InvertedIndex> update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(update);
+                }
+            });
+        } else {
+            apply(update);
+        }
+    }
+
+    private void apply(Consumer<InvertedIndex> update) {
+        lock.writeLock().lock();
+        try {
+            update.accept(index);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(update);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T read(Function<InvertedIndex, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
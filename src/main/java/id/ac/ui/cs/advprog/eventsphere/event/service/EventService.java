@@ -1,7 +1,10 @@
 package id.ac.ui.cs.advprog.eventsphere.event.service;
 
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventBrowseFilter;
 import id.ac.ui.cs.advprog.eventsphere.event.dto.EventCreateDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventPageDTO;
 import id.ac.ui.cs.advprog.eventsphere.event.dto.EventResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventSearchResultDTO;
 import id.ac.ui.cs.advprog.eventsphere.event.dto.EventUpdateDTO;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 
@@ -9,8 +12,11 @@ import java.util.List;
 
 public interface EventService {
     EventResponseDTO createEvent(EventCreateDTO eventCreateDTO, User organizer);
+    // Both return shared catalog DTOs; callers must not modify them
     List<EventResponseDTO> getAllActiveEvents();
     EventResponseDTO getActiveEventById(Long id);
+    EventPageDTO browseEvents(EventBrowseFilter filter);
+    EventSearchResultDTO searchEvents(String query, Integer offset, Integer limit);
     List<EventResponseDTO> getActiveEventsByOrganizer(User organizer);
     EventResponseDTO updateEvent(Long id, EventUpdateDTO eventUpdateDTO, User organizer);
     String cancelEvent(Long id, User organizer);
@@ -1,7 +1,10 @@
 package id.ac.ui.cs.advprog.eventsphere.event.service;
 
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventBrowseFilter;
 import id.ac.ui.cs.advprog.eventsphere.event.dto.EventCreateDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventPageDTO;
 import id.ac.ui.cs.advprog.eventsphere.event.dto.EventResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventSearchResultDTO;
 import id.ac.ui.cs.advprog.eventsphere.event.dto.EventUpdateDTO;
 import id.ac.ui.cs.advprog.eventsphere.event.exception.EventNotFoundException;
 import id.ac.ui.cs.advprog.eventsphere.event.exception.UnauthorizedAccessException;
@@ -10,57 +13,171 @@ import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
 import id.ac.ui.cs.advprog.eventsphere.event.repository.EventRepository;
 import id.ac.ui.cs.advprog.eventsphere.event.service.EventService;
+import id.ac.ui.cs.advprog.eventsphere.event.util.EventCursor;
+import id.ac.ui.cs.advprog.eventsphere.event.util.EventEtags;
+import id.ac.ui.cs.advprog.eventsphere.event.util.EventMapper;
+import id.ac.ui.cs.advprog.eventsphere.event.util.InvertedIndex;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class EventServiceImpl implements EventService {
+
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_QUERY_LENGTH = 200;
+    static final int MAX_SEARCH_DEPTH = 1000;
     
     private final EventRepository eventRepository;
-    private final ModelMapper modelMapper;
+    private final EventCatalog eventCatalog;
+    private final EventSearchIndex eventSearchIndex;
     
     @Override
     @Transactional
     public EventResponseDTO createEvent(EventCreateDTO eventCreateDTO, User organizer) {
         
-        Event event = modelMapper.map(eventCreateDTO, Event.class);
+        Event event = EventMapper.toEntity(eventCreateDTO);
         event.setOrganizer(organizer);
         Event savedEvent = eventRepository.save(event);
+        eventCatalog.invalidate();
+        eventSearchIndex.index(savedEvent);
 
-        return toResponseDTO(savedEvent);
+        return EventMapper.toResponseDTO(savedEvent);
     }
     
+    // Served from the catalog snapshot, so a cached read opens no transaction
     @Override
-    @Transactional(readOnly = true)
     public List<EventResponseDTO> getAllActiveEvents() {
-        return eventRepository.findByIsActiveTrue()
-                .stream()
-                .map(this::toResponseDTO)
-                .toList();
+        return eventCatalog.snapshot().events();
     }
     
     @Override
-    @Transactional(readOnly = true)
     public EventResponseDTO getActiveEventById(Long id) {
-        return eventRepository.findByIdAndIsActiveTrue(id)
-                .map(this::toResponseDTO)
+        return eventCatalog.find(id)
+                .map(EventCatalog.Entry::event)
                 .orElseThrow(() -> new EventNotFoundException("Active event not found with id: " + id));
     }
     
+    // The default first page comes from the catalog snapshot; other pages and filters query the index
+    @Override
+    public EventPageDTO browseEvents(EventBrowseFilter filter) {
+        int limit = filter.getLimit() != null ? filter.getLimit() : DEFAULT_PAGE_SIZE;
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        EventCursor after = filter.getCursor() != null && !filter.getCursor().isBlank()
+                ? EventCursor.decode(filter.getCursor())
+                : null;
+
+        LocalDateTime now = LocalDateTime.now();
+        if (after == null && isDefaultListing(filter)) {
+            return upcomingFromCatalog(now, limit);
+        }
+
+        // The window narrows the requested range, so it ends up in the same index range scan
+        LocalDateTime from = filter.getFrom();
+        LocalDateTime to = filter.getTo();
+        switch (filter.resolveWindow()) {
+            case UPCOMING -> from = from == null || from.isBefore(now) ? now : from;
+            case PAST -> to = to == null || to.isAfter(now) ? now : to;
+            case ALL -> { }
+        }
+
+        // Fetches one row past the page to learn whether another page exists
+        List<EventResponseDTO> rows = eventRepository.findEventPage(
+                from, to, filter.isCancelledIncluded(), filter.isAscending(), after, limit + 1);
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            EventResponseDTO last = rows.get(limit - 1);
+            nextCursor = new EventCursor(last.getEventDate(), last.getId()).encode();
+        }
+        return EventPageDTO.builder()
+                .items(rows)
+                .nextCursor(nextCursor)
+                .etag(EventEtags.ofPage(rows, nextCursor))
+                .build();
+    }
+
+    private static boolean isDefaultListing(EventBrowseFilter filter) {
+        return filter.getFrom() == null
+                && filter.getTo() == null
+                && filter.resolveWindow() == EventBrowseFilter.Window.UPCOMING
+                && filter.isAscending()
+                && !filter.isCancelledIncluded();
+    }
+
+    // Same rows, order and cursor as findEventPage would give, and the ETags are already computed
+    private EventPageDTO upcomingFromCatalog(LocalDateTime now, int limit) {
+        List<EventCatalog.Entry> entries = eventCatalog.snapshot().upcoming(now, limit + 1);
+        String nextCursor = null;
+        if (entries.size() > limit) {
+            entries = entries.subList(0, limit);
+            EventResponseDTO last = entries.get(limit - 1).event();
+            nextCursor = new EventCursor(last.getEventDate(), last.getId()).encode();
+        }
+        List<EventResponseDTO> items = new ArrayList<>(entries.size());
+        List<String> etags = new ArrayList<>(entries.size());
+        for (EventCatalog.Entry entry : entries) {
+            items.add(entry.event());
+            etags.add(entry.etag());
+        }
+        return EventPageDTO.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .etag(EventEtags.combine(etags, nextCursor))
+                .build();
+    }
+    
+    // Ranked from the in-memory index and filled in from the catalog snapshot, without a query
+    @Override
+    public EventSearchResultDTO searchEvents(String query, Integer offset, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("q must not be blank");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("q must be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+        int size = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        int skip = offset != null ? offset : 0;
+        if (skip < 0) {
+            throw new IllegalArgumentException("offset must not be negative");
+        }
+        // Ranking keeps offset + limit hits in memory, so deep pages are refused rather than ranked
+        if ((long) skip + size > MAX_SEARCH_DEPTH) {
+            throw new IllegalArgumentException("offset + limit must be at most " + MAX_SEARCH_DEPTH);
+        }
+
+        // The index and the catalog refresh separately, so hits the catalog does not list as
+        // searchable are dropped before paging and are not counted in the total either
+        EventCatalog.Snapshot catalog = eventCatalog.snapshot();
+        InvertedIndex.Hits hits = eventSearchIndex.search(query, skip, size,
+                eventId -> catalog.find(eventId).filter(entry -> !entry.event().isCancelled()).isPresent());
+        List<EventResponseDTO> items = new ArrayList<>(hits.eventIds().length);
+        for (long eventId : hits.eventIds()) {
+            items.add(catalog.find(eventId).orElseThrow().event());
+        }
+        return EventSearchResultDTO.builder()
+                .items(items)
+                .total(hits.total())
+                .build();
+    }
+    
     @Override
     @Transactional(readOnly = true)
     public List<EventResponseDTO> getActiveEventsByOrganizer(User organizer) {
-        return eventRepository.findByOrganizerAndIsActiveTrue(organizer)
-                .stream()
-                .map(this::toResponseDTO)
-                .toList();
+        return eventRepository.findActiveEventDTOsByOrganizerId(organizer.getId());
     }
     
     @Override
@@ -72,10 +189,12 @@ public class EventServiceImpl implements EventService {
         validateEventOwnership(event, organizer);
         validateEventNotTooClose(event.getEventDate(), 24);
         
-        modelMapper.map(eventUpdateDTO, event);
+        EventMapper.copyInto(eventUpdateDTO, event);
         Event updatedEvent = eventRepository.save(event);
+        eventCatalog.invalidate();
+        eventSearchIndex.index(updatedEvent);
         
-        return toResponseDTO(updatedEvent);
+        return EventMapper.toResponseDTO(updatedEvent);
     }
 
     @Override
@@ -93,6 +212,8 @@ public class EventServiceImpl implements EventService {
         event.setCancelled(true);
         event.setCancellationTime(LocalDateTime.now());
         eventRepository.save(event);
+        eventCatalog.invalidate();
+        eventSearchIndex.remove(id);
         return "Event with ID " + id + " has been canceled successfully";
     }
 
@@ -111,17 +232,12 @@ public class EventServiceImpl implements EventService {
         
         event.setActive(false);
         eventRepository.save(event);
+        eventCatalog.invalidate();
+        eventSearchIndex.remove(id);
         return "Event with ID " + id + " has been deleted successfully";
     }
     
     // Helper methods
-    private EventResponseDTO toResponseDTO(Event event) {
-        EventResponseDTO dto = modelMapper.map(event, EventResponseDTO.class);
-        dto.setOrganizerId(event.getOrganizer().getId());
-        dto.setOrganizerName(event.getOrganizer().getFullName());
-        return dto;
-    }
-    
     private void validateEventOwnership(Event event, User organizer) {
         if (!event.getOrganizer().getId().equals(organizer.getId())) {
             throw new UnauthorizedAccessException("User is not the organizer of this event");
@@ -0,0 +1,70 @@
+package id.ac.ui.cs.advprog.eventsphere.event.util;
+
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventResponseDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Strong ETags derived from response content rather than from a local version counter,
+ * so every instance hands out the same tag for the same data.
+ */
+public final class EventEtags {
+
+    private EventEtags() {
+    }
+
+    public static String of(EventResponseDTO event) {
+        return format(sha256().digest(event.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /** Tag of a list, given the tags of its events in order. */
+    public static String combine(List<String> etags, String qualifier) {
+        MessageDigest digest = sha256();
+        for (String etag : etags) {
+            digest.update(etag.getBytes(StandardCharsets.UTF_8));
+        }
+        if (qualifier != null) {
+            digest.update((byte) '|');
+            digest.update(qualifier.getBytes(StandardCharsets.UTF_8));
+        }
+        return format(digest.digest());
+    }
+
+    public static String ofPage(List<EventResponseDTO> events, String nextCursor) {
+        return combine(events.stream().map(EventEtags::of).toList(), nextCursor);
+    }
+
+    /** Whether an If-None-Match header value matches {@code etag}, using weak comparison. */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Quoted as RFC 9110 requires; 128 bits of the digest are plenty to tell versions apart
+    private static String format(byte[] digest) {
+        return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
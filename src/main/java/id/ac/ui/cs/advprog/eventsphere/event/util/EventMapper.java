@@ -0,0 +1,57 @@
+package id.ac.ui.cs.advprog.eventsphere.event.util;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventCreateDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventUpdateDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.model.Event;
+
+/**
+ * Plain field-by-field conversions between events and their DTOs. They produce the same
+ * result the reflective ModelMapper configuration did, without its per-call type map
+ * lookups and intermediate objects; a field added to a DTO has to be added here too.
+ */
+public final class EventMapper {
+
+    private EventMapper() {
+    }
+
+    /** A new, unsaved event; the caller sets the organizer. */
+    public static Event toEntity(EventCreateDTO dto) {
+        Event event = new Event();
+        event.setTitle(dto.getTitle());
+        event.setDescription(dto.getDescription());
+        event.setEventDate(dto.getEventDate());
+        event.setLocation(dto.getLocation());
+        event.setPrice(dto.getPrice());
+        return event;
+    }
+
+    /** Copies every editable field onto {@code event}, null values included. */
+    public static void copyInto(EventUpdateDTO dto, Event event) {
+        event.setTitle(dto.getTitle());
+        event.setDescription(dto.getDescription());
+        event.setEventDate(dto.getEventDate());
+        event.setLocation(dto.getLocation());
+        event.setPrice(dto.getPrice());
+    }
+
+    public static EventResponseDTO toResponseDTO(Event event) {
+        User organizer = event.getOrganizer();
+        return new EventResponseDTO(
+                event.getId(),
+                event.getTitle(),
+                event.getDescription(),
+                event.getEventDate(),
+                event.getLocation(),
+                event.getPrice(),
+                organizer != null ? organizer.getId() : null,
+                organizer != null ? organizer.getFullName() : null,
+                organizer != null ? organizer.getRole() : null,
+                event.getCreatedAt(),
+                event.getUpdatedAt(),
+                event.isActive(),
+                event.isCancelled(),
+                event.getCancellationTime());
+    }
+}
@@ -0,0 +1,330 @@
+package id.ac.ui.cs.advprog.eventsphere.event.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.LongPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * Term to document index over event titles, locations and descriptions. Events get a
+ * dense int ordinal when first added, and each term keeps its postings as sorted
+ * {@code int} arrays of ordinals with a field-weighted frequency, so a query walks
+ * primitive arrays only. Query terms also match indexed terms they are a prefix of,
+ * through a range scan of the sorted term dictionary; exact matches score higher.
+ * <p>
+ * Not thread-safe: callers serialize writers against readers.
+ */
+public final class InvertedIndex {
+
+    static final int TITLE_WEIGHT = 3;
+    static final int LOCATION_WEIGHT = 2;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    // Prefixes shorter than this only match whole terms, so "a" does not expand to half the dictionary
+    static final int MIN_PREFIX_LENGTH = 2;
+    static final int MAX_EXPANSIONS = 256;
+    private static final int MAX_TERM_LENGTH = 40;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] eventIds = new long[64];
+    private String[][] documentTerms = new String[64][];
+    private int nextOrdinal;
+
+    /** Adds the event, or replaces what was indexed for it before. */
+    public void put(long eventId, String title, String description, String location) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        addTokens(weights, title, TITLE_WEIGHT);
+        addTokens(weights, location, LOCATION_WEIGHT);
+        addTokens(weights, description, DESCRIPTION_WEIGHT);
+
+        Integer existing = ordinals.get(eventId);
+        int ordinal;
+        if (existing != null) {
+            ordinal = existing;
+            unlink(ordinal);
+        } else {
+            ordinal = allocate(eventId);
+        }
+        documentTerms[ordinal] = weights.keySet().toArray(String[]::new);
+        weights.forEach((term, weight) -> terms.computeIfAbsent(term, t -> new Postings()).add(ordinal, weight));
+    }
+
+    public void remove(long eventId) {
+        Integer ordinal = ordinals.remove(eventId);
+        if (ordinal != null) {
+            unlink(ordinal);
+            documentTerms[ordinal] = null;
+        }
+    }
+
+    public int size() {
+        return ordinals.size();
+    }
+
+    public int termCount() {
+        return terms.size();
+    }
+
+    /**
+     * Events matching every token of {@code query}, best first; ties go to the event
+     * indexed first. Only the top {@code limit} after {@code offset} are ranked in full.
+     */
+    public Hits search(String query, int offset, int limit) {
+        return search(query, offset, limit, eventId -> true);
+    }
+
+    /** As {@link #search(String, int, int)}, leaving out and not counting events {@code include} rejects. */
+    public Hits search(String query, int offset, int limit, LongPredicate include) {
+        List<String> tokens = tokenize(query).stream().distinct().toList();
+        if (tokens.isEmpty() || ordinals.isEmpty()) {
+            return new Hits(new long[0], 0);
+        }
+
+        float[] scores = new float[nextOrdinal];
+        int[] matchedTokens = new int[nextOrdinal];
+        int documents = ordinals.size();
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            boolean matchedAny = false;
+            for (Map.Entry<String, Postings> entry : expand(token)) {
+                Postings postings = entry.getValue();
+                float idf = (float) Math.log(1.0 + (double) documents / postings.size);
+                float boost = entry.getKey().equals(token) ? 2f : 1f;
+                for (int p = 0; p < postings.size; p++) {
+                    int ordinal = postings.ordinals[p];
+                    // A document counts for this token once, whichever expansions it matched
+                    if (matchedTokens[ordinal] == i) {
+                        matchedTokens[ordinal] = i + 1;
+                    } else if (matchedTokens[ordinal] != i + 1) {
+                        continue;
+                    }
+                    scores[ordinal] += postings.weights[p] * idf * boost;
+                    matchedAny = true;
+                }
+            }
+            if (!matchedAny) {
+                return new Hits(new long[0], 0);
+            }
+        }
+
+        int total = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (matchedTokens[ordinal] == tokens.size()) {
+                if (include.test(eventIds[ordinal])) {
+                    total++;
+                } else {
+                    matchedTokens[ordinal] = 0;
+                }
+            }
+        }
+        // The heap never needs to be larger than the matches, whatever offset was asked for
+        long wanted = (long) Math.max(0, offset) + Math.max(0, limit);
+        TopK top = new TopK((int) Math.min(wanted, total), scores);
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (matchedTokens[ordinal] == tokens.size()) {
+                top.offer(ordinal);
+            }
+        }
+        int[] ranked = top.sorted();
+        int from = Math.min(Math.max(0, offset), ranked.length);
+        long[] ids = new long[ranked.length - from];
+        for (int i = from; i < ranked.length; i++) {
+            ids[i - from] = eventIds[ranked[i]];
+        }
+        return new Hits(ids, total);
+    }
+
+    /** Lower-cased, accent-free word tokens of {@code text}. */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token.length() > MAX_TERM_LENGTH ? token.substring(0, MAX_TERM_LENGTH) : token);
+            }
+        }
+        return tokens;
+    }
+
+    private List<Map.Entry<String, Postings>> expand(String token) {
+        if (token.length() < MIN_PREFIX_LENGTH) {
+            Postings exact = terms.get(token);
+            return exact != null ? List.of(Map.entry(token, exact)) : List.of();
+        }
+        List<Map.Entry<String, Postings>> matches = new ArrayList<>();
+        for (Map.Entry<String, Postings> entry : terms.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            matches.add(entry);
+            if (matches.size() == MAX_EXPANSIONS) {
+                break;
+            }
+        }
+        return matches;
+    }
+
+    private static void addTokens(Map<String, Integer> weights, String text, int weight) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private int allocate(long eventId) {
+        if (nextOrdinal == eventIds.length) {
+            eventIds = Arrays.copyOf(eventIds, eventIds.length * 2);
+            documentTerms = Arrays.copyOf(documentTerms, documentTerms.length * 2);
+        }
+        int ordinal = nextOrdinal++;
+        eventIds[ordinal] = eventId;
+        ordinals.put(eventId, ordinal);
+        return ordinal;
+    }
+
+    private void unlink(int ordinal) {
+        String[] previous = documentTerms[ordinal];
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous) {
+            Postings postings = terms.get(term);
+            if (postings != null && postings.remove(ordinal) && postings.size == 0) {
+                terms.remove(term);
+            }
+        }
+    }
+
+    public record Hits(long[] eventIds, int total) {
+    }
+
+    /** Ordinals in ascending order with their weights; new documents append at the end. */
+    static final class Postings {
+
+        private int[] ordinals = new int[4];
+        private int[] weights = new int[4];
+        private int size;
+
+        void add(int ordinal, int weight) {
+            int index = size == 0 || ordinals[size - 1] < ordinal
+                    ? size
+                    : Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (index >= 0 && index < size) {
+                weights[index] = weight;
+                return;
+            }
+            int insertAt = index >= 0 ? index : -index - 1;
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(ordinals, insertAt, ordinals, insertAt + 1, size - insertAt);
+            System.arraycopy(weights, insertAt, weights, insertAt + 1, size - insertAt);
+            ordinals[insertAt] = ordinal;
+            weights[insertAt] = weight;
+            size++;
+        }
+
+        boolean remove(int ordinal) {
+            int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+            System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+
+    /** Bounded min-heap of ordinals by score, so ranking k of n matches costs n log k. */
+    private static final class TopK {
+
+        private final int capacity;
+        private final float[] scores;
+        private final int[] heap;
+        private int size;
+
+        TopK(int capacity, float[] scores) {
+            this.capacity = capacity;
+            this.scores = scores;
+            this.heap = new int[capacity];
+        }
+
+        void offer(int ordinal) {
+            if (capacity == 0) {
+                return;
+            }
+            if (size < capacity) {
+                heap[size] = ordinal;
+                siftUp(size++);
+            } else if (better(ordinal, heap[0])) {
+                heap[0] = ordinal;
+                siftDown(0);
+            }
+        }
+
+        int[] sorted() {
+            int[] result = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                result[i] = heap[0];
+                heap[0] = heap[--size];
+                siftDown(0);
+            }
+            return result;
+        }
+
+        // Higher score wins; on a tie the lower ordinal, i.e. the event indexed first
+        private boolean better(int a, int b) {
+            return scores[a] > scores[b] || (scores[a] == scores[b] && a < b);
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (!better(heap[parent], heap[index])) {
+                    break;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int worst = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && better(heap[worst], heap[left])) {
+                    worst = left;
+                }
+                if (right < size && better(heap[worst], heap[right])) {
+                    worst = right;
+                }
+                if (worst == index) {
+                    return;
+                }
+                swap(worst, index);
+                index = worst;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+    }
+}
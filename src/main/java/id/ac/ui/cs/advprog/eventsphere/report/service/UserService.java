@@ -1,8 +1,9 @@
 package id.ac.ui.cs.advprog.eventsphere.report.service;
 
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
-import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
-import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.RoleMember;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.UserSnapshot;
+import id.ac.ui.cs.advprog.eventsphere.authentication.service.UserDirectory;
 import id.ac.ui.cs.advprog.eventsphere.event.service.EventService;
 import id.ac.ui.cs.advprog.eventsphere.event.dto.EventResponseDTO;
 import jakarta.persistence.EntityNotFoundException;
@@ -16,27 +17,26 @@ import java.util.stream.Collectors;
 @Service
 public class UserService {
 
-    private final UserRepository userRepository;
     private final EventService eventService;
+    private final UserDirectory userDirectory;
 
     @Autowired
-    public UserService(UserRepository userRepository, EventService eventService) {
-        this.userRepository = userRepository;
+    public UserService(EventService eventService, UserDirectory userDirectory) {
         this.eventService = eventService;
+        this.userDirectory = userDirectory;
     }
 
     // Fungsi ini digunakan untuk mengambil email pengguna berdasarkan ID pengguna.
     public String getUserEmail(Long userId) {
-        return userRepository.findById(userId)
-                .map(User::getEmail)
+        return userDirectory.findById(userId)
+                .map(UserSnapshot::email)
                 .orElseThrow(() -> new EntityNotFoundException("User not found with ID: " + userId));
     }
 
     // Fungsi ini digunakan untuk mendapatkan daftar email semua pengguna dengan peran ADMIN.
     public List<String> getAdminEmails() {
-        return userRepository.findAll().stream()
-                .filter(user -> user.getRole() == Role.ADMIN)
-                .map(User::getEmail)
+        return userDirectory.membersOf(Role.ADMIN).stream()
+                .map(RoleMember::email)
                 .collect(Collectors.toList());
     }
 
@@ -46,8 +46,8 @@ public class UserService {
             // Mendapatkan acara yang spesifik untuk mencari penyelenggara
             EventResponseDTO event = eventService.getActiveEventById(eventId);
             if (event != null && event.getOrganizerId() != null) {
-                return userRepository.findById(event.getOrganizerId())
-                        .map(user -> Collections.singletonList(user.getEmail()))
+                return userDirectory.findById(event.getOrganizerId())
+                        .map(user -> Collections.singletonList(user.email()))
                         .orElse(Collections.emptyList());
             }
         } catch (Exception e) {
@@ -58,9 +58,8 @@ public class UserService {
 
     // Fungsi ini digunakan untuk mendapatkan daftar ID semua pengguna dengan peran ADMIN.
     public List<Long> getAdminIds() {
-        return userRepository.findAll().stream()
-                .filter(user -> user.getRole() == Role.ADMIN)
-                .map(User::getId)
+        return userDirectory.membersOf(Role.ADMIN).stream()
+                .map(RoleMember::id)
                 .collect(Collectors.toList());
     }
 
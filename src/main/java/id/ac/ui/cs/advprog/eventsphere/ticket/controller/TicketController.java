@@ -56,8 +56,10 @@ public class TicketController {
 
     @GetMapping
     @PreAuthorize("hasRole('ROLE_ATTENDEE') or hasRole('ROLE_ORGANIZER') or hasRole('ROLE_ADMIN')")
-    public ResponseEntity<List<TicketResponse>> listAvailableTickets() {
-        List<TicketResponse> tickets = ticketService.getAvailableTickets();
+    public ResponseEntity<List<TicketResponse>> listTickets(
+            @RequestParam(required = false) Long eventId,
+            @RequestParam(defaultValue = "false") boolean available) {
+        List<TicketResponse> tickets = ticketService.getTickets(eventId, available);
         return ResponseEntity.ok(tickets);
     }
 
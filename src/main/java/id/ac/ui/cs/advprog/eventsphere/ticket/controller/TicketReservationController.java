@@ -0,0 +1,39 @@
+package id.ac.ui.cs.advprog.eventsphere.ticket.controller;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.ticket.dto.ReservationResponse;
+import id.ac.ui.cs.advprog.eventsphere.ticket.exception.UnauthorizedAccessException;
+import id.ac.ui.cs.advprog.eventsphere.ticket.service.TicketReservationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/tickets")
+@RequiredArgsConstructor
+public class TicketReservationController {
+
+    private final TicketReservationService reservationService;
+    private final UserRepository userRepository;
+
+    private User getAuthenticatedUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String email = ((UserDetails) auth.getPrincipal()).getUsername();
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new UnauthorizedAccessException("User not found"));
+    }
+
+    // Hold tiket dulu, lalu konfirmasi lewat /api/transactions/purchase/reservation/{reservationId}
+    @PostMapping("/{id}/hold")
+    @PreAuthorize("hasRole('ATTENDEE')")
+    public ResponseEntity<ReservationResponse> holdTicket(@PathVariable Long id) {
+        ReservationResponse response = reservationService.placeHold(id, getAuthenticatedUser());
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+}
@@ -0,0 +1,20 @@
+package id.ac.ui.cs.advprog.eventsphere.ticket.dto;
+
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.ReservationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationResponse {
+    private Long reservationId;
+    private Long ticketId;
+    private ReservationStatus status;
+    private LocalDateTime expiresAt;
+}
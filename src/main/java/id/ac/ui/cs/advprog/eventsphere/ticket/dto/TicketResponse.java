@@ -21,6 +21,18 @@ public class TicketResponse {
         this.eventId = builder.eventId;
     }
 
+    // Target of the JPQL constructor projections in TicketRepository; sold out as in Ticket#isSoldOut
+    public TicketResponse(Long id, String name, double price, int quota, TicketCategory category, int sold,
+                          Long eventId) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.quota = quota;
+        this.category = category;
+        this.soldOut = sold >= quota;
+        this.eventId = eventId;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -0,0 +1,7 @@
+package id.ac.ui.cs.advprog.eventsphere.ticket.model;
+
+public enum ReservationStatus {
+    HELD,
+    CONFIRMED,
+    EXPIRED
+}
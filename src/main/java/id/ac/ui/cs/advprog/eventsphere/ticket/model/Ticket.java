@@ -5,7 +5,9 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "tickets")
+@Table(name = "tickets", indexes = {
+        @Index(name = "idx_tickets_event_deleted", columnList = "event_id, deleted")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -57,6 +59,11 @@ public class Ticket {
         this.quota--; // ⬅️ ini penting kalau quota memang harus berkurang
     }
 
+    // Berapa kali lagi purchase() masih bisa berhasil (sold naik dan quota turun tiap pembelian)
+    public int remainingPurchases() {
+        return Math.max(0, (quota - sold + 1) / 2);
+    }
+
 
     public void markDeleted() {
         this.deleted = true;
@@ -1,11 +1,42 @@
 package id.ac.ui.cs.advprog.eventsphere.ticket.repository;
 
+import id.ac.ui.cs.advprog.eventsphere.ticket.dto.TicketResponse;
 import id.ac.ui.cs.advprog.eventsphere.ticket.model.Ticket;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Repository
 public interface TicketRepository extends JpaRepository<Ticket, Long> {
-    // Kalau perlu, bisa tambahkan query method khusus di sini
-}
 
+    String TICKET_RESPONSE_SELECT = "SELECT new id.ac.ui.cs.advprog.eventsphere.ticket.dto.TicketResponse("
+            + "t.id, t.name, t.price, t.quota, t.category, t.sold, t.event.id) FROM Ticket t ";
+
+    // Tickets that are not deleted, straight into response DTOs without loading entities
+    @Query(TICKET_RESPONSE_SELECT + "WHERE t.event.id = :eventId AND t.deleted = false ORDER BY t.id")
+    List<TicketResponse> findTicketResponsesByEventId(@Param("eventId") Long eventId);
+
+    @Query(TICKET_RESPONSE_SELECT + "WHERE t.deleted = false AND (:availableOnly = false OR t.sold < t.quota) "
+            + "ORDER BY t.id")
+    List<TicketResponse> findTicketResponses(@Param("availableOnly") boolean availableOnly);
+
+    // Conditional atomic decrement: the row is only touched while it is not sold out,
+    // so concurrent buyers can never push sold past quota. Returns 1 on success, 0 otherwise.
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Ticket t SET t.sold = t.sold + 1, t.quota = t.quota - 1 " +
+            "WHERE t.id = :id AND t.sold < t.quota")
+    int tryPurchase(@Param("id") Long id);
+
+    // Gives back stock taken by tryPurchase, e.g. for expired holds
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Ticket t SET t.sold = t.sold - :count, t.quota = t.quota + :count " +
+            "WHERE t.id = :id AND t.sold >= :count")
+    int releaseStock(@Param("id") Long id, @Param("count") int count);
+}
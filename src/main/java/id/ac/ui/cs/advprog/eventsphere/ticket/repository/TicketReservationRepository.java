@@ -0,0 +1,51 @@
+package id.ac.ui.cs.advprog.eventsphere.ticket.repository;
+
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.ReservationStatus;
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.TicketReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TicketReservationRepository extends JpaRepository<TicketReservation, Long> {
+
+    Optional<TicketReservation> findByIdAndUserId(Long id, Long userId);
+
+    // [reservationId, expiresAt] of every open hold, used to rebuild the expiry wheel
+    @Query("SELECT r.id, r.expiresAt FROM TicketReservation r WHERE r.status = :status")
+    List<Object[]> findIdAndExpiryByStatus(@Param("status") ReservationStatus status);
+
+    // Open holds that expired before the given time, oldest first; reads idx_reservation_status_expires
+    @Query("SELECT r.id FROM TicketReservation r WHERE r.status = :status AND r.expiresAt < :before " +
+            "ORDER BY r.expiresAt")
+    List<Long> findIdsByStatusAndExpiresAtBefore(@Param("status") ReservationStatus status,
+                                                 @Param("before") LocalDateTime before,
+                                                 Pageable page);
+
+    // [reservationId, ticketId] for the given holds that are still open
+    @Query("SELECT r.id, r.ticket.id FROM TicketReservation r WHERE r.id IN :ids AND r.status = :status")
+    List<Object[]> findIdAndTicketIdByIdInAndStatus(@Param("ids") Collection<Long> ids,
+                                                    @Param("status") ReservationStatus status);
+
+    @Modifying
+    @Query("UPDATE TicketReservation r SET r.status = :target " +
+            "WHERE r.id IN :ids AND r.status = :expected")
+    int transition(@Param("ids") Collection<Long> ids,
+                   @Param("expected") ReservationStatus expected,
+                   @Param("target") ReservationStatus target);
+
+    // Only an unexpired hold can be confirmed; the expiry sweeper uses the same status guard
+    @Modifying
+    @Query("UPDATE TicketReservation r SET r.status = id.ac.ui.cs.advprog.eventsphere.ticket.model.ReservationStatus.CONFIRMED " +
+            "WHERE r.id = :id AND r.status = id.ac.ui.cs.advprog.eventsphere.ticket.model.ReservationStatus.HELD " +
+            "AND r.expiresAt > :now")
+    int confirm(@Param("id") Long id, @Param("now") LocalDateTime now);
+}
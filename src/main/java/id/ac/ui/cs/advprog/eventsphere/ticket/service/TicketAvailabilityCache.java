@@ -0,0 +1,175 @@
+package id.ac.ui.cs.advprog.eventsphere.ticket.service;
+
+import id.ac.ui.cs.advprog.eventsphere.ticket.dto.TicketResponse;
+import id.ac.ui.cs.advprog.eventsphere.ticket.repository.TicketRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived copy of each event's ticket list, so the ticket page being refreshed by every
+ * buyer during a sale costs one query per event per {@code ticket.availability.ttl-millis}.
+ * Requests that miss while a load for the same event is running wait for it instead of
+ * querying too, for at most {@code ticket.availability.wait-millis}. Sales are not evicted: sold-out flags may lag by up to the TTL, which is
+ * harmless because a purchase is decided by the conditional update in {@link TicketRepository}.
+ * Adding, changing or deleting a ticket calls {@link #evict(Long)}; inside a transaction
+ * the event is dropped again once it completes, and a load that raced with an eviction
+ * is returned but not stored.
+ */
+@Component
+public class TicketAvailabilityCache {
+
+    private final TicketRepository ticketRepository;
+    private final long ttlNanos;
+    private final long waitMillis;
+    private final LongSupplier nanoClock;
+
+    // Guarded by this
+    private final Map<Long, Cached> byEvent;
+    private final Map<Long, CompletableFuture<List<TicketResponse>>> loading = new HashMap<>();
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    @Autowired
+    public TicketAvailabilityCache(TicketRepository ticketRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${ticket.availability.max-events:1000}") int maxEvents,
+                                   @Value("${ticket.availability.ttl-millis:2000}") long ttlMillis,
+                                   @Value("${ticket.availability.wait-millis:5000}") long waitMillis) {
+        this(ticketRepository, meterRegistry, maxEvents, ttlMillis, waitMillis, System::nanoTime);
+    }
+
+    TicketAvailabilityCache(TicketRepository ticketRepository, MeterRegistry meterRegistry, int maxEvents,
+                            long ttlMillis, long waitMillis, LongSupplier nanoClock) {
+        this.ticketRepository = ticketRepository;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.waitMillis = waitMillis;
+        this.nanoClock = nanoClock;
+        this.byEvent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Cached> eldest) {
+                return size() > maxEvents;
+            }
+        };
+
+        Gauge.builder("ticket.availability.size", this, TicketAvailabilityCache::size)
+                .description("Events whose ticket lists are cached")
+                .register(meterRegistry);
+        this.hits = Counter.builder("ticket.availability.hits").register(meterRegistry);
+        this.misses = Counter.builder("ticket.availability.misses").register(meterRegistry);
+        this.coalesced = Counter.builder("ticket.availability.coalesced")
+                .description("Misses answered by a load another request had already started")
+                .register(meterRegistry);
+    }
+
+    /** The event's tickets that are not deleted, in id order; the list is shared and unmodifiable. */
+    public List<TicketResponse> ticketsOf(Long eventId) {
+        CompletableFuture<List<TicketResponse>> load;
+        boolean loadedHere;
+        long observedGeneration;
+        synchronized (this) {
+            Cached cached = byEvent.get(eventId);
+            if (cached != null && cached.expiresAt - nanoClock.getAsLong() > 0) {
+                hits.increment();
+                return cached.tickets;
+            }
+            load = loading.get(eventId);
+            loadedHere = load == null;
+            if (loadedHere) {
+                load = new CompletableFuture<>();
+                loading.put(eventId, load);
+            }
+            observedGeneration = generation;
+        }
+        if (!loadedHere) {
+            coalesced.increment();
+            return await(eventId, load);
+        }
+        misses.increment();
+
+        List<TicketResponse> tickets;
+        try {
+            tickets = List.copyOf(ticketRepository.findTicketResponsesByEventId(eventId));
+        } catch (Throwable e) {
+            // Errors too, or every later miss for this event would join a load that never ends
+            synchronized (this) {
+                loading.remove(eventId, load);
+            }
+            load.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (this) {
+            loading.remove(eventId, load);
+            if (generation == observedGeneration) {
+                byEvent.put(eventId, new Cached(tickets, nanoClock.getAsLong() + ttlNanos));
+            }
+        }
+        load.complete(tickets);
+        return tickets;
+    }
+
+    /** Forgets the event's tickets now and, when called inside a transaction, again once it completes. */
+    public void evict(Long eventId) {
+        if (eventId == null) {
+            return;
+        }
+        remove(eventId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(eventId);
+                }
+            });
+        }
+    }
+
+    private synchronized void remove(Long eventId) {
+        generation++;
+        byEvent.remove(eventId);
+        // Later misses start a fresh load rather than joining one that read the old rows
+        loading.remove(eventId);
+    }
+
+    private synchronized int size() {
+        return byEvent.size();
+    }
+
+    // Waits on the shared load without completing it, so a waiter timing out does not fail the others
+    private List<TicketResponse> await(Long eventId, CompletableFuture<List<TicketResponse>> load) {
+        try {
+            return load.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Loading tickets for event " + eventId + " failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out waiting for the tickets of event " + eventId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the tickets of event " + eventId, e);
+        }
+    }
+
+    private record Cached(List<TicketResponse> tickets, long expiresAt) {
+    }
+}
@@ -0,0 +1,45 @@
+package id.ac.ui.cs.advprog.eventsphere.ticket.service;
+
+import id.ac.ui.cs.advprog.eventsphere.ticket.util.HierarchicalTimingWheel;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Time-ordered index of open ticket holds, backed by a timing wheel with one-second ticks.
+ * Holds that are already due when tracked are queued for the next sweep.
+ */
+@Component
+public class TicketHoldIndex {
+
+    private static final long TICK_MS = 1000;
+    private static final int WHEEL_SIZE = 64;
+
+    private final HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK_MS, WHEEL_SIZE, System.currentTimeMillis());
+    private final List<Long> overdue = new ArrayList<>();
+
+    public void track(Long reservationId, LocalDateTime expiresAt) {
+        long expirationMs = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (!wheel.add(reservationId, expirationMs)) {
+            synchronized (overdue) {
+                overdue.add(reservationId);
+            }
+        }
+    }
+
+    public List<Long> pollExpired(long nowMs) {
+        List<Long> due = wheel.advance(nowMs);
+        synchronized (overdue) {
+            due.addAll(overdue);
+            overdue.clear();
+        }
+        return due;
+    }
+
+    public int size() {
+        return wheel.size();
+    }
+}
@@ -0,0 +1,78 @@
+package id.ac.ui.cs.advprog.eventsphere.ticket.service;
+
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.ReservationStatus;
+import id.ac.ui.cs.advprog.eventsphere.ticket.repository.TicketReservationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TicketHoldSweeper {
+
+    private static final int RELEASE_BATCH = 500;
+    // Leaves holds to the wheel of the instance that placed them unless that instance is gone
+    static final Duration BACKSTOP_GRACE = Duration.ofSeconds(30);
+
+    private final TicketHoldIndex holdIndex;
+    private final TicketReservationService reservationService;
+    private final TicketReservationRepository reservationRepository;
+
+    // Holds survive restarts in the database, so the in-memory index is rebuilt on startup
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOpenHolds() {
+        List<Object[]> open = reservationRepository.findIdAndExpiryByStatus(ReservationStatus.HELD);
+        for (Object[] row : open) {
+            holdIndex.track((Long) row[0], (LocalDateTime) row[1]);
+        }
+        log.info("Tracking {} open ticket holds", open.size());
+    }
+
+    @Scheduled(fixedDelayString = "${ticket.hold.sweep-interval:1000}")
+    public void sweep() {
+        List<Long> due = holdIndex.pollExpired(System.currentTimeMillis());
+        for (int from = 0; from < due.size(); from += RELEASE_BATCH) {
+            List<Long> batch = due.subList(from, Math.min(from + RELEASE_BATCH, due.size()));
+            try {
+                int released = reservationService.releaseExpired(batch);
+                log.debug("Released {} expired ticket holds", released);
+            } catch (Exception e) {
+                // Put the batch back so the next sweep retries it
+                batch.forEach(id -> holdIndex.track(id, LocalDateTime.now()));
+                log.error("Failed to release expired ticket holds", e);
+            }
+        }
+    }
+
+    // The wheel only knows the holds this instance placed or loaded at startup, so holds left
+    // by an instance that stopped are released from the database instead
+    @Scheduled(fixedDelayString = "${ticket.hold.backstop-interval:60000}")
+    public void releaseAbandoned() {
+        LocalDateTime before = LocalDateTime.now().minus(BACKSTOP_GRACE);
+        List<Long> overdue;
+        do {
+            overdue = reservationRepository.findIdsByStatusAndExpiresAtBefore(
+                    ReservationStatus.HELD, before, PageRequest.of(0, RELEASE_BATCH));
+            if (overdue.isEmpty()) {
+                return;
+            }
+            try {
+                int released = reservationService.releaseExpired(overdue);
+                log.info("Released {} ticket holds no sweeper had expired", released);
+            } catch (Exception e) {
+                // The rows stay HELD, so the next run finds them again
+                log.error("Failed to release abandoned ticket holds", e);
+                return;
+            }
+        } while (overdue.size() == RELEASE_BATCH);
+    }
+}
@@ -0,0 +1,73 @@
+package id.ac.ui.cs.advprog.eventsphere.ticket.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * In-memory front for ticket stock. Each ticket gets its own counter of remaining purchases,
+ * so buyers of different tickets never contend and buyers of a sold-out ticket are rejected
+ * without touching the database. The database row stays the source of truth: a permit from
+ * here only allows the caller to attempt the conditional update in {@code TicketRepository}.
+ */
+@Component
+public class TicketInventory {
+
+    private final ConcurrentHashMap<Long, AtomicInteger> remaining = new ConcurrentHashMap<>();
+
+    /**
+     * Takes one permit for the ticket. The counter is seeded lazily from {@code loader}
+     * the first time a ticket is seen.
+     */
+    public boolean tryAcquire(Long ticketId, IntSupplier loader) {
+        AtomicInteger counter = remaining.get(ticketId);
+        if (counter == null) {
+            AtomicInteger seeded = new AtomicInteger(loader.getAsInt());
+            counter = remaining.putIfAbsent(ticketId, seeded);
+            if (counter == null) {
+                counter = seeded;
+            }
+        }
+
+        int current;
+        do {
+            current = counter.get();
+            if (current <= 0) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current - 1));
+        return true;
+    }
+
+    // Gives a permit back when the purchase failed for a reason other than stock
+    public void release(Long ticketId) {
+        release(ticketId, 1);
+    }
+
+    public void release(Long ticketId, int count) {
+        AtomicInteger counter = remaining.get(ticketId);
+        if (counter != null) {
+            counter.addAndGet(count);
+        }
+    }
+
+    // The database said no, so stop admitting buyers for this ticket
+    public void markSoldOut(Long ticketId) {
+        AtomicInteger counter = remaining.get(ticketId);
+        if (counter != null) {
+            counter.set(0);
+        }
+    }
+
+    // Called whenever quota or sold changes outside the purchase path
+    public void evict(Long ticketId) {
+        remaining.remove(ticketId);
+    }
+
+    public int remaining(Long ticketId) {
+        AtomicInteger counter = remaining.get(ticketId);
+        return counter != null ? counter.get() : -1;
+    }
+}
@@ -0,0 +1,22 @@
+package id.ac.ui.cs.advprog.eventsphere.ticket.service;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import id.ac.ui.cs.advprog.eventsphere.ticket.dto.ReservationResponse;
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.TicketReservation;
+
+import java.util.Collection;
+
+public interface TicketReservationService {
+
+    // Attendee menahan satu tiket selama beberapa menit sebelum membayar
+    ReservationResponse placeHold(Long ticketId, User user);
+
+    // Hold milik user yang masih aktif, dipakai saat konfirmasi pembayaran
+    TicketReservation getActiveHold(Long reservationId, Long userId);
+
+    // Menandai hold sebagai CONFIRMED, false kalau sudah kedaluwarsa atau diproses
+    boolean confirmHold(Long reservationId);
+
+    // Melepas hold yang kedaluwarsa sekaligus, mengembalikan jumlah hold yang dilepas
+    int releaseExpired(Collection<Long> reservationIds);
+}
@@ -0,0 +1,109 @@
+package id.ac.ui.cs.advprog.eventsphere.ticket.service;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import id.ac.ui.cs.advprog.eventsphere.ticket.dto.ReservationResponse;
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.ReservationStatus;
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.Ticket;
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.TicketReservation;
+import id.ac.ui.cs.advprog.eventsphere.ticket.repository.TicketRepository;
+import id.ac.ui.cs.advprog.eventsphere.ticket.repository.TicketReservationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class TicketReservationServiceImpl implements TicketReservationService {
+
+    private final TicketReservationRepository reservationRepository;
+    private final TicketRepository ticketRepository;
+    private final TicketService ticketService;
+    private final TicketHoldIndex holdIndex;
+    private final long holdMinutes;
+
+    @Autowired
+    public TicketReservationServiceImpl(TicketReservationRepository reservationRepository,
+                                        TicketRepository ticketRepository,
+                                        TicketService ticketService,
+                                        TicketHoldIndex holdIndex,
+                                        @Value("${ticket.hold.duration-minutes:10}") long holdMinutes) {
+        this.reservationRepository = reservationRepository;
+        this.ticketRepository = ticketRepository;
+        this.ticketService = ticketService;
+        this.holdIndex = holdIndex;
+        this.holdMinutes = holdMinutes;
+    }
+
+    @Override
+    @Transactional
+    public ReservationResponse placeHold(Long ticketId, User user) {
+        // Stock is taken right away with the same conditional update as a purchase
+        ticketService.purchaseTicket(ticketId);
+
+        Ticket ticket = ticketRepository.getReferenceById(ticketId);
+        TicketReservation reservation = reservationRepository.save(TicketReservation.builder()
+                .ticket(ticket)
+                .user(user)
+                .status(ReservationStatus.HELD)
+                .expiresAt(LocalDateTime.now().plusMinutes(holdMinutes))
+                .build());
+        holdIndex.track(reservation.getId(), reservation.getExpiresAt());
+
+        return toResponse(reservation, ticketId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TicketReservation getActiveHold(Long reservationId, Long userId) {
+        TicketReservation reservation = reservationRepository.findByIdAndUserId(reservationId, userId)
+                .orElseThrow(() -> new RuntimeException("Reservation not found"));
+        if (reservation.getStatus() != ReservationStatus.HELD || reservation.isExpired(LocalDateTime.now())) {
+            throw new IllegalStateException("Reservation is no longer active");
+        }
+        return reservation;
+    }
+
+    @Override
+    @Transactional
+    public boolean confirmHold(Long reservationId) {
+        return reservationRepository.confirm(reservationId, LocalDateTime.now()) == 1;
+    }
+
+    @Override
+    @Transactional
+    public int releaseExpired(Collection<Long> reservationIds) {
+        if (reservationIds.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, List<Long>> byTicket = new HashMap<>();
+        for (Object[] row : reservationRepository.findIdAndTicketIdByIdInAndStatus(reservationIds, ReservationStatus.HELD)) {
+            byTicket.computeIfAbsent((Long) row[1], id -> new ArrayList<>()).add((Long) row[0]);
+        }
+
+        // One status update and one stock update per ticket, however many holds expired
+        int released = 0;
+        for (Map.Entry<Long, List<Long>> entry : byTicket.entrySet()) {
+            int expired = reservationRepository.transition(entry.getValue(), ReservationStatus.HELD, ReservationStatus.EXPIRED);
+            ticketService.releaseTickets(entry.getKey(), expired);
+            released += expired;
+        }
+        return released;
+    }
+
+    private ReservationResponse toResponse(TicketReservation reservation, Long ticketId) {
+        return ReservationResponse.builder()
+                .reservationId(reservation.getId())
+                .ticketId(ticketId)
+                .status(reservation.getStatus())
+                .expiresAt(reservation.getExpiresAt())
+                .build();
+    }
+}
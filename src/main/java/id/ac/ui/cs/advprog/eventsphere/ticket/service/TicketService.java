@@ -14,12 +14,24 @@ public interface TicketService {
     // Organizer update tiket, perlu User untuk otorisasi
     TicketResponse updateTicket(Long id, TicketRequest request, User organizer);
 
-    // Attendee bisa melihat tiket yang tersedia
-    List<TicketResponse> getAvailableTickets();
+    // Attendee bisa melihat tiket yang belum dihapus, per event atau semua; availableOnly membuang yang habis terjual
+    List<TicketResponse> getTickets(Long eventId, boolean availableOnly);
 
     // Attendee bisa beli tiket, sync
     TicketResponse purchaseTicket(Long id);
 
+    // Cek stok di memori sebelum pembelian menyentuh database
+    boolean tryAdmitPurchase(Long id);
+
+    // Mengembalikan izin pembelian yang tidak jadi, soldOut menandai stok sudah habis
+    void purchaseRejected(Long id, boolean soldOut);
+
+    // Izin yang sudah dipakai untuk update stok dikembalikan jika transaksi yang sedang berjalan di-rollback
+    void purchaseApplied(Long id, int count);
+
+    // Mengembalikan stok tiket (misalnya hold yang kedaluwarsa)
+    void releaseTickets(Long id, int count);
+
     // Admin bisa hapus tiket, perlu User untuk otorisasi (admin)
     String deleteTicket(Long id, User admin);
 
@@ -12,6 +12,9 @@ import id.ac.ui.cs.advprog.eventsphere.event.model.Event;
 import id.ac.ui.cs.advprog.eventsphere.event.exception.EventNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,6 +23,8 @@ import java.util.stream.Collectors;
 public class TicketServiceImpl implements TicketService {
     private final TicketRepository repo;
     private final EventRepository eventRepository;
+    private final TicketInventory inventory;
+    private final TicketAvailabilityCache availabilityCache;
 
     @Override
     public TicketResponse addTicket(TicketRequest request, User organizer) {
@@ -40,7 +45,9 @@ public class TicketServiceImpl implements TicketService {
                 .deleted(false)
                 .build();
 
-        return toResponse(repo.save(ticket));
+        Ticket saved = repo.save(ticket);
+        availabilityCache.evict(event.getId());
+        return toResponse(saved);
     }
 
     @Override
@@ -51,6 +58,7 @@ public class TicketServiceImpl implements TicketService {
             }
 
             Ticket ticket = repo.findById(id).orElseThrow(TicketNotFoundException::new);
+            Long previousEventId = ticket.getEventId();
             ticket.setName(request.getName());
             ticket.setCategory(request.getCategory());
             Event event = eventRepository.findById(request.getEventId())
@@ -58,7 +66,11 @@ public class TicketServiceImpl implements TicketService {
             ticket.setEvent(event);
             ticket.updateDetails(request.getPrice(), request.getQuota());
 
-            return toResponse(repo.save(ticket));
+            Ticket saved = repo.save(ticket);
+            inventory.evict(id);
+            availabilityCache.evict(previousEventId);
+            availabilityCache.evict(saved.getEventId());
+            return toResponse(saved);
         } catch (Exception e) {
             System.err.println("Error updating ticket: " + e.getMessage());
             e.printStackTrace();
@@ -66,25 +78,98 @@ public class TicketServiceImpl implements TicketService {
         }
     }
 
+    // Per-event lists come from the availability cache, so a cached read opens no transaction
     @Override
-    public List<TicketResponse> getAvailableTickets() {
-        return repo.findAll()
-                .stream()
-                .map(this::toResponse)
+    public List<TicketResponse> getTickets(Long eventId, boolean availableOnly) {
+        if (eventId == null) {
+            return repo.findTicketResponses(availableOnly);
+        }
+        List<TicketResponse> tickets = availabilityCache.ticketsOf(eventId);
+        if (!availableOnly) {
+            return tickets;
+        }
+        return tickets.stream()
+                .filter(ticket -> !ticket.isSoldOut())
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional
     public TicketResponse purchaseTicket(Long id) {
+        if (!tryAdmitPurchase(id)) {
+            throw new RuntimeException("Tiket sudah habis terjual.");
+        }
+
+        int updated;
+        try {
+            updated = repo.tryPurchase(id);
+        } catch (RuntimeException e) {
+            inventory.release(id);
+            throw e;
+        }
+
+        if (updated == 0) {
+            inventory.markSoldOut(id);
+            if (!repo.existsById(id)) {
+                inventory.evict(id);
+                throw new RuntimeException("Ticket tidak ditemukan");
+            }
+            throw new RuntimeException("Tiket sudah habis terjual.");
+        }
+        purchaseApplied(id, 1);
+
         Ticket ticket = repo.findById(id)
                 .orElseThrow(() -> new RuntimeException("Ticket tidak ditemukan"));
+        return toResponse(ticket);
+    }
 
-        if (ticket.isSoldOut()) {
-            throw new RuntimeException("Tiket sudah habis terjual.");
+    @Override
+    public boolean tryAdmitPurchase(Long id) {
+        return inventory.tryAcquire(id, () -> repo.findById(id)
+                .map(Ticket::remainingPurchases)
+                .orElseThrow(() -> new RuntimeException("Ticket tidak ditemukan")));
+    }
+
+    @Override
+    public void purchaseRejected(Long id, boolean soldOut) {
+        if (soldOut) {
+            inventory.markSoldOut(id);
+        } else {
+            inventory.release(id);
         }
+    }
 
-        ticket.purchase();
-        return toResponse(repo.save(ticket));
+    /**
+     * Called once the conditional stock update for {@code count} permits has succeeded. If the
+     * surrounding transaction later rolls back, say on a failed debit or ledger insert, the stock
+     * is back in the row, so the permits go back to the counter too; an unknown outcome drops
+     * the counter so it is reseeded from the row.
+     */
+    @Override
+    public void purchaseApplied(Long id, int count) {
+        if (count <= 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    inventory.release(id, count);
+                } else if (status == STATUS_UNKNOWN) {
+                    inventory.evict(id);
+                }
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public void releaseTickets(Long id, int count) {
+        if (count <= 0) {
+            return;
+        }
+        repo.releaseStock(id, count);
+        inventory.evict(id);
     }
 
     @Override
@@ -96,6 +181,8 @@ public class TicketServiceImpl implements TicketService {
         Ticket ticket = repo.findById(id)
                 .orElseThrow(TicketNotFoundException::new);
         repo.delete(ticket);
+        inventory.evict(id);
+        availabilityCache.evict(ticket.getEventId());
 
         return "Tiket dengan ID " + id + " berhasil dihapus.";
     }
@@ -0,0 +1,122 @@
+package id.ac.ui.cs.advprog.eventsphere.ticket.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel keyed by id. Level 0 has {@code wheelSize} slots of
+ * {@code tickMs}; every level above covers {@code wheelSize} slots of the full span of the
+ * level below and is added on demand. Adding an id is O(1), and advancing the clock only
+ * touches the slots that actually elapsed, so the sweeper never scans pending entries.
+ * An id is reported once its expiration has passed, never early.
+ */
+public class HierarchicalTimingWheel {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final List<List<Entry>[]> levels = new ArrayList<>();
+    private long currentTime;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("Timing wheel needs a positive tick and at least two slots");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.currentTime = startMs - (startMs % tickMs);
+        addLevel();
+    }
+
+    /**
+     * Schedules {@code id}. Returns false when the expiration already lies in an elapsed
+     * tick, in which case the caller should treat the id as due right away.
+     */
+    public synchronized boolean add(long id, long expirationMs) {
+        if (expirationMs < currentTime + tickMs) {
+            return false;
+        }
+        place(new Entry(id, expirationMs));
+        size++;
+        return true;
+    }
+
+    /** Moves the clock to {@code nowMs} and returns the ids whose expiration has passed. */
+    public synchronized List<Long> advance(long nowMs) {
+        List<Long> due = new ArrayList<>();
+        while (currentTime + tickMs <= nowMs) {
+            List<Entry> expired = slot(0, currentTime);
+            for (Entry entry : expired) {
+                due.add(entry.id);
+            }
+            size -= expired.size();
+            expired.clear();
+
+            currentTime += tickMs;
+            cascade();
+        }
+        return due;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long currentTime() {
+        return currentTime;
+    }
+
+    // Entries of a higher-level slot that has just become current move down a level
+    private void cascade() {
+        for (int level = levels.size() - 1; level >= 1; level--) {
+            long levelTick = tickOf(level);
+            if (currentTime % levelTick != 0) {
+                continue;
+            }
+            List<Entry> bucket = slot(level, currentTime);
+            if (bucket.isEmpty()) {
+                continue;
+            }
+            List<Entry> moved = new ArrayList<>(bucket);
+            bucket.clear();
+            for (Entry entry : moved) {
+                place(entry);
+            }
+        }
+    }
+
+    private void place(Entry entry) {
+        int level = 0;
+        while ((entry.expirationMs / tickOf(level)) - (currentTime / tickOf(level)) >= wheelSize) {
+            level++;
+            if (level == levels.size()) {
+                addLevel();
+            }
+        }
+        slot(level, entry.expirationMs).add(entry);
+    }
+
+    private List<Entry> slot(int level, long timeMs) {
+        return levels.get(level)[(int) ((timeMs / tickOf(level)) % wheelSize)];
+    }
+
+    private long tickOf(int level) {
+        long tick = tickMs;
+        for (int i = 0; i < level; i++) {
+            tick *= wheelSize;
+        }
+        return tick;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addLevel() {
+        List<Entry>[] slots = new List[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            slots[i] = new ArrayList<>();
+        }
+        levels.add(slots);
+    }
+
+    private record Entry(long id, long expirationMs) {
+    }
+}
@@ -2,8 +2,11 @@ package id.ac.ui.cs.advprog.eventsphere.topup.controller;
 
 import id.ac.ui.cs.advprog.eventsphere.topup.dto.TopUpRequestDTO;
 import id.ac.ui.cs.advprog.eventsphere.topup.dto.TopUpResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionHistoryFilter;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 import id.ac.ui.cs.advprog.eventsphere.topup.model.Transaction;
+import id.ac.ui.cs.advprog.eventsphere.topup.service.IdempotencyService;
 import id.ac.ui.cs.advprog.eventsphere.topup.service.TopUpService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -18,19 +21,28 @@ import java.util.List;
 public class TopUpController {
 
     private final TopUpService topUpService;
+    private final IdempotencyService idempotencyService;
 
     @Autowired
-    public TopUpController(TopUpService topUpService) {
+    public TopUpController(TopUpService topUpService, IdempotencyService idempotencyService) {
         this.topUpService = topUpService;
+        this.idempotencyService = idempotencyService;
     }
 
     @PostMapping
-    public ResponseEntity<TopUpResponseDTO> processTopUp(@RequestBody TopUpRequestDTO topUpRequest) {
+    public ResponseEntity<TopUpResponseDTO> processTopUp(@RequestBody TopUpRequestDTO topUpRequest,
+                                                         @RequestHeader(value = TransactionController.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         try {
-            TopUpResponseDTO response = topUpService.processTopUp(topUpRequest);
+            TopUpResponseDTO response = idempotencyKey == null
+                    ? topUpService.processTopUp(topUpRequest)
+                    : idempotencyService.execute(idempotencyKey, "top-up",
+                            topUpRequest.getTopUpType() + ":" + topUpRequest.getAmount(),
+                            () -> topUpService.processTopUp(topUpRequest));
             return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -47,10 +59,11 @@ public class TopUpController {
     }
 
     @GetMapping("/history")
-    public ResponseEntity<List<Transaction>> getCurrentUserTopUpTransactions() {
+    public ResponseEntity<List<TransactionDTO>> getCurrentUserTopUpTransactions(@ModelAttribute TransactionHistoryFilter filter) {
         try {
-            List<Transaction> transactions = topUpService.getCurrentUserTopUpTransactions();
-            return ResponseEntity.ok(transactions);
+            return TransactionController.toPageResponse(topUpService.getCurrentUserTopUpHistory(filter));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
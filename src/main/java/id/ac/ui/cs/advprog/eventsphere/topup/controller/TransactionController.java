@@ -1,13 +1,23 @@
 package id.ac.ui.cs.advprog.eventsphere.topup.controller;
 
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.PurchaseQueueStatusDTO;
 import id.ac.ui.cs.advprog.eventsphere.topup.dto.TopUpResponseDTO;
 import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionHistoryFilter;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionPageDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.service.IdempotencyService;
+import id.ac.ui.cs.advprog.eventsphere.topup.service.TicketPurchaseQueue;
+import id.ac.ui.cs.advprog.eventsphere.topup.service.TransactionExportService;
 import id.ac.ui.cs.advprog.eventsphere.topup.service.TransactionService;
+import id.ac.ui.cs.advprog.eventsphere.topup.util.CurrentUserUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -16,18 +26,44 @@ import java.util.List;
 @RequestMapping("/api/transactions")
 public class TransactionController {
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final TransactionService transactionService;
+    private final TicketPurchaseQueue purchaseQueue;
+    private final CurrentUserUtil currentUserUtil;
+    private final IdempotencyService idempotencyService;
+    private final TransactionExportService exportService;
 
     @Autowired
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService,
+                                 TicketPurchaseQueue purchaseQueue,
+                                 CurrentUserUtil currentUserUtil,
+                                 IdempotencyService idempotencyService,
+                                 TransactionExportService exportService) {
         this.transactionService = transactionService;
+        this.purchaseQueue = purchaseQueue;
+        this.currentUserUtil = currentUserUtil;
+        this.idempotencyService = idempotencyService;
+        this.exportService = exportService;
     }
 
     @PostMapping("/purchase/ticket/{ticketId}")
-    public ResponseEntity<TopUpResponseDTO> purchaseTicket(@PathVariable Long ticketId) {
+    public ResponseEntity<TopUpResponseDTO> purchaseTicket(@PathVariable Long ticketId,
+                                                           @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         try {
-            TopUpResponseDTO response = transactionService.processTicketPurchaseById(ticketId);
+            TopUpResponseDTO response = idempotencyKey == null
+                    ? transactionService.processTicketPurchaseById(ticketId)
+                    : idempotencyService.execute(idempotencyKey, "ticket-purchase", "ticket:" + ticketId,
+                            () -> transactionService.processTicketPurchaseById(ticketId));
             return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(TopUpResponseDTO.builder()
+                            .status("FAILED")
+                            .timestamp(LocalDateTime.now())
+                            .message(e.getMessage())
+                            .build());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(TopUpResponseDTO.builder()
@@ -38,11 +74,54 @@ public class TransactionController {
         }
     }
 
+    @PostMapping("/purchase/reservation/{reservationId}")
+    public ResponseEntity<TopUpResponseDTO> confirmReservation(@PathVariable Long reservationId) {
+        try {
+            return ResponseEntity.ok(transactionService.confirmReservation(reservationId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(TopUpResponseDTO.builder()
+                            .status("FAILED")
+                            .timestamp(LocalDateTime.now())
+                            .message(e.getMessage())
+                            .build());
+        }
+    }
+
+    // Flash-sale entry point: joins the ticket's waiting room and returns a token to poll
+    @PostMapping("/purchase/ticket/{ticketId}/queue")
+    public ResponseEntity<PurchaseQueueStatusDTO> queueTicketPurchase(@PathVariable Long ticketId) {
+        try {
+            PurchaseQueueStatusDTO status = purchaseQueue.enqueue(ticketId, currentUserUtil.getCurrentUser());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(PurchaseQueueStatusDTO.builder()
+                            .ticketId(ticketId)
+                            .status("REJECTED")
+                            .message(e.getMessage())
+                            .build());
+        }
+    }
+
+    @GetMapping("/purchase/queue/{token}")
+    public ResponseEntity<PurchaseQueueStatusDTO> getQueuedPurchaseStatus(@PathVariable String token) {
+        try {
+            return ResponseEntity.ok(purchaseQueue.poll(token, currentUserUtil.getCurrentUserEmail()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    // Paged newest first; the cursor for the next page comes back in the X-Next-Cursor header
     @GetMapping("/my-transactions")
-    public ResponseEntity<List<TransactionDTO>> getCurrentUserTransactions() {
+    public ResponseEntity<List<TransactionDTO>> getCurrentUserTransactions(@ModelAttribute TransactionHistoryFilter filter) {
         try {
-            List<TransactionDTO> transactions = transactionService.getCurrentUserTransactions();
-            return ResponseEntity.ok(transactions);
+            return toPageResponse(transactionService.getCurrentUserTransactionHistory(filter));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -50,9 +129,45 @@ public class TransactionController {
 
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @GetMapping
-    public ResponseEntity<List<TransactionDTO>> getAllTransactions() {
-        List<TransactionDTO> transactions = transactionService.getAllTransactions();
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<List<TransactionDTO>> getAllTransactions(@ModelAttribute TransactionHistoryFilter filter) {
+        try {
+            return toPageResponse(transactionService.getTransactionHistory(filter));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Finance export; ?format=csv|ndjson, &gzip=true to compress, same filters as the history
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@ModelAttribute TransactionHistoryFilter filter,
+                                                                    @RequestParam(defaultValue = "csv") String format,
+                                                                    @RequestParam(defaultValue = "false") boolean gzip) {
+        TransactionExportService.Format exportFormat;
+        try {
+            exportFormat = TransactionExportService.Format.parse(format);
+            filter.resolveType();
+            filter.resolveStatus();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions." + exportFormat.getExtension() + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(out -> exportService.export(filter, exportFormat, gzip, out));
+    }
+
+    static ResponseEntity<List<TransactionDTO>> toPageResponse(TransactionPageDTO page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     @GetMapping("/{transactionId}")
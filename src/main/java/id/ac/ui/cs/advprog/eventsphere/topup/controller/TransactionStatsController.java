@@ -0,0 +1,56 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.controller;
+
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionStatsDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.service.TransactionRollupAggregator;
+import id.ac.ui.cs.advprog.eventsphere.topup.service.TransactionStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/transactions/stats")
+public class TransactionStatsController {
+
+    private final TransactionStatsService statsService;
+    private final TransactionRollupAggregator rollupAggregator;
+
+    @Autowired
+    public TransactionStatsController(TransactionStatsService statsService,
+                                      TransactionRollupAggregator rollupAggregator) {
+        this.statsService = statsService;
+        this.rollupAggregator = rollupAggregator;
+    }
+
+    // ?dimension=event|user|all&key=<eventId|userId>&granularity=hour|day&type=&from=&to=
+    @GetMapping
+    public ResponseEntity<TransactionStatsDTO> getStats(@RequestParam String dimension,
+                                                        @RequestParam(required = false) String key,
+                                                        @RequestParam(required = false) String granularity,
+                                                        @RequestParam(required = false) String type,
+                                                        @RequestParam(required = false)
+                                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                        @RequestParam(required = false)
+                                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            return ResponseEntity.ok(statsService.getStats(dimension, key, granularity, type, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+    }
+
+    // Replays every transaction into fresh buckets, e.g. after transactions were corrected by hand
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuild() {
+        return ResponseEntity.ok(Map.of("transactions", rollupAggregator.rebuild()));
+    }
+}
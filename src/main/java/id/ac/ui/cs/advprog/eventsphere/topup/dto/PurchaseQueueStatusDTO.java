@@ -0,0 +1,19 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseQueueStatusDTO {
+    private String token;
+    private Long ticketId;
+    private String status; // QUEUED, SUCCESS, FAILED or REJECTED
+    private long position; // buyers still ahead in the queue, 0 once processed
+    private TopUpResponseDTO result;
+    private String message;
+}
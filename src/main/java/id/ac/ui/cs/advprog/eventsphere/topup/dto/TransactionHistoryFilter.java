@@ -0,0 +1,48 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.dto;
+
+import id.ac.ui.cs.advprog.eventsphere.topup.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+// Query parameters of the transaction history endpoints; every field is optional
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionHistoryFilter {
+    private String type; // TOP_UP or TICKET_PURCHASE
+    private String status; // SUCCESS, FAILED or PENDING
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from; // inclusive
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to; // exclusive
+
+    private String cursor; // nextCursor of the previous page
+    private Integer limit;
+
+    public Transaction.TransactionType resolveType() {
+        return parse(Transaction.TransactionType.class, type, "type");
+    }
+
+    public Transaction.TransactionStatus resolveStatus() {
+        return parse(Transaction.TransactionStatus.class, status, "status");
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> enumType, String value, String name) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(enumType, value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionRollupDTO {
+    private LocalDateTime bucketStart;
+    private String type;
+    private long transactionCount;
+    private long amountTotal;
+}
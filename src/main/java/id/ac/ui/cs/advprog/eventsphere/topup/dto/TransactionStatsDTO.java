@@ -0,0 +1,24 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionStatsDTO {
+    private String dimension;
+    private String key;
+    private String granularity;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private long totalCount;
+    private long totalAmount;
+    private List<TransactionRollupDTO> buckets;
+}
@@ -0,0 +1,87 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.model;
+
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TopUpResponseDTO;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a request sent with an {@code Idempotency-Key} header. The row is claimed
+ * before the operation runs, so a retry that races the original sees it as in progress,
+ * and is completed with the response that later retries get replayed. A claim that is not
+ * completed within its lease, counted from {@code claimedAt}, may be taken over by a retry.
+ */
+@Entity
+@Table(name = "idempotency_keys",
+        indexes = @Index(name = "idx_idempotency_created_at", columnList = "created_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    // Operation, user and client key joined together, so keys never collide across users
+    @Id
+    @Column(length = 512)
+    private String id;
+
+    // Identifies the request body the key was first used with
+    @Column(nullable = false)
+    private String fingerprint;
+
+    private boolean completed;
+
+    private String transactionId;
+    private Long userId;
+    private int amount;
+    private int newBalance;
+    private LocalDateTime timestamp;
+    private String status;
+    private String message;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // When the current holder claimed the key; bumped when a stale claim is taken over
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    // Also makes save() insert rather than merge, so a second claim of the same key fails
+    @Version
+    private Long version;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        if (claimedAt == null) {
+            claimedAt = createdAt;
+        }
+    }
+
+    public void complete(TopUpResponseDTO response) {
+        this.completed = true;
+        this.transactionId = response.getTransactionId();
+        this.userId = response.getUserId();
+        this.amount = response.getAmount();
+        this.newBalance = response.getNewBalance();
+        this.timestamp = response.getTimestamp();
+        this.status = response.getStatus();
+        this.message = response.getMessage();
+    }
+
+    public TopUpResponseDTO toResponse() {
+        return TopUpResponseDTO.builder()
+                .transactionId(transactionId)
+                .userId(userId)
+                .amount(amount)
+                .newBalance(newBalance)
+                .timestamp(timestamp)
+                .status(status)
+                .message(message)
+                .build();
+    }
+}
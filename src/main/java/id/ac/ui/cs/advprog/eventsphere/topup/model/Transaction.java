@@ -14,7 +14,11 @@ import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_user_timestamp", columnList = "user_id, timestamp, id"),
+        @Index(name = "idx_transactions_user_type_timestamp", columnList = "user_id, type, timestamp, id"),
+        @Index(name = "idx_transactions_timestamp", columnList = "timestamp, id")
+})
 public class Transaction {
 
     public enum TransactionType {
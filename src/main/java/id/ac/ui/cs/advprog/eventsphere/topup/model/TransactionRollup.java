@@ -0,0 +1,64 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Count and amount of SUCCESS transactions of one type in one hour or day bucket, per event,
+ * per user or across the platform. Maintained by {@code TransactionRollupAggregator}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "transaction_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_transaction_rollups_bucket",
+                columnNames = {"dimension", "dimension_key", "granularity", "type", "bucket_start"})
+})
+public class TransactionRollup {
+
+    public enum Dimension {
+        EVENT,
+        USER,
+        ALL
+    }
+
+    public enum Granularity {
+        HOUR,
+        DAY
+    }
+
+    public static final String ALL_KEY = "all";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Dimension dimension;
+
+    @Column(nullable = false)
+    private String dimensionKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Granularity granularity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Transaction.TransactionType type;
+
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+
+    private long transactionCount;
+
+    private long amountTotal;
+}
@@ -0,0 +1,26 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Position (timestamp, id) of the last transaction folded into the rollups
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "transaction_rollup_checkpoints")
+public class TransactionRollupCheckpoint {
+
+    @Id
+    private String name;
+
+    private LocalDateTime lastTimestamp;
+
+    private String lastTransactionId;
+}
@@ -0,0 +1,34 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.repository;
+
+import id.ac.ui.cs.advprog.eventsphere.topup.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    // Re-claims a key whose row is past the TTL or whose unfinished claim is past its lease;
+    // the version bump makes a late save by the previous holder fail
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.fingerprint = :fingerprint, r.completed = false, " +
+            "r.createdAt = :now, r.claimedAt = :now, r.version = r.version + 1 " +
+            "WHERE r.id = :id AND (r.createdAt < :expiredBefore " +
+            "OR (r.completed = false AND r.claimedAt < :staleBefore))")
+    int takeOver(@Param("id") String id,
+                 @Param("fingerprint") String fingerprint,
+                 @Param("now") LocalDateTime now,
+                 @Param("staleBefore") LocalDateTime staleBefore,
+                 @Param("expiredBefore") LocalDateTime expiredBefore);
+}
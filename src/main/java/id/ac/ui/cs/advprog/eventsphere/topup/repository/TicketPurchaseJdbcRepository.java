@@ -0,0 +1,197 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.repository;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.BalanceLedgerJdbcRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Plain JDBC purchase path. The user and ticket rows are read and locked together in one
+ * query, after which the transaction insert, the stock update and the ledger debit go to the
+ * database as one prepared statement. Callers must run inside a transaction so the row locks
+ * are held until it is committed. Queued purchases of one ticket are settled together
+ * through {@link #lockTicket(Long)}, {@link #lockBalances(Collection)} and
+ * {@link #applyPurchases(Long, TicketSnapshot, List, LocalDateTime)}.
+ */
+@Repository
+public class TicketPurchaseJdbcRepository {
+
+    private static final String LOCK_SQL =
+            "SELECT u.id, u.balance + " + BalanceLedgerJdbcRepository.UNFOLDED_SUM + " AS balance, t.price, t.sold, t.quota, t.event_id " +
+            "FROM users u, tickets t WHERE u.id = ? AND t.id = ? FOR UPDATE";
+
+    private static final String PURCHASE_SQL =
+            "INSERT INTO transactions (id, user_id, amount, timestamp, type, status, description, event_id) " +
+            "SELECT ?, u.id, ?, ?, 'TICKET_PURCHASE', 'SUCCESS', CONCAT('Purchase ticket: ', t.name), " +
+            "CAST(t.event_id AS VARCHAR(255)) FROM users u, tickets t WHERE u.id = ? AND t.id = ? " +
+            "AND t.sold < t.quota AND u.balance + " + BalanceLedgerJdbcRepository.UNFOLDED_SUM + " >= ?; " +
+            "UPDATE tickets SET sold = sold + 1, quota = quota - 1 " +
+            "WHERE id = ? AND EXISTS (SELECT 1 FROM transactions x WHERE x.id = ?); " +
+            "INSERT INTO balance_ledger (transaction_id, user_id, amount, entry_type, created_at) " +
+            "SELECT x.id, x.user_id, ?, 'TICKET_PURCHASE', ? FROM transactions x WHERE x.id = ?";
+
+    private static final String LOCK_TICKET_SQL =
+            "SELECT name, price, sold, quota, event_id FROM tickets WHERE id = ? FOR UPDATE";
+
+    // n purchases through the single path each need sold < quota at their turn, and every one
+    // moves sold up and quota down by one, so the last of them needs sold + 2n - 2 < quota
+    private static final String TAKE_STOCK_SQL =
+            "UPDATE tickets SET sold = sold + ?, quota = quota - ? WHERE id = ? AND sold + 2 * ? <= quota + 1";
+
+    private static final String DEBIT_SQL =
+            "INSERT INTO balance_ledger (transaction_id, user_id, amount, entry_type, created_at) " +
+            "SELECT ?, u.id, ?, 'TICKET_PURCHASE', ? FROM users u WHERE u.id = ? " +
+            "AND u.balance + " + BalanceLedgerJdbcRepository.UNFOLDED_SUM + " >= ?";
+
+    private static final String TRANSACTION_SQL =
+            "INSERT INTO transactions (id, user_id, amount, timestamp, type, status, description, event_id) " +
+            "VALUES (?, ?, ?, ?, 'TICKET_PURCHASE', 'SUCCESS', ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TicketPurchaseJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Locks the buyer's balance and the ticket row. Empty when either row is missing. */
+    public Optional<PurchaseSnapshot> lockForPurchase(Long userId, Long ticketId) {
+        List<PurchaseSnapshot> rows = jdbcTemplate.query(LOCK_SQL, (rs, rowNum) -> new PurchaseSnapshot(
+                rs.getLong("id"),
+                rs.getInt("balance"),
+                (int) rs.getDouble("price"),
+                rs.getInt("sold"),
+                rs.getInt("quota"),
+                rs.getLong("event_id")), userId, ticketId);
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * Takes one ticket, appends the debit to the balance ledger and records the SUCCESS
+     * transaction with one prepared statement holding all three, sent in one round trip.
+     * Every guard sits on the transaction insert; the stock update and the debit are keyed
+     * on the row it wrote, so its update count, the only one every driver reports for a
+     * multi-statement execute, says whether the purchase applied. Returns false when it did
+     * not, in which case nothing was written.
+     */
+    public boolean applyPurchase(PurchaseSnapshot snapshot, Long ticketId, String transactionId,
+                                 LocalDateTime timestamp) {
+        Timestamp at = Timestamp.valueOf(timestamp);
+        Integer written = jdbcTemplate.execute(PURCHASE_SQL, (PreparedStatementCallback<Integer>) statement -> {
+            int i = 0;
+            statement.setString(++i, transactionId);
+            statement.setInt(++i, snapshot.price());
+            statement.setTimestamp(++i, at);
+            statement.setLong(++i, snapshot.userId());
+            statement.setLong(++i, ticketId);
+            statement.setInt(++i, snapshot.price());
+            statement.setLong(++i, ticketId);
+            statement.setString(++i, transactionId);
+            statement.setInt(++i, -snapshot.price());
+            statement.setTimestamp(++i, at);
+            statement.setString(++i, transactionId);
+            statement.execute();
+            return statement.getUpdateCount();
+        });
+        return written != null && written == 1;
+    }
+
+    /** Locks the ticket row for a run of queued purchases. Empty when the ticket is missing. */
+    public Optional<TicketSnapshot> lockTicket(Long ticketId) {
+        List<TicketSnapshot> rows = jdbcTemplate.query(LOCK_TICKET_SQL, (rs, rowNum) -> new TicketSnapshot(
+                rs.getString("name"),
+                (int) rs.getDouble("price"),
+                rs.getInt("sold"),
+                rs.getInt("quota"),
+                rs.getLong("event_id")), ticketId);
+        return rows.stream().findFirst();
+    }
+
+    /** Locks the users' rows in id order and returns their balances. Unknown ids are left out. */
+    public Map<Long, Integer> lockBalances(Collection<Long> userIds) {
+        Map<Long, Integer> balances = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return balances;
+        }
+        jdbcTemplate.query("SELECT u.id, u.balance + " + BalanceLedgerJdbcRepository.UNFOLDED_SUM + " AS balance " +
+                "FROM users u WHERE u.id IN (" + String.join(", ", Collections.nCopies(userIds.size(), "?")) + ") " +
+                "ORDER BY u.id FOR UPDATE", rs -> {
+            balances.put(rs.getLong("id"), rs.getInt("balance"));
+        }, userIds.toArray());
+        return balances;
+    }
+
+    /**
+     * Takes {@code purchases.size()} tickets with one conditional update, then appends every
+     * debit and every SUCCESS transaction as two JDBC batches. Each debit is guarded by the
+     * balance left after the ones before it. Callers must hold the locks from
+     * {@link #lockTicket(Long)} and {@link #lockBalances(Collection)}; returns false when any
+     * statement did not apply, and the caller must then roll back.
+     */
+    public boolean applyPurchases(Long ticketId, TicketSnapshot ticket, List<QueuedPurchase> purchases,
+                                  LocalDateTime timestamp) {
+        int count = purchases.size();
+        if (jdbcTemplate.update(TAKE_STOCK_SQL, count, count, ticketId, count) != 1) {
+            return false;
+        }
+
+        Timestamp at = Timestamp.valueOf(timestamp);
+        String description = "Purchase ticket: " + ticket.name();
+        String eventId = String.valueOf(ticket.eventId());
+        int[] debits = jdbcTemplate.batchUpdate(DEBIT_SQL, purchases.stream()
+                .map(p -> new Object[]{p.transactionId(), -ticket.price(), at, p.userId(), ticket.price()})
+                .toList());
+        if (!allApplied(debits, count)) {
+            return false;
+        }
+        int[] transactions = jdbcTemplate.batchUpdate(TRANSACTION_SQL, purchases.stream()
+                .map(p -> new Object[]{p.transactionId(), p.userId(), ticket.price(), at, description, eventId})
+                .toList());
+        return allApplied(transactions, count);
+    }
+
+    private static boolean allApplied(int[] counts, int expected) {
+        if (counts == null || counts.length != expected) {
+            return false;
+        }
+        for (int count : counts) {
+            if (count != 1 && count != Statement.SUCCESS_NO_INFO) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean userExists(Long userId) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE id = ?", Integer.class, userId);
+        return count != null && count > 0;
+    }
+
+    public record PurchaseSnapshot(Long userId, int balance, int price, int sold, int quota, Long eventId) {
+
+        public boolean isSoldOut() {
+            return sold >= quota;
+        }
+    }
+
+    public record TicketSnapshot(String name, int price, int sold, int quota, Long eventId) {
+
+        // Same count as Ticket.remainingPurchases()
+        public int remainingPurchases() {
+            return Math.max(0, (quota - sold + 1) / 2);
+        }
+    }
+
+    public record QueuedPurchase(Long userId, String transactionId) {
+    }
+}
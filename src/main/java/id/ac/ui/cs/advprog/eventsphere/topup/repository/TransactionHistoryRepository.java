@@ -0,0 +1,23 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.repository;
+
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.Transaction;
+import id.ac.ui.cs.advprog.eventsphere.topup.util.TransactionCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TransactionHistoryRepository {
+
+    /**
+     * Keyset page of transactions, newest first. Every argument except {@code limit} may be
+     * null to skip that filter. Rows are projected straight into {@link TransactionDTO}.
+     */
+    List<TransactionDTO> findHistory(Long userId,
+                                     Transaction.TransactionType type,
+                                     Transaction.TransactionStatus status,
+                                     LocalDateTime from,
+                                     LocalDateTime to,
+                                     TransactionCursor after,
+                                     int limit);
+}
@@ -0,0 +1,84 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.repository;
+
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.Transaction;
+import id.ac.ui.cs.advprog.eventsphere.topup.util.TransactionCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Only the filters that are set end up in the query, so each shape can use its own index
+public class TransactionHistoryRepositoryImpl implements TransactionHistoryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TransactionDTO> findHistory(Long userId,
+                                            Transaction.TransactionType type,
+                                            Transaction.TransactionStatus status,
+                                            LocalDateTime from,
+                                            LocalDateTime to,
+                                            TransactionCursor after,
+                                            int limit) {
+        StringBuilder jpql = new StringBuilder(
+                "SELECT t.id, u.id, u.fullName, u.email, t.amount, t.timestamp, t.type, t.status, " +
+                "t.description, t.eventId FROM Transaction t JOIN t.user u WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+
+        if (userId != null) {
+            jpql.append(" AND u.id = :userId");
+            params.put("userId", userId);
+        }
+        if (type != null) {
+            jpql.append(" AND t.type = :type");
+            params.put("type", type);
+        }
+        if (status != null) {
+            jpql.append(" AND t.status = :status");
+            params.put("status", status);
+        }
+        if (from != null) {
+            jpql.append(" AND t.timestamp >= :from");
+            params.put("from", from);
+        }
+        if (to != null) {
+            jpql.append(" AND t.timestamp < :to");
+            params.put("to", to);
+        }
+        if (after != null) {
+            jpql.append(" AND (t.timestamp < :afterTimestamp OR (t.timestamp = :afterTimestamp AND t.id < :afterId))");
+            params.put("afterTimestamp", after.timestamp());
+            params.put("afterId", after.id());
+        }
+        jpql.append(" ORDER BY t.timestamp DESC, t.id DESC");
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class);
+        params.forEach(query::setParameter);
+        query.setMaxResults(limit);
+
+        return query.getResultList().stream()
+                .map(TransactionHistoryRepositoryImpl::toDTO)
+                .toList();
+    }
+
+    private static TransactionDTO toDTO(Object[] row) {
+        String fullName = (String) row[2];
+        return TransactionDTO.builder()
+                .id((String) row[0])
+                .userId((Long) row[1])
+                .username(fullName != null && !fullName.isEmpty() ? fullName : (String) row[3])
+                .amount((Integer) row[4])
+                .timestamp((LocalDateTime) row[5])
+                .type(row[6].toString())
+                .status(row[7].toString())
+                .description((String) row[8])
+                .eventId((String) row[9])
+                .build();
+    }
+}
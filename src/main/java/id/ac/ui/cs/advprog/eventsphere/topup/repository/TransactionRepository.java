@@ -9,7 +9,7 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, String> {
+public interface TransactionRepository extends JpaRepository<Transaction, String>, TransactionHistoryRepository {
     List<Transaction> findByUser(User user);
     List<Transaction> findByUserAndType(User user, Transaction.TransactionType type);
     List<Transaction> findByUserAndStatus(User user, Transaction.TransactionStatus status);
@@ -0,0 +1,25 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.repository;
+
+import id.ac.ui.cs.advprog.eventsphere.topup.model.Transaction;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.TransactionRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TransactionRollupRepository extends JpaRepository<TransactionRollup, Long> {
+
+    @Query("SELECT r FROM TransactionRollup r WHERE r.dimension = :dimension AND r.dimensionKey = :key " +
+           "AND r.granularity = :granularity AND (:type IS NULL OR r.type = :type) " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart, r.type")
+    List<TransactionRollup> findBuckets(@Param("dimension") TransactionRollup.Dimension dimension,
+                                        @Param("key") String key,
+                                        @Param("granularity") TransactionRollup.Granularity granularity,
+                                        @Param("type") Transaction.TransactionType type,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to);
+}
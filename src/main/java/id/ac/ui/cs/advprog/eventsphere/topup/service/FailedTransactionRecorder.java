@@ -0,0 +1,172 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.service;
+
+import id.ac.ui.cs.advprog.eventsphere.topup.model.Transaction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind sink for FAILED transaction rows. Failure branches of the purchase and top-up
+ * paths hand their audit row to a bounded buffer instead of saving it inside the request,
+ * and a scheduled flusher writes the buffer with JDBC batch inserts. Rows are written
+ * outside the request transaction, so they also survive the rollback caused by the
+ * exception that follows them.
+ *
+ * <ul>
+ *   <li>{@code ASYNC}: never blocks the caller; rows are dropped (and counted) when the buffer is full.</li>
+ *   <li>{@code BLOCKING}: waits briefly for space, then writes the row itself.</li>
+ *   <li>{@code SYNC}: writes every row immediately in its own transaction.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class FailedTransactionRecorder {
+
+    public enum Durability {
+        ASYNC,
+        BLOCKING,
+        SYNC
+    }
+
+    private static final String INSERT_SQL =
+            "INSERT INTO transactions (id, user_id, amount, timestamp, type, status, description, event_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTemplate;
+    private final Durability durability;
+    private final int batchSize;
+    private final long offerTimeoutMs;
+    private final BlockingQueue<FailedTransaction> buffer;
+
+    private final Counter recorded;
+    private final Counter flushed;
+    private final Counter dropped;
+
+    @Autowired
+    public FailedTransactionRecorder(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${transaction.audit.durability:ASYNC}") Durability durability,
+                                     @Value("${transaction.audit.capacity:10000}") int capacity,
+                                     @Value("${transaction.audit.batch-size:500}") int batchSize,
+                                     @Value("${transaction.audit.offer-timeout-ms:20}") long offerTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.writeTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.durability = durability;
+        this.batchSize = batchSize;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+
+        Gauge.builder("transaction.audit.queue.depth", buffer, BlockingQueue::size)
+                .description("FAILED transaction rows waiting to be written")
+                .register(meterRegistry);
+        this.recorded = Counter.builder("transaction.audit.recorded").register(meterRegistry);
+        this.flushed = Counter.builder("transaction.audit.flushed").register(meterRegistry);
+        this.dropped = Counter.builder("transaction.audit.dropped")
+                .description("FAILED transaction rows lost because the buffer was full or the write failed")
+                .register(meterRegistry);
+    }
+
+    public void record(Long userId, int amount, Transaction.TransactionType type, String description, String eventId) {
+        FailedTransaction row = new FailedTransaction(UUID.randomUUID().toString(), userId, amount,
+                LocalDateTime.now(), type, description, eventId);
+        recorded.increment();
+
+        switch (durability) {
+            case SYNC -> writeNow(row);
+            case BLOCKING -> {
+                if (!offerWithTimeout(row)) {
+                    writeNow(row);
+                }
+            }
+            default -> {
+                if (!buffer.offer(row)) {
+                    dropped.increment();
+                    log.warn("Audit buffer full, dropped FAILED transaction for user {}", userId);
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${transaction.audit.flush-interval:5}")
+    public void flush() {
+        List<FailedTransaction> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            try {
+                writeBatch(batch);
+                flushed.increment(batch.size());
+            } catch (RuntimeException e) {
+                dropped.increment(batch.size());
+                log.error("Failed to write {} FAILED transaction rows: {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    public int depth() {
+        return buffer.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private boolean offerWithTimeout(FailedTransaction row) {
+        try {
+            return buffer.offer(row, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void writeNow(FailedTransaction row) {
+        try {
+            writeBatch(List.of(row));
+            flushed.increment();
+        } catch (RuntimeException e) {
+            dropped.increment();
+            log.error("Failed to write FAILED transaction for user {}: {}", row.userId(), e.getMessage());
+        }
+    }
+
+    private void writeBatch(List<FailedTransaction> rows) {
+        writeTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+                    ps.setString(1, row.id());
+                    ps.setLong(2, row.userId());
+                    ps.setInt(3, row.amount());
+                    ps.setTimestamp(4, Timestamp.valueOf(row.timestamp()));
+                    ps.setString(5, row.type().name());
+                    ps.setString(6, Transaction.TransactionStatus.FAILED.name());
+                    ps.setString(7, row.description());
+                    ps.setString(8, row.eventId());
+                }));
+    }
+
+    private record FailedTransaction(String id, Long userId, int amount, LocalDateTime timestamp,
+                                     Transaction.TransactionType type, String description, String eventId) {
+    }
+}
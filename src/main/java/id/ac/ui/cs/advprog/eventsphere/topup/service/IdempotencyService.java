@@ -0,0 +1,167 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.service;
+
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TopUpResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.IdempotencyRecord;
+import id.ac.ui.cs.advprog.eventsphere.topup.repository.IdempotencyRecordRepository;
+import id.ac.ui.cs.advprog.eventsphere.topup.util.CurrentUserUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Honors the {@code Idempotency-Key} header on money-moving endpoints. A key is claimed in
+ * the {@code idempotency_keys} table before the operation runs and completed with its
+ * response afterwards; retries replay that response instead of charging again. Recent
+ * responses are kept in a bounded LRU so a retry storm is served from memory.
+ * Failed operations release their claim, so the client can retry with the same key. A claim
+ * left unfinished for longer than {@code idempotency.claim-lease-seconds}, e.g. by a crash,
+ * is taken over by the next retry; the lease must outlast the slowest operation, since the
+ * crashed attempt may have committed. Rows past the TTL are claimed afresh, never replayed.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository repository;
+    private final CurrentUserUtil currentUserUtil;
+    private final long ttlMinutes;
+    private final long claimLeaseSeconds;
+    private final Map<String, IdempotencyRecord> recent;
+
+    @Autowired
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              CurrentUserUtil currentUserUtil,
+                              @Value("${idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${idempotency.ttl-minutes:1440}") long ttlMinutes,
+                              @Value("${idempotency.claim-lease-seconds:60}") long claimLeaseSeconds) {
+        this.repository = repository;
+        this.currentUserUtil = currentUserUtil;
+        this.ttlMinutes = ttlMinutes;
+        this.claimLeaseSeconds = claimLeaseSeconds;
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Runs {@code action} once per key for the current user. {@code fingerprint} describes
+     * the request; reusing a key for a different request is rejected.
+     *
+     * @throws IllegalArgumentException when the key is blank or too long
+     * @throws IllegalStateException when the key is still in progress or was used for another request
+     */
+    public TopUpResponseDTO execute(String key, String operation, String fingerprint,
+                                    Supplier<TopUpResponseDTO> action) {
+        if (key == null || key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = operation + ":" + currentUserUtil.getCurrentUserEmail() + ":" + key;
+
+        Optional<TopUpResponseDTO> replay = replay(id, fingerprint);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+
+        IdempotencyRecord claim;
+        try {
+            claim = repository.saveAndFlush(IdempotencyRecord.builder()
+                    .id(id)
+                    .fingerprint(fingerprint)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Either the key's row is expired or stale, or another request claimed it between our lookup and insert
+            Optional<IdempotencyRecord> takenOver = takeOver(id, fingerprint);
+            if (takenOver.isEmpty()) {
+                return replay(id, fingerprint)
+                        .orElseThrow(() -> new IllegalStateException("A request with this Idempotency-Key is still being processed"));
+            }
+            claim = takenOver.get();
+        }
+
+        TopUpResponseDTO response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            repository.deleteById(id);
+            throw e;
+        }
+
+        claim.complete(response);
+        try {
+            recent.put(id, repository.save(claim));
+        } catch (RuntimeException e) {
+            // The operation itself committed; keep serving the replay from this node
+            log.warn("Could not store response for idempotency key {}: {}", id, e.getMessage());
+            recent.put(id, claim);
+        }
+        return response;
+    }
+
+    private Optional<TopUpResponseDTO> replay(String id, String fingerprint) {
+        IdempotencyRecord record = recent.get(id);
+        if (record == null || isExpired(record)) {
+            record = repository.findById(id).orElse(null);
+            if (record == null || isExpired(record)) {
+                return Optional.empty();
+            }
+            if (!record.isCompleted()) {
+                if (isStale(record)) {
+                    return Optional.empty();
+                }
+                throw new IllegalStateException("A request with this Idempotency-Key is still being processed");
+            }
+            recent.put(id, record);
+        }
+        if (!record.getFingerprint().equals(fingerprint)) {
+            throw new IllegalStateException("Idempotency-Key was already used for a different request");
+        }
+        return Optional.of(record.toResponse());
+    }
+
+    private Optional<IdempotencyRecord> takeOver(String id, String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        if (repository.takeOver(id, fingerprint, now, now.minusSeconds(claimLeaseSeconds), now.minusMinutes(ttlMinutes)) != 1) {
+            return Optional.empty();
+        }
+        recent.remove(id);
+        log.warn("Took over idempotency key {} from an expired or abandoned claim", id);
+        return repository.findById(id);
+    }
+
+    private boolean isStale(IdempotencyRecord record) {
+        return record.getClaimedAt() != null
+                && record.getClaimedAt().isBefore(LocalDateTime.now().minusSeconds(claimLeaseSeconds));
+    }
+
+    private boolean isExpired(IdempotencyRecord record) {
+        return record.getCreatedAt() != null
+                && record.getCreatedAt().isBefore(LocalDateTime.now().minusMinutes(ttlMinutes));
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval:3600000}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(ttlMinutes);
+        synchronized (recent) {
+            recent.values().removeIf(record -> record.getCreatedAt() != null && record.getCreatedAt().isBefore(cutoff));
+        }
+        int removed = repository.deleteCreatedBefore(cutoff);
+        if (removed > 0) {
+            log.info("Purged {} expired idempotency keys", removed);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.service;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.security.AuthenticatedUser;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.PurchaseQueueStatusDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TopUpResponseDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Waiting room for hot ticket launches. Every ticket gets its own bounded FIFO lane, and
+ * each lane is drained by a single writer in batches. A batch is settled in one transaction
+ * with one stock update, so the ticket row never sees contending transactions. If that
+ * transaction fails, the batch's buyers are retried one at a time so that one bad row
+ * cannot fail the rest. Buyers get a token straight away and poll it for the outcome. A drain
+ * the executor turns away is retried on a timer, so waiting buyers never depend on someone
+ * else joining the lane.
+ */
+@Service
+@Slf4j
+public class TicketPurchaseQueue {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String SUCCESS = "SUCCESS";
+    public static final String FAILED = "FAILED";
+
+    private final TransactionService transactionService;
+    private final Executor executor;
+    private final TaskScheduler scheduler;
+    private final int capacity;
+    private final int batchSize;
+    private final long resultTtlMillis;
+    private final long drainRetryMillis;
+
+    private final ConcurrentHashMap<Long, Lane> lanes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong lastPrune = new AtomicLong(System.currentTimeMillis());
+
+    @Autowired
+    public TicketPurchaseQueue(TransactionService transactionService,
+                               @Qualifier("purchaseQueueExecutor") Executor executor,
+                               TaskScheduler scheduler,
+                               @Value("${purchase.queue.capacity:5000}") int capacity,
+                               @Value("${purchase.queue.batch-size:50}") int batchSize,
+                               @Value("${purchase.queue.result-ttl:600000}") long resultTtlMillis,
+                               @Value("${purchase.queue.drain-retry-ms:200}") long drainRetryMillis) {
+        this.transactionService = transactionService;
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.resultTtlMillis = resultTtlMillis;
+        this.drainRetryMillis = drainRetryMillis;
+    }
+
+    public PurchaseQueueStatusDTO enqueue(Long ticketId, AuthenticatedUser buyer) {
+        if (ticketId == null || ticketId <= 0) {
+            throw new IllegalArgumentException("Invalid ticket ID");
+        }
+        pruneExpired();
+
+        Lane lane = lanes.computeIfAbsent(ticketId, id -> new Lane(capacity));
+        Entry entry = new Entry(UUID.randomUUID().toString(), ticketId, buyer);
+
+        synchronized (lane) {
+            if (!lane.pending.offer(entry)) {
+                throw new IllegalStateException("Purchase queue for ticket " + ticketId + " is full, please retry later");
+            }
+            entry.sequence = lane.enqueued.incrementAndGet();
+        }
+        entries.put(entry.token, entry);
+        scheduleDrain(lane);
+
+        return toStatus(entry);
+    }
+
+    public PurchaseQueueStatusDTO poll(String token, String email) {
+        Entry entry = entries.get(token);
+        if (entry == null || !entry.buyer.getEmail().equals(email)) {
+            throw new RuntimeException("Queue token not found");
+        }
+        return toStatus(entry);
+    }
+
+    public int depth(Long ticketId) {
+        Lane lane = lanes.get(ticketId);
+        return lane != null ? lane.pending.size() : 0;
+    }
+
+    private void scheduleDrain(Lane lane) {
+        if (lane.draining.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> drain(lane));
+            } catch (RejectedExecutionException e) {
+                lane.draining.set(false);
+                log.warn("Purchase queue drain rejected, retrying in {} ms with {} buyers waiting",
+                        drainRetryMillis, lane.pending.size());
+                retryDrain(lane);
+            }
+        }
+    }
+
+    // An enqueue in the meantime may already have started the drain; scheduleDrain then does nothing
+    private void retryDrain(Lane lane) {
+        try {
+            scheduler.schedule(() -> scheduleDrain(lane), Instant.now().plusMillis(drainRetryMillis));
+        } catch (RejectedExecutionException e) {
+            log.error("Could not schedule purchase queue drain retry, {} buyers waiting", lane.pending.size(), e);
+        }
+    }
+
+    // Processes one batch, then hands the thread back so other lanes get a turn
+    private void drain(Lane lane) {
+        try {
+            List<Entry> batch = new ArrayList<>(batchSize);
+            lane.pending.drainTo(batch, batchSize);
+            if (!batch.isEmpty()) {
+                process(lane, batch);
+            }
+        } finally {
+            lane.draining.set(false);
+            if (!lane.pending.isEmpty()) {
+                scheduleDrain(lane);
+            }
+        }
+    }
+
+    private void process(Lane lane, List<Entry> batch) {
+        Long ticketId = batch.get(0).ticketId;
+        List<TopUpResponseDTO> results;
+        try {
+            results = transactionService.processTicketPurchases(ticketId,
+                    batch.stream().map(entry -> entry.buyer).toList());
+        } catch (Exception e) {
+            log.warn("Purchase batch for ticket {} failed, retrying {} buyers one by one: {}",
+                    ticketId, batch.size(), e.getMessage());
+            for (Entry entry : batch) {
+                process(entry);
+                lane.completed.incrementAndGet();
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            complete(batch.get(i), results.get(i));
+            lane.completed.incrementAndGet();
+        }
+    }
+
+    private void process(Entry entry) {
+        try {
+            complete(entry, transactionService.processTicketPurchase(entry.ticketId, entry.buyer));
+        } catch (Exception e) {
+            entry.message = e.getMessage();
+            entry.status = FAILED;
+            entry.completedAt = System.currentTimeMillis();
+        }
+    }
+
+    private static void complete(Entry entry, TopUpResponseDTO result) {
+        entry.result = result;
+        if (SUCCESS.equals(result.getStatus())) {
+            entry.status = SUCCESS;
+        } else {
+            entry.message = result.getMessage();
+            entry.status = FAILED;
+        }
+        entry.completedAt = System.currentTimeMillis();
+    }
+
+    private PurchaseQueueStatusDTO toStatus(Entry entry) {
+        long position = 0;
+        if (QUEUED.equals(entry.status)) {
+            Lane lane = lanes.get(entry.ticketId);
+            long done = lane != null ? lane.completed.get() : 0;
+            position = Math.max(0, entry.sequence - done - 1);
+        }
+        TopUpResponseDTO result = entry.result;
+        if (result == null && FAILED.equals(entry.status)) {
+            result = TopUpResponseDTO.builder()
+                    .status(FAILED)
+                    .timestamp(LocalDateTime.now())
+                    .message(entry.message)
+                    .build();
+        }
+        return PurchaseQueueStatusDTO.builder()
+                .token(entry.token)
+                .ticketId(entry.ticketId)
+                .status(entry.status)
+                .position(position)
+                .result(result)
+                .message(entry.message)
+                .build();
+    }
+
+    private void pruneExpired() {
+        long now = System.currentTimeMillis();
+        long last = lastPrune.get();
+        if (now - last < 30_000 || !lastPrune.compareAndSet(last, now)) {
+            return;
+        }
+        entries.values().removeIf(entry -> entry.completedAt > 0 && now - entry.completedAt > resultTtlMillis);
+        lanes.entrySet().removeIf(e -> e.getValue().pending.isEmpty() && !e.getValue().draining.get()
+                && e.getValue().enqueued.get() == e.getValue().completed.get());
+    }
+
+    private static final class Lane {
+        private final BlockingQueue<Entry> pending;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicLong enqueued = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+
+        private Lane(int capacity) {
+            this.pending = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    private static final class Entry {
+        private final String token;
+        private final Long ticketId;
+        private final AuthenticatedUser buyer;
+        private long sequence;
+        private volatile String status = QUEUED;
+        private volatile TopUpResponseDTO result;
+        private volatile String message;
+        private volatile long completedAt;
+
+        private Entry(String token, Long ticketId, AuthenticatedUser buyer) {
+            this.token = token;
+            this.ticketId = ticketId;
+            this.buyer = buyer;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package id.ac.ui.cs.advprog.eventsphere.topup.service;
 
 import id.ac.ui.cs.advprog.eventsphere.topup.dto.TopUpRequestDTO;
 import id.ac.ui.cs.advprog.eventsphere.topup.dto.TopUpResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionHistoryFilter;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionPageDTO;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 import id.ac.ui.cs.advprog.eventsphere.topup.model.Transaction;
 
@@ -11,6 +13,7 @@ public interface TopUpService {
     TopUpResponseDTO processTopUp(TopUpRequestDTO topUpRequest);
     List<Transaction> getCurrentUserTopUpTransactions();
     List<Transaction> getUserTopUpTransactions(Long userId); // Admin only method
+    TransactionPageDTO getCurrentUserTopUpHistory(TransactionHistoryFilter filter);
     User getCurrentUserDetails();
     User getUserById(Long userId); // Admin only method
 }
\ No newline at end of file
@@ -2,10 +2,13 @@ package id.ac.ui.cs.advprog.eventsphere.topup.service;
 
 import id.ac.ui.cs.advprog.eventsphere.topup.dto.TopUpRequestDTO;
 import id.ac.ui.cs.advprog.eventsphere.topup.dto.TopUpResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionHistoryFilter;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionPageDTO;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 import id.ac.ui.cs.advprog.eventsphere.topup.model.*;
 import id.ac.ui.cs.advprog.eventsphere.topup.repository.TransactionRepository;
 import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.authentication.service.UserBalanceService;
 import id.ac.ui.cs.advprog.eventsphere.topup.strategy.TopUpFactory;
 import id.ac.ui.cs.advprog.eventsphere.topup.strategy.TopUpStrategy;
 import id.ac.ui.cs.advprog.eventsphere.topup.util.CurrentUserUtil;
@@ -27,35 +30,39 @@ public class TopUpServiceImpl implements TopUpService {
     private final TopUpStrategy topUpStrategy;
     private final TopUpFactory topUpFactory;
     private final CurrentUserUtil currentUserUtil;
+    private final FailedTransactionRecorder failedTransactionRecorder;
+    private final TransactionService transactionService;
+    private final UserBalanceService userBalanceService;
 
     @Autowired
     public TopUpServiceImpl(UserRepository userRepository,
                             TransactionRepository transactionRepository,
                             TopUpStrategy topUpStrategy,
                             TopUpFactory topUpFactory,
-                            CurrentUserUtil currentUserUtil) {
+                            CurrentUserUtil currentUserUtil,
+                            FailedTransactionRecorder failedTransactionRecorder,
+                            TransactionService transactionService,
+                            UserBalanceService userBalanceService) {
         this.userRepository = userRepository;
         this.transactionRepository = transactionRepository;
         this.topUpStrategy = topUpStrategy;
         this.topUpFactory = topUpFactory;
         this.currentUserUtil = currentUserUtil;
+        this.failedTransactionRecorder = failedTransactionRecorder;
+        this.transactionService = transactionService;
+        this.userBalanceService = userBalanceService;
     }
 
     @Override
     @Transactional
     public TopUpResponseDTO processTopUp(TopUpRequestDTO topUpRequest) {
-        // Get the current authenticated user by email
-        String email = currentUserUtil.getCurrentUserEmail();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // The id comes from the token; the reference is only used as a foreign key
+        User user = userRepository.getReferenceById(currentUserUtil.getCurrentUserId());
 
         TopUp topUp;
         try {
             topUp = topUpFactory.createTopUp(topUpRequest.getTopUpType(), topUpRequest.getAmount());
 
-            topUpStrategy.executeTopUp(user, topUp);
-            userRepository.save(user);
-
             Transaction transaction = Transaction.builder()
                     .user(user)
                     .amount(topUp.getAmount())
@@ -66,27 +73,22 @@ public class TopUpServiceImpl implements TopUpService {
                     .build();
 
             transaction = transactionRepository.save(transaction);
+            // The credit is a ledger entry keyed by the transaction, so the row is saved first
+            topUpStrategy.executeTopUp(user, topUp, transaction.getId());
+            int newBalance = userBalanceService.getBalance(user);
 
             return TopUpResponseDTO.builder()
                     .transactionId(transaction.getId())
                     .userId(user.getId())
                     .amount(topUp.getAmount())
-                    .newBalance(user.getBalance())
+                    .newBalance(newBalance)
                     .timestamp(transaction.getTimestamp())
                     .status(transaction.getStatus().toString())
                     .build();
 
         } catch (IllegalArgumentException e) {
-            Transaction transaction = Transaction.builder()
-                    .user(user)
-                    .amount(topUpRequest.getAmount())
-                    .timestamp(LocalDateTime.now())
-                    .type(Transaction.TransactionType.TOP_UP)
-                    .status(Transaction.TransactionStatus.FAILED)
-                    .description("Failed: " + e.getMessage())
-                    .build();
-
-            transaction = transactionRepository.save(transaction);
+            failedTransactionRecorder.record(user.getId(), topUpRequest.getAmount(),
+                    Transaction.TransactionType.TOP_UP, "Failed: " + e.getMessage(), null);
 
             throw new IllegalArgumentException(e.getMessage());
         }
@@ -107,13 +109,17 @@ public class TopUpServiceImpl implements TopUpService {
 
     @Override
     public List<Transaction> getCurrentUserTopUpTransactions() {
-        String email = currentUserUtil.getCurrentUserEmail();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userRepository.getReferenceById(currentUserUtil.getCurrentUserId());
 
         return transactionRepository.findByUserAndType(user, Transaction.TransactionType.TOP_UP);
     }
 
+    @Override
+    public TransactionPageDTO getCurrentUserTopUpHistory(TransactionHistoryFilter filter) {
+        filter.setType(Transaction.TransactionType.TOP_UP.name());
+        return transactionService.getCurrentUserTransactionHistory(filter);
+    }
+
     @Override
     @PreAuthorize("hasRole('ADMIN')")
     public List<Transaction> getUserTopUpTransactions(Long userId) {
@@ -125,8 +131,7 @@ public class TopUpServiceImpl implements TopUpService {
 
     @Override
     public User getCurrentUserDetails() {
-        String email = currentUserUtil.getCurrentUserEmail();
-        return userRepository.findByEmail(email)
+        return userRepository.findById(currentUserUtil.getCurrentUserId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
@@ -0,0 +1,217 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionHistoryFilter;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.Transaction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the transactions table to finance as CSV or NDJSON. Rows are read through a
+ * server-side cursor with a bounded fetch size and written straight to the response stream,
+ * so memory use does not grow with the size of the table.
+ */
+@Service
+@Slf4j
+public class TransactionExportService {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    private static final String CSV_HEADER =
+            "id,user_id,username,amount,timestamp,type,status,description,event_id\n";
+    private static final int PROGRESS_LOG_INTERVAL = 100_000;
+
+    private final JdbcTemplate cursorTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicInteger activeExports = new AtomicInteger();
+    private final Counter exportedRows;
+    private final Timer exportDuration;
+
+    @Autowired
+    public TransactionExportService(DataSource dataSource,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${transaction.export.fetch-size:500}") int fetchSize) {
+        // PostgreSQL only uses a cursor when a fetch size is set inside a transaction
+        this.cursorTemplate = new JdbcTemplate(dataSource);
+        this.cursorTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+
+        Gauge.builder("transaction.export.active", activeExports, AtomicInteger::get)
+                .description("Transaction exports currently streaming")
+                .register(meterRegistry);
+        this.exportedRows = Counter.builder("transaction.export.rows")
+                .description("Rows written by transaction exports")
+                .register(meterRegistry);
+        this.exportDuration = Timer.builder("transaction.export.duration").register(meterRegistry);
+    }
+
+    /** Writes every transaction matching {@code filter}, oldest first. Closes {@code out}. */
+    public long export(TransactionHistoryFilter filter, Format format, boolean gzip, OutputStream out) throws IOException {
+        Transaction.TransactionType type = filter.resolveType();
+        Transaction.TransactionStatus status = filter.resolveStatus();
+
+        StringBuilder sql = new StringBuilder(
+                "SELECT t.id, t.user_id, u.full_name, u.email, t.amount, t.timestamp, t.type, t.status, " +
+                "t.description, t.event_id FROM transactions t LEFT JOIN users u ON u.id = t.user_id WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (type != null) {
+            sql.append(" AND t.type = ?");
+            args.add(type.name());
+        }
+        if (status != null) {
+            sql.append(" AND t.status = ?");
+            args.add(status.name());
+        }
+        if (filter.getFrom() != null) {
+            sql.append(" AND t.timestamp >= ?");
+            args.add(Timestamp.valueOf(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            sql.append(" AND t.timestamp < ?");
+            args.add(Timestamp.valueOf(filter.getTo()));
+        }
+        sql.append(" ORDER BY t.timestamp, t.id");
+
+        activeExports.incrementAndGet();
+        Timer.Sample sample = Timer.start();
+        long[] written = {0};
+        try (OutputStream sink = gzip
+                ? new BufferedOutputStream(new GZIPOutputStream(out, 8192), 8192)
+                : new BufferedOutputStream(out, 8192)) {
+            if (format == Format.CSV) {
+                sink.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+            }
+            readOnlyTransaction.executeWithoutResult(tx ->
+                    cursorTemplate.query(sql.toString(), rs -> {
+                        writeRow(format, toDTO(rs), sink);
+                        exportedRows.increment();
+                        if (++written[0] % PROGRESS_LOG_INTERVAL == 0) {
+                            log.info("Transaction export progress: {} rows", written[0]);
+                        }
+                    }, args.toArray()));
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the cursor has already been released
+            throw e.getCause();
+        } finally {
+            activeExports.decrementAndGet();
+            sample.stop(exportDuration);
+        }
+        log.info("Transaction export finished: {} rows as {}", written[0], format);
+        return written[0];
+    }
+
+    private void writeRow(Format format, TransactionDTO row, OutputStream sink) {
+        try {
+            if (format == Format.NDJSON) {
+                sink.write(objectMapper.writeValueAsBytes(row));
+                sink.write('\n');
+            } else {
+                sink.write(toCsvLine(row).getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static TransactionDTO toDTO(ResultSet rs) throws SQLException {
+        String fullName = rs.getString("full_name");
+        Timestamp timestamp = rs.getTimestamp("timestamp");
+        Long userId = rs.getLong("user_id");
+        if (rs.wasNull()) {
+            userId = null;
+        }
+        return TransactionDTO.builder()
+                .id(rs.getString("id"))
+                .userId(userId)
+                .username(fullName != null && !fullName.isEmpty() ? fullName : rs.getString("email"))
+                .amount(rs.getInt("amount"))
+                .timestamp(timestamp != null ? timestamp.toLocalDateTime() : null)
+                .type(rs.getString("type"))
+                .status(rs.getString("status"))
+                .description(rs.getString("description"))
+                .eventId(rs.getString("event_id"))
+                .build();
+    }
+
+    static String toCsvLine(TransactionDTO row) {
+        return String.join(",",
+                csv(row.getId()),
+                row.getUserId() != null ? row.getUserId().toString() : "",
+                csv(row.getUsername()),
+                Integer.toString(row.getAmount()),
+                row.getTimestamp() != null ? row.getTimestamp().toString() : "",
+                csv(row.getType()),
+                csv(row.getStatus()),
+                csv(row.getDescription()),
+                csv(row.getEventId())) + "\n";
+    }
+
+    // RFC 4180 quoting, plus a leading quote so spreadsheets never evaluate text as a formula
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        String text = !value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -0,0 +1,179 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.service;
+
+import id.ac.ui.cs.advprog.eventsphere.topup.model.Transaction;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.TransactionRollup;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.TransactionRollup.Dimension;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.TransactionRollup.Granularity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incremental rollup stage. Each run reads the SUCCESS transactions inserted after the last
+ * checkpoint, in (timestamp, id) order, adds them to the hour and day buckets of their event,
+ * their user and the platform, and moves the checkpoint, all in one transaction. A crash
+ * therefore never counts a transaction twice. Rows younger than {@code lag-seconds} are left
+ * for the next run so that transactions still committing are not skipped.
+ */
+@Component
+@Slf4j
+public class TransactionRollupAggregator {
+
+    static final String CHECKPOINT = "transaction-rollup";
+
+    private static final String SELECT_COLUMNS =
+            "SELECT id, user_id, amount, timestamp, type, event_id FROM transactions " +
+            "WHERE status = 'SUCCESS' AND timestamp <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTemplate;
+    private final int batchSize;
+    private final long lagSeconds;
+    private final Counter aggregated;
+
+    @Autowired
+    public TransactionRollupAggregator(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${transaction.rollup.batch-size:5000}") int batchSize,
+                                       @Value("${transaction.rollup.lag-seconds:30}") long lagSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.writeTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        this.lagSeconds = lagSeconds;
+        this.aggregated = Counter.builder("transaction.rollup.aggregated")
+                .description("SUCCESS transactions folded into the rollup buckets")
+                .register(meterRegistry);
+    }
+
+    /** Catches the rollups up with the transactions table. Returns the transactions added. */
+    @Scheduled(fixedDelayString = "${transaction.rollup.interval:30000}")
+    public int aggregate() {
+        LocalDateTime horizon = LocalDateTime.now().minusSeconds(lagSeconds);
+        int total = 0;
+        int batch;
+        do {
+            Integer added = writeTemplate.execute(status -> aggregateBatch(horizon));
+            batch = added != null ? added : 0;
+            total += batch;
+        } while (batch == batchSize);
+        if (total > 0) {
+            aggregated.increment(total);
+            log.debug("Rolled up {} transactions", total);
+        }
+        return total;
+    }
+
+    /** Drops every bucket and replays the whole transactions table, e.g. after manual corrections. */
+    public int rebuild() {
+        writeTemplate.executeWithoutResult(status -> {
+            lockCheckpoint();
+            jdbcTemplate.update("DELETE FROM transaction_rollups");
+            jdbcTemplate.update("UPDATE transaction_rollup_checkpoints SET last_timestamp = NULL, " +
+                    "last_transaction_id = NULL WHERE name = ?", CHECKPOINT);
+        });
+        log.info("Transaction rollups cleared, replaying transactions");
+        return aggregate();
+    }
+
+    private int aggregateBatch(LocalDateTime horizon) {
+        Object[] checkpoint = lockCheckpoint();
+        List<Object> args = new ArrayList<>();
+        args.add(Timestamp.valueOf(horizon));
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS);
+        if (checkpoint[0] != null) {
+            sql.append(" AND (timestamp > ? OR (timestamp = ? AND id > ?))");
+            args.add(checkpoint[0]);
+            args.add(checkpoint[0]);
+            args.add(checkpoint[1]);
+        }
+        sql.append(" ORDER BY timestamp, id LIMIT ?");
+        args.add(batchSize);
+
+        Map<BucketKey, long[]> deltas = new HashMap<>();
+        Object[] last = new Object[2];
+        int[] rows = {0};
+        jdbcTemplate.query(sql.toString(), rs -> {
+            Timestamp timestamp = rs.getTimestamp("timestamp");
+            Transaction.TransactionType type = Transaction.TransactionType.valueOf(rs.getString("type"));
+            int amount = rs.getInt("amount");
+            long userId = rs.getLong("user_id");
+            boolean hasUser = !rs.wasNull();
+            String eventId = rs.getString("event_id");
+
+            LocalDateTime time = timestamp.toLocalDateTime();
+            for (Granularity granularity : Granularity.values()) {
+                LocalDateTime bucket = time.truncatedTo(granularity == Granularity.HOUR ? ChronoUnit.HOURS : ChronoUnit.DAYS);
+                add(deltas, new BucketKey(Dimension.ALL, TransactionRollup.ALL_KEY, granularity, type, bucket), amount);
+                if (hasUser) {
+                    add(deltas, new BucketKey(Dimension.USER, Long.toString(userId), granularity, type, bucket), amount);
+                }
+                if (eventId != null && !eventId.isEmpty()) {
+                    add(deltas, new BucketKey(Dimension.EVENT, eventId, granularity, type, bucket), amount);
+                }
+            }
+            last[0] = timestamp;
+            last[1] = rs.getString("id");
+            rows[0]++;
+        }, args.toArray());
+
+        if (rows[0] == 0) {
+            return 0;
+        }
+        deltas.forEach(this::applyDelta);
+        jdbcTemplate.update("UPDATE transaction_rollup_checkpoints SET last_timestamp = ?, last_transaction_id = ? " +
+                "WHERE name = ?", last[0], last[1], CHECKPOINT);
+        return rows[0];
+    }
+
+    // Serialises aggregator runs across instances; creates the checkpoint on first use
+    private Object[] lockCheckpoint() {
+        jdbcTemplate.update("INSERT INTO transaction_rollup_checkpoints (name) SELECT ? WHERE NOT EXISTS " +
+                "(SELECT 1 FROM transaction_rollup_checkpoints WHERE name = ?)", CHECKPOINT, CHECKPOINT);
+        return jdbcTemplate.queryForObject("SELECT last_timestamp, last_transaction_id " +
+                        "FROM transaction_rollup_checkpoints WHERE name = ? FOR UPDATE",
+                (rs, rowNum) -> new Object[]{rs.getTimestamp(1), rs.getString(2)}, CHECKPOINT);
+    }
+
+    private void applyDelta(BucketKey key, long[] delta) {
+        Timestamp bucket = Timestamp.valueOf(key.bucketStart());
+        int updated = jdbcTemplate.update("UPDATE transaction_rollups SET transaction_count = transaction_count + ?, " +
+                        "amount_total = amount_total + ? WHERE dimension = ? AND dimension_key = ? " +
+                        "AND granularity = ? AND type = ? AND bucket_start = ?",
+                delta[0], delta[1], key.dimension().name(), key.dimensionKey(), key.granularity().name(),
+                key.type().name(), bucket);
+        if (updated == 0) {
+            jdbcTemplate.update("INSERT INTO transaction_rollups (dimension, dimension_key, granularity, type, " +
+                            "bucket_start, transaction_count, amount_total) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    key.dimension().name(), key.dimensionKey(), key.granularity().name(), key.type().name(),
+                    bucket, delta[0], delta[1]);
+        }
+    }
+
+    private static void add(Map<BucketKey, long[]> deltas, BucketKey key, int amount) {
+        long[] delta = deltas.computeIfAbsent(key, k -> new long[2]);
+        delta[0]++;
+        delta[1] += amount;
+    }
+
+    private record BucketKey(Dimension dimension, String dimensionKey, Granularity granularity,
+                             Transaction.TransactionType type, LocalDateTime bucketStart) {
+    }
+}
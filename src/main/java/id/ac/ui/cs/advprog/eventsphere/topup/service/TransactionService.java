@@ -1,15 +1,23 @@
 package id.ac.ui.cs.advprog.eventsphere.topup.service;
 
+import id.ac.ui.cs.advprog.eventsphere.authentication.security.AuthenticatedUser;
 import id.ac.ui.cs.advprog.eventsphere.topup.dto.TopUpResponseDTO;
 import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionHistoryFilter;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionPageDTO;
 
 import java.util.List;
 
 public interface TransactionService {
     TopUpResponseDTO processTicketPurchaseById(Long ticketId);
+    TopUpResponseDTO processTicketPurchase(Long ticketId, AuthenticatedUser buyer); // For callers without a security context
+    List<TopUpResponseDTO> processTicketPurchases(Long ticketId, List<AuthenticatedUser> buyers); // One response per buyer, in order
+    TopUpResponseDTO confirmReservation(Long reservationId); // Pays for a ticket hold
     List<TransactionDTO> getAllTransactions(); // Admin only
     List<TransactionDTO> getCurrentUserTransactions();
     List<TransactionDTO> getUserTransactions(Long userId); // Admin only
+    TransactionPageDTO getTransactionHistory(TransactionHistoryFilter filter); // Admin only, all users
+    TransactionPageDTO getCurrentUserTransactionHistory(TransactionHistoryFilter filter);
     boolean deleteTransaction(String transactionId);
     boolean markTransactionAsFailed(String transactionId);
     TransactionDTO getTransactionById(String transactionId);
@@ -2,13 +2,24 @@ package id.ac.ui.cs.advprog.eventsphere.topup.service;
 
 import id.ac.ui.cs.advprog.eventsphere.topup.dto.TopUpResponseDTO;
 import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionHistoryFilter;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionPageDTO;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import id.ac.ui.cs.advprog.eventsphere.authentication.security.AuthenticatedUser;
+import id.ac.ui.cs.advprog.eventsphere.authentication.service.UserBalanceService;
 import id.ac.ui.cs.advprog.eventsphere.topup.model.Transaction;
+import id.ac.ui.cs.advprog.eventsphere.topup.repository.TicketPurchaseJdbcRepository;
+import id.ac.ui.cs.advprog.eventsphere.topup.repository.TicketPurchaseJdbcRepository.PurchaseSnapshot;
+import id.ac.ui.cs.advprog.eventsphere.topup.repository.TicketPurchaseJdbcRepository.QueuedPurchase;
+import id.ac.ui.cs.advprog.eventsphere.topup.repository.TicketPurchaseJdbcRepository.TicketSnapshot;
 import id.ac.ui.cs.advprog.eventsphere.topup.repository.TransactionRepository;
 import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
 import id.ac.ui.cs.advprog.eventsphere.ticket.dto.TicketResponse;
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.TicketReservation;
+import id.ac.ui.cs.advprog.eventsphere.ticket.service.TicketReservationService;
 import id.ac.ui.cs.advprog.eventsphere.ticket.service.TicketService;
 import id.ac.ui.cs.advprog.eventsphere.topup.util.CurrentUserUtil;
+import id.ac.ui.cs.advprog.eventsphere.topup.util.TransactionCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -17,151 +28,298 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.annotation.Propagation; 
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
 public class TransactionServiceImpl implements TransactionService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final UserRepository userRepository;
     private final TransactionRepository transactionRepository;
     private final CurrentUserUtil currentUserUtil;
     private final TicketService ticketService;
+    private final TicketReservationService reservationService;
+    private final TicketPurchaseJdbcRepository purchaseRepository;
+    private final FailedTransactionRecorder failedTransactionRecorder;
+    private final UserBalanceService userBalanceService;
 
     @Autowired
     public TransactionServiceImpl(UserRepository userRepository,
                                   TransactionRepository transactionRepository,
                                   CurrentUserUtil currentUserUtil,
-                                  TicketService ticketService) {
+                                  TicketService ticketService,
+                                  TicketReservationService reservationService,
+                                  TicketPurchaseJdbcRepository purchaseRepository,
+                                  FailedTransactionRecorder failedTransactionRecorder,
+                                  UserBalanceService userBalanceService) {
         this.userRepository = userRepository;
         this.transactionRepository = transactionRepository;
         this.currentUserUtil = currentUserUtil;
         this.ticketService = ticketService;
+        this.reservationService = reservationService;
+        this.purchaseRepository = purchaseRepository;
+        this.failedTransactionRecorder = failedTransactionRecorder;
+        this.userBalanceService = userBalanceService;
     }
 
     @Override
     @Transactional(propagation = Propagation.REQUIRED)
     public TopUpResponseDTO processTicketPurchaseById(Long ticketId) {
+        if (ticketId == null || ticketId <= 0) {
+            throw new IllegalArgumentException("Invalid ticket ID");
+        }
+        return processTicketPurchase(ticketId, currentUserUtil.getCurrentUser());
+    }
+
+    /**
+     * Purchase path with two database round trips: one query that locks the buyer's balance
+     * and the ticket row together, and one prepared statement that inserts the transaction,
+     * takes the ticket and appends the debit to the balance ledger. Buyers of a sold-out ticket are turned away
+     * by the in-memory stock front before any of that happens.
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED)
+    public TopUpResponseDTO processTicketPurchase(Long ticketId, AuthenticatedUser buyer) {
+        if (ticketId == null || ticketId <= 0) {
+            throw new IllegalArgumentException("Invalid ticket ID");
+        }
+
+        boolean admitted;
         try {
-            if (ticketId == null || ticketId <= 0) {
-                throw new IllegalArgumentException("Invalid ticket ID");
-            }
+            admitted = ticketService.tryAdmitPurchase(ticketId);
+        } catch (RuntimeException e) {
+            recordFailure(buyer.getId(), 0, "Failed: Ticket not found - " + e.getMessage(), "N/A");
+            throw new RuntimeException("Ticket not found: " + e.getMessage());
+        }
+        if (!admitted) {
+            recordFailure(buyer.getId(), 0, "Failed: Ticket is sold out", "N/A");
+            throw new RuntimeException("Ticket is sold out");
+        }
 
-            String email = currentUserUtil.getCurrentUserEmail();
-            User user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            TicketResponse ticketInfo;
-            try {
-                ticketInfo = ticketService.getTicketById(ticketId);
-                if (ticketInfo == null) {
-                    throw new RuntimeException("Ticket not found");
-                }
-            } catch (Exception e) {
-                Transaction failedTransaction = Transaction.builder()
-                        .user(user)
-                        .amount(0)
-                        .timestamp(LocalDateTime.now())
-                        .type(Transaction.TransactionType.TICKET_PURCHASE)
-                        .status(Transaction.TransactionStatus.FAILED)
-                        .description("Failed: Ticket not found - " + e.getMessage())
-                        .eventId("N/A")
-                        .build();
-                transactionRepository.save(failedTransaction);
-                throw new RuntimeException("Ticket not found: " + e.getMessage());
-            }
-            
-            if (ticketInfo.isSoldOut()) {
-                Transaction failedTransaction = Transaction.builder()
-                        .user(user)
-                        .amount((int) ticketInfo.getPrice())
-                        .timestamp(LocalDateTime.now())
-                        .type(Transaction.TransactionType.TICKET_PURCHASE)
-                        .status(Transaction.TransactionStatus.FAILED)
-                        .description("Failed: Ticket is sold out")
-                        .eventId(String.valueOf(ticketInfo.getEventId()))
-                        .build();
-                transactionRepository.save(failedTransaction);
+        boolean completed = false;
+        boolean soldOut = false;
+        try {
+            PurchaseSnapshot snapshot = purchaseRepository.lockForPurchase(buyer.getId(), ticketId)
+                    .orElseThrow(() -> purchaseRepository.userExists(buyer.getId())
+                            ? new RuntimeException("Ticket not found: Ticket tidak ditemukan")
+                            : new RuntimeException("User not found"));
+            String eventId = String.valueOf(snapshot.eventId());
+
+            if (snapshot.isSoldOut()) {
+                soldOut = true;
+                recordFailure(snapshot.userId(), snapshot.price(), "Failed: Ticket is sold out", eventId);
                 throw new RuntimeException("Ticket is sold out");
             }
-            
-            int ticketPrice = (int) ticketInfo.getPrice();
-            if (user.getBalance() < ticketPrice) {
-                Transaction failedTransaction = Transaction.builder()
-                        .user(user)
-                        .amount(ticketPrice)
-                        .timestamp(LocalDateTime.now())
-                        .type(Transaction.TransactionType.TICKET_PURCHASE)
-                        .status(Transaction.TransactionStatus.FAILED)
-                        .description("Failed: Insufficient balance")
-                        .eventId(String.valueOf(ticketInfo.getEventId()))
-                        .build();
-                transactionRepository.save(failedTransaction);
-                throw new RuntimeException("Insufficient balance. Required: " + ticketPrice + 
-                                         ", Available: " + user.getBalance());
+            if (snapshot.balance() < snapshot.price()) {
+                recordFailure(snapshot.userId(), snapshot.price(), "Failed: Insufficient balance", eventId);
+                throw new RuntimeException("Insufficient balance. Required: " + snapshot.price() +
+                                         ", Available: " + snapshot.balance());
             }
-            
-            TicketResponse updatedTicket;
-            try {
-                updatedTicket = ticketService.purchaseTicket(ticketId);
-            } catch (Exception e) {
-                Transaction failedTransaction = Transaction.builder()
-                        .user(user)
-                        .amount(ticketPrice)
-                        .timestamp(LocalDateTime.now())
-                        .type(Transaction.TransactionType.TICKET_PURCHASE)
-                        .status(Transaction.TransactionStatus.FAILED)
-                        .description("Failed: Unable to purchase ticket - " + e.getMessage())
-                        .eventId(String.valueOf(ticketInfo.getEventId()))
-                        .build();
-                transactionRepository.save(failedTransaction);
-                throw new RuntimeException("Failed to purchase ticket: " + e.getMessage());
-            }
-            
-            if (!user.deductBalance(ticketPrice)) {
-                Transaction failedTransaction = Transaction.builder()
-                        .user(user)
-                        .amount(ticketPrice)
-                        .timestamp(LocalDateTime.now())
-                        .type(Transaction.TransactionType.TICKET_PURCHASE)
-                        .status(Transaction.TransactionStatus.FAILED)
-                        .description("Failed: Unable to deduct balance")
-                        .eventId(String.valueOf(updatedTicket.getEventId()))
-                        .build();
-                transactionRepository.save(failedTransaction);
-                throw new RuntimeException("Failed to deduct balance");
+
+            String transactionId = UUID.randomUUID().toString();
+            LocalDateTime timestamp = LocalDateTime.now();
+            if (!purchaseRepository.applyPurchase(snapshot, ticketId, transactionId, timestamp)) {
+                // Unreachable while the rows are locked
+                throw new RuntimeException("Failed to purchase ticket: concurrent update");
             }
-            
-            userRepository.save(user);
-            
-            Transaction successTransaction = Transaction.builder()
-                    .user(user)
-                    .amount(ticketPrice)
-                    .timestamp(LocalDateTime.now())
-                    .type(Transaction.TransactionType.TICKET_PURCHASE)
-                    .status(Transaction.TransactionStatus.SUCCESS)
-                    .description("Purchase ticket: " + updatedTicket.getName())
-                    .eventId(String.valueOf(updatedTicket.getEventId()))
-                    .build();
-            
-            Transaction savedTransaction = transactionRepository.save(successTransaction);
-            
+            // From here a rollback puts the stock back, and the permit with it
+            ticketService.purchaseApplied(ticketId, 1);
+            completed = true;
+
             return TopUpResponseDTO.builder()
-                    .transactionId(savedTransaction.getId())
-                    .userId(user.getId())
-                    .amount(ticketPrice)
-                    .newBalance(user.getBalance())
-                    .timestamp(savedTransaction.getTimestamp())
-                    .status(savedTransaction.getStatus().toString())
+                    .transactionId(transactionId)
+                    .userId(snapshot.userId())
+                    .amount(snapshot.price())
+                    .newBalance(snapshot.balance() - snapshot.price())
+                    .timestamp(timestamp)
+                    .status(Transaction.TransactionStatus.SUCCESS.toString())
                     .message("Ticket purchased successfully")
                     .build();
-                    
+        } finally {
+            if (!completed) {
+                ticketService.purchaseRejected(ticketId, soldOut);
+            }
+        }
+    }
+
+    /**
+     * Settles a run of queued purchases of one ticket in one transaction. The ticket and the
+     * buyers' balances are locked once, each buyer is checked in order against the stock and
+     * balance left by those before them, and the accepted purchases are written with one
+     * conditional stock update plus batched ledger and transaction inserts. Rejected buyers
+     * get a FAILED response rather than an exception; an exception rolls back the whole run.
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED)
+    public List<TopUpResponseDTO> processTicketPurchases(Long ticketId, List<AuthenticatedUser> buyers) {
+        if (ticketId == null || ticketId <= 0) {
+            throw new IllegalArgumentException("Invalid ticket ID");
+        }
+
+        TopUpResponseDTO[] responses = new TopUpResponseDTO[buyers.size()];
+        // Audit rows are written outside this transaction, so they wait until the run has applied
+        List<Runnable> failures = new ArrayList<>();
+        List<Integer> admitted = new ArrayList<>();
+        try {
+            for (int i = 0; i < buyers.size(); i++) {
+                if (ticketService.tryAdmitPurchase(ticketId)) {
+                    admitted.add(i);
+                } else {
+                    Long userId = buyers.get(i).getId();
+                    responses[i] = failedPurchase(userId, 0, "Ticket is sold out");
+                    failures.add(() -> recordFailure(userId, 0, "Failed: Ticket is sold out", "N/A"));
+                }
+            }
         } catch (RuntimeException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new RuntimeException("Unexpected error during ticket purchase: " + e.getMessage(), e);
+            admitted.forEach(i -> ticketService.purchaseRejected(ticketId, false));
+            throw new RuntimeException("Ticket not found: " + e.getMessage());
+        }
+
+        if (admitted.isEmpty()) {
+            failures.forEach(Runnable::run);
+            return Arrays.asList(responses);
         }
+
+        List<Integer> accepted = new ArrayList<>();
+        boolean completed = false;
+        try {
+            TicketSnapshot ticket = purchaseRepository.lockTicket(ticketId)
+                    .orElseThrow(() -> new RuntimeException("Ticket not found: Ticket tidak ditemukan"));
+            Map<Long, Integer> balances = purchaseRepository.lockBalances(admitted.stream()
+                    .map(i -> buyers.get(i).getId())
+                    .distinct()
+                    .toList());
+
+            int remaining = ticket.remainingPurchases();
+            List<QueuedPurchase> purchases = new ArrayList<>();
+            for (int i : admitted) {
+                Long userId = buyers.get(i).getId();
+                Integer balance = balances.get(userId);
+                if (balance == null) {
+                    responses[i] = failedPurchase(userId, 0, "User not found");
+                    ticketService.purchaseRejected(ticketId, false);
+                } else if (remaining == 0) {
+                    responses[i] = failedPurchase(userId, ticket.price(), "Ticket is sold out");
+                    failures.add(() -> recordFailure(userId, ticket.price(), "Failed: Ticket is sold out",
+                            String.valueOf(ticket.eventId())));
+                    ticketService.purchaseRejected(ticketId, true);
+                } else if (balance < ticket.price()) {
+                    responses[i] = failedPurchase(userId, ticket.price(),
+                            "Insufficient balance. Required: " + ticket.price() + ", Available: " + balance);
+                    failures.add(() -> recordFailure(userId, ticket.price(), "Failed: Insufficient balance",
+                            String.valueOf(ticket.eventId())));
+                    ticketService.purchaseRejected(ticketId, false);
+                } else {
+                    String transactionId = UUID.randomUUID().toString();
+                    purchases.add(new QueuedPurchase(userId, transactionId));
+                    accepted.add(i);
+                    balances.put(userId, balance - ticket.price());
+                    remaining--;
+                    responses[i] = TopUpResponseDTO.builder()
+                            .transactionId(transactionId)
+                            .userId(userId)
+                            .amount(ticket.price())
+                            .newBalance(balance - ticket.price())
+                            .status(Transaction.TransactionStatus.SUCCESS.toString())
+                            .message("Ticket purchased successfully")
+                            .build();
+                }
+            }
+
+            if (!purchases.isEmpty()) {
+                LocalDateTime timestamp = LocalDateTime.now();
+                if (!purchaseRepository.applyPurchases(ticketId, ticket, purchases, timestamp)) {
+                    // Unreachable while the rows are locked; throwing rolls back whatever did apply
+                    throw new RuntimeException("Failed to purchase tickets: concurrent update");
+                }
+                ticketService.purchaseApplied(ticketId, purchases.size());
+                accepted.forEach(i -> responses[i].setTimestamp(timestamp));
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                // Buyers rejected above already gave their permit back
+                admitted.stream()
+                        .filter(i -> responses[i] == null || accepted.contains(i))
+                        .forEach(i -> ticketService.purchaseRejected(ticketId, false));
+            }
+        }
+
+        failures.forEach(Runnable::run);
+        return Arrays.asList(responses);
+    }
+
+    private static TopUpResponseDTO failedPurchase(Long userId, int amount, String message) {
+        return TopUpResponseDTO.builder()
+                .userId(userId)
+                .amount(amount)
+                .timestamp(LocalDateTime.now())
+                .status(Transaction.TransactionStatus.FAILED.toString())
+                .message(message)
+                .build();
+    }
+
+    private void recordFailure(Long userId, int amount, String description, String eventId) {
+        failedTransactionRecorder.record(userId, amount, Transaction.TransactionType.TICKET_PURCHASE,
+                description, eventId);
+    }
+
+    // Stock was already taken when the hold was placed, so only the balance is checked here
+    @Override
+    @Transactional
+    public TopUpResponseDTO confirmReservation(Long reservationId) {
+        Long userId = currentUserUtil.getCurrentUserId();
+        // Only the id is used below, so a reference is enough and no user row is loaded
+        User user = userRepository.getReferenceById(userId);
+
+        TicketReservation reservation = reservationService.getActiveHold(reservationId, userId);
+        TicketResponse ticketInfo = ticketService.getTicketById(reservation.getTicket().getId());
+        int ticketPrice = (int) ticketInfo.getPrice();
+
+        int balance = userBalanceService.getBalance(user);
+        if (balance < ticketPrice) {
+            recordFailure(userId, ticketPrice, "Failed: Insufficient balance for reservation " + reservationId,
+                    String.valueOf(ticketInfo.getEventId()));
+            throw new RuntimeException("Insufficient balance. Required: " + ticketPrice +
+                                     ", Available: " + balance);
+        }
+
+        if (!reservationService.confirmHold(reservationId)) {
+            throw new IllegalStateException("Reservation is no longer active");
+        }
+
+        Transaction savedTransaction = transactionRepository.save(Transaction.builder()
+                .user(user)
+                .amount(ticketPrice)
+                .timestamp(LocalDateTime.now())
+                .type(Transaction.TransactionType.TICKET_PURCHASE)
+                .status(Transaction.TransactionStatus.SUCCESS)
+                .description("Purchase ticket: " + ticketInfo.getName())
+                .eventId(String.valueOf(ticketInfo.getEventId()))
+                .build());
+
+        // Rolls back the confirmation and the transaction row if a concurrent debit got there first
+        if (!userBalanceService.deductBalance(user, ticketPrice, savedTransaction.getId())) {
+            throw new RuntimeException("Failed to deduct balance");
+        }
+
+        return TopUpResponseDTO.builder()
+                .transactionId(savedTransaction.getId())
+                .userId(userId)
+                .amount(ticketPrice)
+                .newBalance(balance - ticketPrice)
+                .timestamp(savedTransaction.getTimestamp())
+                .status(savedTransaction.getStatus().toString())
+                .message("Reservation confirmed")
+                .build();
     }
 
     // Async method
@@ -186,9 +344,7 @@ public class TransactionServiceImpl implements TransactionService {
     @Override
     @Transactional(readOnly = true)
     public List<TransactionDTO> getCurrentUserTransactions() {
-        String email = currentUserUtil.getCurrentUserEmail();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userRepository.getReferenceById(currentUserUtil.getCurrentUserId());
 
         List<Transaction> transactions = transactionRepository.findByUser(user);
         return mapTransactionsToDTO(transactions);
@@ -205,6 +361,50 @@ public class TransactionServiceImpl implements TransactionService {
         return mapTransactionsToDTO(transactions);
     }
 
+    @Override
+    @PreAuthorize("hasRole('ADMIN')")
+    @Transactional(readOnly = true)
+    public TransactionPageDTO getTransactionHistory(TransactionHistoryFilter filter) {
+        return findHistory(null, filter);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionPageDTO getCurrentUserTransactionHistory(TransactionHistoryFilter filter) {
+        return findHistory(currentUserUtil.getCurrentUserId(), filter);
+    }
+
+    // Fetches one row past the page to learn whether another page exists
+    private TransactionPageDTO findHistory(Long userId, TransactionHistoryFilter filter) {
+        int limit = filter.getLimit() != null ? filter.getLimit() : DEFAULT_PAGE_SIZE;
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        TransactionCursor after = filter.getCursor() != null && !filter.getCursor().isBlank()
+                ? TransactionCursor.decode(filter.getCursor())
+                : null;
+
+        List<TransactionDTO> rows = transactionRepository.findHistory(
+                userId,
+                filter.resolveType(),
+                filter.resolveStatus(),
+                filter.getFrom(),
+                filter.getTo(),
+                after,
+                limit + 1);
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            TransactionDTO last = rows.get(limit - 1);
+            nextCursor = new TransactionCursor(last.getTimestamp(), last.getId()).encode();
+        }
+        return TransactionPageDTO.builder()
+                .items(rows)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
     @Override
     @Transactional
     @PreAuthorize("hasRole('ADMIN')")
@@ -235,14 +435,12 @@ public class TransactionServiceImpl implements TransactionService {
         Transaction transaction = transactionRepository.findById(transactionId)
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
         
-        String currentUserEmail = currentUserUtil.getCurrentUserEmail();
-        User currentUser = userRepository.findByEmail(currentUserEmail)
-                .orElseThrow(() -> new RuntimeException("Current user not found"));
+        AuthenticatedUser currentUser = currentUserUtil.getCurrentUser();
         
         User transactionUser = transaction.getUser();
         
         boolean isOwner = transactionUser.getId().equals(currentUser.getId());
-        boolean isAdmin = "ADMIN".equals(currentUser.getRole().name());
+        boolean isAdmin = currentUser.isAdmin();
         
         if (!isOwner && !isAdmin) {
             throw new RuntimeException("Access denied: You can only view your own transactions");
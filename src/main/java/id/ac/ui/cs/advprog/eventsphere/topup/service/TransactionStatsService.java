@@ -0,0 +1,126 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.service;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.security.AuthenticatedUser;
+import id.ac.ui.cs.advprog.eventsphere.event.repository.EventRepository;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionRollupDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionStatsDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.Transaction;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.TransactionRollup;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.TransactionRollup.Dimension;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.TransactionRollup.Granularity;
+import id.ac.ui.cs.advprog.eventsphere.topup.repository.TransactionRollupRepository;
+import id.ac.ui.cs.advprog.eventsphere.topup.util.CurrentUserUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Dashboard totals read from the rollup buckets, so a query costs one row per bucket no
+ * matter how many transactions fall into the range. Admins may read any dimension,
+ * organizers the events they run, and everyone their own user totals.
+ */
+@Service
+public class TransactionStatsService {
+
+    private static final int MAX_HOUR_BUCKETS = 24 * 31;
+    private static final int MAX_DAY_BUCKETS = 366;
+
+    private final TransactionRollupRepository rollupRepository;
+    private final EventRepository eventRepository;
+    private final CurrentUserUtil currentUserUtil;
+
+    @Autowired
+    public TransactionStatsService(TransactionRollupRepository rollupRepository,
+                                   EventRepository eventRepository,
+                                   CurrentUserUtil currentUserUtil) {
+        this.rollupRepository = rollupRepository;
+        this.eventRepository = eventRepository;
+        this.currentUserUtil = currentUserUtil;
+    }
+
+    @Transactional(readOnly = true)
+    public TransactionStatsDTO getStats(String dimension, String key, String granularity, String type,
+                                        LocalDateTime from, LocalDateTime to) {
+        Dimension dim = parse(Dimension.class, dimension, "dimension");
+        Granularity gran = granularity == null ? Granularity.DAY : parse(Granularity.class, granularity, "granularity");
+        Transaction.TransactionType txType = type == null ? null
+                : parse(Transaction.TransactionType.class, type, "type");
+        String dimensionKey = dim == Dimension.ALL ? TransactionRollup.ALL_KEY : requireKey(key);
+
+        ChronoUnit unit = gran == Granularity.HOUR ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+        int maxBuckets = gran == Granularity.HOUR ? MAX_HOUR_BUCKETS : MAX_DAY_BUCKETS;
+        LocalDateTime end = (to != null ? to : LocalDateTime.now().plus(1, unit)).truncatedTo(unit);
+        LocalDateTime start = (from != null ? from : end.minus(gran == Granularity.HOUR ? 48 : 30, unit)).truncatedTo(unit);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        if (Duration.between(start, end).toHours() > (long) maxBuckets * (gran == Granularity.HOUR ? 1 : 24)) {
+            throw new IllegalArgumentException("Range too large: at most " + maxBuckets + " " + unit.toString().toLowerCase());
+        }
+
+        checkAccess(dim, dimensionKey);
+
+        List<TransactionRollupDTO> buckets = rollupRepository.findBuckets(dim, dimensionKey, gran, txType, start, end)
+                .stream()
+                .map(rollup -> TransactionRollupDTO.builder()
+                        .bucketStart(rollup.getBucketStart())
+                        .type(rollup.getType().name())
+                        .transactionCount(rollup.getTransactionCount())
+                        .amountTotal(rollup.getAmountTotal())
+                        .build())
+                .toList();
+
+        return TransactionStatsDTO.builder()
+                .dimension(dim.name())
+                .key(dimensionKey)
+                .granularity(gran.name())
+                .from(start)
+                .to(end)
+                .totalCount(buckets.stream().mapToLong(TransactionRollupDTO::getTransactionCount).sum())
+                .totalAmount(buckets.stream().mapToLong(TransactionRollupDTO::getAmountTotal).sum())
+                .buckets(buckets)
+                .build();
+    }
+
+    private void checkAccess(Dimension dimension, String key) {
+        AuthenticatedUser user = currentUserUtil.getCurrentUser();
+        if (user.isAdmin()) {
+            return;
+        }
+        boolean allowed = switch (dimension) {
+            case USER -> key.equals(String.valueOf(user.getId()));
+            case EVENT -> user.getRole() == Role.ORGANIZER && isNumeric(key)
+                    && eventRepository.existsByIdAndOrganizerEmail(Long.valueOf(key), user.getEmail());
+            case ALL -> false;
+        };
+        if (!allowed) {
+            throw new AccessDeniedException("Not allowed to read these statistics");
+        }
+    }
+
+    private static String requireKey(String key) {
+        if (key == null || key.isBlank()) {
+            throw new IllegalArgumentException("'key' is required for this dimension");
+        }
+        return key.trim();
+    }
+
+    private static boolean isNumeric(String value) {
+        return !value.isEmpty() && value.chars().allMatch(Character::isDigit) && value.length() < 19;
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value, String name) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+}
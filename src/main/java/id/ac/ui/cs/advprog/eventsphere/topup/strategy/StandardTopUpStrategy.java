@@ -16,7 +16,7 @@ public class StandardTopUpStrategy implements TopUpStrategy {
     }
     
     @Override
-    public void executeTopUp(User user, TopUp topUp) {
-        userBalanceService.topUp(user, topUp.getAmount());
+    public void executeTopUp(User user, TopUp topUp, String transactionId) {
+        userBalanceService.topUp(user, topUp.getAmount(), transactionId);
     }
 }
\ No newline at end of file
@@ -4,5 +4,5 @@ import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 import id.ac.ui.cs.advprog.eventsphere.topup.model.TopUp;
 
 public interface TopUpStrategy {
-    void executeTopUp(User user, TopUp topUp);
+    void executeTopUp(User user, TopUp topUp, String transactionId);
 }
\ No newline at end of file
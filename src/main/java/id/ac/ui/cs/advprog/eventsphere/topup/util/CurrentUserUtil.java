@@ -1,5 +1,6 @@
 package id.ac.ui.cs.advprog.eventsphere.topup.util;
 
+import id.ac.ui.cs.advprog.eventsphere.authentication.security.AuthenticatedUser;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -20,4 +21,18 @@ public class CurrentUserUtil {
             return principal.toString();
         }
     }
-}
\ No newline at end of file
+
+    // Id, email and role of the caller as carried by the token; no database access
+    public AuthenticatedUser getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof AuthenticatedUser user) || user.getId() == null) {
+            throw new RuntimeException("User not authenticated");
+        }
+        return user;
+    }
+
+    public Long getCurrentUserId() {
+        return getCurrentUser().getId();
+    }
+}
@@ -2,6 +2,7 @@ package id.ac.ui.cs.advprog.eventsphere.authentication.controller;
 
 import id.ac.ui.cs.advprog.eventsphere.authentication.dto.*;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.*;
+import id.ac.ui.cs.advprog.eventsphere.authentication.service.AdminUserService;
 import id.ac.ui.cs.advprog.eventsphere.authentication.service.AuthService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,6 +11,10 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -21,6 +26,9 @@ public class AuthControllerTest {
     @Mock
     private AuthService authService;
 
+    @Mock
+    private AdminUserService adminUserService;
+
     @InjectMocks
     private AuthController authController;
 
@@ -42,10 +50,12 @@ public class AuthControllerTest {
                 .role(Role.ATTENDEE)
                 .build();
 
-        when(authService.login(any(LoginRequest.class))).thenReturn(jwtResponse);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        when(authService.login(any(LoginRequest.class), eq("10.0.0.1"))).thenReturn(jwtResponse);
 
         // When
-        ResponseEntity<JwtResponse> response = authController.login(loginRequest);
+        ResponseEntity<JwtResponse> response = authController.login(loginRequest, request);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -55,6 +65,47 @@ public class AuthControllerTest {
         assertEquals(Role.ATTENDEE, response.getBody().getRole());
     }
 
+    @Test
+    public void testRefresh() {
+        // Given
+        RefreshTokenRequest refreshTokenRequest = new RefreshTokenRequest();
+        refreshTokenRequest.setRefreshToken("refresh");
+
+        JwtResponse jwtResponse = JwtResponse.builder()
+                .token("token")
+                .refreshToken("next-refresh")
+                .email("user@example.com")
+                .role(Role.ATTENDEE)
+                .build();
+
+        when(authService.refresh(refreshTokenRequest)).thenReturn(jwtResponse);
+
+        // When
+        ResponseEntity<JwtResponse> response = authController.refresh(refreshTokenRequest);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("token", response.getBody().getToken());
+        assertEquals("next-refresh", response.getBody().getRefreshToken());
+    }
+
+    @Test
+    public void testGetAllUsersReturnsThePageWithItsCursor() {
+        // Given
+        UserListFilter filter = UserListFilter.builder().limit(1).build();
+        UserResponseDTO user = UserResponseDTO.builder().id(1L).email("user@example.com").build();
+        when(adminUserService.getUsers(filter))
+                .thenReturn(UserPageDTO.builder().items(List.of(user)).nextCursor("next").build());
+
+        // When
+        ResponseEntity<List<UserResponseDTO>> response = authController.getAllUsers(filter);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(user), response.getBody());
+        assertEquals("next", response.getHeaders().getFirst(AuthController.NEXT_CURSOR_HEADER));
+    }
+
     @Test
     public void testRegister() {
         // Given
@@ -148,4 +199,15 @@ public class AuthControllerTest {
         assertEquals(1L, response.getBody().getId());
         assertEquals("user@example.com", response.getBody().getEmail());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLogout() {
+        // When
+        ResponseEntity<Map<String, String>> response = authController.logout();
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("success", response.getBody().get("status"));
+        verify(authService).logout();
+    }
+}
@@ -143,86 +143,6 @@ class UserTest {
         assertTrue(result.contains("1000"));
     }
 
-    @Test
-    @DisplayName("Should successfully top up user balance with positive amount")
-    void testTopUpWithPositiveAmount() {
-        user.setBalance(100);
-        user.topUp(50);
-        assertEquals(150, user.getBalance());
-    }
-
-    @Test
-    @DisplayName("Should throw exception when topping up with negative amount")
-    void testTopUpWithNegativeAmount() {
-        user.setBalance(100);
-        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
-            user.topUp(-50);
-        });
-        assertEquals("Top-up amount must be positive", exception.getMessage());
-        assertEquals(100, user.getBalance());
-    }
-
-    @Test
-    @DisplayName("Should successfully deduct balance when sufficient")
-    void testDeductBalanceSuccess() {
-        user.setBalance(100);
-        boolean result = user.deductBalance(50);
-        assertTrue(result);
-        assertEquals(50, user.getBalance());
-    }
-
-    @Test
-    @DisplayName("Should fail to deduct balance when insufficient")
-    void testDeductBalanceInsufficientFunds() {
-        user.setBalance(100);
-        boolean result = user.deductBalance(150);
-        assertFalse(result);
-        assertEquals(100, user.getBalance());
-    }
-
-    @Test
-    @DisplayName("Should throw exception when deducting negative amount")
-    void testDeductBalanceNegativeAmount() {
-        user.setBalance(100);
-        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
-            user.deductBalance(-50);
-        });
-        assertEquals("Deduction amount must be positive", exception.getMessage());
-        assertEquals(100, user.getBalance());
-    }
-
-    @Test
-    @DisplayName("Should initialize null balance when topping up")
-    void testTopUpWithNullBalance() {
-        // Create a new user with null balance using reflection
-        try {
-            java.lang.reflect.Field balanceField = User.class.getDeclaredField("balance");
-            balanceField.setAccessible(true);
-            balanceField.set(user, null);
-            
-            user.topUp(50);
-            assertEquals(50, user.getBalance());
-        } catch (Exception e) {
-            fail("Failed to set null balance: " + e.getMessage());
-        }
-    }
-
-    @Test
-    @DisplayName("Should fail to deduct from null balance")
-    void testDeductBalanceFromNullBalance() {
-        // Create a new user with null balance using reflection
-        try {
-            java.lang.reflect.Field balanceField = User.class.getDeclaredField("balance");
-            balanceField.setAccessible(true);
-            balanceField.set(user, null);
-            
-            boolean result = user.deductBalance(50);
-            assertFalse(result);
-        } catch (Exception e) {
-            fail("Failed to set null balance: " + e.getMessage());
-        }
-    }
-
     @Test
     @DisplayName("Should return 0 for null balance")
     void testGetBalanceWithNullBalance() {
@@ -264,9 +184,11 @@ class UserTest {
     }
 
     @Test
-    @DisplayName("Should set balance correctly")
-    void testSetBalance() {
-        user.setBalance(200);
-        assertEquals(200, user.getBalance());
+    @DisplayName("Should not expose balance mutators")
+    void testBalanceHasNoMutators() {
+        for (java.lang.reflect.Method method : User.class.getMethods()) {
+            assertFalse(method.getName().equals("setBalance") || method.getName().equals("topUp")
+                    || method.getName().equals("deductBalance"), method.getName());
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,150 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.repository;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.BalanceLedgerEntry.EntryType;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(BalanceLedgerJdbcRepository.class)
+class BalanceLedgerJdbcRepositoryTest {
+
+    @Autowired
+    private BalanceLedgerJdbcRepository ledgerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User user;
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .email("ledger-" + UUID.randomUUID() + "@example.com")
+                .password("password")
+                .role(Role.ATTENDEE)
+                .balance(0)
+                .build());
+        entityManager.flush();
+    }
+
+    @Test
+    void append_AddsToBalanceWithoutTouchingSnapshot() {
+        assertTrue(ledgerRepository.append(user.getId(), "t1", 500, EntryType.TOP_UP, now));
+        assertTrue(ledgerRepository.append(user.getId(), "t2", -200, EntryType.TICKET_PURCHASE, now));
+
+        assertEquals(300, ledgerRepository.balanceOf(user.getId()));
+        assertEquals(0, snapshot());
+    }
+
+    @Test
+    void append_SameTransactionTwice_AppliesOnce() {
+        assertTrue(ledgerRepository.append(user.getId(), "t1", 500, EntryType.TOP_UP, now));
+        assertFalse(ledgerRepository.append(user.getId(), "t1", 500, EntryType.TOP_UP, now));
+
+        assertEquals(500, ledgerRepository.balanceOf(user.getId()));
+    }
+
+    @Test
+    void append_UnknownUser_ReturnsFalse() {
+        assertFalse(ledgerRepository.append(999_999L, "t1", 500, EntryType.TOP_UP, now));
+    }
+
+    @Test
+    void appendDebit_OnlyWhileBalanceCoversIt() {
+        ledgerRepository.append(user.getId(), "t1", 500, EntryType.TOP_UP, now);
+
+        assertEquals(500, ledgerRepository.lockBalance(user.getId()).orElseThrow());
+        assertTrue(ledgerRepository.appendDebit(user.getId(), "t2", 300, EntryType.TICKET_PURCHASE, now));
+        assertFalse(ledgerRepository.appendDebit(user.getId(), "t3", 300, EntryType.TICKET_PURCHASE, now));
+
+        assertEquals(200, ledgerRepository.balanceOf(user.getId()));
+        assertTrue(ledgerRepository.lockBalance(999_999L).isEmpty());
+    }
+
+    @Test
+    void fold_MovesTailIntoSnapshot() {
+        ledgerRepository.append(user.getId(), "t1", 500, EntryType.TOP_UP, now);
+        ledgerRepository.append(user.getId(), "t2", -100, EntryType.TICKET_PURCHASE, now);
+        ledgerRepository.append(user.getId(), "t3", 50, EntryType.TOP_UP, now);
+
+        assertEquals(List.of(user.getId()), ledgerRepository.findUsersWithUnfoldedEntries(10));
+        assertEquals(2, ledgerRepository.fold(user.getId(), 2, now));
+        assertEquals(400, snapshot());
+        assertEquals(450, ledgerRepository.balanceOf(user.getId()));
+
+        assertEquals(1, ledgerRepository.fold(user.getId(), 2, now));
+        assertEquals(0, ledgerRepository.fold(user.getId(), 2, now));
+        assertEquals(450, snapshot());
+        assertTrue(ledgerRepository.findUsersWithUnfoldedEntries(10).isEmpty());
+        assertTrue(ledgerRepository.findDrift(10).isEmpty());
+    }
+
+    @Test
+    void userEntity_ReadsSnapshotPlusTail() {
+        ledgerRepository.append(user.getId(), "t1", 500, EntryType.TOP_UP, now);
+        ledgerRepository.fold(user.getId(), 10, now);
+        ledgerRepository.append(user.getId(), "t2", 70, EntryType.TOP_UP, now);
+        entityManager.clear();
+
+        assertEquals(570, userRepository.findById(user.getId()).orElseThrow().getBalance());
+    }
+
+    @Test
+    void findDrift_AndRebuild_RestoreSnapshotFromLedger() {
+        ledgerRepository.append(user.getId(), "t1", 500, EntryType.TOP_UP, now);
+        ledgerRepository.fold(user.getId(), 10, now);
+        jdbcTemplate.update("UPDATE users SET balance = 9999 WHERE id = ?", user.getId());
+
+        assertEquals(List.of(user.getId()), ledgerRepository.findDrift(10));
+        ledgerRepository.append(user.getId(), "t2", 25, EntryType.TOP_UP, now);
+
+        assertEquals(525, ledgerRepository.rebuild(user.getId(), now));
+        assertEquals(525, snapshot());
+        assertEquals(525, ledgerRepository.balanceOf(user.getId()));
+        assertTrue(ledgerRepository.findDrift(10).isEmpty());
+    }
+
+    @Test
+    void seedOpeningBalances_CoversBalancesFromBeforeTheLedger() {
+        User legacy = userRepository.save(User.builder()
+                .email("legacy-" + UUID.randomUUID() + "@example.com")
+                .password("password")
+                .role(Role.ATTENDEE)
+                .balance(800)
+                .build());
+        entityManager.flush();
+        assertTrue(ledgerRepository.findDrift(10).contains(legacy.getId()));
+
+        assertEquals(1, ledgerRepository.seedOpeningBalances(now));
+        assertEquals(0, ledgerRepository.seedOpeningBalances(now));
+
+        assertEquals(800, ledgerRepository.balanceOf(legacy.getId()));
+        assertTrue(ledgerRepository.findDrift(10).isEmpty());
+    }
+
+    private int snapshot() {
+        return jdbcTemplate.queryForObject("SELECT balance FROM users WHERE id = ?", Integer.class, user.getId());
+    }
+}
@@ -1,13 +1,21 @@
 package id.ac.ui.cs.advprog.eventsphere.authentication.repository;
 
+import id.ac.ui.cs.advprog.eventsphere.authentication.dto.UserListFilter.SortField;
+import id.ac.ui.cs.advprog.eventsphere.authentication.dto.UserResponseDTO;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import id.ac.ui.cs.advprog.eventsphere.authentication.util.UserCursor;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -20,6 +28,9 @@ class UserRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private User testUser;
     private String uniqueEmail;
 
@@ -77,4 +88,117 @@ class UserRepositoryTest {
         
         assertFalse(exists);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRoleQueriesReturnOnlyThatRole() {
+        User admin = userRepository.save(User.builder()
+                .email("admin-" + UUID.randomUUID() + "@example.com")
+                .password("password123")
+                .role(Role.ADMIN)
+                .fullName("Admin User")
+                .build());
+
+        List<Object[]> admins = userRepository.findIdAndEmailByRole(Role.ADMIN);
+        List<User> attendees = userRepository.findByRole(Role.ATTENDEE);
+
+        assertEquals(1, admins.size());
+        assertEquals(admin.getId(), ((Number) admins.get(0)[0]).longValue());
+        assertEquals(admin.getEmail(), admins.get(0)[1]);
+        assertEquals(List.of(testUser.getId()), attendees.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void testFindTokenVersionsChangedSinceSkipsOlderChanges() {
+        testUser.bumpTokenVersion();
+        userRepository.save(testUser);
+        User earlier = saveUser("earlier-" + UUID.randomUUID() + "@example.com", Role.ATTENDEE, LocalDateTime.now());
+        earlier.bumpTokenVersion();
+        earlier.setTokenVersionChangedAt(LocalDateTime.now().minusHours(1));
+        userRepository.save(earlier);
+        saveUser("never-" + UUID.randomUUID() + "@example.com", Role.ATTENDEE, LocalDateTime.now());
+
+        List<Object[]> changed = userRepository.findTokenVersionsChangedSince(LocalDateTime.now().minusMinutes(5));
+
+        assertEquals(1, changed.size());
+        assertEquals(testUser.getId(), ((Number) changed.get(0)[0]).longValue());
+        assertEquals(1, ((Number) changed.get(0)[1]).intValue());
+        assertNotNull(changed.get(0)[2]);
+    }
+
+    private User saveUser(String email, Role role, LocalDateTime createdAt) {
+        User user = userRepository.save(User.builder()
+                .email(email)
+                .password("password123")
+                .role(role)
+                .fullName("User " + email)
+                .build());
+        // @PrePersist stamps the current time, so backdate afterwards
+        user.setCreatedAt(createdAt);
+        return userRepository.save(user);
+    }
+
+    @Test
+    void testFindUserPageWalksPagesNewestFirst() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 12, 0);
+        for (int i = 0; i < 4; i++) {
+            saveUser("page" + i + "@example.com", Role.ATTENDEE, base.plusMinutes(i));
+        }
+        // Same created time as the newest row, ordered by id as the tie-breaker
+        saveUser("page4@example.com", Role.ATTENDEE, base.plusMinutes(3));
+
+        List<String> seen = new ArrayList<>();
+        UserCursor after = null;
+        for (int page = 0; page < 3; page++) {
+            List<UserResponseDTO> rows = userRepository.findUserPage(
+                    null, "page", null, null, SortField.CREATED_AT, false, after, 2);
+            rows.forEach(row -> seen.add(row.getEmail()));
+            UserResponseDTO last = rows.get(rows.size() - 1);
+            after = UserCursor.after(SortField.CREATED_AT, last.getCreatedAt(), last.getEmail(), last.getId());
+        }
+
+        assertEquals(List.of("page4@example.com", "page3@example.com", "page2@example.com",
+                "page1@example.com", "page0@example.com"), seen);
+    }
+
+    @Test
+    void testFindUserPageSortsByEmailAscending() {
+        saveUser("sort-c@example.com", Role.ATTENDEE, LocalDateTime.now());
+        saveUser("sort-a@example.com", Role.ATTENDEE, LocalDateTime.now());
+        saveUser("sort-b@example.com", Role.ATTENDEE, LocalDateTime.now());
+
+        List<UserResponseDTO> first = userRepository.findUserPage(
+                null, "sort-", null, null, SortField.EMAIL, true, null, 2);
+        UserResponseDTO last = first.get(1);
+        List<UserResponseDTO> second = userRepository.findUserPage(null, "sort-", null, null, SortField.EMAIL, true,
+                UserCursor.after(SortField.EMAIL, last.getCreatedAt(), last.getEmail(), last.getId()), 2);
+
+        assertEquals(List.of("sort-a@example.com", "sort-b@example.com"),
+                first.stream().map(UserResponseDTO::getEmail).toList());
+        assertEquals(List.of("sort-c@example.com"), second.stream().map(UserResponseDTO::getEmail).toList());
+    }
+
+    @Test
+    void testFindUserPageFiltersAndProjects() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 12, 0);
+        saveUser("org-early@example.com", Role.ORGANIZER, base);
+        User match = saveUser("org-match@example.com", Role.ORGANIZER, base.plusDays(1));
+        saveUser("att-match@example.com", Role.ATTENDEE, base.plusDays(1));
+        saveUser("org_late@example.com", Role.ORGANIZER, base.plusDays(5));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<UserResponseDTO> rows = userRepository.findUserPage(Role.ORGANIZER, "org-",
+                base.plusHours(1), base.plusDays(3), SortField.CREATED_AT, false, null, 10);
+
+        assertEquals(1, rows.size());
+        UserResponseDTO dto = rows.get(0);
+        assertEquals(match.getId(), dto.getId());
+        assertEquals("org-match@example.com", dto.getEmail());
+        assertEquals(Role.ORGANIZER, dto.getRole());
+        assertEquals(0, dto.getBalance());
+        // "_" in the prefix is matched literally, not as a wildcard
+        assertEquals(1, userRepository.findUserPage(null, "org_", null, null, SortField.EMAIL, true, null, 10).size());
+        // Constructor projection: nothing was loaded into the persistence context
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+}
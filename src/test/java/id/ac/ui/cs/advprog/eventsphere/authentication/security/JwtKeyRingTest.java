@@ -0,0 +1,49 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtKeyRingTest {
+
+    static String secret(char fill) {
+        return Base64.getEncoder().encodeToString(String.valueOf(fill).repeat(32).getBytes());
+    }
+
+    @Test
+    void firstKeyIsActiveByDefault() {
+        JwtKeyRing ring = new JwtKeyRing("k1:" + secret('a') + ", k2:" + secret('b'), "");
+
+        assertEquals("k1", ring.activeKeyId());
+        assertTrue(ring.find("k2").isPresent());
+        assertTrue(ring.find("k3").isEmpty());
+        assertTrue(ring.find(null).isEmpty());
+    }
+
+    @Test
+    void activeKeyIdSelectsTheSigningKey() {
+        JwtKeyRing ring = new JwtKeyRing("k1:" + secret('a') + ",k2:" + secret('b'), "k2");
+
+        assertEquals("k2", ring.activeKeyId());
+        assertEquals(ring.find("k2").orElseThrow(), ring.activeKey());
+    }
+
+    @Test
+    void withoutKeysFallsBackToAnEphemeralKey() {
+        JwtKeyRing ring = new JwtKeyRing("", "");
+
+        assertTrue(ring.activeKeyId().startsWith("ephemeral-"));
+        assertNotNull(ring.activeKey());
+    }
+
+    @Test
+    void rejectsMisconfiguration() {
+        assertThrows(IllegalStateException.class, () -> new JwtKeyRing("k1:" + secret('a'), "k9"));
+        assertThrows(IllegalStateException.class, () -> new JwtKeyRing("k1:c2hvcnQ=", ""));
+        assertThrows(IllegalStateException.class, () -> new JwtKeyRing("k1", ""));
+        assertThrows(IllegalStateException.class, () -> new JwtKeyRing("k1:not base64!", ""));
+        assertThrows(IllegalStateException.class, () -> new JwtKeyRing("k1:" + secret('a') + ",k1:" + secret('b'), ""));
+    }
+}
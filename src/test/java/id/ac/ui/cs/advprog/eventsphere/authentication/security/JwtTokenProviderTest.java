@@ -0,0 +1,180 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.security;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import static id.ac.ui.cs.advprog.eventsphere.authentication.security.JwtKeyRingTest.secret;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class JwtTokenProviderTest {
+
+    private static final String KEYS = "k1:" + secret('a');
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenRevocationRegistry revocations;
+    private JwtTokenProvider tokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        revocations = new TokenRevocationRegistry(mock(UserRepository.class), meterRegistry, 900_000);
+        tokenProvider = provider(meterRegistry, new JwtKeyRing(KEYS, ""), 60_000L, 100);
+    }
+
+    private JwtTokenProvider provider(SimpleMeterRegistry registry, JwtKeyRing keyRing, long expiration, int cacheSize) {
+        return new JwtTokenProvider(keyRing, revocations, registry, expiration, cacheSize);
+    }
+
+    private static String tokenFor(JwtTokenProvider provider, AuthenticatedUser principal) {
+        return provider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private double count(String name) {
+        return meterRegistry.counter(name).count();
+    }
+
+    private String tokenFor(User user) {
+        AuthenticatedUser principal = AuthenticatedUser.withPassword(user);
+        return tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Test
+    void authenticate_RebuildsPrincipalFromClaims() {
+        User user = User.builder()
+                .id(42L)
+                .email("organizer@example.com")
+                .password("hash")
+                .role(Role.ORGANIZER)
+                .tokenVersion(3)
+                .build();
+
+        Authentication authentication = tokenProvider.authenticate(tokenFor(user)).orElseThrow();
+
+        AuthenticatedUser principal = assertInstanceOf(AuthenticatedUser.class, authentication.getPrincipal());
+        assertEquals(42L, principal.getId());
+        assertEquals("organizer@example.com", principal.getUsername());
+        assertEquals(Role.ORGANIZER, principal.getRole());
+        assertEquals(3, principal.getVersion());
+        assertEquals("", principal.getPassword());
+        assertEquals(1, authentication.getAuthorities().size());
+        assertEquals("ROLE_ORGANIZER", authentication.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void generateToken_WithoutAuthenticatedUser_HasNoUserId() {
+        org.springframework.security.core.userdetails.User plain =
+                new org.springframework.security.core.userdetails.User("admin@example.com", "",
+                        new AuthenticatedUser(1L, "admin@example.com", Role.ADMIN, 0).getAuthorities());
+        String token = tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(plain, null, plain.getAuthorities()));
+
+        AuthenticatedUser principal = (AuthenticatedUser) tokenProvider.authenticate(token).orElseThrow().getPrincipal();
+
+        assertNull(principal.getId());
+        assertEquals(Role.ADMIN, principal.getRole());
+        assertTrue(principal.isAdmin());
+    }
+
+    @Test
+    void authenticate_RejectsTamperedToken() {
+        String token = tokenFor(User.builder().id(1L).email("a@example.com").password("x").role(Role.ATTENDEE).build());
+
+        assertTrue(tokenProvider.authenticate(token).isPresent());
+        assertTrue(tokenProvider.authenticate(token.substring(0, token.length() - 2) + "xx").isEmpty());
+    }
+
+    @Test
+    void authenticate_RepeatTokenIsServedFromCache() {
+        String token = tokenFor(User.builder().id(5L).email("a@example.com").password("x").role(Role.ATTENDEE).build());
+
+        Authentication first = tokenProvider.authenticate(token).orElseThrow();
+        Authentication second = tokenProvider.authenticate(token).orElseThrow();
+
+        assertEquals(first.getPrincipal(), second.getPrincipal());
+        assertNotSame(first, second);
+        assertEquals(1, count("jwt.cache.misses"));
+        assertEquals(1, count("jwt.cache.hits"));
+        assertEquals(1, meterRegistry.get("jwt.cache.size").gauge().value());
+    }
+
+    @Test
+    void authenticate_InvalidTokenIsRejectedAndNotCached() {
+        String token = tokenFor(User.builder().id(5L).email("a@example.com").password("x").role(Role.ATTENDEE).build());
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+
+        assertTrue(tokenProvider.authenticate(tampered).isEmpty());
+        assertTrue(tokenProvider.authenticate("not-a-jwt").isEmpty());
+        assertEquals(2, count("jwt.rejected"));
+        assertEquals(0, meterRegistry.get("jwt.cache.size").gauge().value());
+    }
+
+    @Test
+    void authenticate_ExpiredTokenIsRejected() {
+        JwtTokenProvider expiring = provider(meterRegistry, new JwtKeyRing(KEYS, ""), -1_000L, 100);
+        AuthenticatedUser principal = new AuthenticatedUser(5L, "a@example.com", Role.ATTENDEE, 0);
+        String token = expiring.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        assertTrue(expiring.authenticate(token).isEmpty());
+    }
+
+    @Test
+    void authenticate_CacheIsBounded() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        JwtTokenProvider small = provider(registry, new JwtKeyRing(KEYS, ""), 60_000L, 2);
+        for (long id = 1; id <= 5; id++) {
+            AuthenticatedUser principal = new AuthenticatedUser(id, id + "@example.com", Role.ATTENDEE, 0);
+            small.authenticate(small.generateToken(
+                    new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities())));
+        }
+
+        assertEquals(2, registry.get("jwt.cache.size").gauge().value());
+    }
+
+    @Test
+    void tokensVerifyOnEveryInstanceSharingTheKeys() {
+        JwtTokenProvider otherInstance = provider(new SimpleMeterRegistry(), new JwtKeyRing(KEYS, ""), 60_000L, 100);
+        String token = tokenFor(tokenProvider, new AuthenticatedUser(5L, "a@example.com", Role.ATTENDEE, 0));
+
+        assertTrue(otherInstance.authenticate(token).isPresent());
+        assertTrue(provider(new SimpleMeterRegistry(), new JwtKeyRing("", ""), 60_000L, 100).authenticate(token).isEmpty());
+    }
+
+    @Test
+    void rotatedKeyStillVerifiesOlderTokens() {
+        String oldToken = tokenFor(tokenProvider, new AuthenticatedUser(5L, "a@example.com", Role.ATTENDEE, 0));
+        JwtTokenProvider rotated = provider(new SimpleMeterRegistry(),
+                new JwtKeyRing("k2:" + secret('b') + "," + KEYS, "k2"), 60_000L, 100);
+        JwtTokenProvider retired = provider(new SimpleMeterRegistry(),
+                new JwtKeyRing("k2:" + secret('b'), ""), 60_000L, 100);
+
+        String newToken = tokenFor(rotated, new AuthenticatedUser(5L, "a@example.com", Role.ATTENDEE, 0));
+
+        assertTrue(rotated.authenticate(oldToken).isPresent());
+        assertTrue(rotated.authenticate(newToken).isPresent());
+        assertTrue(tokenProvider.authenticate(newToken).isEmpty());
+        assertTrue(retired.authenticate(oldToken).isEmpty());
+    }
+
+    @Test
+    void revokedTokenIsRefusedEvenWhenCached() {
+        String token = tokenFor(tokenProvider, new AuthenticatedUser(5L, "a@example.com", Role.ATTENDEE, 0));
+        assertTrue(tokenProvider.authenticate(token).isPresent());
+
+        revocations.revokeBefore(5L, 1);
+
+        assertTrue(tokenProvider.authenticate(token).isEmpty());
+        assertEquals(1, count("jwt.revoked"));
+        assertTrue(tokenProvider.authenticate(
+                tokenFor(tokenProvider, new AuthenticatedUser(5L, "a@example.com", Role.ATTENDEE, 1))).isPresent());
+    }
+}
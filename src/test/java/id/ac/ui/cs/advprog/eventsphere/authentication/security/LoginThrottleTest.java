@@ -0,0 +1,89 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.security;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.exception.TooManyLoginAttemptsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicLong clock;
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new AtomicLong();
+        // 10 attempts per IP, 3 per email, both refilling one token every 20 seconds
+        throttle = new LoginThrottle(meterRegistry, 10, 3, 3, 3, 1_000, clock::get);
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("auth.login.rejected").tag("reason", reason).counter().count();
+    }
+
+    @Test
+    void emailBucketEmptiesAndRefills() {
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("user@example.com", "10.0.0.1");
+        }
+
+        TooManyLoginAttemptsException e = assertThrows(TooManyLoginAttemptsException.class,
+                () -> throttle.acquire("user@example.com", "10.0.0.2"));
+        assertEquals(20, e.getRetryAfterSeconds());
+        assertEquals(1, rejected("email"));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(20));
+        assertDoesNotThrow(() -> throttle.acquire("user@example.com", "10.0.0.3"));
+    }
+
+    @Test
+    void emailsAreMatchedCaseInsensitively() {
+        throttle.acquire("User@Example.com", "10.0.0.1");
+        throttle.acquire("user@example.com ", "10.0.0.1");
+        throttle.acquire("USER@EXAMPLE.COM", "10.0.0.1");
+
+        assertThrows(TooManyLoginAttemptsException.class, () -> throttle.acquire("user@example.com", "10.0.0.1"));
+    }
+
+    @Test
+    void ipBucketLimitsSprayingAcrossAccounts() {
+        for (int i = 0; i < 10; i++) {
+            throttle.acquire("user" + i + "@example.com", "10.0.0.1");
+        }
+
+        assertThrows(TooManyLoginAttemptsException.class, () -> throttle.acquire("fresh@example.com", "10.0.0.1"));
+        assertEquals(1, rejected("ip"));
+        assertDoesNotThrow(() -> throttle.acquire("fresh@example.com", "10.0.0.2"));
+    }
+
+    @Test
+    void bucketsNeverHoldMoreThanTheirCapacity() {
+        clock.addAndGet(TimeUnit.HOURS.toNanos(1));
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("idle@example.com", "10.0.0.1");
+        }
+
+        assertThrows(TooManyLoginAttemptsException.class, () -> throttle.acquire("idle@example.com", "10.0.0.1"));
+    }
+
+    @Test
+    void evictedKeysStartWithAFullBucket() {
+        LoginThrottle small = new LoginThrottle(new SimpleMeterRegistry(), 100, 0, 1, 0, 16, clock::get);
+        small.acquire("first@example.com", null);
+        assertThrows(TooManyLoginAttemptsException.class, () -> small.acquire("first@example.com", null));
+
+        // One key per stripe, so enough other emails push the first one out
+        for (int i = 0; i < 1_000; i++) {
+            small.acquire("other" + i + "@example.com", null);
+        }
+
+        assertDoesNotThrow(() -> small.acquire("first@example.com", null));
+    }
+}
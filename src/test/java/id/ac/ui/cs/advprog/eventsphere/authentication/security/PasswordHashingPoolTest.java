@@ -0,0 +1,123 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.security;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingPoolTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ThreadPoolTaskExecutor executor;
+    private PasswordHashingPool pool;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.initialize();
+        pool = new PasswordHashingPool(executor, meterRegistry, 2_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void runsTheTaskOnThePoolAndRecordsItsLatency() {
+        String thread = pool.run(() -> Thread.currentThread().getName());
+
+        assertNotEquals(Thread.currentThread().getName(), thread);
+        assertEquals(1, meterRegistry.get("auth.password.hash").timer().count());
+    }
+
+    @Test
+    void taskExceptionsReachTheCallerUnchanged() {
+        assertThrows(BadCredentialsException.class, () -> pool.run(() -> {
+            throw new BadCredentialsException("Bad credentials");
+        }));
+    }
+
+    @Test
+    void fullQueueIsRejectedWithoutWaiting() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        // Occupy the only thread, then the only queue slot
+        executor.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        executor.execute(() -> await(release));
+
+        try {
+            PasswordHashingBusyException e = assertThrows(PasswordHashingBusyException.class,
+                    () -> pool.run(() -> "hash"));
+            assertEquals(1, e.getRetryAfterSeconds());
+            assertEquals(1, meterRegistry.get("auth.login.rejected").tag("reason", "busy").counter().count());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void slowHashingIsRejectedAfterTheTimeout() {
+        PasswordHashingPool impatient = new PasswordHashingPool(executor, new SimpleMeterRegistry(), 50);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            assertThrows(PasswordHashingBusyException.class, () -> impatient.run(() -> {
+                await(release);
+                return "hash";
+            }));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void timedOutTaskIsCancelledBeforeItRuns() throws InterruptedException {
+        PasswordHashingPool impatient = new PasswordHashingPool(executor, new SimpleMeterRegistry(), 50);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean hashed = new AtomicBoolean();
+        executor.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        try {
+            // Queued behind the blocked thread, so the caller gives up before it starts
+            assertThrows(PasswordHashingBusyException.class, () -> impatient.run(() -> {
+                hashed.set(true);
+                return "hash";
+            }));
+        } finally {
+            release.countDown();
+        }
+        executor.getThreadPoolExecutor().shutdown();
+        assertTrue(executor.getThreadPoolExecutor().awaitTermination(1, TimeUnit.SECONDS));
+        assertFalse(hashed.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
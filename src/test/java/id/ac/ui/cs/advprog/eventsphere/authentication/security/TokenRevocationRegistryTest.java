@@ -0,0 +1,146 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.security;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationRegistryTest {
+
+    private static final long TOKEN_LIFETIME_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final AtomicLong clock = new AtomicLong(millis(START));
+    private SimpleMeterRegistry meterRegistry;
+    private TokenRevocationRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new TokenRevocationRegistry(userRepository, meterRegistry, TOKEN_LIFETIME_MILLIS, clock::get);
+    }
+
+    private static long millis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static Object[] row(long id, int version) {
+        return row(id, version, START.minusMinutes(1));
+    }
+
+    private static Object[] row(long id, int version, LocalDateTime changedAt) {
+        return new Object[]{id, version, changedAt};
+    }
+
+    @Test
+    void nothingIsRevokedInitially() {
+        assertFalse(registry.isRevoked(1L, 0));
+        assertFalse(registry.isRevoked(null, 0));
+    }
+
+    @Test
+    void refreshRevokesTokensBelowTheStoredVersion() {
+        when(userRepository.findTokenVersionsChangedSince(any())).thenReturn(List.of(row(1L, 2), row(7L, 1)));
+
+        registry.refresh();
+
+        assertTrue(registry.isRevoked(1L, 0));
+        assertTrue(registry.isRevoked(1L, 1));
+        assertFalse(registry.isRevoked(1L, 2));
+        assertTrue(registry.isRevoked(7L, 0));
+        assertFalse(registry.isRevoked(8L, 0));
+        assertEquals(2, meterRegistry.get("jwt.revocation.users").gauge().value());
+    }
+
+    @Test
+    void laterRefreshesOnlyReadRecentChanges() {
+        when(userRepository.findTokenVersionsChangedSince(any())).thenReturn(List.of());
+
+        registry.refresh();
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(30));
+        registry.refresh();
+
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(userRepository, times(2)).findTokenVersionsChangedSince(since.capture());
+        long overlap = TokenRevocationRegistry.REFRESH_OVERLAP_MILLIS;
+        assertEquals(millis(START) - TOKEN_LIFETIME_MILLIS - overlap, millis(since.getAllValues().get(0)));
+        assertEquals(millis(START) - overlap, millis(since.getAllValues().get(1)));
+    }
+
+    @Test
+    void versionsOlderThanTheTokenLifetimeAreDropped() {
+        when(userRepository.findTokenVersionsChangedSince(any()))
+                .thenReturn(List.<Object[]>of(row(1L, 1, START)))
+                .thenReturn(List.of());
+        registry.refresh();
+        registry.revokeBefore(2L, 1);
+
+        clock.addAndGet(TOKEN_LIFETIME_MILLIS + TokenRevocationRegistry.REFRESH_OVERLAP_MILLIS + 1);
+        registry.refresh();
+
+        // Every token issued before those logouts has expired, so nothing is left to reject
+        assertFalse(registry.isRevoked(1L, 0));
+        assertFalse(registry.isRevoked(2L, 0));
+        assertEquals(0, meterRegistry.get("jwt.revocation.users").gauge().value());
+    }
+
+    @Test
+    void localRevocationSurvivesAStaleRefresh() {
+        registry.revokeBefore(3L, 4);
+        when(userRepository.findTokenVersionsChangedSince(any())).thenReturn(List.<Object[]>of(row(3L, 2)));
+
+        registry.refresh();
+
+        assertTrue(registry.isRevoked(3L, 3));
+        assertFalse(registry.isRevoked(3L, 4));
+    }
+
+    @Test
+    void failedRefreshKeepsThePreviousTable() {
+        registry.revokeBefore(3L, 1);
+        when(userRepository.findTokenVersionsChangedSince(any())).thenThrow(new RuntimeException("db down"));
+
+        registry.refresh();
+
+        assertTrue(registry.isRevoked(3L, 0));
+    }
+
+    @Test
+    void tableGrowsPastItsInitialCapacity() {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 5_000; id++) {
+            rows.add(row(id, (int) (id % 3) + 1));
+        }
+        when(userRepository.findTokenVersionsChangedSince(any())).thenReturn(rows);
+
+        registry.refresh();
+        registry.revokeBefore(9_999L, 1);
+
+        for (long id = 1; id <= 5_000; id++) {
+            int version = (int) (id % 3) + 1;
+            assertTrue(registry.isRevoked(id, version - 1));
+            assertFalse(registry.isRevoked(id, version));
+        }
+        assertTrue(registry.isRevoked(9_999L, 0));
+        assertEquals(5_001, meterRegistry.get("jwt.revocation.users").gauge().value());
+    }
+}
@@ -0,0 +1,91 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.service;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.dto.UserListFilter;
+import id.ac.ui.cs.advprog.eventsphere.authentication.dto.UserListFilter.SortField;
+import id.ac.ui.cs.advprog.eventsphere.authentication.dto.UserPageDTO;
+import id.ac.ui.cs.advprog.eventsphere.authentication.dto.UserResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.authentication.util.UserCursor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdminUserServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private AdminUserServiceImpl adminUserService;
+
+    private static UserResponseDTO row(long id, String email) {
+        return UserResponseDTO.builder()
+                .id(id)
+                .email(email)
+                .role(Role.ATTENDEE)
+                .createdAt(LocalDateTime.of(2025, 1, 1, 12, 0).plusMinutes(id))
+                .build();
+    }
+
+    @Test
+    void getUsersReturnsACursorWhenAnotherPageExists() {
+        when(userRepository.findUserPage(eq(Role.ATTENDEE), eq("a"), isNull(), isNull(), eq(SortField.EMAIL),
+                eq(true), isNull(), eq(3)))
+                .thenReturn(List.of(row(1, "a1@example.com"), row(2, "a2@example.com"), row(3, "a3@example.com")));
+
+        UserPageDTO page = adminUserService.getUsers(UserListFilter.builder()
+                .role("attendee")
+                .emailPrefix("a")
+                .sort("email")
+                .direction("asc")
+                .limit(2)
+                .build());
+
+        assertEquals(2, page.getItems().size());
+        UserCursor next = UserCursor.decode(page.getNextCursor(), SortField.EMAIL);
+        assertEquals("a2@example.com", next.value());
+        assertEquals(2L, next.id());
+    }
+
+    @Test
+    void getUsersOmitsTheCursorOnTheLastPage() {
+        UserCursor after = UserCursor.after(SortField.CREATED_AT, LocalDateTime.of(2025, 1, 1, 12, 0), "x", 9L);
+        when(userRepository.findUserPage(isNull(), isNull(), isNull(), isNull(), eq(SortField.CREATED_AT),
+                eq(false), eq(after), eq(21)))
+                .thenReturn(List.of(row(1, "a1@example.com")));
+
+        UserPageDTO page = adminUserService.getUsers(UserListFilter.builder().cursor(after.encode()).build());
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getUsersRejectsInvalidParameters() {
+        String emailCursor = UserCursor.after(SortField.EMAIL, null, "a@example.com", 1L).encode();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> adminUserService.getUsers(UserListFilter.builder().limit(101).build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> adminUserService.getUsers(UserListFilter.builder().role("ROOT").build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> adminUserService.getUsers(UserListFilter.builder().sort("balance").build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> adminUserService.getUsers(UserListFilter.builder().cursor("garbage").build()));
+        // A cursor only continues the sort it was issued for
+        assertThrows(IllegalArgumentException.class,
+                () -> adminUserService.getUsers(UserListFilter.builder().cursor(emailCursor).build()));
+        verifyNoInteractions(userRepository);
+    }
+}
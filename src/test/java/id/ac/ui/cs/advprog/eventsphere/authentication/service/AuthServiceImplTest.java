@@ -2,11 +2,17 @@ package id.ac.ui.cs.advprog.eventsphere.authentication.service;
 
 import id.ac.ui.cs.advprog.eventsphere.authentication.dto.JwtResponse;
 import id.ac.ui.cs.advprog.eventsphere.authentication.dto.LoginRequest;
+import id.ac.ui.cs.advprog.eventsphere.authentication.dto.RefreshTokenRequest;
 import id.ac.ui.cs.advprog.eventsphere.authentication.dto.RegisterRequest;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.authentication.security.AuthenticatedUser;
+import id.ac.ui.cs.advprog.eventsphere.authentication.exception.TooManyLoginAttemptsException;
 import id.ac.ui.cs.advprog.eventsphere.authentication.security.JwtTokenProvider;
+import id.ac.ui.cs.advprog.eventsphere.authentication.security.LoginThrottle;
+import id.ac.ui.cs.advprog.eventsphere.authentication.security.PasswordHashingPool;
+import id.ac.ui.cs.advprog.eventsphere.authentication.security.TokenRevocationRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,10 +24,10 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -43,13 +49,25 @@ public class AuthServiceImplTest {
     private JwtTokenProvider jwtTokenProvider;
 
     @Mock
-    private Authentication authentication;
+    private TokenRevocationRegistry tokenRevocationRegistry;
 
     @Mock
-    private SecurityContext securityContext;
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private LoginThrottle loginThrottle;
+
+    @Mock
+    private PasswordHashingPool passwordHashingPool;
+
+    @Mock
+    private UserDirectory userDirectory;
+
+    @Mock
+    private Authentication authentication;
 
     @Mock
-    private UserDetails userDetails;
+    private SecurityContext securityContext;
 
     @InjectMocks
     private AuthServiceImpl authService;
@@ -77,6 +95,9 @@ public class AuthServiceImplTest {
         registerRequest.setPassword("newPassword");
         registerRequest.setFullName("New User");
         registerRequest.setRole(Role.ATTENDEE);
+
+        // Hash inline, the pool itself is covered by PasswordHashingPoolTest
+        lenient().when(passwordHashingPool.run(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
     }
 
     @Test
@@ -88,19 +109,24 @@ public class AuthServiceImplTest {
                 .thenReturn(authentication);
         when(jwtTokenProvider.generateToken(authentication)).thenReturn("jwt.token.string");
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(refreshTokenService.issue(testUser)).thenReturn("refresh.token");
+        when(jwtTokenProvider.getExpirationMillis()).thenReturn(900_000L);
 
         // Act
-        JwtResponse response = authService.login(loginRequest);
+        JwtResponse response = authService.login(loginRequest, "10.0.0.1");
 
         // Assert
         assertNotNull(response);
         assertEquals("jwt.token.string", response.getToken());
+        assertEquals("refresh.token", response.getRefreshToken());
+        assertEquals(900L, response.getExpiresIn());
         assertEquals("test@example.com", response.getEmail());
         assertEquals(Role.ATTENDEE, response.getRole());
 
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(jwtTokenProvider).generateToken(authentication);
         verify(securityContext).setAuthentication(authentication);
+        verify(loginThrottle).acquire("test@example.com", "10.0.0.1");
         
         // Clean up
         SecurityContextHolder.clearContext();
@@ -116,12 +142,46 @@ public class AuthServiceImplTest {
 
         // Act & Assert
         Exception exception = assertThrows(RuntimeException.class, () -> {
-            authService.login(loginRequest);
+            authService.login(loginRequest, "10.0.0.1");
         });
 
         assertEquals("User not found", exception.getMessage());
     }
 
+    @Test
+    void loginShouldRejectThrottledAttemptsBeforeHashing() {
+        // Arrange
+        doThrow(new TooManyLoginAttemptsException("Too many login attempts for this account", 12))
+                .when(loginThrottle).acquire("test@example.com", "10.0.0.1");
+
+        // Act & Assert
+        TooManyLoginAttemptsException exception = assertThrows(TooManyLoginAttemptsException.class,
+                () -> authService.login(loginRequest, "10.0.0.1"));
+
+        assertEquals(12, exception.getRetryAfterSeconds());
+        verifyNoInteractions(authenticationManager, passwordHashingPool);
+    }
+
+    @Test
+    void refreshShouldIssueAccessTokenWithoutAuthenticating() {
+        // Arrange
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken("old.refresh");
+        when(refreshTokenService.rotate("old.refresh"))
+                .thenReturn(new RefreshTokenService.Rotation(testUser, "new.refresh"));
+        when(jwtTokenProvider.generateToken(any(AuthenticatedUser.class))).thenReturn("jwt.token.string");
+
+        // Act
+        JwtResponse response = authService.refresh(request);
+
+        // Assert
+        assertEquals("jwt.token.string", response.getToken());
+        assertEquals("new.refresh", response.getRefreshToken());
+        assertEquals("test@example.com", response.getEmail());
+        verify(jwtTokenProvider).generateToken(new AuthenticatedUser(1L, "test@example.com", Role.ATTENDEE, 0));
+        verifyNoInteractions(authenticationManager, passwordEncoder);
+    }
+
     @Test
     void registerShouldCreateAndReturnUserWhenEmailIsNotInUse() {
         // Arrange
@@ -163,9 +223,8 @@ public class AuthServiceImplTest {
         // Arrange
         SecurityContextHolder.setContext(securityContext);
         when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(authentication.getPrincipal()).thenReturn(userDetails);
-        when(userDetails.getUsername()).thenReturn("test@example.com");
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(authentication.getPrincipal()).thenReturn(new AuthenticatedUser(1L, "test@example.com", Role.ATTENDEE, 0));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
 
         // Act
         User result = authService.getCurrentUser();
@@ -175,7 +234,8 @@ public class AuthServiceImplTest {
         assertEquals(testUser, result);
 
         verify(securityContext).getAuthentication();
-        verify(userRepository).findByEmail("test@example.com");
+        verify(userRepository).findById(1L);
+        verify(userRepository, never()).findByEmail(any());
         
         // Clean up
         SecurityContextHolder.clearContext();
@@ -186,9 +246,8 @@ public class AuthServiceImplTest {
         // Arrange
         SecurityContextHolder.setContext(securityContext);
         when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(authentication.getPrincipal()).thenReturn(userDetails);
-        when(userDetails.getUsername()).thenReturn("nonexistent@example.com");
-        when(userRepository.findByEmail("nonexistent@example.com")).thenReturn(Optional.empty());
+        when(authentication.getPrincipal()).thenReturn(new AuthenticatedUser(99L, "nonexistent@example.com", Role.ATTENDEE, 0));
+        when(userRepository.findById(99L)).thenReturn(Optional.empty());
 
         // Act & Assert
         Exception exception = assertThrows(RuntimeException.class, () -> {
@@ -200,4 +259,26 @@ public class AuthServiceImplTest {
         // Clean up
         SecurityContextHolder.clearContext();
     }
-}
\ No newline at end of file
+
+    @Test
+    void logoutShouldBumpTokenVersionAndRevokeLocally() {
+        // Arrange
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getPrincipal()).thenReturn(new AuthenticatedUser(1L, "test@example.com", Role.ATTENDEE, 0));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.save(testUser)).thenReturn(testUser);
+
+        // Act
+        authService.logout();
+
+        // Assert
+        assertEquals(1, testUser.getTokenVersion());
+        verify(tokenRevocationRegistry).revokeBefore(1L, 1);
+        verify(refreshTokenService).revokeAll(1L);
+        verify(userDirectory).evict(1L);
+
+        // Clean up
+        SecurityContextHolder.clearContext();
+    }
+}
@@ -4,6 +4,7 @@ import id.ac.ui.cs.advprog.eventsphere.authentication.dto.RegisterRequest;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.authentication.security.PasswordHashingPool;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -12,8 +13,11 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.function.Supplier;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class AuthServiceTest {
@@ -27,12 +31,19 @@ public class AuthServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private PasswordHashingPool passwordHashingPool;
+
+    @Mock
+    private UserDirectory userDirectory;
+
     @InjectMocks
     private AuthServiceImpl authService;
 
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
+        when(passwordHashingPool.run(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
     }
 
     @Test
@@ -63,5 +74,6 @@ public class AuthServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getEmail()).isEqualTo("new@example.com");
         assertThat(result.getRole()).isEqualTo(Role.ATTENDEE);
+        verify(userDirectory).evict(1L);
     }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.service;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.BalanceLedgerEntry.EntryType;
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.BalanceLedgerJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceLedgerMaintenanceTest {
+
+    @Mock
+    private BalanceLedgerJdbcRepository ledgerRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    private BalanceLedgerMaintenance maintenance(boolean repair) {
+        return new BalanceLedgerMaintenance(ledgerRepository, transactionManager, meterRegistry, 100, 10, repair);
+    }
+
+    @Test
+    void foldAll_FoldsEveryUserWithATail() {
+        when(ledgerRepository.findUsersWithUnfoldedEntries(10)).thenReturn(List.of(1L, 2L));
+        when(ledgerRepository.fold(eq(1L), eq(100), any())).thenReturn(3);
+        when(ledgerRepository.fold(eq(2L), eq(100), any())).thenReturn(2);
+
+        assertEquals(5, maintenance(false).foldAll());
+        assertEquals(5.0, meterRegistry.get("balance.ledger.folded").counter().count());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void foldAll_OneFailingUserDoesNotStopTheRest() {
+        when(ledgerRepository.findUsersWithUnfoldedEntries(10)).thenReturn(List.of(1L, 2L));
+        when(ledgerRepository.fold(eq(1L), eq(100), any())).thenThrow(new RuntimeException("lock timeout"));
+        when(ledgerRepository.fold(eq(2L), eq(100), any())).thenReturn(2);
+
+        assertEquals(2, maintenance(false).foldAll());
+    }
+
+    @Test
+    void audit_ReportsDriftWithoutRepairByDefault() {
+        when(ledgerRepository.findDrift(10)).thenReturn(List.of(7L));
+
+        assertEquals(List.of(7L), maintenance(false).audit());
+        assertEquals(1.0, meterRegistry.get("balance.ledger.drift").gauge().value());
+        verify(ledgerRepository, never()).rebuild(any(), any());
+    }
+
+    @Test
+    void audit_RebuildsDriftedUsersWhenRepairIsOn() {
+        when(ledgerRepository.findDrift(10)).thenReturn(List.of(7L));
+        when(ledgerRepository.rebuild(eq(7L), any())).thenReturn(500);
+
+        maintenance(true).audit();
+
+        verify(ledgerRepository).rebuild(eq(7L), any());
+    }
+
+    @Test
+    void seedOpeningBalances_RunsInItsOwnTransaction() {
+        when(ledgerRepository.seedOpeningBalances(any())).thenReturn(4);
+
+        maintenance(false).seedOpeningBalances();
+
+        verify(ledgerRepository).seedOpeningBalances(any());
+        verify(transactionManager).commit(any());
+        verify(ledgerRepository, never()).append(any(), any(), anyInt(), any(EntryType.class), any());
+    }
+}
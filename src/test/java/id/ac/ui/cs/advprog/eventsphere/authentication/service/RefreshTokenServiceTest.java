@@ -0,0 +1,146 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.service;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.RefreshToken;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.RefreshTokenRepository;
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RefreshTokenService service;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new RefreshTokenService(refreshTokenRepository, userRepository, meterRegistry, 60);
+        user = userRepository.save(User.builder()
+                .email("refresh@example.com")
+                .password("encoded")
+                .fullName("Refresh User")
+                .role(Role.ATTENDEE)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void onlyTheHashIsStored() {
+        String token = service.issue(user);
+
+        RefreshToken stored = refreshTokenRepository.findAll().get(0);
+        assertNotEquals(token, stored.getTokenHash());
+        assertEquals(64, stored.getTokenHash().length());
+        assertEquals(user.getId(), stored.getUserId());
+    }
+
+    @Test
+    void rotationReturnsTheUserAndANewTokenOfTheSameFamily() {
+        String first = service.issue(user);
+
+        RefreshTokenService.Rotation rotation = service.rotate(first);
+
+        assertEquals(user.getId(), rotation.user().getId());
+        assertNotEquals(first, rotation.refreshToken());
+        assertEquals(1, refreshTokenRepository.findAll().stream().map(RefreshToken::getFamilyId).distinct().count());
+        assertEquals(1, meterRegistry.get("jwt.refresh.rotations").counter().count());
+    }
+
+    @Test
+    void reusingARotatedTokenRevokesTheFamily() {
+        String first = service.issue(user);
+        String second = service.rotate(first).refreshToken();
+
+        assertThrows(CredentialsExpiredException.class, () -> service.rotate(first));
+
+        assertThrows(CredentialsExpiredException.class, () -> service.rotate(second));
+        assertEquals(0, refreshTokenRepository.count());
+        assertEquals(1, meterRegistry.get("jwt.refresh.reuse").counter().count());
+    }
+
+    @Test
+    void otherFamiliesSurviveAReuse() {
+        String stolen = service.issue(user);
+        String otherDevice = service.issue(user);
+        service.rotate(stolen);
+
+        assertThrows(CredentialsExpiredException.class, () -> service.rotate(stolen));
+
+        assertNotNull(service.rotate(otherDevice).refreshToken());
+    }
+
+    @Test
+    void tokensIssuedBeforeLogoutAreRejected() {
+        String token = service.issue(user);
+        user.bumpTokenVersion();
+        userRepository.save(user);
+
+        assertThrows(CredentialsExpiredException.class, () -> service.rotate(token));
+    }
+
+    @Test
+    void unknownAndExpiredTokensAreRejected() {
+        assertThrows(CredentialsExpiredException.class, () -> service.rotate("not-a-token"));
+        assertThrows(CredentialsExpiredException.class, () -> service.rotate(null));
+
+        String token = service.issue(user);
+        RefreshToken stored = refreshTokenRepository.findAll().get(0);
+        stored.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        refreshTokenRepository.save(stored);
+
+        assertThrows(CredentialsExpiredException.class, () -> service.rotate(token));
+    }
+
+    @Test
+    void purgeRemovesOnlyExpiredTokens() {
+        service.issue(user);
+        service.issue(user);
+        RefreshToken expired = refreshTokenRepository.findAll().get(0);
+        expired.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        refreshTokenRepository.save(expired);
+
+        service.purgeExpired();
+
+        assertEquals(1, refreshTokenRepository.count());
+    }
+
+    @Test
+    void revokeAllDropsEveryTokenOfTheUser() {
+        String token = service.issue(user);
+        service.issue(user);
+
+        service.revokeAll(user.getId());
+
+        assertEquals(0, refreshTokenRepository.count());
+        assertThrows(CredentialsExpiredException.class, () -> service.rotate(token));
+    }
+}
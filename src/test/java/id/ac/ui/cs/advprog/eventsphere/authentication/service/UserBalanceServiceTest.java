@@ -1,7 +1,8 @@
 package id.ac.ui.cs.advprog.eventsphere.authentication.service;
 
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.BalanceLedgerEntry.EntryType;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
-import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.BalanceLedgerJdbcRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,15 +10,21 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class UserBalanceServiceTest {
 
     @Mock
-    private UserRepository userRepository;
+    private BalanceLedgerJdbcRepository ledgerRepository;
 
     @InjectMocks
     private UserBalanceService userBalanceService;
@@ -34,71 +41,121 @@ public class UserBalanceServiceTest {
     }
 
     @Test
-    void topUpShouldIncreaseBalanceAndSaveUser() {
+    void topUpShouldAppendCreditKeyedByTransaction() {
         // Arrange
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(ledgerRepository.append(eq(1L), eq("trans-1"), eq(50), eq(EntryType.TOP_UP), any())).thenReturn(true);
 
         // Act
-        userBalanceService.topUp(testUser, 50);
+        userBalanceService.topUp(testUser, 50, "trans-1");
 
         // Assert
-        assertEquals(150, testUser.getBalance());
-        verify(userRepository).save(testUser);
+        verify(ledgerRepository).append(eq(1L), eq("trans-1"), eq(50), eq(EntryType.TOP_UP), any());
+    }
+
+    @Test
+    void topUpShouldRejectReusedTransaction() {
+        // Arrange
+        when(ledgerRepository.append(eq(1L), eq("trans-1"), eq(50), eq(EntryType.TOP_UP), any())).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> userBalanceService.topUp(testUser, 50, "trans-1"));
     }
 
     @Test
     void topUpShouldThrowExceptionWhenAmountIsNegative() {
         // Act & Assert
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
-            userBalanceService.topUp(testUser, -50);
+            userBalanceService.topUp(testUser, -50, "trans-1");
         });
 
         assertEquals("Top-up amount must be positive", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
+        verifyNoInteractions(ledgerRepository);
     }
 
     @Test
-    void deductBalanceShouldReduceBalanceAndReturnTrueWhenSufficient() {
+    void deductBalanceShouldLockThenAppendGuardedDebit() {
         // Arrange
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(ledgerRepository.lockBalance(1L)).thenReturn(Optional.of(100));
+        when(ledgerRepository.appendDebit(eq(1L), eq("trans-2"), eq(50), eq(EntryType.TICKET_PURCHASE), any()))
+                .thenReturn(true);
 
         // Act
-        boolean result = userBalanceService.deductBalance(testUser, 50);
+        boolean result = userBalanceService.deductBalance(testUser, 50, "trans-2");
 
         // Assert
         assertTrue(result);
-        assertEquals(50, testUser.getBalance());
-        verify(userRepository).save(testUser);
+        verify(ledgerRepository).lockBalance(1L);
     }
 
     @Test
     void deductBalanceShouldReturnFalseWhenInsufficientBalance() {
+        // Arrange
+        when(ledgerRepository.lockBalance(1L)).thenReturn(Optional.of(100));
+        when(ledgerRepository.appendDebit(eq(1L), eq("trans-2"), eq(150), eq(EntryType.TICKET_PURCHASE), any()))
+                .thenReturn(false);
+
         // Act
-        boolean result = userBalanceService.deductBalance(testUser, 150);
+        boolean result = userBalanceService.deductBalance(testUser, 150, "trans-2");
 
         // Assert
         assertFalse(result);
-        assertEquals(100, testUser.getBalance());
-        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void deductBalanceShouldReturnFalseForUnknownUser() {
+        // Arrange
+        when(ledgerRepository.lockBalance(1L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertFalse(userBalanceService.deductBalance(testUser, 50, "trans-2"));
+        verify(ledgerRepository, never()).appendDebit(any(), anyString(), anyInt(), any(), any());
     }
 
     @Test
     void deductBalanceShouldThrowExceptionWhenAmountIsNegative() {
         // Act & Assert
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
-            userBalanceService.deductBalance(testUser, -50);
+            userBalanceService.deductBalance(testUser, -50, "trans-2");
         });
 
         assertEquals("Deduction amount must be positive", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
+        verifyNoInteractions(ledgerRepository);
     }
 
     @Test
-    void getBalanceShouldReturnUserBalance() {
+    void adjustBalanceShouldAppendDifference() {
+        // Arrange
+        when(ledgerRepository.lockBalance(1L)).thenReturn(Optional.of(100));
+
+        // Act
+        int balance = userBalanceService.adjustBalance(testUser, 30);
+
+        // Assert
+        assertEquals(30, balance);
+        verify(ledgerRepository).append(eq(1L), startsWith("adjustment:"), eq(-70), eq(EntryType.ADJUSTMENT), any());
+    }
+
+    @Test
+    void adjustBalanceToSameValueShouldNotAppend() {
+        // Arrange
+        when(ledgerRepository.lockBalance(1L)).thenReturn(Optional.of(100));
+
+        // Act
+        userBalanceService.adjustBalance(testUser, 100);
+
+        // Assert
+        verify(ledgerRepository, never()).append(any(), anyString(), anyInt(), any(), any());
+    }
+
+    @Test
+    void getBalanceShouldReadLedger() {
+        // Arrange
+        when(ledgerRepository.balanceOf(1L)).thenReturn(250);
+
         // Act
         int balance = userBalanceService.getBalance(testUser);
 
         // Assert
-        assertEquals(100, balance);
+        assertEquals(250, balance);
     }
-}
\ No newline at end of file
+}
@@ -3,10 +3,10 @@ package id.ac.ui.cs.advprog.eventsphere.authentication.service;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.authentication.security.AuthenticatedUser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.GrantedAuthority;
@@ -16,6 +16,8 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,13 +26,13 @@ public class UserDetailsServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
     private UserDetailsServiceImpl userDetailsService;
 
     private User testUser;
 
     @BeforeEach
     void setUp() {
+        userDetailsService = new UserDetailsServiceImpl(userRepository);
         testUser = User.builder()
                 .id(1L)
                 .email("test@example.com")
@@ -62,6 +64,30 @@ public class UserDetailsServiceImplTest {
         assertTrue(hasCorrectAuthority, "User should have ROLE_ATTENDEE authority");
     }
 
+    @Test
+    void loadUserByUsernameShouldReadTheCurrentRowEveryTime() {
+        // Arrange
+        User changed = User.builder()
+                .id(1L)
+                .email("test@example.com")
+                .password("newEncodedPassword")
+                .role(Role.ATTENDEE)
+                .tokenVersion(1)
+                .build();
+        when(userRepository.findByEmail("test@example.com"))
+                .thenReturn(Optional.of(testUser))
+                .thenReturn(Optional.of(changed));
+
+        // Act
+        userDetailsService.loadUserByUsername("test@example.com");
+        UserDetails result = userDetailsService.loadUserByUsername("test@example.com");
+
+        // Assert
+        assertEquals("newEncodedPassword", result.getPassword());
+        assertEquals(1, ((AuthenticatedUser) result).getVersion());
+        verify(userRepository, times(2)).findByEmail("test@example.com");
+    }
+
     @Test
     void loadUserByUsernameShouldThrowExceptionWhenUserDoesNotExist() {
         // Arrange
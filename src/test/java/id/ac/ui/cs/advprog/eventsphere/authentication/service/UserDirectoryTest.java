@@ -0,0 +1,191 @@
+package id.ac.ui.cs.advprog.eventsphere.authentication.service;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.RoleMember;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.UserSnapshot;
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDirectoryTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicLong clock;
+    private UserDirectory directory;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new AtomicLong();
+        directory = new UserDirectory(userRepository, meterRegistry, 2, 60, clock::get);
+        user = user(1L, "user@example.com");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static User user(Long id, String email) {
+        return User.builder()
+                .id(id)
+                .email(email)
+                .password("hash")
+                .fullName("User " + id)
+                .role(Role.ATTENDEE)
+                .build();
+    }
+
+    private double count(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    @Test
+    void lookupByIdAlsoServesLookupByEmail() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        UserSnapshot byId = directory.findById(1L).orElseThrow();
+        UserSnapshot byEmail = directory.findByEmail("user@example.com").orElseThrow();
+
+        assertSame(byId, byEmail);
+        assertEquals("user@example.com", byId.email());
+        verify(userRepository, never()).findByEmail(any());
+        assertEquals(1, count("user.directory.hits"));
+        assertEquals(1, count("user.directory.misses"));
+        assertEquals(1, meterRegistry.get("user.directory.size").gauge().value());
+    }
+
+    @Test
+    void missingUsersAreNotCached() {
+        when(userRepository.findByEmail("ghost@example.com")).thenReturn(Optional.empty());
+
+        assertTrue(directory.findByEmail("ghost@example.com").isEmpty());
+        assertTrue(directory.findByEmail("ghost@example.com").isEmpty());
+
+        verify(userRepository, times(2)).findByEmail("ghost@example.com");
+        assertTrue(directory.findById(null).isEmpty());
+    }
+
+    @Test
+    void entriesExpireAfterTheTtl() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        directory.findById(1L);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        directory.findById(1L);
+
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsDroppedWhenFull() {
+        when(userRepository.findById(anyLong())).thenAnswer(inv -> {
+            Long id = inv.getArgument(0);
+            return Optional.of(user(id, "user" + id + "@example.com"));
+        });
+        directory.findById(1L);
+        directory.findById(2L);
+        directory.findById(1L);
+        directory.findById(3L);
+
+        directory.findById(1L);
+        directory.findById(2L);
+
+        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, times(2)).findById(2L);
+    }
+
+    @Test
+    void evictionForgetsEveryKeyOfTheUser() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        directory.findById(1L);
+
+        directory.evict(1L);
+
+        User renamed = user(1L, "renamed@example.com");
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.empty());
+        when(userRepository.findById(1L)).thenReturn(Optional.of(renamed));
+        assertTrue(directory.findByEmail("user@example.com").isEmpty());
+        assertEquals("renamed@example.com", directory.findById(1L).orElseThrow().email());
+    }
+
+    @Test
+    void evictionInsideATransactionRepeatsAfterCompletion() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        TransactionSynchronizationManager.initSynchronization();
+
+        directory.evict(1L);
+        // A concurrent reader still sees the uncommitted old row and caches it
+        directory.findById(1L);
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        directory.findById(1L);
+
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void lookupRacingWithAnEvictionDoesNotStoreTheOldRow() {
+        when(userRepository.findById(1L)).thenAnswer(inv -> {
+            // The row is changed and evicted while this read is in flight
+            directory.evict(1L);
+            return Optional.of(user);
+        });
+
+        directory.findById(1L);
+        directory.findById(1L);
+
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void roleMembersAreLoadedOnceAndDroppedOnAnyUserWrite() {
+        when(userRepository.findIdAndEmailByRole(Role.ADMIN))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "admin@example.com"}))
+                .thenReturn(List.of(new Object[]{1L, "admin@example.com"}, new Object[]{9L, "new@example.com"}));
+
+        assertEquals(List.of(new RoleMember(1L, "admin@example.com")), directory.membersOf(Role.ADMIN));
+        assertEquals(1, directory.membersOf(Role.ADMIN).size());
+
+        directory.evict(9L);
+
+        assertEquals(List.of(1L, 9L), directory.membersOf(Role.ADMIN).stream().map(RoleMember::id).toList());
+        verify(userRepository, times(2)).findIdAndEmailByRole(Role.ADMIN);
+    }
+
+    @Test
+    void snapshotHoldsNoCredentials() {
+        List<String> components = Arrays.stream(UserSnapshot.class.getRecordComponents())
+                .map(RecordComponent::getName)
+                .toList();
+
+        assertEquals(List.of("id", "email", "fullName", "role"), components);
+        assertFalse(UserSnapshot.of(user).toString().contains("hash"));
+    }
+}
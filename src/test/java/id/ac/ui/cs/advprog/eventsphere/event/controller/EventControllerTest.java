@@ -2,11 +2,21 @@ package id.ac.ui.cs.advprog.eventsphere.event.controller;
 
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventBrowseFilter;
 import id.ac.ui.cs.advprog.eventsphere.event.dto.EventCreateDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventDetailDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventPageDTO;
 import id.ac.ui.cs.advprog.eventsphere.event.dto.EventUpdateDTO;
 import id.ac.ui.cs.advprog.eventsphere.event.dto.EventResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventSearchResultDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.exception.EventNotFoundException;
 import id.ac.ui.cs.advprog.eventsphere.event.exception.UnauthorizedAccessException;
+import id.ac.ui.cs.advprog.eventsphere.event.service.EventCatalog;
+import id.ac.ui.cs.advprog.eventsphere.event.service.EventDetailService;
 import id.ac.ui.cs.advprog.eventsphere.event.service.EventService;
+import id.ac.ui.cs.advprog.eventsphere.event.util.EventEtags;
+import id.ac.ui.cs.advprog.eventsphere.ticket.dto.TicketResponse;
+import id.ac.ui.cs.advprog.eventsphere.ticket.service.TicketService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -32,6 +42,12 @@ class EventControllerTest {
     @Mock
     private EventService eventService;
     @Mock
+    private EventCatalog eventCatalog;
+    @Mock
+    private EventDetailService eventDetailService;
+    @Mock
+    private TicketService ticketService;
+    @Mock
     private UserRepository userRepository;
     @Mock
     private UserDetails userDetails;
@@ -87,28 +103,132 @@ class EventControllerTest {
 
     @Test
     void testGetAllEvents() {
-        List<EventResponseDTO> mockEvents = Arrays.asList(responseDTO);
-        when(eventService.getAllActiveEvents()).thenReturn(mockEvents);
+        EventBrowseFilter filter = EventBrowseFilter.builder().limit(1).build();
+        String etag = EventEtags.ofPage(List.of(responseDTO), "next");
+        when(eventService.browseEvents(filter)).thenReturn(
+                EventPageDTO.builder().items(List.of(responseDTO)).nextCursor("next").etag(etag).build());
 
         ResponseEntity<List<EventResponseDTO>> response =
-                eventController.getAllEvents();
+                eventController.getAllEvents(filter, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(1, response.getBody().size());
-        verify(eventService).getAllActiveEvents();
+        assertEquals("next", response.getHeaders().getFirst(EventController.NEXT_CURSOR_HEADER));
+        assertEquals(etag, response.getHeaders().getETag());
+    }
+
+    @Test
+    void testGetAllEvents_LastPageHasNoCursor() {
+        EventBrowseFilter filter = new EventBrowseFilter();
+        when(eventService.browseEvents(filter))
+                .thenReturn(EventPageDTO.builder()
+                        .items(List.of(responseDTO))
+                        .etag(EventEtags.ofPage(List.of(responseDTO), null))
+                        .build());
+
+        ResponseEntity<List<EventResponseDTO>> response = eventController.getAllEvents(filter, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getHeaders().getFirst(EventController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void testGetAllEvents_NotModified() {
+        EventBrowseFilter filter = new EventBrowseFilter();
+        String etag = EventEtags.ofPage(List.of(responseDTO), "next");
+        when(eventService.browseEvents(filter)).thenReturn(
+                EventPageDTO.builder().items(List.of(responseDTO)).nextCursor("next").etag(etag).build());
+
+        ResponseEntity<List<EventResponseDTO>> response =
+                eventController.getAllEvents(filter, "\"old\", W/" + etag);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals(etag, response.getHeaders().getETag());
+        assertEquals("next", response.getHeaders().getFirst(EventController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void testSearchEvents() {
+        when(eventService.searchEvents("jazz", 20, 10))
+                .thenReturn(EventSearchResultDTO.builder().items(List.of(responseDTO)).total(21).build());
+
+        ResponseEntity<List<EventResponseDTO>> response = eventController.searchEvents("jazz", 20, 10);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(responseDTO), response.getBody());
+        assertEquals("21", response.getHeaders().getFirst(EventController.TOTAL_COUNT_HEADER));
     }
 
     @Test
     void testGetActiveEventById() {
-        when(eventService.getActiveEventById(1L)).thenReturn(responseDTO);
+        when(eventCatalog.find(1L)).thenReturn(Optional.of(new EventCatalog.Entry(responseDTO, "\"e1\"")));
 
         ResponseEntity<EventResponseDTO> response =
-                eventController.getActiveEventById(1L);
+                eventController.getActiveEventById(1L, "\"stale\"");
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(responseDTO, response.getBody());
-        verify(eventService).getActiveEventById(1L);
+        assertEquals("\"e1\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void testGetActiveEventById_NotFound() {
+        when(eventCatalog.find(2L)).thenReturn(Optional.empty());
+
+        assertThrows(EventNotFoundException.class, () -> eventController.getActiveEventById(2L, null));
+    }
+
+    @Test
+    void testGetEventTickets() {
+        TicketResponse ticket = TicketResponse.builder().id(5L).name("VIP").eventId(1L).build();
+        when(eventCatalog.find(1L)).thenReturn(Optional.of(new EventCatalog.Entry(responseDTO, "\"e1\"")));
+        when(ticketService.getTickets(1L, true)).thenReturn(List.of(ticket));
+
+        ResponseEntity<List<TicketResponse>> response = eventController.getEventTickets(1L, true);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(ticket), response.getBody());
+    }
+
+    @Test
+    void testGetEventTickets_EventNotFound() {
+        when(eventCatalog.find(2L)).thenReturn(Optional.empty());
+
+        assertThrows(EventNotFoundException.class, () -> eventController.getEventTickets(2L, false));
+        verifyNoInteractions(ticketService);
+    }
+
+    @Test
+    void testGetEventDetail() {
+        EventDetailDTO detail = EventDetailDTO.builder()
+                .event(responseDTO)
+                .tickets(List.of())
+                .averageRating(0.0)
+                .missingParts(List.of())
+                .build();
+        when(eventDetailService.getEventDetail(1L)).thenReturn(detail);
+
+        ResponseEntity<EventDetailDTO> response = eventController.getEventDetail(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(detail, response.getBody());
+        assertNull(response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    void testGetEventDetail_PartialIsNotStored() {
+        EventDetailDTO detail = EventDetailDTO.builder()
+                .event(responseDTO)
+                .missingParts(List.of("reviews"))
+                .build();
+        when(eventDetailService.getEventDetail(1L)).thenReturn(detail);
+
+        ResponseEntity<EventDetailDTO> response = eventController.getEventDetail(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("no-store", response.getHeaders().getCacheControl());
     }
 
     @Test
@@ -3,24 +3,32 @@ package id.ac.ui.cs.advprog.eventsphere.event.repository;
 import id.ac.ui.cs.advprog.eventsphere.event.model.Event;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.util.EventCursor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class EventRepositoryTest {
 
     @Autowired
     private EventRepository eventRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private TestEntityManager entityManager;
 
     private Event sampleEvent;
     private User organizer;
@@ -53,6 +61,137 @@ class EventRepositoryTest {
         assertTrue(activeEvents.stream().allMatch(Event::isActive));
     }
 
+    private Statistics statistics() {
+        return entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // Five organizers with two events each, plus one deleted event, and an empty persistence context
+    private void seedCatalog() {
+        for (int i = 0; i < 5; i++) {
+            User other = new User();
+            other.setEmail("organizer" + i + "@example.com");
+            other.setPassword("somepass");
+            other.setFullName("Organizer " + i);
+            userRepository.save(other);
+            for (int j = 0; j < 2; j++) {
+                Event event = new Event();
+                event.setTitle("Event " + i + "-" + j);
+                event.setEventDate(LocalDateTime.now().plusDays(3));
+                event.setLocation("Location");
+                event.setPrice(BigDecimal.ONE);
+                event.setOrganizer(other);
+                eventRepository.save(event);
+            }
+        }
+        Event deleted = new Event();
+        deleted.setTitle("Deleted Event");
+        deleted.setEventDate(LocalDateTime.now().plusDays(1));
+        deleted.setLocation("Location");
+        deleted.setPrice(BigDecimal.ONE);
+        deleted.setOrganizer(organizer);
+        eventRepository.save(deleted);
+        deleted.setActive(false);
+        eventRepository.save(deleted);
+        entityManager.flush();
+        entityManager.clear();
+        statistics().clear();
+    }
+
+    @Test
+    void testFindActiveEventDTOsUsesOneStatement() {
+        seedCatalog();
+
+        List<EventResponseDTO> events = eventRepository.findActiveEventDTOs();
+
+        assertEquals(11, events.size());
+        assertEquals(1, statistics().getPrepareStatementCount());
+        assertEquals(0, statistics().getEntityLoadCount());
+        EventResponseDTO first = events.get(0);
+        assertEquals(sampleEvent.getId(), first.getId());
+        assertEquals(organizer.getId(), first.getOrganizerId());
+        assertEquals("Test User", first.getOrganizerName());
+        assertTrue(first.isActive());
+    }
+
+    @Test
+    void testEntityListingLoadsOrganizersOneByOne() {
+        seedCatalog();
+
+        // What the projection replaces: one statement for the events, then one per organizer
+        eventRepository.findByIsActiveTrue().forEach(event -> event.getOrganizer().getFullName());
+
+        assertEquals(1 + 6, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindActiveEventDTOsByOrganizerIdUsesOneStatement() {
+        seedCatalog();
+
+        List<EventResponseDTO> events = eventRepository.findActiveEventDTOsByOrganizerId(organizer.getId());
+
+        assertEquals(List.of(sampleEvent.getId()), events.stream().map(EventResponseDTO::getId).toList());
+        assertEquals(1, statistics().getPrepareStatementCount());
+        assertEquals(0, statistics().getEntityLoadCount());
+    }
+
+    private Event saveEventOn(String title, LocalDateTime eventDate, boolean cancelled) {
+        Event event = new Event();
+        event.setTitle(title);
+        event.setEventDate(eventDate);
+        event.setLocation("Location");
+        event.setPrice(BigDecimal.ONE);
+        event.setOrganizer(organizer);
+        event.setCancelled(cancelled);
+        return eventRepository.save(event);
+    }
+
+    @Test
+    void testFindEventPageWalksTheWindowInDateOrder() {
+        LocalDateTime base = LocalDateTime.of(2030, 3, 1, 10, 0);
+        saveEventOn("Before", base.minusDays(1), false);
+        saveEventOn("Third", base.plusDays(2), false);
+        saveEventOn("First", base, false);
+        saveEventOn("Second (same time)", base, false);
+        saveEventOn("Cancelled", base.plusDays(1), true);
+        saveEventOn("After", base.plusDays(3), false);
+        entityManager.flush();
+        entityManager.clear();
+        statistics().clear();
+
+        List<String> seen = new ArrayList<>();
+        EventCursor after = null;
+        for (int page = 0; page < 2; page++) {
+            List<EventResponseDTO> rows = eventRepository.findEventPage(
+                    base, base.plusDays(3), false, true, after, 2);
+            rows.forEach(row -> seen.add(row.getTitle()));
+            EventResponseDTO last = rows.get(rows.size() - 1);
+            after = new EventCursor(last.getEventDate(), last.getId());
+        }
+
+        assertEquals(List.of("First", "Second (same time)", "Third"), seen);
+        assertEquals(2, statistics().getPrepareStatementCount());
+        assertEquals(0, statistics().getEntityLoadCount());
+    }
+
+    @Test
+    void testFindEventPageNewestFirstWithCancelled() {
+        LocalDateTime base = LocalDateTime.of(2019, 3, 1, 10, 0);
+        saveEventOn("Old", base, false);
+        saveEventOn("Older cancelled", base.minusDays(1), true);
+        saveEventOn("Oldest", base.minusDays(2), false);
+
+        List<EventResponseDTO> withCancelled = eventRepository.findEventPage(
+                null, base.plusDays(1), true, false, null, 10);
+        List<EventResponseDTO> withoutCancelled = eventRepository.findEventPage(
+                null, base.plusDays(1), false, false, null, 10);
+
+        assertEquals(List.of("Old", "Older cancelled", "Oldest"),
+                withCancelled.stream().map(EventResponseDTO::getTitle).toList());
+        assertEquals(List.of("Old", "Oldest"),
+                withoutCancelled.stream().map(EventResponseDTO::getTitle).toList());
+    }
+
     @Test
     void testFindByIdAndIsActiveTrue() {
         var found = eventRepository.findByIdAndIsActiveTrue(sampleEvent.getId());
@@ -75,4 +214,10 @@ class EventRepositoryTest {
         var activeEvents = eventRepository.findByIsActiveTrue();
         assertTrue(activeEvents.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testExistsByIdAndOrganizerEmail() {
+        assertTrue(eventRepository.existsByIdAndOrganizerEmail(sampleEvent.getId(), "test@organizer.com"));
+        assertFalse(eventRepository.existsByIdAndOrganizerEmail(sampleEvent.getId(), "other@organizer.com"));
+    }
+}
@@ -0,0 +1,147 @@
+package id.ac.ui.cs.advprog.eventsphere.event.service;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.repository.EventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventCatalogTest {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    private final AtomicLong clock = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private EventCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        catalog = new EventCatalog(eventRepository, meterRegistry, 30, clock::get);
+    }
+
+    private static EventResponseDTO event(long id, String title) {
+        return event(id, title, LocalDateTime.of(2030, 1, 1, 10, 0), false);
+    }
+
+    private static EventResponseDTO event(long id, String title, LocalDateTime eventDate, boolean cancelled) {
+        LocalDateTime created = LocalDateTime.of(2029, 6, 1, 9, 0);
+        return new EventResponseDTO(id, title, null, eventDate, "Hall", BigDecimal.TEN,
+                7L, "Organizer", Role.ORGANIZER, created, created, true, cancelled, null);
+    }
+
+    @Test
+    void snapshotIsLoadedOnceAndShared() {
+        when(eventRepository.findActiveEventDTOs()).thenReturn(List.of(event(1L, "A"), event(2L, "B")));
+
+        EventCatalog.Snapshot first = catalog.snapshot();
+        EventCatalog.Snapshot second = catalog.snapshot();
+
+        assertSame(first, second);
+        assertEquals(List.of(1L, 2L), first.events().stream().map(EventResponseDTO::getId).toList());
+        EventResponseDTO dto = first.find(2L).orElseThrow().event();
+        assertEquals(7L, dto.getOrganizerId());
+        assertEquals("Organizer", dto.getOrganizerName());
+        assertTrue(first.find(3L).isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> first.events().clear());
+        verify(eventRepository, times(1)).findActiveEventDTOs();
+        assertEquals(1, meterRegistry.get("event.catalog.hits").counter().count());
+        assertEquals(2, meterRegistry.get("event.catalog.size").gauge().value());
+    }
+
+    @Test
+    void invalidateRebuildsOnTheNextRead() {
+        when(eventRepository.findActiveEventDTOs())
+                .thenReturn(List.of(event(1L, "A")))
+                .thenReturn(List.of(event(1L, "A (moved)")));
+
+        EventCatalog.Snapshot before = catalog.snapshot();
+        catalog.invalidate();
+        EventCatalog.Snapshot after = catalog.snapshot();
+
+        assertEquals("A (moved)", after.find(1L).orElseThrow().event().getTitle());
+        assertNotEquals(before.find(1L).orElseThrow().etag(), after.find(1L).orElseThrow().etag());
+    }
+
+    @Test
+    void snapshotExpiresAfterTheTtl() {
+        when(eventRepository.findActiveEventDTOs()).thenReturn(List.of(event(1L, "A")));
+
+        catalog.snapshot();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(29));
+        catalog.snapshot();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        catalog.snapshot();
+
+        verify(eventRepository, times(2)).findActiveEventDTOs();
+    }
+
+    @Test
+    void etagsDependOnlyOnContent() {
+        when(eventRepository.findActiveEventDTOs())
+                .thenReturn(List.of(event(1L, "A"), event(2L, "B")))
+                .thenReturn(List.of(event(1L, "A"), event(2L, "B (edited)")));
+        EventCatalog other = new EventCatalog(eventRepository, new SimpleMeterRegistry(), 30, clock::get);
+
+        EventCatalog.Snapshot mine = catalog.snapshot();
+        EventCatalog.Snapshot theirs = other.snapshot();
+
+        assertEquals(mine.find(1L).orElseThrow().etag(), theirs.find(1L).orElseThrow().etag());
+        assertNotEquals(mine.find(2L).orElseThrow().etag(), theirs.find(2L).orElseThrow().etag());
+        String etag = mine.find(1L).orElseThrow().etag();
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+    }
+
+    @Test
+    void upcomingSkipsPastAndCancelledEventsInDateOrder() {
+        LocalDateTime now = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(eventRepository.findActiveEventDTOs()).thenReturn(List.of(
+                event(1L, "Later", now.plusDays(2), false),
+                event(2L, "Past", now.minusDays(1), false),
+                event(3L, "Cancelled", now.plusDays(1), true),
+                event(4L, "Soon", now.plusDays(1), false),
+                event(5L, "Now", now, false),
+                event(6L, "Undated", null, false)));
+
+        EventCatalog.Snapshot snapshot = catalog.snapshot();
+
+        assertEquals(List.of(5L, 4L, 1L), ids(snapshot.upcoming(now, 10)));
+        assertEquals(List.of(5L, 4L), ids(snapshot.upcoming(now, 2)));
+        assertEquals(List.of(1L), ids(snapshot.upcoming(now.plusDays(1).plusMinutes(1), 10)));
+        assertTrue(snapshot.upcoming(now.plusDays(3), 10).isEmpty());
+        assertEquals(6, snapshot.events().size());
+    }
+
+    private static List<Long> ids(List<EventCatalog.Entry> entries) {
+        return entries.stream().map(entry -> entry.event().getId()).toList();
+    }
+
+    @Test
+    void rebuildThatRacedWithAWriteIsNotKept() {
+        when(eventRepository.findActiveEventDTOs())
+                .thenAnswer(invocation -> {
+                    // An event is updated while the old rows are being read
+                    catalog.invalidate();
+                    return List.of(event(1L, "A"));
+                })
+                .thenReturn(List.of(event(1L, "A (updated)")));
+
+        assertEquals("A", catalog.snapshot().find(1L).orElseThrow().event().getTitle());
+        assertEquals("A (updated)", catalog.snapshot().find(1L).orElseThrow().event().getTitle());
+    }
+}
@@ -0,0 +1,129 @@
+package id.ac.ui.cs.advprog.eventsphere.event.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventDetailDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.review.model.Review;
+import id.ac.ui.cs.advprog.eventsphere.review.model.ReviewReport;
+import id.ac.ui.cs.advprog.eventsphere.review.model.ReviewResponse;
+import id.ac.ui.cs.advprog.eventsphere.review.repository.ReviewRepository;
+import id.ac.ui.cs.advprog.eventsphere.review.service.ReviewService;
+import id.ac.ui.cs.advprog.eventsphere.ticket.service.TicketService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// The detail response is written after the review transaction ends, so lazy users must already be loaded
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EventDetailReviewSerializationTest {
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private EventDetailService detailService;
+
+    @BeforeEach
+    void setUp() {
+        EventService eventService = mock(EventService.class);
+        TicketService ticketService = mock(TicketService.class);
+        ReviewService reviewService = mock(ReviewService.class);
+        EventResponseDTO event = new EventResponseDTO();
+        event.setId(1L);
+        when(eventService.getActiveEventById(1L)).thenReturn(event);
+        when(ticketService.getTickets(1L, false)).thenReturn(List.of());
+        when(reviewService.getAverageRatingForEvent(1L)).thenReturn(5.0);
+        when(reviewService.getReviewsByEventIdPaginated(eq(1L), any())).thenAnswer(invocation ->
+                reviewRepository.findByEventIdOrderByCreatedAtDesc(1L, invocation.getArgument(1, Pageable.class)));
+
+        detailService = new EventDetailService(eventService, ticketService, reviewService, transactionManager,
+                executor, new SimpleMeterRegistry(), 5_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+        reviewRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private User saveUser(String email, String fullName, Role role) {
+        return userRepository.save(User.builder()
+                .email(email)
+                .password("encoded")
+                .fullName(fullName)
+                .role(role)
+                .build());
+    }
+
+    @Test
+    void reviewWithAReportAndAResponseIsSerialized() throws Exception {
+        User attendee = saveUser("attendee@example.com", "Attendee", Role.ATTENDEE);
+        User organizer = saveUser("organizer@example.com", "Organizer", Role.ORGANIZER);
+        User reporter = saveUser("reporter@example.com", "Reporter", Role.ATTENDEE);
+        User admin = saveUser("admin@example.com", "Admin", Role.ADMIN);
+
+        Review review = Review.builder()
+                .content("Great")
+                .rating(5)
+                .user(attendee)
+                .eventId(1L)
+                .isReported(false)
+                .isVisible(true)
+                .images(new ArrayList<>())
+                .responses(new ArrayList<>())
+                .reports(new ArrayList<>())
+                .build();
+        review.addResponse(ReviewResponse.builder().content("Thanks").organizer(organizer).review(review).build());
+        review.report(ReviewReport.builder()
+                .reason("Spam")
+                .status(ReviewReport.ReportStatus.REJECTED)
+                .reporter(reporter)
+                .admin(admin)
+                .review(review)
+                .build());
+        reviewRepository.save(review);
+
+        EventDetailDTO detail = detailService.getEventDetail(1L);
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(detail));
+
+        assertTrue(detail.getMissingParts().isEmpty());
+        JsonNode reviewJson = json.get("reviews").get(0);
+        assertEquals("Organizer", reviewJson.get("responses").get(0).get("organizer").get("fullName").asText());
+        assertEquals("Reporter", reviewJson.get("reports").get(0).get("reporter").get("fullName").asText());
+        assertEquals("Admin", reviewJson.get("reports").get(0).get("admin").get("fullName").asText());
+        assertFalse(reviewJson.get("reports").get(0).get("reporter").has("password"));
+    }
+}
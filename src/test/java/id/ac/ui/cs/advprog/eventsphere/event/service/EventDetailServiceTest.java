@@ -0,0 +1,190 @@
+package id.ac.ui.cs.advprog.eventsphere.event.service;
+
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventDetailDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.exception.EventNotFoundException;
+import id.ac.ui.cs.advprog.eventsphere.review.model.Review;
+import id.ac.ui.cs.advprog.eventsphere.review.service.ReviewService;
+import id.ac.ui.cs.advprog.eventsphere.ticket.dto.TicketResponse;
+import id.ac.ui.cs.advprog.eventsphere.ticket.service.TicketService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventDetailServiceTest {
+
+    private static final long TIMEOUT_MILLIS = 200;
+
+    @Mock
+    private EventService eventService;
+
+    @Mock
+    private TicketService ticketService;
+
+    @Mock
+    private ReviewService reviewService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private SimpleMeterRegistry meterRegistry;
+    private EventDetailService detailService;
+
+    private EventResponseDTO event;
+    private TicketResponse ticket;
+    private Review review;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        detailService = new EventDetailService(eventService, ticketService, reviewService, transactionManager,
+                executor, meterRegistry, TIMEOUT_MILLIS);
+
+        event = new EventResponseDTO();
+        event.setId(1L);
+        event.setTitle("Jazz Night");
+        ticket = TicketResponse.builder().id(10L).name("VIP").eventId(1L).build();
+        review = Review.builder().id(20L).eventId(1L).rating(5).content("Great")
+                .responses(List.of())
+                .reports(List.of())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.close();
+    }
+
+    private void stubAllParts() {
+        stubEventTicketsAndReviews();
+        when(reviewService.getAverageRatingForEvent(1L)).thenReturn(4.5);
+    }
+
+    private void stubEventTicketsAndReviews() {
+        stubEventAndReviews();
+        when(ticketService.getTickets(1L, false)).thenReturn(List.of(ticket));
+    }
+
+    private void stubEventAndReviews() {
+        when(eventService.getActiveEventById(1L)).thenReturn(event);
+        when(reviewService.getReviewsByEventIdPaginated(eq(1L), any()))
+                .thenReturn(new PageImpl<>(List.of(review), PageRequest.of(0, EventDetailService.REVIEW_PAGE_SIZE), 31));
+    }
+
+    @Test
+    void allPartsAreReturnedTogether() {
+        stubAllParts();
+
+        EventDetailDTO detail = detailService.getEventDetail(1L);
+
+        assertSame(event, detail.getEvent());
+        assertEquals(List.of(ticket), detail.getTickets());
+        assertEquals(4.5, detail.getAverageRating());
+        assertEquals(31L, detail.getReviewCount());
+        assertEquals(List.of(review), detail.getReviews());
+        assertTrue(detail.getMissingParts().isEmpty());
+        verify(reviewService).getReviewsByEventIdPaginated(1L, PageRequest.of(0, EventDetailService.REVIEW_PAGE_SIZE));
+        assertEquals(1, meterRegistry.get("event.detail.duration").timer().count());
+    }
+
+    @Test
+    void partsRunConcurrently() {
+        when(eventService.getActiveEventById(1L)).thenReturn(event);
+        CountDownLatch allStarted = new CountDownLatch(3);
+        // Each part waits for the others, so this only finishes in time when they overlap
+        when(ticketService.getTickets(1L, false)).thenAnswer(invocation -> {
+            allStarted.countDown();
+            allStarted.await(5, TimeUnit.SECONDS);
+            return List.of(ticket);
+        });
+        when(reviewService.getAverageRatingForEvent(1L)).thenAnswer(invocation -> {
+            allStarted.countDown();
+            allStarted.await(5, TimeUnit.SECONDS);
+            return 4.5;
+        });
+        when(reviewService.getReviewsByEventIdPaginated(eq(1L), any())).thenAnswer(invocation -> {
+            allStarted.countDown();
+            allStarted.await(5, TimeUnit.SECONDS);
+            return new PageImpl<>(List.of(review));
+        });
+
+        EventDetailDTO detail = detailService.getEventDetail(1L);
+
+        assertTrue(detail.getMissingParts().isEmpty());
+        assertEquals(List.of(ticket), detail.getTickets());
+    }
+
+    @Test
+    void slowPartIsLeftOutOfTheResponse() {
+        stubEventAndReviews();
+        when(reviewService.getAverageRatingForEvent(1L)).thenReturn(4.5);
+        when(ticketService.getTickets(1L, false)).thenAnswer(invocation -> {
+            release.await();
+            return List.of(ticket);
+        });
+
+        long start = System.nanoTime();
+        EventDetailDTO detail = detailService.getEventDetail(1L);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(List.of(EventDetailService.TICKETS), detail.getMissingParts());
+        assertNull(detail.getTickets());
+        assertSame(event, detail.getEvent());
+        assertEquals(4.5, detail.getAverageRating());
+        assertEquals(List.of(review), detail.getReviews());
+        assertTrue(elapsedMillis < 5 * TIMEOUT_MILLIS, "waited " + elapsedMillis + "ms");
+        assertEquals(1, meterRegistry.get("event.detail.missing").tag("part", "tickets").counter().count());
+        assertEquals(0, meterRegistry.get("event.detail.missing").tag("part", "rating").counter().count());
+    }
+
+    @Test
+    void failedPartIsLeftOutOfTheResponse() {
+        stubEventTicketsAndReviews();
+        when(reviewService.getAverageRatingForEvent(1L)).thenThrow(new IllegalStateException("connection reset"));
+
+        EventDetailDTO detail = detailService.getEventDetail(1L);
+
+        assertEquals(List.of(EventDetailService.RATING), detail.getMissingParts());
+        assertNull(detail.getAverageRating());
+        assertEquals(List.of(ticket), detail.getTickets());
+    }
+
+    @Test
+    void eventWithoutReviewsHasZeroRating() {
+        stubEventTicketsAndReviews();
+        when(reviewService.getAverageRatingForEvent(1L)).thenReturn(null);
+
+        EventDetailDTO detail = detailService.getEventDetail(1L);
+
+        assertEquals(0.0, detail.getAverageRating());
+        assertTrue(detail.getMissingParts().isEmpty());
+    }
+
+    @Test
+    void missingEventFailsTheWholeRequest() {
+        when(eventService.getActiveEventById(99L)).thenThrow(new EventNotFoundException("Active event not found with id: 99"));
+
+        assertThrows(EventNotFoundException.class, () -> detailService.getEventDetail(99L));
+    }
+}
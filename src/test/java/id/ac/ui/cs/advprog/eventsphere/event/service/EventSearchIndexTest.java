@@ -0,0 +1,125 @@
+package id.ac.ui.cs.advprog.eventsphere.event.service;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.event.model.Event;
+import id.ac.ui.cs.advprog.eventsphere.event.repository.EventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EventSearchIndexTest {
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EventSearchIndex searchIndex;
+    private User organizer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        searchIndex = new EventSearchIndex(eventRepository, transactionManager, meterRegistry);
+        organizer = userRepository.save(User.builder()
+                .email("search@example.com")
+                .password("encoded")
+                .fullName("Search Organizer")
+                .role(Role.ORGANIZER)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private Event saveEvent(String title, boolean cancelled) {
+        Event event = new Event();
+        event.setTitle(title);
+        event.setDescription("Open to everyone");
+        event.setEventDate(LocalDateTime.now().plusDays(10));
+        event.setLocation("Depok");
+        event.setPrice(BigDecimal.TEN);
+        event.setOrganizer(organizer);
+        event.setCancelled(cancelled);
+        return eventRepository.save(event);
+    }
+
+    private List<Long> ids(String query) {
+        return Arrays.stream(searchIndex.search(query, 0, 10, eventId -> true).eventIds()).boxed().toList();
+    }
+
+    @Test
+    void rebuildIndexesActiveEventsOnly() {
+        Event open = saveEvent("Startup Pitch Night", false);
+        saveEvent("Pitch Practice", true);
+        Event deleted = saveEvent("Pitch Clinic", false);
+        deleted.setActive(false);
+        eventRepository.save(deleted);
+
+        searchIndex.rebuild();
+
+        assertEquals(List.of(open.getId()), ids("pitch"));
+        assertEquals(1, meterRegistry.get("event.search.documents").gauge().value());
+    }
+
+    @Test
+    void writesApplyOnlyOnceCommitted() {
+        Event event = saveEvent("Film Screening", false);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> {
+            searchIndex.index(event);
+            status.setRollbackOnly();
+        });
+        assertEquals(List.of(), ids("film"));
+
+        transaction.executeWithoutResult(status -> {
+            searchIndex.index(event);
+            assertEquals(List.of(), ids("film"));
+        });
+        assertEquals(List.of(event.getId()), ids("film"));
+
+        event.setCancelled(true);
+        searchIndex.index(event);
+        assertEquals(List.of(), ids("film"));
+    }
+
+    @Test
+    void rebuildKeepsWritesThatHappenedOutsideIt() {
+        Event existing = saveEvent("Coding Bootcamp", false);
+        searchIndex.rebuild();
+        Event created = saveEvent("Coding Dojo", false);
+        searchIndex.index(created);
+        searchIndex.remove(existing.getId());
+
+        assertEquals(List.of(created.getId()), ids("coding"));
+    }
+}
@@ -5,18 +5,22 @@ import id.ac.ui.cs.advprog.eventsphere.event.exception.*;
 import id.ac.ui.cs.advprog.eventsphere.event.model.Event;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User; 
 import id.ac.ui.cs.advprog.eventsphere.event.repository.EventRepository;
+import id.ac.ui.cs.advprog.eventsphere.event.util.EventCursor;
+import id.ac.ui.cs.advprog.eventsphere.event.util.EventEtags;
+import id.ac.ui.cs.advprog.eventsphere.event.util.InvertedIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.LongPredicate;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -27,7 +31,10 @@ class EventServiceImplTest {
     private EventRepository eventRepository;
 
     @Mock
-    private ModelMapper modelMapper;
+    private EventCatalog eventCatalog;
+
+    @Mock
+    private EventSearchIndex eventSearchIndex;
     
     @InjectMocks
     private EventServiceImpl eventService;
@@ -96,76 +103,206 @@ class EventServiceImplTest {
 
     @Test
     void testCreateEvent_Success() {
-        Event mapped = new Event();
-        mapped.setTitle("New Event");
-        mapped.setEventDate(createDTO.getEventDate());
-
-        when(modelMapper.map(createDTO, Event.class)).thenReturn(mapped);
+        organizer.setFullName("Org Name");
         when(eventRepository.save(any())).thenAnswer(inv -> {
             Event e = inv.getArgument(0);
             e.setId(999L);
             return e;
         });
 
-        EventResponseDTO responseDto = new EventResponseDTO();
-        responseDto.setId(999L);
-        responseDto.setTitle("New Event");
-        when(modelMapper.map(any(Event.class), eq(EventResponseDTO.class))).thenReturn(responseDto);
-
         EventResponseDTO result = eventService.createEvent(createDTO, organizer);
 
         assertNotNull(result);
         assertEquals(999L, result.getId());
-        verify(eventRepository).save(any(Event.class));
+        assertEquals("New Event", result.getTitle());
+        assertEquals(createDTO.getEventDate(), result.getEventDate());
+        assertEquals(1L, result.getOrganizerId());
+        assertEquals("Org Name", result.getOrganizerName());
+        verify(eventRepository).save(eventArgumentCaptor.capture());
+        Event saved = eventArgumentCaptor.getValue();
+        assertEquals("New Location", saved.getLocation());
+        assertSame(organizer, saved.getOrganizer());
+        verify(eventCatalog).invalidate();
+        verify(eventSearchIndex).index(saved);
     }
 
     @Test
     void testGetAllActiveEvents() {
-        when(eventRepository.findByIsActiveTrue()).thenReturn(List.of(testEvent));
         EventResponseDTO dto = new EventResponseDTO();
         dto.setId(testEvent.getId());
-        when(modelMapper.map(testEvent, EventResponseDTO.class)).thenReturn(dto);
+        when(eventCatalog.snapshot()).thenReturn(new EventCatalog.Snapshot(List.of(dto), Map.of(), List.of()));
 
         List<EventResponseDTO> result = eventService.getAllActiveEvents();
 
         assertEquals(1, result.size());
         assertEquals(100L, result.get(0).getId());
-        verify(eventRepository).findByIsActiveTrue();
+        verifyNoInteractions(eventRepository);
     }
 
     @Test
     void testGetActiveEventById_Success() {
-        when(eventRepository.findByIdAndIsActiveTrue(100L))
-                .thenReturn(Optional.of(testEvent));
         EventResponseDTO dto = new EventResponseDTO();
         dto.setId(100L);
-        when(modelMapper.map(testEvent, EventResponseDTO.class)).thenReturn(dto);
+        when(eventCatalog.find(100L)).thenReturn(Optional.of(new EventCatalog.Entry(dto, "\"etag\"")));
 
         EventResponseDTO result = eventService.getActiveEventById(100L);
         assertEquals(100L, result.getId());
-        verify(eventRepository).findByIdAndIsActiveTrue(100L);
+        verifyNoInteractions(eventRepository);
     }
 
     @Test
     void testGetActiveEventById_NotFound() {
-        when(eventRepository.findByIdAndIsActiveTrue(200L))
-                .thenReturn(Optional.empty());
+        when(eventCatalog.find(200L)).thenReturn(Optional.empty());
 
         assertThrows(EventNotFoundException.class,
                 () -> eventService.getActiveEventById(200L));
     }
 
+    private static EventResponseDTO row(long id, LocalDateTime eventDate) {
+        EventResponseDTO dto = new EventResponseDTO();
+        dto.setId(id);
+        dto.setEventDate(eventDate);
+        return dto;
+    }
+
+    @Test
+    void testBrowseEvents_FirstUpcomingPageComesFromTheCatalog() {
+        LocalDateTime date = LocalDateTime.of(2030, 1, 1, 10, 0);
+        EventCatalog.Entry past = new EventCatalog.Entry(row(9L, LocalDateTime.of(2020, 1, 1, 10, 0)), "\"p\"");
+        EventCatalog.Entry first = new EventCatalog.Entry(row(1L, date), "\"a\"");
+        EventCatalog.Entry second = new EventCatalog.Entry(row(2L, date), "\"b\"");
+        EventCatalog.Entry third = new EventCatalog.Entry(row(3L, date.plusHours(1)), "\"c\"");
+        when(eventCatalog.snapshot()).thenReturn(new EventCatalog.Snapshot(List.of(), Map.of(),
+                List.of(past, first, second, third)));
+
+        EventPageDTO page = eventService.browseEvents(EventBrowseFilter.builder().limit(2).build());
+
+        assertEquals(List.of(1L, 2L), page.getItems().stream().map(EventResponseDTO::getId).toList());
+        assertEquals(new EventCursor(date, 2L), EventCursor.decode(page.getNextCursor()));
+        assertEquals(EventEtags.combine(List.of("\"a\"", "\"b\""), page.getNextCursor()), page.getEtag());
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void testBrowseEvents_LaterUpcomingPagesQueryTheIndex() {
+        LocalDateTime date = LocalDateTime.of(2030, 1, 1, 10, 0);
+        EventCursor after = new EventCursor(date, 2L);
+        ArgumentCaptor<LocalDateTime> from = ArgumentCaptor.forClass(LocalDateTime.class);
+        when(eventRepository.findEventPage(from.capture(), isNull(), eq(false), eq(true), eq(after), eq(3)))
+                .thenReturn(List.of(row(3L, date), row(4L, date), row(5L, date.plusHours(1))));
+
+        LocalDateTime before = LocalDateTime.now();
+        EventPageDTO page = eventService.browseEvents(EventBrowseFilter.builder()
+                .limit(2)
+                .cursor(after.encode())
+                .build());
+
+        assertFalse(from.getValue().isBefore(before));
+        assertEquals(List.of(3L, 4L), page.getItems().stream().map(EventResponseDTO::getId).toList());
+        assertEquals(new EventCursor(date, 4L), EventCursor.decode(page.getNextCursor()));
+        assertEquals(EventEtags.ofPage(page.getItems(), page.getNextCursor()), page.getEtag());
+        verifyNoInteractions(eventCatalog);
+    }
+
+    @Test
+    void testBrowseEvents_PastWindowCapsTheRangeAndSortsNewestFirst() {
+        LocalDateTime from = LocalDateTime.of(2020, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2021, 1, 1, 0, 0);
+        EventCursor after = new EventCursor(LocalDateTime.of(2020, 6, 1, 0, 0), 9L);
+        when(eventRepository.findEventPage(from, to, true, false, after, 21))
+                .thenReturn(List.of(row(8L, LocalDateTime.of(2020, 5, 1, 0, 0))));
+
+        EventPageDTO page = eventService.browseEvents(EventBrowseFilter.builder()
+                .window("past")
+                .from(from)
+                .to(to)
+                .includeCancelled(true)
+                .cursor(after.encode())
+                .build());
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testBrowseEvents_AllWindowKeepsTheRequestedRange() {
+        LocalDateTime to = LocalDateTime.of(2040, 1, 1, 0, 0);
+        when(eventRepository.findEventPage(null, to, false, false, null, 21)).thenReturn(List.of());
+
+        EventPageDTO page = eventService.browseEvents(EventBrowseFilter.builder()
+                .window("ALL")
+                .to(to)
+                .direction("desc")
+                .build());
+
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testBrowseEvents_RejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class,
+                () -> eventService.browseEvents(EventBrowseFilter.builder().limit(0).build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> eventService.browseEvents(EventBrowseFilter.builder().limit(101).build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> eventService.browseEvents(EventBrowseFilter.builder().window("soon").build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> eventService.browseEvents(EventBrowseFilter.builder().direction("up").build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> eventService.browseEvents(EventBrowseFilter.builder().cursor("not-a-cursor").build()));
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void testSearchEvents_FillsRankedHitsFromTheCatalog() {
+        EventResponseDTO first = row(7L, LocalDateTime.of(2030, 1, 1, 10, 0));
+        EventResponseDTO second = row(3L, LocalDateTime.of(2030, 2, 1, 10, 0));
+        EventResponseDTO cancelled = row(9L, LocalDateTime.of(2030, 3, 1, 10, 0));
+        cancelled.setCancelled(true);
+        when(eventCatalog.snapshot()).thenReturn(new EventCatalog.Snapshot(List.of(second, first, cancelled), Map.of(
+                7L, new EventCatalog.Entry(first, "\"a\""),
+                3L, new EventCatalog.Entry(second, "\"b\""),
+                9L, new EventCatalog.Entry(cancelled, "\"c\"")), List.of()));
+        ArgumentCaptor<LongPredicate> include = ArgumentCaptor.forClass(LongPredicate.class);
+        when(eventSearchIndex.search(eq("jazz"), eq(0), eq(20), include.capture()))
+                .thenReturn(new InvertedIndex.Hits(new long[]{7L, 3L}, 2));
+
+        EventSearchResultDTO result = eventService.searchEvents("jazz", null, null);
+
+        assertEquals(List.of(7L, 3L), result.getItems().stream().map(EventResponseDTO::getId).toList());
+        assertEquals(2, result.getTotal());
+        // Event 5 was deleted and event 9 cancelled after they were indexed, so neither is ranked or counted
+        assertTrue(include.getValue().test(7L));
+        assertFalse(include.getValue().test(5L));
+        assertFalse(include.getValue().test(9L));
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void testSearchEvents_RejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> eventService.searchEvents(" ", null, null));
+        assertThrows(IllegalArgumentException.class, () -> eventService.searchEvents("x".repeat(201), null, null));
+        assertThrows(IllegalArgumentException.class, () -> eventService.searchEvents("jazz", -1, null));
+        assertThrows(IllegalArgumentException.class, () -> eventService.searchEvents("jazz", 0, 101));
+        assertThrows(IllegalArgumentException.class, () -> eventService.searchEvents("jazz", 991, 10));
+        assertThrows(IllegalArgumentException.class, () -> eventService.searchEvents("ab", 2_000_000_000, null));
+        assertThrows(IllegalArgumentException.class, () -> eventService.searchEvents("ab", Integer.MAX_VALUE, 100));
+        verifyNoInteractions(eventSearchIndex);
+    }
+
     @Test
     void testGetActiveEventsByOrganizer() {
-        when(eventRepository.findByOrganizerAndIsActiveTrue(organizer))
-                .thenReturn(List.of(testEvent));
         EventResponseDTO dto = new EventResponseDTO();
         dto.setId(testEvent.getId());
-        when(modelMapper.map(testEvent, EventResponseDTO.class)).thenReturn(dto);
+        dto.setOrganizerId(organizer.getId());
+        when(eventRepository.findActiveEventDTOsByOrganizerId(organizer.getId()))
+                .thenReturn(List.of(dto));
 
         var result = eventService.getActiveEventsByOrganizer(organizer);
         assertEquals(1, result.size());
-        verify(eventRepository).findByOrganizerAndIsActiveTrue(organizer);
+        assertEquals(1L, result.get(0).getOrganizerId());
+        verify(eventRepository).findActiveEventDTOsByOrganizerId(organizer.getId());
     }
 
     @Test
@@ -173,31 +310,18 @@ class EventServiceImplTest {
 
         when(eventRepository.findById(eventId)).thenReturn(Optional.of(testEvent));
 
-        doAnswer(invocation -> {
-            EventUpdateDTO dtoArg = invocation.getArgument(0);
-            Event eventArg = invocation.getArgument(1);
-            eventArg.setTitle(dtoArg.getTitle());
-            eventArg.setDescription(dtoArg.getDescription());
-            eventArg.setLocation(dtoArg.getLocation());
-            eventArg.setPrice(dtoArg.getPrice());
-            eventArg.setEventDate(dtoArg.getEventDate());
-            return null;
-        }).when(modelMapper).map(eq(updateDTO), eq(testEvent));
-
         when(eventRepository.save(any(Event.class))).thenReturn(eventStateAfterSave);
 
-        when(modelMapper.map(eq(eventStateAfterSave), eq(EventResponseDTO.class))).thenReturn(expectedResponseDTO);
-
         EventResponseDTO actualResponseDTO = eventService.updateEvent(eventId, updateDTO, organizer);
 
         assertNotNull(actualResponseDTO, "Response DTO tidak boleh null.");
         assertEquals(expectedResponseDTO.getId(), actualResponseDTO.getId(), "ID Event pada response tidak cocok.");
         assertEquals(expectedResponseDTO.getTitle(), actualResponseDTO.getTitle(), "Judul Event pada response tidak cocok.");
         assertEquals(expectedResponseDTO.getDescription(), actualResponseDTO.getDescription(), "Deskripsi Event pada response tidak cocok.");
-        assertSame(expectedResponseDTO, actualResponseDTO, "Instance DTO yang dikembalikan seharusnya sama dengan yang dari stub.");
+        assertEquals(expectedResponseDTO.getPrice(), actualResponseDTO.getPrice(), "Harga Event pada response tidak cocok.");
+        assertEquals(organizer.getId(), actualResponseDTO.getOrganizerId(), "Organizer pada response tidak cocok.");
 
         verify(eventRepository, times(1)).findById(eq(eventId));
-        verify(modelMapper, times(1)).map(eq(updateDTO), eq(testEvent));
         verify(eventRepository, times(1)).save(eventArgumentCaptor.capture());
 
         Event capturedEventForSave = eventArgumentCaptor.getValue();
@@ -206,8 +330,8 @@ class EventServiceImplTest {
         assertEquals(updateDTO.getDescription(), capturedEventForSave.getDescription(), "Deskripsi event yang di-save tidak terupdate.");
         assertSame(testEvent, capturedEventForSave, "Instance event yang di-save seharusnya adalah instance yang sama yang diambil dari findById dan dimodifikasi.");
 
-
-        verify(modelMapper, times(1)).map(eq(eventStateAfterSave), eq(EventResponseDTO.class));
+        verify(eventCatalog).invalidate();
+        verify(eventSearchIndex).index(eventStateAfterSave);
     }
     
     @Test
@@ -218,6 +342,8 @@ class EventServiceImplTest {
         String msg = eventService.cancelEvent(100L, organizer);
         assertTrue(testEvent.isCancelled());
         assertEquals("Event with ID 100 has been canceled successfully", msg);
+        verify(eventCatalog).invalidate();
+        verify(eventSearchIndex).remove(100L);
     }
 
     @Test
@@ -229,6 +355,8 @@ class EventServiceImplTest {
         String msg = eventService.deleteEvent(100L, organizer);
         assertFalse(testEvent.isActive());
         assertEquals("Event with ID 100 has been deleted successfully", msg);
+        verify(eventCatalog).invalidate();
+        verify(eventSearchIndex).remove(100L);
     }
 
     @Test
@@ -249,5 +377,7 @@ class EventServiceImplTest {
                 eventService.cancelEvent(100L, another));
 
         verify(eventRepository, never()).save(any());
+        verify(eventCatalog, never()).invalidate();
+        verifyNoInteractions(eventSearchIndex);
     }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package id.ac.ui.cs.advprog.eventsphere.event.util;
+
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventCreateDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventUpdateDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.model.Event;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Per-object cost of the reflective ModelMapper mappings EventServiceImpl used to run
+ * against the hand-written ones in {@link EventMapper}: average time and bytes allocated
+ * per mapping on the calling thread. Not part of {@code gradle test}; run it with
+ * {@code gradle benchmark}.
+ */
+class EventMapperBenchmark {
+
+    private static final int WARMUP = 50_000;
+    private static final int ITERATIONS = 200_000;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Keeps results reachable so the JIT cannot drop the mapping calls
+    private Object sink;
+
+    @Test
+    void compareModelMapperWithHandWrittenMappings() {
+        ModelMapper modelMapper = new ModelMapper();
+        Event event = EventMapperTest.event();
+        EventCreateDTO create = EventMapperTest.createDTO();
+        EventUpdateDTO update = new EventUpdateDTO();
+        update.setTitle("Jazz Night (moved)");
+        update.setPrice(BigDecimal.TEN);
+
+        report("create   modelmapper", measure(() -> modelMapper.map(create, Event.class)));
+        report("create   hand-written", measure(() -> EventMapper.toEntity(create)));
+
+        report("update   modelmapper", measure(() -> {
+            modelMapper.map(update, event);
+            return event;
+        }));
+        report("update   hand-written", measure(() -> {
+            EventMapper.copyInto(update, event);
+            return event;
+        }));
+
+        report("response modelmapper", measure(() -> {
+            EventResponseDTO dto = modelMapper.map(event, EventResponseDTO.class);
+            dto.setOrganizerId(event.getOrganizer().getId());
+            dto.setOrganizerName(event.getOrganizer().getFullName());
+            return dto;
+        }));
+        report("response hand-written", measure(() -> EventMapper.toResponseDTO(event)));
+
+        assertEquals("Jazz Night (moved)", ((EventResponseDTO) sink).getTitle());
+    }
+
+    private long[] measure(Supplier<Object> mapping) {
+        for (int i = 0; i < WARMUP; i++) {
+            sink = mapping.get();
+        }
+        long threadId = Thread.currentThread().threadId();
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = mapping.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        return new long[] {elapsed / ITERATIONS, allocated / ITERATIONS};
+    }
+
+    private void report(String label, long[] result) {
+        System.out.printf("%s  %6d ns/op  %6d B/op%n", label, result[0], result[1]);
+    }
+}
@@ -0,0 +1,115 @@
+package id.ac.ui.cs.advprog.eventsphere.event.util;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventCreateDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.dto.EventUpdateDTO;
+import id.ac.ui.cs.advprog.eventsphere.event.model.Event;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the hand-written mappings against what the default {@link ModelMapper} that
+ * EventServiceImpl used to call produces for the same input.
+ */
+class EventMapperTest {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+
+    static User organizer() {
+        User organizer = User.builder()
+                .email("organizer@example.com")
+                .password("secret")
+                .fullName("Event Organizer")
+                .role(Role.ORGANIZER)
+                .build();
+        organizer.setId(7L);
+        return organizer;
+    }
+
+    static Event event() {
+        Event event = new Event();
+        event.setId(42L);
+        event.setTitle("Jazz Night");
+        event.setDescription("Live music");
+        event.setEventDate(LocalDateTime.of(2030, 5, 1, 19, 30));
+        event.setLocation("Jakarta");
+        event.setPrice(new BigDecimal("150000.00"));
+        event.setCreatedAt(LocalDateTime.of(2029, 1, 2, 3, 4));
+        event.setUpdatedAt(LocalDateTime.of(2029, 1, 3, 4, 5));
+        event.setCancelled(true);
+        event.setCancellationTime(LocalDateTime.of(2029, 2, 1, 8, 0));
+        event.setOrganizer(organizer());
+        return event;
+    }
+
+    static EventCreateDTO createDTO() {
+        EventCreateDTO dto = new EventCreateDTO();
+        dto.setTitle("Jazz Night");
+        dto.setDescription("Live music");
+        dto.setEventDate(LocalDateTime.of(2030, 5, 1, 19, 30));
+        dto.setLocation("Jakarta");
+        dto.setPrice(new BigDecimal("150000.00"));
+        return dto;
+    }
+
+    @Test
+    void createMatchesModelMapper() {
+        Event expected = modelMapper.map(createDTO(), Event.class);
+        Event actual = EventMapper.toEntity(createDTO());
+
+        assertEquals(expected, actual);
+        assertTrue(actual.isActive());
+        assertNull(actual.getId());
+        assertNull(actual.getOrganizer());
+    }
+
+    @Test
+    void responseMatchesModelMapperWithOrganizerFields() {
+        Event event = event();
+        EventResponseDTO expected = modelMapper.map(event, EventResponseDTO.class);
+        expected.setOrganizerId(event.getOrganizer().getId());
+        expected.setOrganizerName(event.getOrganizer().getFullName());
+
+        EventResponseDTO actual = EventMapper.toResponseDTO(event);
+
+        assertEquals(expected, actual);
+        assertEquals(Role.ORGANIZER, actual.getOrganizerRole());
+        assertTrue(actual.isCancelled());
+    }
+
+    @Test
+    void updateMatchesModelMapper() {
+        EventUpdateDTO update = new EventUpdateDTO();
+        update.setTitle("Jazz Night (moved)");
+        update.setLocation("Bandung");
+        update.setPrice(BigDecimal.TEN);
+
+        Event expected = event();
+        modelMapper.map(update, expected);
+        Event actual = event();
+        EventMapper.copyInto(update, actual);
+
+        assertEquals(expected, actual);
+        assertEquals("Bandung", actual.getLocation());
+    }
+
+    @Test
+    void responseWithoutOrganizerLeavesOrganizerFieldsEmpty() {
+        Event event = event();
+        event.setOrganizer(null);
+
+        EventResponseDTO dto = EventMapper.toResponseDTO(event);
+
+        assertEquals(42L, dto.getId());
+        assertNull(dto.getOrganizerId());
+        assertNull(dto.getOrganizerName());
+        assertNull(dto.getOrganizerRole());
+    }
+}
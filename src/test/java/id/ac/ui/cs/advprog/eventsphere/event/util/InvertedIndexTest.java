@@ -0,0 +1,120 @@
+package id.ac.ui.cs.advprog.eventsphere.event.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+    }
+
+    private List<Long> ids(String query) {
+        return Arrays.stream(index.search(query, 0, 10).eventIds()).boxed().toList();
+    }
+
+    @Test
+    void tokenizeFoldsCaseAccentsAndPunctuation() {
+        assertEquals(List.of("cafe", "jazz", "night", "2025"), InvertedIndex.tokenize("Café JAZZ-night, 2025!"));
+        assertEquals(List.of(), InvertedIndex.tokenize("  -- "));
+        assertEquals(List.of(), InvertedIndex.tokenize(null));
+    }
+
+    @Test
+    void everyWordMustMatch() {
+        index.put(1L, "Jazz Night", "Live music", "Jakarta");
+        index.put(2L, "Rock Night", "Loud music", "Depok");
+
+        assertEquals(List.of(1L), ids("night jazz"));
+        assertEquals(List.of(), ids("jazz depok"));
+        assertEquals(2, index.search("music", 0, 10).total());
+    }
+
+    @Test
+    void titleOutranksLocationOutranksDescription() {
+        index.put(1L, "Meetup", "A talk about python", "Hall");
+        index.put(2L, "Meetup", "Talks", "Python House");
+        index.put(3L, "Python Meetup", "Talks", "Hall");
+
+        assertEquals(List.of(3L, 2L, 1L), ids("python"));
+    }
+
+    @Test
+    void prefixesMatchAndExactTermsRankFirst() {
+        index.put(1L, "Concerto", null, "Bandung");
+        index.put(2L, "Concert", null, "Bandung");
+
+        assertEquals(List.of(2L, 1L), ids("concert"));
+        assertEquals(2, index.search("conc", 0, 10).total());
+        // A single letter only matches a whole term
+        assertEquals(List.of(), ids("c"));
+    }
+
+    @Test
+    void putReplacesAndRemoveForgets() {
+        index.put(1L, "Book Fair", null, "Bogor");
+        index.put(1L, "Art Fair", null, "Bogor");
+
+        assertEquals(List.of(), ids("book"));
+        assertEquals(List.of(1L), ids("art"));
+
+        index.remove(1L);
+
+        assertEquals(List.of(), ids("fair"));
+        assertEquals(0, index.size());
+        assertEquals(0, index.termCount());
+    }
+
+    @Test
+    void pagesThroughRankedMatches() {
+        for (long id = 1; id <= 1_000; id++) {
+            // Every tenth event also has the word in its title, so it ranks higher
+            index.put(id, id % 10 == 0 ? "Workshop " + id : "Event " + id, "hands-on workshop", "Online");
+        }
+
+        InvertedIndex.Hits first = index.search("workshop", 0, 5);
+        InvertedIndex.Hits second = index.search("workshop", 5, 5);
+        InvertedIndex.Hits beyond = index.search("workshop", 2_000, 5);
+
+        assertEquals(1_000, first.total());
+        assertArrayEquals(new long[]{10, 20, 30, 40, 50}, first.eventIds());
+        assertArrayEquals(new long[]{60, 70, 80, 90, 100}, second.eventIds());
+        assertEquals(0, beyond.eventIds().length);
+        assertEquals(1_000, index.size());
+    }
+
+    @Test
+    void excludedEventsAreNeitherRankedNorCounted() {
+        for (long id = 1; id <= 10; id++) {
+            index.put(id, "Workshop " + id, null, null);
+        }
+
+        InvertedIndex.Hits hits = index.search("workshop", 0, 3, eventId -> eventId % 2 == 0);
+
+        assertEquals(5, hits.total());
+        assertEquals(3, hits.eventIds().length);
+        assertTrue(Arrays.stream(hits.eventIds()).allMatch(eventId -> eventId % 2 == 0));
+    }
+
+    @Test
+    void hugeOffsetOnlyAllocatesForTheMatches() {
+        index.put(1L, "Workshop", null, null);
+        index.put(2L, "Workshop", null, null);
+
+        InvertedIndex.Hits deep = index.search("workshop", 2_000_000_000, 20);
+        InvertedIndex.Hits overflowing = index.search("workshop", Integer.MAX_VALUE, 100);
+
+        assertEquals(0, deep.eventIds().length);
+        assertEquals(2, deep.total());
+        assertEquals(0, overflowing.eventIds().length);
+        assertEquals(2, overflowing.total());
+    }
+}
@@ -3,14 +3,15 @@ package id.ac.ui.cs.advprog.eventsphere.report.service;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.authentication.service.UserDirectory;
 import id.ac.ui.cs.advprog.eventsphere.event.dto.EventResponseDTO;
 import id.ac.ui.cs.advprog.eventsphere.event.service.EventService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -28,7 +29,8 @@ public class UserServiceTest {
     public void setUp() {
         userRepository = mock(UserRepository.class);
         eventService = mock(EventService.class);
-        userService = new UserService(userRepository, eventService);
+        userService = new UserService(eventService,
+                new UserDirectory(userRepository, new SimpleMeterRegistry(), 100, 60));
     }
 
     @Test
@@ -64,15 +66,8 @@ public class UserServiceTest {
     @DisplayName("Mendapatkan daftar email admin")
     public void testGetAdminEmails() {
         // Arrange
-        User admin = new User();
-        admin.setEmail("admin@example.com");
-        admin.setRole(Role.ADMIN);
-
-        User attendee = new User();
-        attendee.setEmail("user@example.com");
-        attendee.setRole(Role.ATTENDEE);
-
-        when(userRepository.findAll()).thenReturn(Arrays.asList(admin, attendee));
+        when(userRepository.findIdAndEmailByRole(Role.ADMIN))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "admin@example.com"}));
 
         // Act
         List<String> result = userService.getAdminEmails();
@@ -86,7 +81,7 @@ public class UserServiceTest {
     @DisplayName("Mengembalikan daftar kosong ketika tidak ada admin")
     public void testGetAdminEmails_NoAdmins() {
         // Arrange
-        when(userRepository.findAll()).thenReturn(Collections.emptyList());
+        when(userRepository.findIdAndEmailByRole(Role.ADMIN)).thenReturn(Collections.emptyList());
 
         // Act
         List<String> result = userService.getAdminEmails();
@@ -95,6 +90,24 @@ public class UserServiceTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    @DisplayName("Daftar admin dibaca sekali lalu dilayani dari cache")
+    public void testAdminLookupsShareOneQuery() {
+        // Arrange
+        when(userRepository.findIdAndEmailByRole(Role.ADMIN))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "admin@example.com"}));
+
+        // Act
+        List<Long> ids = userService.getAdminIds();
+        List<String> emails = userService.getAdminEmails();
+
+        // Assert
+        assertEquals(List.of(1L), ids);
+        assertEquals(List.of("admin@example.com"), emails);
+        verify(userRepository, times(1)).findIdAndEmailByRole(Role.ADMIN);
+        verify(userRepository, never()).findAll();
+    }
+
     @Test
     @DisplayName("Mendapatkan email organizer untuk event tertentu berhasil")
     public void testGetOrganizerEmails_Success() {
@@ -179,15 +192,8 @@ public class UserServiceTest {
     @DisplayName("Mendapatkan daftar ID admin")
     public void testGetAdminIds() {
         // Arrange
-        User admin = new User();
-        admin.setId(1L);
-        admin.setRole(Role.ADMIN);
-
-        User attendee = new User();
-        attendee.setId(2L);
-        attendee.setRole(Role.ATTENDEE);
-
-        when(userRepository.findAll()).thenReturn(Arrays.asList(admin, attendee));
+        when(userRepository.findIdAndEmailByRole(Role.ADMIN))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "admin@example.com"}));
 
         // Act
         List<Long> result = userService.getAdminIds();
@@ -201,7 +207,7 @@ public class UserServiceTest {
     @DisplayName("Mengembalikan daftar kosong ketika tidak ada admin untuk ID")
     public void testGetAdminIds_NoAdmins() {
         // Arrange
-        when(userRepository.findAll()).thenReturn(Collections.emptyList());
+        when(userRepository.findIdAndEmailByRole(Role.ADMIN)).thenReturn(Collections.emptyList());
 
         // Act
         List<Long> result = userService.getAdminIds();
@@ -129,7 +129,7 @@ class TicketControllerTest {
                 .eventId(1L)
                 .build();
 
-        when(ticketService.getAvailableTickets()).thenReturn(List.of(ticket1, ticket2));
+        when(ticketService.getTickets(null, false)).thenReturn(List.of(ticket1, ticket2));
 
         mockMvc.perform(get("/api/tickets"))
                 .andExpect(status().isOk())
@@ -137,6 +137,22 @@ class TicketControllerTest {
                 .andExpect(jsonPath("$[0].name").value("VIP"));
     }
 
+    @Test
+    @WithMockUser(username = "attendee@example.com", roles = {"ATTENDEE"})
+    void listTickets_shouldPassEventAndAvailabilityFilters() throws Exception {
+        TicketResponse ticket = TicketResponse.builder()
+                .id(1L)
+                .name("VIP")
+                .eventId(3L)
+                .build();
+        when(ticketService.getTickets(3L, true)).thenReturn(List.of(ticket));
+
+        mockMvc.perform(get("/api/tickets").param("eventId", "3").param("available", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].eventId").value(3));
+    }
+
     @Test
     @WithMockUser(username = "admin@example.com", roles = {"ADMIN"})
     void deleteTicket_shouldReturnSuccess() throws Exception {
@@ -57,6 +57,18 @@ class TicketTest {
         assertThrows(IllegalStateException.class, ticket::purchase);
     }
 
+    @Test
+    void testRemainingPurchasesMatchesPurchaseRule() {
+        int expected = ticket.remainingPurchases();
+        int bought = 0;
+        while (!ticket.isSoldOut()) {
+            ticket.purchase();
+            bought++;
+        }
+        assertEquals(expected, bought);
+        assertEquals(0, ticket.remainingPurchases());
+    }
+
     @Test
     void testUpdateDetailsShouldChangePriceAndQuota() {
         ticket.updateDetails(200.0, 50);
@@ -4,15 +4,24 @@ import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
 import id.ac.ui.cs.advprog.eventsphere.event.model.Event;
 import id.ac.ui.cs.advprog.eventsphere.event.repository.EventRepository;
+import id.ac.ui.cs.advprog.eventsphere.ticket.dto.TicketResponse;
 import id.ac.ui.cs.advprog.eventsphere.ticket.model.Ticket;
 import id.ac.ui.cs.advprog.eventsphere.ticket.model.TicketCategory;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -77,4 +86,123 @@ public class TicketRepositoryTest {
         assertThat(foundTicket.getSold()).isEqualTo(0);
         assertThat(foundTicket.getEvent().getId()).isEqualTo(event.getId());
     }
+
+    @Test
+    @DisplayName("Concurrent conditional purchases never oversell")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testTryPurchaseUnderContention() throws Exception {
+        User organizer = new User();
+        organizer.setFullName("contention organizer");
+        organizer.setEmail("contention@example.com");
+        organizer.setPassword("securepassword");
+        organizer = userRepository.save(organizer);
+
+        Event event = new Event();
+        event.setTitle("Launch Event");
+        event.setEventDate(LocalDateTime.now().plusDays(3));
+        event.setLocation("Jakarta");
+        event.setPrice(BigDecimal.valueOf(50000));
+        event.setOrganizer(organizer);
+        event = eventRepository.save(event);
+
+        Ticket ticket = new Ticket();
+        ticket.setName("Launch Ticket");
+        ticket.setCategory(TicketCategory.REGULAR);
+        ticket.setPrice(100);
+        ticket.setQuota(200);
+        ticket.setSold(0);
+        ticket.setEvent(event);
+        Long ticketId = ticketRepository.save(ticket).getId();
+        int stock = ticket.remainingPurchases();
+
+        int buyers = 1000;
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        try {
+            List<Callable<Integer>> attempts = new ArrayList<>();
+            for (int i = 0; i < buyers; i++) {
+                attempts.add(() -> ticketRepository.tryPurchase(ticketId));
+            }
+            int succeeded = 0;
+            for (Future<Integer> result : pool.invokeAll(attempts)) {
+                succeeded += result.get();
+            }
+
+            Ticket after = ticketRepository.findById(ticketId).orElseThrow();
+            assertThat(succeeded).isEqualTo(stock);
+            assertThat(after.getSold()).isEqualTo(stock);
+            assertThat(after.isSoldOut()).isTrue();
+        } finally {
+            pool.shutdown();
+            ticketRepository.deleteById(ticketId);
+            eventRepository.deleteById(event.getId());
+            userRepository.deleteById(organizer.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Ticket responses per event leave out other events and deleted tickets")
+    public void testFindTicketResponsesByEventId() {
+        User organizer = saveOrganizer("by-event@example.com");
+        Event concert = saveEvent(organizer, "Concert");
+        Event seminar = saveEvent(organizer, "Seminar");
+        Ticket regular = saveTicket(concert, "Regular", TicketCategory.REGULAR, 50, 0);
+        saveTicket(seminar, "Seminar Pass", TicketCategory.REGULAR, 50, 0);
+        Ticket vip = saveTicket(concert, "VIP", TicketCategory.VIP, 10, 10);
+        Ticket withdrawn = saveTicket(concert, "Withdrawn", TicketCategory.REGULAR, 50, 0);
+        withdrawn.setDeleted(true);
+        ticketRepository.save(withdrawn);
+
+        List<TicketResponse> tickets = ticketRepository.findTicketResponsesByEventId(concert.getId());
+
+        assertThat(tickets).extracting(TicketResponse::getId).containsExactly(regular.getId(), vip.getId());
+        assertThat(tickets).extracting(TicketResponse::getEventId).containsOnly(concert.getId());
+        assertThat(tickets).extracting(TicketResponse::isSoldOut).containsExactly(false, true);
+        assertThat(tickets.get(1).getName()).isEqualTo("VIP");
+        assertThat(tickets.get(1).getCategory()).isEqualTo(TicketCategory.VIP);
+        assertThat(ticketRepository.findTicketResponsesByEventId(-1L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Ticket responses across events can leave out sold-out tickets")
+    public void testFindTicketResponsesAvailableOnly() {
+        User organizer = saveOrganizer("available@example.com");
+        Event concert = saveEvent(organizer, "Concert");
+        Ticket open = saveTicket(concert, "Open", TicketCategory.REGULAR, 50, 3);
+        Ticket soldOut = saveTicket(concert, "Sold Out", TicketCategory.VIP, 5, 5);
+
+        assertThat(ticketRepository.findTicketResponses(false)).extracting(TicketResponse::getId)
+                .contains(open.getId(), soldOut.getId());
+        assertThat(ticketRepository.findTicketResponses(true)).extracting(TicketResponse::getId)
+                .contains(open.getId())
+                .doesNotContain(soldOut.getId());
+    }
+
+    private User saveOrganizer(String email) {
+        User organizer = new User();
+        organizer.setFullName("eventorganizer");
+        organizer.setEmail(email);
+        organizer.setPassword("securepassword");
+        return userRepository.save(organizer);
+    }
+
+    private Event saveEvent(User organizer, String title) {
+        Event event = new Event();
+        event.setTitle(title);
+        event.setEventDate(LocalDateTime.now().plusDays(3));
+        event.setLocation("Jakarta");
+        event.setPrice(BigDecimal.valueOf(50000));
+        event.setOrganizer(organizer);
+        return eventRepository.save(event);
+    }
+
+    private Ticket saveTicket(Event event, String name, TicketCategory category, int quota, int sold) {
+        Ticket ticket = new Ticket();
+        ticket.setName(name);
+        ticket.setCategory(category);
+        ticket.setPrice(100);
+        ticket.setQuota(quota);
+        ticket.setSold(sold);
+        ticket.setEvent(event);
+        return ticketRepository.save(ticket);
+    }
 }
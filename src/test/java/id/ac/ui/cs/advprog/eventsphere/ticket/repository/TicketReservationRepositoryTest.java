@@ -0,0 +1,136 @@
+package id.ac.ui.cs.advprog.eventsphere.ticket.repository;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.event.model.Event;
+import id.ac.ui.cs.advprog.eventsphere.event.repository.EventRepository;
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.ReservationStatus;
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.Ticket;
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.TicketCategory;
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.TicketReservation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+public class TicketReservationRepositoryTest {
+
+    @Autowired
+    private TicketReservationRepository reservationRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User buyer;
+    private Ticket ticket;
+
+    @BeforeEach
+    void setUp() {
+        buyer = new User();
+        buyer.setFullName("buyer");
+        buyer.setEmail("buyer@example.com");
+        buyer.setPassword("securepassword");
+        buyer = userRepository.save(buyer);
+
+        Event event = new Event();
+        event.setTitle("Hold Event");
+        event.setEventDate(LocalDateTime.now().plusDays(3));
+        event.setLocation("Jakarta");
+        event.setPrice(BigDecimal.valueOf(50000));
+        event.setOrganizer(buyer);
+        event = eventRepository.save(event);
+
+        ticket = new Ticket();
+        ticket.setName("Hold Ticket");
+        ticket.setCategory(TicketCategory.REGULAR);
+        ticket.setPrice(100);
+        ticket.setQuota(10);
+        ticket.setEvent(event);
+        ticket = ticketRepository.save(ticket);
+    }
+
+    private TicketReservation hold(LocalDateTime expiresAt) {
+        return reservationRepository.save(TicketReservation.builder()
+                .ticket(ticket)
+                .user(buyer)
+                .status(ReservationStatus.HELD)
+                .expiresAt(expiresAt)
+                .build());
+    }
+
+    @Test
+    @DisplayName("Confirm only succeeds for an unexpired hold")
+    public void testConfirm() {
+        TicketReservation active = hold(LocalDateTime.now().plusMinutes(5));
+        TicketReservation expired = hold(LocalDateTime.now().minusMinutes(1));
+
+        assertThat(reservationRepository.confirm(active.getId(), LocalDateTime.now())).isEqualTo(1);
+        assertThat(reservationRepository.confirm(active.getId(), LocalDateTime.now())).isEqualTo(0);
+        assertThat(reservationRepository.confirm(expired.getId(), LocalDateTime.now())).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Bulk transition skips holds that were already confirmed")
+    public void testTransitionAndProjections() {
+        TicketReservation first = hold(LocalDateTime.now().minusMinutes(2));
+        TicketReservation second = hold(LocalDateTime.now().minusMinutes(1));
+        reservationRepository.confirm(second.getId(), LocalDateTime.now().minusMinutes(5));
+
+        List<Object[]> open = reservationRepository.findIdAndTicketIdByIdInAndStatus(
+                List.of(first.getId(), second.getId()), ReservationStatus.HELD);
+        assertThat(open).hasSize(1);
+        assertThat(open.get(0)[1]).isEqualTo(ticket.getId());
+
+        int expired = reservationRepository.transition(
+                List.of(first.getId(), second.getId()), ReservationStatus.HELD, ReservationStatus.EXPIRED);
+        assertThat(expired).isEqualTo(1);
+        assertThat(reservationRepository.findIdAndExpiryByStatus(ReservationStatus.HELD)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Overdue open holds are listed oldest first, up to the page size")
+    public void testFindOverdueHolds() {
+        TicketReservation newer = hold(LocalDateTime.now().minusMinutes(2));
+        TicketReservation older = hold(LocalDateTime.now().minusMinutes(5));
+        TicketReservation confirmed = hold(LocalDateTime.now().minusMinutes(4));
+        confirmed.setStatus(ReservationStatus.CONFIRMED);
+        reservationRepository.save(confirmed);
+        hold(LocalDateTime.now().plusMinutes(5));
+
+        assertThat(reservationRepository.findIdsByStatusAndExpiresAtBefore(
+                ReservationStatus.HELD, LocalDateTime.now().minusMinutes(1), PageRequest.of(0, 10)))
+                .containsExactly(older.getId(), newer.getId());
+        assertThat(reservationRepository.findIdsByStatusAndExpiresAtBefore(
+                ReservationStatus.HELD, LocalDateTime.now(), PageRequest.of(0, 1)))
+                .containsExactly(older.getId());
+    }
+
+    @Test
+    @DisplayName("Releasing stock reverses a conditional purchase")
+    public void testReleaseStock() {
+        ticketRepository.tryPurchase(ticket.getId());
+        ticketRepository.tryPurchase(ticket.getId());
+
+        assertThat(ticketRepository.releaseStock(ticket.getId(), 2)).isEqualTo(1);
+
+        Ticket after = ticketRepository.findById(ticket.getId()).orElseThrow();
+        assertThat(after.getSold()).isZero();
+        assertThat(after.getQuota()).isEqualTo(10);
+        assertThat(ticketRepository.releaseStock(ticket.getId(), 1)).isZero();
+    }
+}
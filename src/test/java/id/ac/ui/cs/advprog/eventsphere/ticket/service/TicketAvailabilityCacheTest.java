@@ -0,0 +1,218 @@
+package id.ac.ui.cs.advprog.eventsphere.ticket.service;
+
+import id.ac.ui.cs.advprog.eventsphere.ticket.dto.TicketResponse;
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.TicketCategory;
+import id.ac.ui.cs.advprog.eventsphere.ticket.repository.TicketRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TicketAvailabilityCacheTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    private final AtomicLong clock = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private TicketAvailabilityCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new TicketAvailabilityCache(ticketRepository, meterRegistry, 2, 2000, 5000, clock::get);
+    }
+
+    private static TicketResponse ticket(long id, long eventId, int sold) {
+        return new TicketResponse(id, "Ticket " + id, 100.0, 10, TicketCategory.REGULAR, sold, eventId);
+    }
+
+    @Test
+    void ticketsAreLoadedOnceWithinTheTtl() {
+        when(ticketRepository.findTicketResponsesByEventId(1L))
+                .thenReturn(List.of(ticket(5L, 1L, 0)))
+                .thenReturn(List.of(ticket(5L, 1L, 10)));
+
+        List<TicketResponse> first = cache.ticketsOf(1L);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1999));
+        assertSame(first, cache.ticketsOf(1L));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(2));
+        List<TicketResponse> expired = cache.ticketsOf(1L);
+
+        assertFalse(first.get(0).isSoldOut());
+        assertTrue(expired.get(0).isSoldOut());
+        assertThrows(UnsupportedOperationException.class, () -> first.clear());
+        verify(ticketRepository, times(2)).findTicketResponsesByEventId(1L);
+        assertEquals(1, meterRegistry.get("ticket.availability.hits").counter().count());
+        assertEquals(2, meterRegistry.get("ticket.availability.misses").counter().count());
+    }
+
+    @Test
+    void evictDropsOnlyThatEvent() {
+        when(ticketRepository.findTicketResponsesByEventId(1L)).thenReturn(List.of(ticket(5L, 1L, 0)));
+        when(ticketRepository.findTicketResponsesByEventId(2L)).thenReturn(List.of(ticket(6L, 2L, 0)));
+        cache.ticketsOf(1L);
+        cache.ticketsOf(2L);
+
+        cache.evict(1L);
+        cache.ticketsOf(1L);
+        cache.ticketsOf(2L);
+
+        verify(ticketRepository, times(2)).findTicketResponsesByEventId(1L);
+        verify(ticketRepository, times(1)).findTicketResponsesByEventId(2L);
+    }
+
+    @Test
+    void leastRecentlyUsedEventIsDroppedBeyondTheLimit() {
+        when(ticketRepository.findTicketResponsesByEventId(anyLong())).thenReturn(List.of());
+
+        cache.ticketsOf(1L);
+        cache.ticketsOf(2L);
+        cache.ticketsOf(1L);
+        cache.ticketsOf(3L);
+        cache.ticketsOf(1L);
+        cache.ticketsOf(2L);
+
+        verify(ticketRepository, times(1)).findTicketResponsesByEventId(1L);
+        verify(ticketRepository, times(2)).findTicketResponsesByEventId(2L);
+        assertEquals(2, meterRegistry.get("ticket.availability.size").gauge().value());
+    }
+
+    @Test
+    void loadThatRacedWithAnEvictionIsNotKept() {
+        when(ticketRepository.findTicketResponsesByEventId(1L))
+                .thenAnswer(invocation -> {
+                    // A ticket is added while the old rows are being read
+                    cache.evict(1L);
+                    return List.of(ticket(5L, 1L, 0));
+                })
+                .thenReturn(List.of(ticket(5L, 1L, 0), ticket(6L, 1L, 0)));
+
+        assertEquals(1, cache.ticketsOf(1L).size());
+        assertEquals(2, cache.ticketsOf(1L).size());
+    }
+
+    @Test
+    void concurrentMissesShareOneQuery() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(ticketRepository.findTicketResponsesByEventId(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(ticket(5L, 1L, 0));
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<TicketResponse>>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.ticketsOf(1L)));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(() -> cache.ticketsOf(1L)));
+            }
+            // Give the waiters time to find the running load before it completes
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (meterRegistry.get("ticket.availability.coalesced").counter().count() < 3
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<List<TicketResponse>> result : results) {
+                assertEquals(5L, result.get(5, TimeUnit.SECONDS).get(0).getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(ticketRepository, times(1)).findTicketResponsesByEventId(1L);
+    }
+
+    @Test
+    void failedLoadIsPassedToWaitersAndNotCached() {
+        when(ticketRepository.findTicketResponsesByEventId(1L))
+                .thenThrow(new IllegalStateException("connection refused"))
+                .thenReturn(List.of(ticket(5L, 1L, 0)));
+
+        assertThrows(IllegalStateException.class, () -> cache.ticketsOf(1L));
+        assertEquals(1, cache.ticketsOf(1L).size());
+    }
+
+    @Test
+    void errorInTheLoaderFailsWaitersAndFreesTheEvent() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(ticketRepository.findTicketResponsesByEventId(1L))
+                .thenAnswer(invocation -> {
+                    loading.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    throw new StackOverflowError();
+                })
+                .thenReturn(List.of(ticket(5L, 1L, 0)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<TicketResponse>> loader = executor.submit(() -> cache.ticketsOf(1L));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<List<TicketResponse>> waiter = executor.submit(() -> cache.ticketsOf(1L));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (meterRegistry.get("ticket.availability.coalesced").counter().count() < 1
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            ExecutionException loaderFailure = assertThrows(ExecutionException.class, () -> loader.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(StackOverflowError.class, loaderFailure.getCause());
+            ExecutionException waiterFailure = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, waiterFailure.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, cache.ticketsOf(1L).size());
+    }
+
+    @Test
+    void waiterGivesUpWithoutFailingTheSharedLoad() throws Exception {
+        TicketAvailabilityCache impatient = new TicketAvailabilityCache(ticketRepository, meterRegistry, 2, 2000, 50,
+                clock::get);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(ticketRepository.findTicketResponsesByEventId(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(ticket(5L, 1L, 0));
+        });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<TicketResponse>> loader = executor.submit(() -> impatient.ticketsOf(1L));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            assertThrows(IllegalStateException.class, () -> impatient.ticketsOf(1L));
+            release.countDown();
+            assertEquals(1, loader.get(5, TimeUnit.SECONDS).size());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, impatient.ticketsOf(1L).size());
+        verify(ticketRepository, times(1)).findTicketResponsesByEventId(1L);
+    }
+}
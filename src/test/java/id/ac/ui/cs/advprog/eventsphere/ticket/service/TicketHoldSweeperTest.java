@@ -0,0 +1,104 @@
+package id.ac.ui.cs.advprog.eventsphere.ticket.service;
+
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.ReservationStatus;
+import id.ac.ui.cs.advprog.eventsphere.ticket.repository.TicketReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TicketHoldSweeperTest {
+
+    private TicketHoldIndex holdIndex;
+    private TicketReservationService reservationService;
+    private TicketReservationRepository reservationRepository;
+    private TicketHoldSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        holdIndex = new TicketHoldIndex();
+        reservationService = mock(TicketReservationService.class);
+        reservationRepository = mock(TicketReservationRepository.class);
+        sweeper = new TicketHoldSweeper(holdIndex, reservationService, reservationRepository);
+    }
+
+    @Test
+    void loadOpenHolds_shouldRebuildIndex() {
+        when(reservationRepository.findIdAndExpiryByStatus(ReservationStatus.HELD)).thenReturn(List.of(
+                new Object[]{1L, LocalDateTime.now().plusMinutes(5)},
+                new Object[]{2L, LocalDateTime.now().plusMinutes(8)}));
+
+        sweeper.loadOpenHolds();
+
+        assertEquals(2, holdIndex.size());
+    }
+
+    @Test
+    void sweep_shouldReleaseOverdueHoldsInOneCall() {
+        holdIndex.track(1L, LocalDateTime.now().minusMinutes(1));
+        holdIndex.track(2L, LocalDateTime.now().minusSeconds(5));
+        holdIndex.track(3L, LocalDateTime.now().plusMinutes(5));
+
+        sweeper.sweep();
+
+        verify(reservationService, times(1)).releaseExpired(List.of(1L, 2L));
+    }
+
+    @Test
+    void sweep_shouldRetryBatchAfterFailure() {
+        holdIndex.track(1L, LocalDateTime.now().minusMinutes(1));
+        when(reservationService.releaseExpired(anyList()))
+                .thenThrow(new RuntimeException("db down"))
+                .thenReturn(1);
+
+        sweeper.sweep();
+        sweeper.sweep();
+
+        verify(reservationService, times(2)).releaseExpired(List.of(1L));
+    }
+
+    @Test
+    void sweep_shouldDoNothingWhenNothingIsDue() {
+        holdIndex.track(1L, LocalDateTime.now().plusMinutes(5));
+
+        sweeper.sweep();
+
+        verifyNoInteractions(reservationService);
+    }
+
+    @Test
+    void releaseAbandoned_shouldReleaseHoldsNoWheelTracks() {
+        when(reservationRepository.findIdsByStatusAndExpiresAtBefore(eq(ReservationStatus.HELD), any(), any()))
+                .thenReturn(List.of(7L, 8L));
+        when(reservationService.releaseExpired(List.of(7L, 8L))).thenReturn(2);
+
+        LocalDateTime latest = LocalDateTime.now().minus(TicketHoldSweeper.BACKSTOP_GRACE);
+        sweeper.releaseAbandoned();
+
+        ArgumentCaptor<LocalDateTime> before = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(reservationRepository).findIdsByStatusAndExpiresAtBefore(
+                eq(ReservationStatus.HELD), before.capture(), eq(PageRequest.of(0, 500)));
+        assertFalse(before.getValue().isBefore(latest));
+        verify(reservationService).releaseExpired(List.of(7L, 8L));
+        assertEquals(0, holdIndex.size());
+    }
+
+    @Test
+    void releaseAbandoned_shouldDoNothingWhenNoHoldIsOverdue() {
+        when(reservationRepository.findIdsByStatusAndExpiresAtBefore(eq(ReservationStatus.HELD), any(), any()))
+                .thenReturn(List.of());
+
+        sweeper.releaseAbandoned();
+
+        verifyNoInteractions(reservationService);
+    }
+}
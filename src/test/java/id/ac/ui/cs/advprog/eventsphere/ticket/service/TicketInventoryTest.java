@@ -0,0 +1,92 @@
+package id.ac.ui.cs.advprog.eventsphere.ticket.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TicketInventoryTest {
+
+    private TicketInventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        inventory = new TicketInventory();
+    }
+
+    @Test
+    void tryAcquire_shouldSeedOnceAndCountDown() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertTrue(inventory.tryAcquire(1L, () -> { loads.incrementAndGet(); return 2; }));
+        assertTrue(inventory.tryAcquire(1L, () -> { loads.incrementAndGet(); return 2; }));
+        assertFalse(inventory.tryAcquire(1L, () -> { loads.incrementAndGet(); return 2; }));
+
+        assertEquals(1, loads.get());
+        assertEquals(0, inventory.remaining(1L));
+    }
+
+    @Test
+    void release_shouldReturnPermit() {
+        inventory.tryAcquire(1L, () -> 1);
+        inventory.release(1L);
+
+        assertEquals(1, inventory.remaining(1L));
+    }
+
+    @Test
+    void markSoldOut_shouldRejectFurtherBuyers() {
+        inventory.tryAcquire(1L, () -> 10);
+        inventory.markSoldOut(1L);
+
+        assertFalse(inventory.tryAcquire(1L, () -> 10));
+    }
+
+    @Test
+    void evict_shouldReseedFromLoader() {
+        inventory.tryAcquire(1L, () -> 1);
+        inventory.evict(1L);
+
+        assertEquals(-1, inventory.remaining(1L));
+        assertTrue(inventory.tryAcquire(1L, () -> 5));
+        assertEquals(4, inventory.remaining(1L));
+    }
+
+    @Test
+    void tryAcquire_shouldNeverOversellUnderContention() throws Exception {
+        int stock = 250;
+        int buyers = 2000;
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < buyers; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (inventory.tryAcquire(1L, () -> stock)) {
+                    admitted.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(stock, admitted.get());
+        assertEquals(0, inventory.remaining(1L));
+    }
+}
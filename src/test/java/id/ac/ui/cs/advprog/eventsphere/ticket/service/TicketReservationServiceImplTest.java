@@ -0,0 +1,128 @@
+package id.ac.ui.cs.advprog.eventsphere.ticket.service;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import id.ac.ui.cs.advprog.eventsphere.ticket.dto.ReservationResponse;
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.ReservationStatus;
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.Ticket;
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.TicketReservation;
+import id.ac.ui.cs.advprog.eventsphere.ticket.repository.TicketRepository;
+import id.ac.ui.cs.advprog.eventsphere.ticket.repository.TicketReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TicketReservationServiceImplTest {
+
+    private TicketReservationRepository reservationRepository;
+    private TicketRepository ticketRepository;
+    private TicketService ticketService;
+    private TicketHoldIndex holdIndex;
+    private TicketReservationServiceImpl reservationService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository = mock(TicketReservationRepository.class);
+        ticketRepository = mock(TicketRepository.class);
+        ticketService = mock(TicketService.class);
+        holdIndex = mock(TicketHoldIndex.class);
+        reservationService = new TicketReservationServiceImpl(
+                reservationRepository, ticketRepository, ticketService, holdIndex, 10);
+
+        user = new User();
+        user.setId(7L);
+    }
+
+    @Test
+    void placeHold_shouldTakeStockAndTrackExpiry() {
+        Ticket ticket = new Ticket();
+        ticket.setId(1L);
+        when(ticketRepository.getReferenceById(1L)).thenReturn(ticket);
+        when(reservationRepository.save(any(TicketReservation.class))).thenAnswer(invocation -> {
+            TicketReservation reservation = invocation.getArgument(0);
+            reservation.setId(99L);
+            return reservation;
+        });
+
+        ReservationResponse response = reservationService.placeHold(1L, user);
+
+        verify(ticketService).purchaseTicket(1L);
+        verify(holdIndex).track(eq(99L), any(LocalDateTime.class));
+        assertEquals(99L, response.getReservationId());
+        assertEquals(ReservationStatus.HELD, response.getStatus());
+        assertTrue(response.getExpiresAt().isAfter(LocalDateTime.now().plusMinutes(9)));
+    }
+
+    @Test
+    void placeHold_shouldNotCreateReservationWhenSoldOut() {
+        when(ticketService.purchaseTicket(1L)).thenThrow(new RuntimeException("Tiket sudah habis terjual."));
+
+        assertThrows(RuntimeException.class, () -> reservationService.placeHold(1L, user));
+        verify(reservationRepository, never()).save(any());
+        verifyNoInteractions(holdIndex);
+    }
+
+    @Test
+    void getActiveHold_shouldRejectExpiredHold() {
+        TicketReservation reservation = TicketReservation.builder()
+                .id(5L)
+                .status(ReservationStatus.HELD)
+                .expiresAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+        when(reservationRepository.findByIdAndUserId(5L, 7L)).thenReturn(Optional.of(reservation));
+
+        assertThrows(IllegalStateException.class, () -> reservationService.getActiveHold(5L, 7L));
+    }
+
+    @Test
+    void getActiveHold_shouldThrowWhenMissing() {
+        when(reservationRepository.findByIdAndUserId(5L, 7L)).thenReturn(Optional.empty());
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> reservationService.getActiveHold(5L, 7L));
+        assertEquals("Reservation not found", ex.getMessage());
+    }
+
+    @Test
+    void confirmHold_shouldUseConditionalUpdate() {
+        when(reservationRepository.confirm(eq(5L), any(LocalDateTime.class))).thenReturn(1, 0);
+
+        assertTrue(reservationService.confirmHold(5L));
+        assertFalse(reservationService.confirmHold(5L));
+    }
+
+    @Test
+    void releaseExpired_shouldReleaseStockOncePerTicket() {
+        when(reservationRepository.findIdAndTicketIdByIdInAndStatus(anyCollection(), eq(ReservationStatus.HELD)))
+                .thenReturn(List.of(
+                        new Object[]{10L, 1L},
+                        new Object[]{11L, 1L},
+                        new Object[]{12L, 2L}));
+        when(reservationRepository.transition(List.of(10L, 11L), ReservationStatus.HELD, ReservationStatus.EXPIRED))
+                .thenReturn(2);
+        when(reservationRepository.transition(List.of(12L), ReservationStatus.HELD, ReservationStatus.EXPIRED))
+                .thenReturn(1);
+
+        int released = reservationService.releaseExpired(List.of(10L, 11L, 12L, 13L));
+
+        assertEquals(3, released);
+        verify(ticketService).releaseTickets(1L, 2);
+        verify(ticketService).releaseTickets(2L, 1);
+    }
+
+    @Test
+    void releaseExpired_shouldSkipEmptyBatch() {
+        assertEquals(0, reservationService.releaseExpired(List.of()));
+        verifyNoInteractions(reservationRepository);
+        verify(ticketService, never()).releaseTickets(any(), anyInt());
+    }
+}
@@ -10,9 +10,13 @@ import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
 import id.ac.ui.cs.advprog.eventsphere.event.model.Event;
 import id.ac.ui.cs.advprog.eventsphere.event.repository.EventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -22,6 +26,7 @@ class TicketServiceImplTest {
 
     private EventRepository eventRepository;
     private TicketRepository ticketRepository;
+    private TicketAvailabilityCache availabilityCache;
     private TicketServiceImpl ticketService;
     private User organizer;
     private User admin;
@@ -31,7 +36,8 @@ class TicketServiceImplTest {
     void setUp() {
         ticketRepository = mock(TicketRepository.class);
         eventRepository = mock(EventRepository.class); // Tambahan
-        ticketService = new TicketServiceImpl(ticketRepository, eventRepository); // Tambahan argumen
+        availabilityCache = new TicketAvailabilityCache(ticketRepository, new SimpleMeterRegistry(), 100, 2000, 5000);
+        ticketService = new TicketServiceImpl(ticketRepository, eventRepository, new TicketInventory(), availabilityCache); // Tambahan argumen
 
         organizer = new User();
         organizer.setRole(Role.ORGANIZER);
@@ -118,10 +124,141 @@ class TicketServiceImplTest {
 
         assertThrows(TicketNotFoundException.class, () -> ticketService.deleteTicket(ticketId, admin));
     }
-}
 
+    @Test
+    void purchaseTicket_shouldUseConditionalUpdate() {
+        Long ticketId = 1L;
+        Ticket ticket = new Ticket(ticketId, "Reguler", 150.0, 20, TicketCategory.REGULAR, dummyEvent);
+
+        when(ticketRepository.findById(ticketId)).thenReturn(Optional.of(ticket));
+        when(ticketRepository.tryPurchase(ticketId)).thenReturn(1);
+
+        TicketResponse response = ticketService.purchaseTicket(ticketId);
+
+        assertEquals("Reguler", response.getName());
+        verify(ticketRepository).tryPurchase(ticketId);
+        verify(ticketRepository, never()).save(any(Ticket.class));
+    }
+
+    @Test
+    void purchaseTicket_shouldRejectWithoutDatabaseWriteOnceSoldOut() {
+        Long ticketId = 1L;
+        Ticket ticket = new Ticket(ticketId, "Reguler", 150.0, 20, TicketCategory.REGULAR, dummyEvent);
+
+        when(ticketRepository.findById(ticketId)).thenReturn(Optional.of(ticket));
+        when(ticketRepository.tryPurchase(ticketId)).thenReturn(0);
+        when(ticketRepository.existsById(ticketId)).thenReturn(true);
+
+        RuntimeException first = assertThrows(RuntimeException.class, () -> ticketService.purchaseTicket(ticketId));
+        RuntimeException second = assertThrows(RuntimeException.class, () -> ticketService.purchaseTicket(ticketId));
+
+        assertEquals("Tiket sudah habis terjual.", first.getMessage());
+        assertEquals("Tiket sudah habis terjual.", second.getMessage());
+        verify(ticketRepository, times(1)).tryPurchase(ticketId);
+    }
+
+    @Test
+    void purchaseTicket_shouldThrowWhenTicketMissing() {
+        when(ticketRepository.findById(777L)).thenReturn(Optional.empty());
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> ticketService.purchaseTicket(777L));
+
+        assertEquals("Ticket tidak ditemukan", ex.getMessage());
+        verify(ticketRepository, never()).tryPurchase(any());
+    }
+
+    @Test
+    void purchaseTicket_shouldHandBackPermitWhenTheTransactionRollsBack() {
+        Long ticketId = 1L;
+        Ticket ticket = new Ticket(ticketId, "Reguler", 150.0, 1, TicketCategory.REGULAR, dummyEvent);
+        when(ticketRepository.findById(ticketId)).thenReturn(Optional.of(ticket));
+        when(ticketRepository.tryPurchase(ticketId)).thenReturn(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            ticketService.purchaseTicket(ticketId);
+            assertFalse(ticketService.tryAdmitPurchase(ticketId));
+
+            // The stock update applied, then the debit later in the same transaction failed
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(ticketService.tryAdmitPurchase(ticketId));
+    }
+
+    @Test
+    void purchaseTicket_shouldKeepPermitOnceCommitted() {
+        Long ticketId = 1L;
+        Ticket ticket = new Ticket(ticketId, "Reguler", 150.0, 1, TicketCategory.REGULAR, dummyEvent);
+        when(ticketRepository.findById(ticketId)).thenReturn(Optional.of(ticket));
+        when(ticketRepository.tryPurchase(ticketId)).thenReturn(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            ticketService.purchaseTicket(ticketId);
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertFalse(ticketService.tryAdmitPurchase(ticketId));
+    }
+
+    @Test
+    void tryAdmitPurchase_shouldHandBackPermitOnRejection() {
+        Long ticketId = 1L;
+        Ticket ticket = new Ticket(ticketId, "Reguler", 150.0, 1, TicketCategory.REGULAR, dummyEvent);
+        when(ticketRepository.findById(ticketId)).thenReturn(Optional.of(ticket));
+
+        assertTrue(ticketService.tryAdmitPurchase(ticketId));
+        assertFalse(ticketService.tryAdmitPurchase(ticketId));
+
+        ticketService.purchaseRejected(ticketId, false);
+        assertTrue(ticketService.tryAdmitPurchase(ticketId));
 
+        ticketService.purchaseRejected(ticketId, true);
+        assertFalse(ticketService.tryAdmitPurchase(ticketId));
+        verify(ticketRepository, times(1)).findById(ticketId);
+    }
+
+    @Test
+    void getTickets_perEventIsCachedAndFilteredInMemory() {
+        TicketResponse open = new TicketResponse(5L, "Regular", 100.0, 50, TicketCategory.REGULAR, 0, 1L);
+        TicketResponse soldOut = new TicketResponse(6L, "VIP", 500.0, 10, TicketCategory.VIP, 10, 1L);
+        when(ticketRepository.findTicketResponsesByEventId(1L)).thenReturn(List.of(open, soldOut));
 
+        assertEquals(List.of(open, soldOut), ticketService.getTickets(1L, false));
+        assertEquals(List.of(open), ticketService.getTickets(1L, true));
 
+        verify(ticketRepository, times(1)).findTicketResponsesByEventId(1L);
+        verify(ticketRepository, never()).findAll();
+    }
 
+    @Test
+    void getTickets_withoutEventUsesTheProjectionQuery() {
+        TicketResponse open = new TicketResponse(5L, "Regular", 100.0, 50, TicketCategory.REGULAR, 0, 1L);
+        when(ticketRepository.findTicketResponses(true)).thenReturn(List.of(open));
+
+        assertEquals(List.of(open), ticketService.getTickets(null, true));
+        verify(ticketRepository, never()).findAll();
+    }
 
+    @Test
+    void addTicket_shouldEvictTheEventsCachedTickets() {
+        when(ticketRepository.findTicketResponsesByEventId(1L)).thenReturn(List.of());
+        ticketService.getTickets(1L, false);
+        Ticket ticket = new Ticket(7L, "VIP", 500.0, 100, TicketCategory.VIP, dummyEvent);
+        when(ticketRepository.save(any(Ticket.class))).thenReturn(ticket);
+
+        ticketService.addTicket(new TicketRequest("VIP", 500.0, 100, TicketCategory.VIP, 1L), organizer);
+        ticketService.getTickets(1L, false);
+
+        verify(ticketRepository, times(2)).findTicketResponsesByEventId(1L);
+    }
+}
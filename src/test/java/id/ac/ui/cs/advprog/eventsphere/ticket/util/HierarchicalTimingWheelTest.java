@@ -0,0 +1,70 @@
+package id.ac.ui.cs.advprog.eventsphere.ticket.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    void add_shouldRejectAlreadyDueExpiration() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1000, 8, 10_000);
+
+        assertFalse(wheel.add(1L, 10_500));
+        assertTrue(wheel.add(2L, 11_000));
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void advance_shouldReportEntryOnlyAfterExpiration() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1000, 8, 0);
+        wheel.add(1L, 3_500);
+
+        assertTrue(wheel.advance(3_499).isEmpty());
+        assertTrue(wheel.advance(3_999).isEmpty());
+        assertEquals(List.of(1L), wheel.advance(4_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_shouldCascadeFromHigherLevels() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1000, 4, 0);
+        // 4 slots of 1s per level: 70s needs the third level
+        wheel.add(1L, 70_000);
+        wheel.add(2L, 5_000);
+
+        assertEquals(List.of(2L), wheel.advance(6_000));
+        assertTrue(wheel.advance(70_000).isEmpty());
+        assertEquals(List.of(1L), wheel.advance(71_000));
+    }
+
+    @Test
+    void advance_shouldNeverFireEarlyOrLoseEntries() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1000, 16, 0);
+        Random random = new Random(42);
+        Map<Long, Long> expirations = new HashMap<>();
+        for (long id = 0; id < 5000; id++) {
+            long expiration = 1000 + random.nextInt(2_000_000);
+            expirations.put(id, expiration);
+            assertTrue(wheel.add(id, expiration));
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = 0; now <= 2_100_000; now += 7_919) {
+            for (Long id : wheel.advance(now)) {
+                assertTrue(expirations.get(id) <= now, "fired early: " + id);
+                assertTrue(now - expirations.get(id) < 1000 + 7_919, "fired late: " + id);
+                fired.add(id);
+            }
+        }
+
+        assertEquals(expirations.size(), fired.size());
+        assertEquals(0, wheel.size());
+    }
+}
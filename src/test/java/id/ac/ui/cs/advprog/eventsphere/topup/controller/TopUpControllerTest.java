@@ -3,7 +3,11 @@ package id.ac.ui.cs.advprog.eventsphere.topup.controller;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 import id.ac.ui.cs.advprog.eventsphere.topup.dto.TopUpRequestDTO;
 import id.ac.ui.cs.advprog.eventsphere.topup.dto.TopUpResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionHistoryFilter;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionPageDTO;
 import id.ac.ui.cs.advprog.eventsphere.topup.model.Transaction;
+import id.ac.ui.cs.advprog.eventsphere.topup.service.IdempotencyService;
 import id.ac.ui.cs.advprog.eventsphere.topup.service.TopUpService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,6 +25,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +33,9 @@ public class TopUpControllerTest {
     
     @Mock
     private TopUpService topUpService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
     
     @InjectMocks
     private TopUpController topUpController;
@@ -76,20 +84,44 @@ public class TopUpControllerTest {
     public void testProcessTopUp() {
         when(topUpService.processTopUp(any(TopUpRequestDTO.class))).thenReturn(topUpResponse);
         
-        ResponseEntity<TopUpResponseDTO> response = topUpController.processTopUp(topUpRequest);
+        ResponseEntity<TopUpResponseDTO> response = topUpController.processTopUp(topUpRequest, null);
         
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(topUpResponse, response.getBody());
     }
     
+    @Test
+    @DisplayName("Should route keyed top ups through the idempotency service")
+    public void testProcessTopUpWithIdempotencyKey() {
+        when(idempotencyService.execute(eq("key-1"), eq("top-up"), eq("FIXED:50000"), any()))
+                .thenReturn(topUpResponse);
+
+        ResponseEntity<TopUpResponseDTO> response = topUpController.processTopUp(topUpRequest, "key-1");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(topUpResponse, response.getBody());
+        verifyNoInteractions(topUpService);
+    }
+
+    @Test
+    @DisplayName("Should return conflict when the idempotency key is in use")
+    public void testProcessTopUpIdempotencyConflict() {
+        when(idempotencyService.execute(eq("key-1"), eq("top-up"), eq("FIXED:50000"), any()))
+                .thenThrow(new IllegalStateException("in progress"));
+
+        ResponseEntity<TopUpResponseDTO> response = topUpController.processTopUp(topUpRequest, "key-1");
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
     @Test
     @DisplayName("Should handle IllegalArgumentException in processTopUp")
     public void testProcessTopUpIllegalArgumentException() {
         when(topUpService.processTopUp(any(TopUpRequestDTO.class)))
                 .thenThrow(new IllegalArgumentException("Invalid amount"));
         
-        ResponseEntity<TopUpResponseDTO> response = topUpController.processTopUp(topUpRequest);
+        ResponseEntity<TopUpResponseDTO> response = topUpController.processTopUp(topUpRequest, null);
         
         assertNotNull(response);
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -102,7 +134,7 @@ public class TopUpControllerTest {
         when(topUpService.processTopUp(any(TopUpRequestDTO.class)))
                 .thenThrow(new RuntimeException("Some error"));
         
-        ResponseEntity<TopUpResponseDTO> response = topUpController.processTopUp(topUpRequest);
+        ResponseEntity<TopUpResponseDTO> response = topUpController.processTopUp(topUpRequest, null);
         
         assertNotNull(response);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
@@ -136,21 +168,26 @@ public class TopUpControllerTest {
     @Test
     @DisplayName("Should get current user top-up transactions")
     public void testGetCurrentUserTopUpTransactions() {
-        when(topUpService.getCurrentUserTopUpTransactions()).thenReturn(transactions);
+        TransactionHistoryFilter filter = new TransactionHistoryFilter();
+        List<TransactionDTO> history = List.of(TransactionDTO.builder().id("transaction-123").type("TOP_UP").build());
+        when(topUpService.getCurrentUserTopUpHistory(filter))
+                .thenReturn(TransactionPageDTO.builder().items(history).nextCursor("next").build());
         
-        ResponseEntity<List<Transaction>> response = topUpController.getCurrentUserTopUpTransactions();
+        ResponseEntity<List<TransactionDTO>> response = topUpController.getCurrentUserTopUpTransactions(filter);
         
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(transactions, response.getBody());
+        assertEquals(history, response.getBody());
+        assertEquals("next", response.getHeaders().getFirst(TransactionController.NEXT_CURSOR_HEADER));
     }
     
     @Test
     @DisplayName("Should handle Exception in getCurrentUserTopUpTransactions")
     public void testGetCurrentUserTopUpTransactionsException() {
-        when(topUpService.getCurrentUserTopUpTransactions()).thenThrow(new RuntimeException("Some error"));
+        TransactionHistoryFilter filter = new TransactionHistoryFilter();
+        when(topUpService.getCurrentUserTopUpHistory(filter)).thenThrow(new RuntimeException("Some error"));
         
-        ResponseEntity<List<Transaction>> response = topUpController.getCurrentUserTopUpTransactions();
+        ResponseEntity<List<TransactionDTO>> response = topUpController.getCurrentUserTopUpTransactions(filter);
         
         assertNotNull(response);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
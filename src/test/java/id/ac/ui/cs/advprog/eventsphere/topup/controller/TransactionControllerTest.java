@@ -1,8 +1,17 @@
 package id.ac.ui.cs.advprog.eventsphere.topup.controller;
 
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.security.AuthenticatedUser;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.PurchaseQueueStatusDTO;
 import id.ac.ui.cs.advprog.eventsphere.topup.dto.TopUpResponseDTO;
 import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionHistoryFilter;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionPageDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.service.IdempotencyService;
+import id.ac.ui.cs.advprog.eventsphere.topup.service.TicketPurchaseQueue;
+import id.ac.ui.cs.advprog.eventsphere.topup.service.TransactionExportService;
 import id.ac.ui.cs.advprog.eventsphere.topup.service.TransactionService;
+import id.ac.ui.cs.advprog.eventsphere.topup.util.CurrentUserUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -10,22 +19,41 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class TransactionControllerTest {
+
+    private static final AuthenticatedUser BUYER = new AuthenticatedUser(1L, "buyer@example.com", Role.ATTENDEE, 0);
     
     @Mock
     private TransactionService transactionService;
+
+    @Mock
+    private TicketPurchaseQueue purchaseQueue;
+
+    @Mock
+    private CurrentUserUtil currentUserUtil;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private TransactionExportService exportService;
     
     @InjectMocks
     private TransactionController transactionController;
@@ -65,7 +93,7 @@ public class TransactionControllerTest {
     public void testPurchaseTicket() {
         when(transactionService.processTicketPurchaseById(anyLong())).thenReturn(purchaseResponse);
         
-        ResponseEntity<TopUpResponseDTO> response = transactionController.purchaseTicket(1L);
+        ResponseEntity<TopUpResponseDTO> response = transactionController.purchaseTicket(1L, null);
         
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -74,13 +102,38 @@ public class TransactionControllerTest {
         verify(transactionService).processTicketPurchaseById(1L);
     }
     
+    @Test
+    @DisplayName("Should replay keyed ticket purchases through the idempotency service")
+    public void testPurchaseTicketWithIdempotencyKey() {
+        when(idempotencyService.execute(eq("retry-1"), eq("ticket-purchase"), eq("ticket:1"), any()))
+                .thenReturn(purchaseResponse);
+
+        ResponseEntity<TopUpResponseDTO> response = transactionController.purchaseTicket(1L, "retry-1");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(purchaseResponse, response.getBody());
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    @DisplayName("Should return conflict when the idempotency key is still in progress")
+    public void testPurchaseTicketIdempotencyConflict() {
+        when(idempotencyService.execute(eq("retry-1"), eq("ticket-purchase"), eq("ticket:1"), any()))
+                .thenThrow(new IllegalStateException("A request with this Idempotency-Key is still being processed"));
+
+        ResponseEntity<TopUpResponseDTO> response = transactionController.purchaseTicket(1L, "retry-1");
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("FAILED", response.getBody().getStatus());
+    }
+
     @Test
     @DisplayName("Should handle Exception in purchaseTicket")
     public void testPurchaseTicketException() {
         when(transactionService.processTicketPurchaseById(anyLong()))
                 .thenThrow(new RuntimeException("Some error"));
         
-        ResponseEntity<TopUpResponseDTO> response = transactionController.purchaseTicket(1L);
+        ResponseEntity<TopUpResponseDTO> response = transactionController.purchaseTicket(1L, null);
         
         assertNotNull(response);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
@@ -92,21 +145,49 @@ public class TransactionControllerTest {
     @Test
     @DisplayName("Should get current user transactions")
     public void testGetCurrentUserTransactions() {
-        when(transactionService.getCurrentUserTransactions()).thenReturn(transactions);
+        TransactionHistoryFilter filter = new TransactionHistoryFilter();
+        when(transactionService.getCurrentUserTransactionHistory(filter))
+                .thenReturn(TransactionPageDTO.builder().items(transactions).build());
         
-        ResponseEntity<List<TransactionDTO>> response = transactionController.getCurrentUserTransactions();
+        ResponseEntity<List<TransactionDTO>> response = transactionController.getCurrentUserTransactions(filter);
         
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(transactions, response.getBody());
+        assertFalse(response.getHeaders().containsKey(TransactionController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @DisplayName("Should expose the next page cursor as a header")
+    public void testGetCurrentUserTransactionsNextCursor() {
+        TransactionHistoryFilter filter = TransactionHistoryFilter.builder().limit(1).build();
+        when(transactionService.getCurrentUserTransactionHistory(filter))
+                .thenReturn(TransactionPageDTO.builder().items(transactions).nextCursor("abc").build());
+
+        ResponseEntity<List<TransactionDTO>> response = transactionController.getCurrentUserTransactions(filter);
+
+        assertEquals("abc", response.getHeaders().getFirst(TransactionController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid history filter")
+    public void testGetCurrentUserTransactionsBadFilter() {
+        TransactionHistoryFilter filter = TransactionHistoryFilter.builder().type("REFUND").build();
+        when(transactionService.getCurrentUserTransactionHistory(filter))
+                .thenThrow(new IllegalArgumentException("Invalid type: REFUND"));
+
+        ResponseEntity<List<TransactionDTO>> response = transactionController.getCurrentUserTransactions(filter);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
     
     @Test
     @DisplayName("Should handle Exception in getCurrentUserTransactions")
     public void testGetCurrentUserTransactionsException() {
-        when(transactionService.getCurrentUserTransactions()).thenThrow(new RuntimeException("Some error"));
+        TransactionHistoryFilter filter = new TransactionHistoryFilter();
+        when(transactionService.getCurrentUserTransactionHistory(filter)).thenThrow(new RuntimeException("Some error"));
         
-        ResponseEntity<List<TransactionDTO>> response = transactionController.getCurrentUserTransactions();
+        ResponseEntity<List<TransactionDTO>> response = transactionController.getCurrentUserTransactions(filter);
         
         assertNotNull(response);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
@@ -116,15 +197,44 @@ public class TransactionControllerTest {
     @Test
     @DisplayName("Should get all transactions")
     public void testGetAllTransactions() {
-        when(transactionService.getAllTransactions()).thenReturn(transactions);
+        TransactionHistoryFilter filter = new TransactionHistoryFilter();
+        when(transactionService.getTransactionHistory(filter))
+                .thenReturn(TransactionPageDTO.builder().items(transactions).build());
         
-        ResponseEntity<List<TransactionDTO>> response = transactionController.getAllTransactions();
+        ResponseEntity<List<TransactionDTO>> response = transactionController.getAllTransactions(filter);
         
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(transactions, response.getBody());
     }
     
+    @Test
+    @DisplayName("Should stream a gzip CSV export")
+    public void testExportTransactions() throws Exception {
+        TransactionHistoryFilter filter = new TransactionHistoryFilter();
+
+        ResponseEntity<StreamingResponseBody> response = transactionController.exportTransactions(filter, "csv", true);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("text/csv", response.getHeaders().getContentType().toString());
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION).contains("transactions.csv"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        verify(exportService).export(filter, TransactionExportService.Format.CSV, true, out);
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown export format before streaming")
+    public void testExportTransactionsBadFormat() {
+        ResponseEntity<StreamingResponseBody> response =
+                transactionController.exportTransactions(new TransactionHistoryFilter(), "xml", false);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(exportService);
+    }
+
     @Test
     @DisplayName("Should get transaction by id")
     public void testGetTransactionById() {
@@ -217,4 +327,77 @@ public class TransactionControllerTest {
         assertNotNull(response);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should accept queued ticket purchase and return token")
+    public void testQueueTicketPurchase() {
+        PurchaseQueueStatusDTO queued = PurchaseQueueStatusDTO.builder()
+                .token("token-1").ticketId(1L).status("QUEUED").position(3).build();
+        when(currentUserUtil.getCurrentUser()).thenReturn(BUYER);
+        when(purchaseQueue.enqueue(1L, BUYER)).thenReturn(queued);
+
+        ResponseEntity<PurchaseQueueStatusDTO> response = transactionController.queueTicketPurchase(1L);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(queued, response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should return too many requests when the queue is full")
+    public void testQueueTicketPurchaseFull() {
+        when(currentUserUtil.getCurrentUser()).thenReturn(BUYER);
+        when(purchaseQueue.enqueue(1L, BUYER)).thenThrow(new IllegalStateException("full"));
+
+        ResponseEntity<PurchaseQueueStatusDTO> response = transactionController.queueTicketPurchase(1L);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("REJECTED", response.getBody().getStatus());
+    }
+
+    @Test
+    @DisplayName("Should poll queued purchase status")
+    public void testGetQueuedPurchaseStatus() {
+        PurchaseQueueStatusDTO done = PurchaseQueueStatusDTO.builder()
+                .token("token-1").status("SUCCESS").result(purchaseResponse).build();
+        when(currentUserUtil.getCurrentUserEmail()).thenReturn("buyer@example.com");
+        when(purchaseQueue.poll("token-1", "buyer@example.com")).thenReturn(done);
+
+        ResponseEntity<PurchaseQueueStatusDTO> response = transactionController.getQueuedPurchaseStatus("token-1");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(purchaseResponse, response.getBody().getResult());
+    }
+
+    @Test
+    @DisplayName("Should return not found for unknown queue token")
+    public void testGetQueuedPurchaseStatusNotFound() {
+        when(currentUserUtil.getCurrentUserEmail()).thenReturn("buyer@example.com");
+        when(purchaseQueue.poll("missing", "buyer@example.com")).thenThrow(new RuntimeException("Queue token not found"));
+
+        ResponseEntity<PurchaseQueueStatusDTO> response = transactionController.getQueuedPurchaseStatus("missing");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Should confirm a ticket reservation")
+    public void testConfirmReservation() {
+        when(transactionService.confirmReservation(9L)).thenReturn(purchaseResponse);
+
+        ResponseEntity<TopUpResponseDTO> response = transactionController.confirmReservation(9L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(purchaseResponse, response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should report failed reservation confirmation")
+    public void testConfirmReservationFailure() {
+        when(transactionService.confirmReservation(9L)).thenThrow(new IllegalStateException("Reservation is no longer active"));
+
+        ResponseEntity<TopUpResponseDTO> response = transactionController.confirmReservation(9L);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("Reservation is no longer active", response.getBody().getMessage());
+    }
+}
@@ -0,0 +1,74 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.controller;
+
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionStatsDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.service.TransactionRollupAggregator;
+import id.ac.ui.cs.advprog.eventsphere.topup.service.TransactionStatsService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionStatsControllerTest {
+
+    @Mock
+    private TransactionStatsService statsService;
+
+    @Mock
+    private TransactionRollupAggregator rollupAggregator;
+
+    @InjectMocks
+    private TransactionStatsController statsController;
+
+    @Test
+    @DisplayName("Should return stats from the service")
+    public void testGetStats() {
+        TransactionStatsDTO stats = TransactionStatsDTO.builder().dimension("EVENT").key("7").buckets(List.of()).build();
+        when(statsService.getStats("event", "7", null, null, null, null)).thenReturn(stats);
+
+        ResponseEntity<TransactionStatsDTO> response = statsController.getStats("event", "7", null, null, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(stats, response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should map invalid parameters to 400")
+    public void testGetStatsBadRequest() {
+        when(statsService.getStats(any(), any(), any(), any(), any(), any()))
+                .thenThrow(new IllegalArgumentException("Invalid dimension: venue"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, statsController.getStats("venue", "7", null, null, null, null).getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Should map foreign events to 403")
+    public void testGetStatsForbidden() {
+        when(statsService.getStats(any(), any(), any(), any(), any(), any()))
+                .thenThrow(new AccessDeniedException("Not allowed"));
+
+        assertEquals(HttpStatus.FORBIDDEN, statsController.getStats("event", "8", null, null, null, null).getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Should rebuild the rollups")
+    public void testRebuild() {
+        when(rollupAggregator.rebuild()).thenReturn(42);
+
+        ResponseEntity<Map<String, Integer>> response = statsController.rebuild();
+
+        assertEquals(42, response.getBody().get("transactions"));
+    }
+}
@@ -0,0 +1,205 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.repository;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.event.model.Event;
+import id.ac.ui.cs.advprog.eventsphere.event.repository.EventRepository;
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.Ticket;
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.TicketCategory;
+import id.ac.ui.cs.advprog.eventsphere.ticket.repository.TicketRepository;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.Transaction;
+import id.ac.ui.cs.advprog.eventsphere.topup.repository.TicketPurchaseJdbcRepository.PurchaseSnapshot;
+import id.ac.ui.cs.advprog.eventsphere.topup.repository.TicketPurchaseJdbcRepository.QueuedPurchase;
+import id.ac.ui.cs.advprog.eventsphere.topup.repository.TicketPurchaseJdbcRepository.TicketSnapshot;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(TicketPurchaseJdbcRepository.class)
+class TicketPurchaseJdbcRepositoryTest {
+
+    @Autowired
+    private TicketPurchaseJdbcRepository purchaseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User buyer;
+    private Ticket ticket;
+
+    @BeforeEach
+    void setUp() {
+        buyer = userRepository.save(User.builder()
+                .email("buyer-" + UUID.randomUUID() + "@example.com")
+                .password("password")
+                .role(Role.ATTENDEE)
+                .fullName("Buyer")
+                .balance(1000)
+                .build());
+
+        Event event = new Event();
+        event.setTitle("Concert");
+        event.setEventDate(LocalDateTime.now().plusDays(3));
+        event.setLocation("Jakarta");
+        event.setPrice(BigDecimal.valueOf(300));
+        event.setOrganizer(buyer);
+        event = eventRepository.save(event);
+
+        ticket = new Ticket();
+        ticket.setName("Festival");
+        ticket.setCategory(TicketCategory.REGULAR);
+        ticket.setPrice(300);
+        ticket.setQuota(10);
+        ticket.setEvent(event);
+        ticket = ticketRepository.save(ticket);
+        entityManager.flush();
+    }
+
+    @Test
+    void lockForPurchase_ReadsBothRows() {
+        PurchaseSnapshot snapshot = purchaseRepository.lockForPurchase(buyer.getId(), ticket.getId()).orElseThrow();
+
+        assertEquals(buyer.getId(), snapshot.userId());
+        assertEquals(1000, snapshot.balance());
+        assertEquals(300, snapshot.price());
+        assertEquals(0, snapshot.sold());
+        assertEquals(10, snapshot.quota());
+        assertEquals(ticket.getEvent().getId(), snapshot.eventId());
+        assertFalse(snapshot.isSoldOut());
+    }
+
+    @Test
+    void lockForPurchase_MissingRow_ReturnsEmpty() {
+        assertTrue(purchaseRepository.lockForPurchase(999_999L, ticket.getId()).isEmpty());
+        assertTrue(purchaseRepository.lockForPurchase(buyer.getId(), 999_999L).isEmpty());
+        assertTrue(purchaseRepository.userExists(buyer.getId()));
+        assertFalse(purchaseRepository.userExists(999_999L));
+    }
+
+    @Test
+    void applyPurchase_WritesTicketBalanceAndTransaction() {
+        PurchaseSnapshot snapshot = purchaseRepository.lockForPurchase(buyer.getId(), ticket.getId()).orElseThrow();
+        String transactionId = UUID.randomUUID().toString();
+
+        assertTrue(purchaseRepository.applyPurchase(snapshot, ticket.getId(), transactionId, LocalDateTime.now()));
+        entityManager.clear();
+
+        Ticket updated = ticketRepository.findById(ticket.getId()).orElseThrow();
+        assertEquals(1, updated.getSold());
+        assertEquals(9, updated.getQuota());
+        assertEquals(700, userRepository.findById(buyer.getId()).orElseThrow().getBalance());
+
+        Optional<Transaction> saved = transactionRepository.findById(transactionId);
+        assertTrue(saved.isPresent());
+        assertEquals(300, saved.get().getAmount());
+        assertEquals(Transaction.TransactionStatus.SUCCESS, saved.get().getStatus());
+        assertEquals(Transaction.TransactionType.TICKET_PURCHASE, saved.get().getType());
+        assertEquals("Purchase ticket: Festival", saved.get().getDescription());
+        assertEquals(String.valueOf(ticket.getEvent().getId()), saved.get().getEventId());
+    }
+
+    @Test
+    void applyPurchase_StaleBalance_ReportsNotApplied() {
+        PurchaseSnapshot snapshot = new PurchaseSnapshot(buyer.getId(), 1000, 5000, 0, 10, ticket.getEvent().getId());
+        String transactionId = UUID.randomUUID().toString();
+
+        assertFalse(purchaseRepository.applyPurchase(snapshot, ticket.getId(), transactionId, LocalDateTime.now()));
+        assertNothingWritten(transactionId, 0);
+    }
+
+    @Test
+    void applyPurchase_SoldOutTicket_WritesNothing() {
+        ticketRepository.tryPurchase(ticket.getId());
+        entityManager.createQuery("UPDATE Ticket t SET t.quota = t.sold WHERE t.id = :id")
+                .setParameter("id", ticket.getId())
+                .executeUpdate();
+        PurchaseSnapshot snapshot = purchaseRepository.lockForPurchase(buyer.getId(), ticket.getId()).orElseThrow();
+        String transactionId = UUID.randomUUID().toString();
+
+        assertTrue(snapshot.isSoldOut());
+        assertFalse(purchaseRepository.applyPurchase(snapshot, ticket.getId(), transactionId, LocalDateTime.now()));
+        assertNothingWritten(transactionId, 1);
+    }
+
+    private void assertNothingWritten(String transactionId, int sold) {
+        entityManager.clear();
+        assertTrue(transactionRepository.findById(transactionId).isEmpty());
+        assertEquals(sold, ticketRepository.findById(ticket.getId()).orElseThrow().getSold());
+        assertEquals(1000, purchaseRepository.lockBalances(List.of(buyer.getId())).get(buyer.getId()));
+    }
+
+    @Test
+    void applyPurchases_WritesEveryQueuedPurchase() {
+        TicketSnapshot locked = purchaseRepository.lockTicket(ticket.getId()).orElseThrow();
+        Map<Long, Integer> balances = purchaseRepository.lockBalances(List.of(buyer.getId(), 999_999L));
+        List<QueuedPurchase> purchases = List.of(
+                new QueuedPurchase(buyer.getId(), UUID.randomUUID().toString()),
+                new QueuedPurchase(buyer.getId(), UUID.randomUUID().toString()));
+
+        assertEquals(Map.of(buyer.getId(), 1000), balances);
+        assertEquals(5, locked.remainingPurchases());
+        assertTrue(purchaseRepository.applyPurchases(ticket.getId(), locked, purchases, LocalDateTime.now()));
+        entityManager.clear();
+
+        Ticket updated = ticketRepository.findById(ticket.getId()).orElseThrow();
+        assertEquals(2, updated.getSold());
+        assertEquals(8, updated.getQuota());
+        assertEquals(400, purchaseRepository.lockBalances(List.of(buyer.getId())).get(buyer.getId()));
+        for (QueuedPurchase purchase : purchases) {
+            Transaction saved = transactionRepository.findById(purchase.transactionId()).orElseThrow();
+            assertEquals(300, saved.getAmount());
+            assertEquals("Purchase ticket: Festival", saved.getDescription());
+        }
+    }
+
+    @Test
+    void applyPurchases_MoreThanTheStockAllows_ReportsNotApplied() {
+        TicketSnapshot locked = purchaseRepository.lockTicket(ticket.getId()).orElseThrow();
+        List<QueuedPurchase> purchases = IntStream.range(0, locked.remainingPurchases() + 1)
+                .mapToObj(i -> new QueuedPurchase(buyer.getId(), UUID.randomUUID().toString()))
+                .toList();
+
+        assertFalse(purchaseRepository.applyPurchases(ticket.getId(), locked, purchases, LocalDateTime.now()));
+        assertTrue(purchaseRepository.lockTicket(999_999L).isEmpty());
+    }
+
+    @Test
+    void applyPurchases_SecondDebitOverBalance_ReportsNotApplied() {
+        TicketSnapshot locked = purchaseRepository.lockTicket(ticket.getId()).orElseThrow();
+        List<QueuedPurchase> purchases = IntStream.range(0, 4)
+                .mapToObj(i -> new QueuedPurchase(buyer.getId(), UUID.randomUUID().toString()))
+                .toList();
+
+        // 4 x 300 is more than the buyer's 1000
+        assertFalse(purchaseRepository.applyPurchases(ticket.getId(), locked, purchases, LocalDateTime.now()));
+    }
+}
@@ -4,6 +4,10 @@ import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
 import id.ac.ui.cs.advprog.eventsphere.topup.model.Transaction;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.util.TransactionCursor;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +30,9 @@ class TransactionRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private User testUser;
 
     @BeforeEach
@@ -179,4 +186,66 @@ class TransactionRepositoryTest {
         assertTrue(successTransactions.stream()
                 .allMatch(t -> t.getStatus() == Transaction.TransactionStatus.SUCCESS));
     }
-}
\ No newline at end of file
+
+    private Transaction saveAt(LocalDateTime timestamp, Transaction.TransactionType type,
+                               Transaction.TransactionStatus status) {
+        return transactionRepository.save(Transaction.builder()
+                .user(testUser)
+                .amount(100)
+                .timestamp(timestamp)
+                .type(type)
+                .status(status)
+                .description("History row")
+                .build());
+    }
+
+    @Test
+    void testFindHistoryWalksPagesNewestFirst() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 12, 0);
+        for (int i = 0; i < 5; i++) {
+            saveAt(base.plusMinutes(i), Transaction.TransactionType.TOP_UP, Transaction.TransactionStatus.SUCCESS);
+        }
+        // Same timestamp as the newest row, ordered by id as the tie-breaker
+        saveAt(base.plusMinutes(4), Transaction.TransactionType.TOP_UP, Transaction.TransactionStatus.SUCCESS);
+
+        List<String> seen = new java.util.ArrayList<>();
+        TransactionCursor after = null;
+        for (int page = 0; page < 3; page++) {
+            List<TransactionDTO> rows = transactionRepository.findHistory(
+                    testUser.getId(), null, null, null, null, after, 2);
+            assertEquals(2, rows.size());
+            rows.forEach(row -> seen.add(row.getId()));
+            TransactionDTO last = rows.get(rows.size() - 1);
+            after = new TransactionCursor(last.getTimestamp(), last.getId());
+        }
+
+        assertEquals(6, new java.util.HashSet<>(seen).size());
+        assertTrue(transactionRepository.findHistory(testUser.getId(), null, null, null, null, after, 2).isEmpty());
+    }
+
+    @Test
+    void testFindHistoryFiltersAndProjects() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 12, 0);
+        saveAt(base, Transaction.TransactionType.TOP_UP, Transaction.TransactionStatus.SUCCESS);
+        saveAt(base.plusHours(1), Transaction.TransactionType.TICKET_PURCHASE, Transaction.TransactionStatus.FAILED);
+        Transaction match = saveAt(base.plusHours(2), Transaction.TransactionType.TICKET_PURCHASE,
+                Transaction.TransactionStatus.SUCCESS);
+        saveAt(base.plusHours(5), Transaction.TransactionType.TICKET_PURCHASE, Transaction.TransactionStatus.SUCCESS);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<TransactionDTO> rows = transactionRepository.findHistory(testUser.getId(),
+                Transaction.TransactionType.TICKET_PURCHASE, Transaction.TransactionStatus.SUCCESS,
+                base.plusHours(1), base.plusHours(3), null, 10);
+
+        assertEquals(1, rows.size());
+        TransactionDTO dto = rows.get(0);
+        assertEquals(match.getId(), dto.getId());
+        assertEquals(testUser.getId(), dto.getUserId());
+        assertEquals("Test User", dto.getUsername());
+        assertEquals("TICKET_PURCHASE", dto.getType());
+        assertEquals("SUCCESS", dto.getStatus());
+        // Scalar projection: nothing was loaded into the persistence context
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+}
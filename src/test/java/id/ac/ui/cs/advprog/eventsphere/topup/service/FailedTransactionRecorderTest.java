@@ -0,0 +1,132 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.service;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.Transaction;
+import id.ac.ui.cs.advprog.eventsphere.topup.repository.TransactionRepository;
+import id.ac.ui.cs.advprog.eventsphere.topup.service.FailedTransactionRecorder.Durability;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FailedTransactionRecorderTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        user = userRepository.save(User.builder()
+                .email("audit-" + UUID.randomUUID() + "@example.com")
+                .password("password")
+                .role(Role.ATTENDEE)
+                .fullName("Audit User")
+                .balance(0)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private FailedTransactionRecorder recorder(Durability durability, int capacity) {
+        return new FailedTransactionRecorder(jdbcTemplate, transactionManager, meterRegistry,
+                durability, capacity, 2, 1);
+    }
+
+    private void recordOne(FailedTransactionRecorder recorder) {
+        recorder.record(user.getId(), 5000, Transaction.TransactionType.TICKET_PURCHASE,
+                "Failed: Ticket is sold out", "7");
+    }
+
+    @Test
+    void asyncModeBuffersUntilFlush() {
+        FailedTransactionRecorder recorder = recorder(Durability.ASYNC, 10);
+        for (int i = 0; i < 5; i++) {
+            recordOne(recorder);
+        }
+
+        assertEquals(0, transactionRepository.count());
+        assertEquals(5.0, meterRegistry.get("transaction.audit.queue.depth").gauge().value());
+
+        recorder.flush();
+
+        List<Transaction> rows = transactionRepository.findByStatus(Transaction.TransactionStatus.FAILED);
+        assertEquals(5, rows.size());
+        assertEquals("Failed: Ticket is sold out", rows.get(0).getDescription());
+        assertEquals("7", rows.get(0).getEventId());
+        assertEquals(user.getId(), rows.get(0).getUser().getId());
+        assertEquals(0, recorder.depth());
+        assertEquals(5.0, meterRegistry.get("transaction.audit.flushed").counter().count());
+    }
+
+    @Test
+    void asyncModeDropsWhenBufferIsFull() {
+        FailedTransactionRecorder recorder = recorder(Durability.ASYNC, 2);
+        for (int i = 0; i < 5; i++) {
+            recordOne(recorder);
+        }
+        recorder.flush();
+
+        assertEquals(2, transactionRepository.count());
+        assertEquals(3.0, meterRegistry.get("transaction.audit.dropped").counter().count());
+    }
+
+    @Test
+    void blockingModeWritesThroughWhenBufferIsFull() {
+        FailedTransactionRecorder recorder = recorder(Durability.BLOCKING, 2);
+        for (int i = 0; i < 5; i++) {
+            recordOne(recorder);
+        }
+
+        assertEquals(3, transactionRepository.count());
+        recorder.flush();
+        assertEquals(5, transactionRepository.count());
+        assertEquals(0.0, meterRegistry.get("transaction.audit.dropped").counter().count());
+    }
+
+    @Test
+    void syncModeSurvivesCallerRollback() {
+        FailedTransactionRecorder recorder = recorder(Durability.SYNC, 2);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            recordOne(recorder);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(1, transactionRepository.count());
+    }
+}
@@ -0,0 +1,178 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.service;
+
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TopUpResponseDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.IdempotencyRecord;
+import id.ac.ui.cs.advprog.eventsphere.topup.repository.IdempotencyRecordRepository;
+import id.ac.ui.cs.advprog.eventsphere.topup.util.CurrentUserUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    private CurrentUserUtil currentUserUtil;
+    private IdempotencyService service;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        currentUserUtil = mock(CurrentUserUtil.class);
+        when(currentUserUtil.getCurrentUserEmail()).thenReturn("buyer@example.com");
+        service = new IdempotencyService(repository, currentUserUtil, 100, 1440, 60);
+        executions = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    private TopUpResponseDTO charge() {
+        executions.incrementAndGet();
+        return TopUpResponseDTO.builder()
+                .transactionId("tx-" + executions.get())
+                .userId(1L)
+                .amount(50000)
+                .newBalance(50000)
+                .timestamp(LocalDateTime.now())
+                .status("SUCCESS")
+                .message("Ticket purchased successfully")
+                .build();
+    }
+
+    @Test
+    void retryReplaysStoredResponse() {
+        TopUpResponseDTO first = service.execute("key-1", "ticket-purchase", "ticket:1", this::charge);
+        TopUpResponseDTO second = service.execute("key-1", "ticket-purchase", "ticket:1", this::charge);
+
+        assertEquals(1, executions.get());
+        assertEquals(first, second);
+        assertTrue(repository.findById("ticket-purchase:buyer@example.com:key-1").orElseThrow().isCompleted());
+    }
+
+    @Test
+    void replayFallsBackToTableAfterRestart() {
+        TopUpResponseDTO first = service.execute("key-1", "top-up", "FIXED:50000", this::charge);
+
+        IdempotencyService restarted = new IdempotencyService(repository, currentUserUtil, 100, 1440, 60);
+        TopUpResponseDTO replayed = restarted.execute("key-1", "top-up", "FIXED:50000", this::charge);
+
+        assertEquals(1, executions.get());
+        assertEquals(first.getTransactionId(), replayed.getTransactionId());
+        assertEquals(first.getNewBalance(), replayed.getNewBalance());
+    }
+
+    @Test
+    void keyReusedForDifferentRequestIsRejected() {
+        service.execute("key-1", "ticket-purchase", "ticket:1", this::charge);
+
+        assertThrows(IllegalStateException.class,
+                () -> service.execute("key-1", "ticket-purchase", "ticket:2", this::charge));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void keysAreScopedPerUser() {
+        service.execute("key-1", "ticket-purchase", "ticket:1", this::charge);
+        when(currentUserUtil.getCurrentUserEmail()).thenReturn("other@example.com");
+
+        service.execute("key-1", "ticket-purchase", "ticket:1", this::charge);
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void inFlightKeyIsReportedAsConflict() {
+        repository.saveAndFlush(IdempotencyRecord.builder()
+                .id("ticket-purchase:buyer@example.com:key-1")
+                .fingerprint("ticket:1")
+                .build());
+
+        assertThrows(IllegalStateException.class,
+                () -> service.execute("key-1", "ticket-purchase", "ticket:1", this::charge));
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void abandonedClaimIsTakenOverAfterItsLease() {
+        repository.saveAndFlush(IdempotencyRecord.builder()
+                .id("ticket-purchase:buyer@example.com:key-1")
+                .fingerprint("ticket:1")
+                .claimedAt(LocalDateTime.now().minusMinutes(2))
+                .build());
+
+        TopUpResponseDTO response = service.execute("key-1", "ticket-purchase", "ticket:1", this::charge);
+
+        assertEquals("tx-1", response.getTransactionId());
+        IdempotencyRecord stored = repository.findById("ticket-purchase:buyer@example.com:key-1").orElseThrow();
+        assertTrue(stored.isCompleted());
+        assertEquals("tx-1", stored.getTransactionId());
+    }
+
+    @Test
+    void expiredKeyIsClaimedAgainInsteadOfReplayed() {
+        repository.saveAndFlush(IdempotencyRecord.builder()
+                .id("top-up:buyer@example.com:key-1")
+                .fingerprint("FIXED:50000")
+                .completed(true)
+                .transactionId("tx-old")
+                .createdAt(LocalDateTime.now().minusDays(2))
+                .build());
+
+        TopUpResponseDTO response = service.execute("key-1", "top-up", "FIXED:50000", this::charge);
+
+        assertEquals(1, executions.get());
+        assertEquals("tx-1", response.getTransactionId());
+    }
+
+    @Test
+    void failedOperationReleasesKey() {
+        assertThrows(RuntimeException.class, () -> service.execute("key-1", "top-up", "FIXED:50000", () -> {
+            throw new RuntimeException("Insufficient balance");
+        }));
+        assertFalse(repository.existsById("top-up:buyer@example.com:key-1"));
+
+        service.execute("key-1", "top-up", "FIXED:50000", this::charge);
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void blankKeyIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.execute(" ", "top-up", "FIXED:50000", this::charge));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.execute("k".repeat(256), "top-up", "FIXED:50000", this::charge));
+    }
+
+    @Test
+    void purgeExpiredRemovesOldKeys() {
+        repository.saveAndFlush(IdempotencyRecord.builder()
+                .id("top-up:buyer@example.com:old")
+                .fingerprint("FIXED:50000")
+                .completed(true)
+                .createdAt(LocalDateTime.now().minusDays(2))
+                .build());
+        service.execute("fresh", "top-up", "FIXED:50000", this::charge);
+
+        service.purgeExpired();
+
+        assertFalse(repository.existsById("top-up:buyer@example.com:old"));
+        assertTrue(repository.existsById("top-up:buyer@example.com:fresh"));
+    }
+}
@@ -0,0 +1,162 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.service;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.BalanceLedgerEntry.EntryType;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.BalanceLedgerJdbcRepository;
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.event.model.Event;
+import id.ac.ui.cs.advprog.eventsphere.event.repository.EventRepository;
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.Ticket;
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.TicketCategory;
+import id.ac.ui.cs.advprog.eventsphere.ticket.repository.TicketRepository;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.Transaction;
+import id.ac.ui.cs.advprog.eventsphere.topup.repository.TicketPurchaseJdbcRepository;
+import id.ac.ui.cs.advprog.eventsphere.topup.repository.TicketPurchaseJdbcRepository.PurchaseSnapshot;
+import id.ac.ui.cs.advprog.eventsphere.topup.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Latency comparison between the entity-based purchase flow that TransactionServiceImpl used
+ * to run, with its debit now going to the balance ledger, and the locked read plus single
+ * prepared write in TicketPurchaseJdbcRepository. Every
+ * purchase commits its own transaction. Not part of {@code gradle test}; run it with
+ * {@code gradle benchmark} and point the datasource at PostgreSQL for numbers that include
+ * real network round trips.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({TicketPurchaseJdbcRepository.class, BalanceLedgerJdbcRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TicketPurchaseLatencyBenchmark {
+
+    private static final int WARMUP = 300;
+    private static final int ITERATIONS = 2000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BalanceLedgerJdbcRepository balanceLedger;
+
+    @Autowired
+    private TicketPurchaseJdbcRepository purchaseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void compareEntityPathWithBatchedPath() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        User buyer = userRepository.save(User.builder()
+                .email("bench-" + UUID.randomUUID() + "@example.com")
+                .password("password")
+                .role(Role.ATTENDEE)
+                .fullName("Bench Buyer")
+                .balance(Integer.MAX_VALUE)
+                .build());
+        Ticket ticket = createTicket(buyer);
+        String email = buyer.getEmail();
+        Long userId = buyer.getId();
+        Long ticketId = ticket.getId();
+
+        Runnable entityPath = () -> tx.executeWithoutResult(status -> {
+            User user = userRepository.findByEmail(email).orElseThrow();
+            Ticket info = ticketRepository.findById(ticketId).orElseThrow();
+            int price = (int) info.getPrice();
+            ticketRepository.tryPurchase(ticketId);
+            Ticket purchased = ticketRepository.findById(ticketId).orElseThrow();
+            user = userRepository.findById(user.getId()).orElseThrow();
+            Transaction saved = transactionRepository.save(Transaction.builder()
+                    .user(user)
+                    .amount(price)
+                    .timestamp(LocalDateTime.now())
+                    .type(Transaction.TransactionType.TICKET_PURCHASE)
+                    .status(Transaction.TransactionStatus.SUCCESS)
+                    .description("Purchase ticket: " + purchased.getName())
+                    .eventId(String.valueOf(purchased.getEvent().getId()))
+                    .build());
+            balanceLedger.appendDebit(user.getId(), saved.getId(), price, EntryType.TICKET_PURCHASE, saved.getTimestamp());
+        });
+
+        Runnable batchedPath = () -> tx.executeWithoutResult(status -> {
+            PurchaseSnapshot snapshot = purchaseRepository.lockForPurchase(userId, ticketId).orElseThrow();
+            purchaseRepository.applyPurchase(snapshot, ticketId, UUID.randomUUID().toString(), LocalDateTime.now());
+        });
+
+        long[] entity = measure(entityPath);
+        long[] batched = measure(batchedPath);
+
+        report("entity path ", entity);
+        report("batched path", batched);
+
+        Ticket after = ticketRepository.findById(ticketId).orElseThrow();
+        assertEquals(2 * (WARMUP + ITERATIONS), after.getSold());
+    }
+
+    private Ticket createTicket(User organizer) {
+        Event event = new Event();
+        event.setTitle("Benchmark Event");
+        event.setEventDate(LocalDateTime.now().plusDays(3));
+        event.setLocation("Jakarta");
+        event.setPrice(BigDecimal.ONE);
+        event.setOrganizer(organizer);
+        event = eventRepository.save(event);
+
+        Ticket ticket = new Ticket();
+        ticket.setName("Benchmark Ticket");
+        ticket.setCategory(TicketCategory.REGULAR);
+        ticket.setPrice(1);
+        ticket.setQuota(10 * (WARMUP + ITERATIONS));
+        ticket.setEvent(event);
+        return ticketRepository.save(ticket);
+    }
+
+    private long[] measure(Runnable purchase) {
+        for (int i = 0; i < WARMUP; i++) {
+            purchase.run();
+        }
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            purchase.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private void report(String label, long[] sorted) {
+        System.out.printf("%s  p50=%dus  p95=%dus  p99=%dus  max=%dus%n", label,
+                percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                sorted[sorted.length - 1] / 1_000);
+    }
+
+    private long percentile(long[] sorted, int p) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * p / 100)] / 1_000;
+    }
+}
@@ -0,0 +1,238 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.service;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.security.AuthenticatedUser;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.PurchaseQueueStatusDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TopUpResponseDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class TicketPurchaseQueueTest {
+
+    private static final String EMAIL = "buyer@example.com";
+    private static final AuthenticatedUser BUYER = buyer(1L, EMAIL);
+
+    private TransactionService transactionService;
+    private Deque<Runnable> scheduled;
+    private TaskScheduler scheduler;
+    private TicketPurchaseQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        transactionService = mock(TransactionService.class);
+        scheduled = new ArrayDeque<>();
+        scheduler = mock(TaskScheduler.class);
+        queue = new TicketPurchaseQueue(transactionService, scheduled::add, scheduler, 3, 2, 600000, 200);
+    }
+
+    private static AuthenticatedUser buyer(Long id, String email) {
+        return new AuthenticatedUser(id, email, Role.ATTENDEE, 0);
+    }
+
+    private static TopUpResponseDTO success() {
+        return TopUpResponseDTO.builder().status("SUCCESS").build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<TopUpResponseDTO> successFor(InvocationOnMock invocation) {
+        List<AuthenticatedUser> buyers = invocation.getArgument(1, List.class);
+        return buyers.stream().map(buyer -> success()).toList();
+    }
+
+    private void runScheduled() {
+        while (!scheduled.isEmpty()) {
+            scheduled.poll().run();
+        }
+    }
+
+    @Test
+    void enqueue_shouldReturnTokenWithPosition() {
+        PurchaseQueueStatusDTO first = queue.enqueue(1L, BUYER);
+        PurchaseQueueStatusDTO second = queue.enqueue(1L, BUYER);
+
+        assertNotNull(first.getToken());
+        assertEquals(TicketPurchaseQueue.QUEUED, first.getStatus());
+        assertEquals(0, first.getPosition());
+        assertEquals(1, second.getPosition());
+        assertEquals(2, queue.depth(1L));
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    void poll_shouldReportOutcomeAfterDrain() {
+        TopUpResponseDTO response = TopUpResponseDTO.builder().transactionId("tx-1").status("SUCCESS").build();
+        when(transactionService.processTicketPurchases(1L, List.of(BUYER))).thenReturn(List.of(response));
+
+        String token = queue.enqueue(1L, BUYER).getToken();
+        runScheduled();
+
+        PurchaseQueueStatusDTO status = queue.poll(token, EMAIL);
+        assertEquals(TicketPurchaseQueue.SUCCESS, status.getStatus());
+        assertEquals(response, status.getResult());
+        assertEquals(0, queue.depth(1L));
+    }
+
+    @Test
+    void poll_shouldReportFailureMessage() {
+        when(transactionService.processTicketPurchases(1L, List.of(BUYER))).thenReturn(List.of(
+                TopUpResponseDTO.builder().status("FAILED").message("Ticket is sold out").build()));
+
+        String token = queue.enqueue(1L, BUYER).getToken();
+        runScheduled();
+
+        PurchaseQueueStatusDTO status = queue.poll(token, EMAIL);
+        assertEquals(TicketPurchaseQueue.FAILED, status.getStatus());
+        assertEquals("Ticket is sold out", status.getMessage());
+        assertEquals("FAILED", status.getResult().getStatus());
+        verify(transactionService, never()).processTicketPurchase(anyLong(), any(AuthenticatedUser.class));
+    }
+
+    @Test
+    void drain_shouldRetryBuyersOneByOneWhenBatchFails() {
+        AuthenticatedUser first = buyer(2L, "a@example.com");
+        AuthenticatedUser second = buyer(3L, "b@example.com");
+        when(transactionService.processTicketPurchases(1L, List.of(first, second)))
+                .thenThrow(new IllegalStateException("deadlock detected"));
+        when(transactionService.processTicketPurchase(1L, first)).thenReturn(success());
+        when(transactionService.processTicketPurchase(1L, second)).thenThrow(new RuntimeException("User not found"));
+
+        String firstToken = queue.enqueue(1L, first).getToken();
+        String secondToken = queue.enqueue(1L, second).getToken();
+        runScheduled();
+
+        assertEquals(TicketPurchaseQueue.SUCCESS, queue.poll(firstToken, "a@example.com").getStatus());
+        PurchaseQueueStatusDTO failed = queue.poll(secondToken, "b@example.com");
+        assertEquals(TicketPurchaseQueue.FAILED, failed.getStatus());
+        assertEquals("User not found", failed.getMessage());
+    }
+
+    @Test
+    void poll_shouldHideOtherUsersTokens() {
+        String token = queue.enqueue(1L, BUYER).getToken();
+
+        assertThrows(RuntimeException.class, () -> queue.poll(token, "other@example.com"));
+        assertThrows(RuntimeException.class, () -> queue.poll("missing", EMAIL));
+    }
+
+    @Test
+    void enqueue_shouldRejectWhenLaneIsFull() {
+        queue.enqueue(1L, BUYER);
+        queue.enqueue(1L, BUYER);
+        queue.enqueue(1L, BUYER);
+
+        assertThrows(IllegalStateException.class, () -> queue.enqueue(1L, BUYER));
+        // Other tickets have their own lane
+        assertDoesNotThrow(() -> queue.enqueue(2L, BUYER));
+    }
+
+    @Test
+    void enqueue_shouldRejectInvalidTicketId() {
+        assertThrows(IllegalArgumentException.class, () -> queue.enqueue(0L, BUYER));
+        assertThrows(IllegalArgumentException.class, () -> queue.enqueue(null, BUYER));
+    }
+
+    @Test
+    void drain_shouldProcessInBatchesInFifoOrder() {
+        List<String> order = new ArrayList<>();
+        when(transactionService.processTicketPurchases(anyLong(), anyList())).thenAnswer(invocation -> {
+            List<AuthenticatedUser> buyers = invocation.getArgument(1);
+            buyers.forEach(buyer -> order.add(buyer.getEmail()));
+            return successFor(invocation);
+        });
+
+        queue.enqueue(1L, buyer(2L, "a@example.com"));
+        queue.enqueue(1L, buyer(3L, "b@example.com"));
+        queue.enqueue(1L, buyer(4L, "c@example.com"));
+
+        // Batch size is 2: the first drain handles two buyers and reschedules itself
+        scheduled.poll().run();
+        assertEquals(List.of("a@example.com", "b@example.com"), order);
+        assertEquals(1, scheduled.size());
+
+        runScheduled();
+        assertEquals(List.of("a@example.com", "b@example.com", "c@example.com"), order);
+    }
+
+    @Test
+    void drain_shouldBeRetriedOnATimerWhenTheExecutorRejectsIt() {
+        AtomicInteger rejections = new AtomicInteger(1);
+        TicketPurchaseQueue busyQueue = new TicketPurchaseQueue(transactionService, task -> {
+            if (rejections.getAndDecrement() > 0) {
+                throw new RejectedExecutionException("saturated");
+            }
+            scheduled.add(task);
+        }, scheduler, 3, 2, 600000, 200);
+        when(transactionService.processTicketPurchases(1L, List.of(BUYER))).thenReturn(List.of(success()));
+
+        Instant before = Instant.now();
+        String token = busyQueue.enqueue(1L, BUYER).getToken();
+
+        // Nobody else joins the lane; the timer alone gets the buyer processed
+        ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<Instant> at = ArgumentCaptor.forClass(Instant.class);
+        verify(scheduler).schedule(retry.capture(), at.capture());
+        assertFalse(at.getValue().isBefore(before.plusMillis(200)));
+        assertTrue(scheduled.isEmpty());
+
+        retry.getValue().run();
+        runScheduled();
+
+        assertEquals(TicketPurchaseQueue.SUCCESS, busyQueue.poll(token, EMAIL).getStatus());
+    }
+
+    @Test
+    void drain_shouldKeepSingleWriterPerTicket() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger processed = new AtomicInteger();
+        when(transactionService.processTicketPurchases(anyLong(), anyList())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.yield();
+            inFlight.decrementAndGet();
+            List<TopUpResponseDTO> results = successFor(invocation);
+            processed.addAndGet(results.size());
+            return results;
+        });
+
+        ExecutorService drainers = Executors.newFixedThreadPool(8);
+        ExecutorService buyers = Executors.newFixedThreadPool(16);
+        TicketPurchaseQueue concurrentQueue = new TicketPurchaseQueue(transactionService, drainers, scheduler, 5000, 50, 600000, 200);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                buyers.execute(() -> concurrentQueue.enqueue(1L, BUYER));
+            }
+            buyers.shutdown();
+            assertTrue(buyers.awaitTermination(10, TimeUnit.SECONDS));
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (processed.get() < 1000 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            drainers.shutdown();
+        }
+
+        assertEquals(1000, processed.get());
+        assertEquals(1, maxInFlight.get());
+    }
+}
@@ -0,0 +1,164 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionHistoryFilter;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.Transaction;
+import id.ac.ui.cs.advprog.eventsphere.topup.repository.TransactionRepository;
+import id.ac.ui.cs.advprog.eventsphere.topup.service.TransactionExportService.Format;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionExportServiceTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionExportService exportService;
+    private final LocalDateTime base = LocalDateTime.of(2025, 3, 1, 9, 0);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new TransactionExportService(dataSource, transactionManager, objectMapper, meterRegistry, 2);
+
+        User user = userRepository.save(User.builder()
+                .email("finance-" + UUID.randomUUID() + "@example.com")
+                .password("password")
+                .role(Role.ATTENDEE)
+                .fullName("Finance, Test")
+                .balance(0)
+                .build());
+        for (int i = 0; i < 5; i++) {
+            transactionRepository.save(Transaction.builder()
+                    .user(user)
+                    .amount(1000 * (i + 1))
+                    .timestamp(base.plusMinutes(i))
+                    .type(i % 2 == 0 ? Transaction.TransactionType.TOP_UP : Transaction.TransactionType.TICKET_PURCHASE)
+                    .status(Transaction.TransactionStatus.SUCCESS)
+                    .description(i == 0 ? "=SUM(A1)" : "Row \"" + i + "\"")
+                    .build());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void exportsCsvOldestFirst() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export(new TransactionHistoryFilter(), Format.CSV, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, rows);
+        assertEquals(6, lines.length);
+        assertTrue(lines[0].startsWith("id,user_id,username"));
+        assertTrue(lines[1].contains("\"Finance, Test\""));
+        assertTrue(lines[1].contains(",'=SUM(A1),"));
+        assertTrue(lines[2].contains("\"Row \"\"1\"\"\""));
+        assertEquals(5.0, meterRegistry.get("transaction.export.rows").counter().count());
+        assertEquals(0.0, meterRegistry.get("transaction.export.active").gauge().value());
+    }
+
+    @Test
+    void exportsFilteredNdjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TransactionHistoryFilter filter = TransactionHistoryFilter.builder()
+                .type("TOP_UP")
+                .from(base.plusMinutes(1))
+                .build();
+
+        exportService.export(filter, Format.NDJSON, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertEquals("TOP_UP", first.get("type").asText());
+        assertEquals(3000, first.get("amount").asInt());
+        assertEquals("Finance, Test", first.get("username").asText());
+    }
+
+    @Test
+    void gzipOutputDecompressesToCsv() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(new TransactionHistoryFilter(), Format.CSV, true, out);
+
+        byte[] plain = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes();
+        assertEquals(6, new String(plain, StandardCharsets.UTF_8).split("\n").length);
+    }
+
+    @Test
+    void rowWithoutUserIsExportedWithEmptyUserId() throws Exception {
+        new JdbcTemplate(dataSource).update(
+                "INSERT INTO transactions (id, user_id, amount, timestamp, type, status, description) " +
+                "VALUES ('orphan', NULL, 700, ?, 'TOP_UP', 'FAILED', 'No user')",
+                Timestamp.valueOf(base.plusMinutes(10)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(new TransactionHistoryFilter(), Format.NDJSON, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        JsonNode orphan = new ObjectMapper().readTree(lines[lines.length - 1]);
+        assertEquals("orphan", orphan.get("id").asText());
+        assertTrue(orphan.get("userId").isNull());
+        JsonNode owned = new ObjectMapper().readTree(lines[0]);
+        assertFalse(owned.get("userId").isNull());
+    }
+
+    @Test
+    void csvLineHandlesMissingValues() {
+        String line = TransactionExportService.toCsvLine(TransactionDTO.builder().id("x").amount(5).build());
+        assertEquals("x,,,5,,,,,\n", line);
+    }
+
+    @Test
+    void unknownFormatIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Format.parse("xml"));
+        assertEquals(Format.NDJSON, Format.parse("ndjson"));
+    }
+}
@@ -0,0 +1,159 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.service;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
+import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.Transaction;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.TransactionRollup;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.TransactionRollup.Dimension;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.TransactionRollup.Granularity;
+import id.ac.ui.cs.advprog.eventsphere.topup.repository.TransactionRepository;
+import id.ac.ui.cs.advprog.eventsphere.topup.repository.TransactionRollupRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionRollupAggregatorTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionRollupRepository rollupRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private User user;
+    private final LocalDateTime day = LocalDateTime.of(2025, 5, 10, 0, 0);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        user = userRepository.save(User.builder()
+                .email("rollup-" + UUID.randomUUID() + "@example.com")
+                .password("password")
+                .role(Role.ATTENDEE)
+                .balance(0)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        rollupRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM transaction_rollup_checkpoints");
+        transactionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private TransactionRollupAggregator aggregator(int batchSize, long lagSeconds) {
+        return new TransactionRollupAggregator(jdbcTemplate, transactionManager, meterRegistry, batchSize, lagSeconds);
+    }
+
+    private void save(Transaction.TransactionType type, Transaction.TransactionStatus status, int amount,
+                      LocalDateTime timestamp, String eventId) {
+        transactionRepository.save(Transaction.builder()
+                .user(user)
+                .amount(amount)
+                .timestamp(timestamp)
+                .type(type)
+                .status(status)
+                .description("test")
+                .eventId(eventId)
+                .build());
+    }
+
+    private List<TransactionRollup> buckets(Dimension dimension, String key, Granularity granularity) {
+        return rollupRepository.findBuckets(dimension, key, granularity, null, day.minusDays(1), day.plusDays(2));
+    }
+
+    @Test
+    void aggregatesSuccessfulTransactionsIntoHourAndDayBuckets() {
+        save(Transaction.TransactionType.TICKET_PURCHASE, Transaction.TransactionStatus.SUCCESS, 300, day.plusHours(9), "7");
+        save(Transaction.TransactionType.TICKET_PURCHASE, Transaction.TransactionStatus.SUCCESS, 300, day.plusHours(9).plusMinutes(30), "7");
+        save(Transaction.TransactionType.TICKET_PURCHASE, Transaction.TransactionStatus.SUCCESS, 500, day.plusHours(14), "8");
+        save(Transaction.TransactionType.TOP_UP, Transaction.TransactionStatus.SUCCESS, 1000, day.plusHours(8), null);
+        save(Transaction.TransactionType.TICKET_PURCHASE, Transaction.TransactionStatus.FAILED, 300, day.plusHours(9), "7");
+
+        assertEquals(4, aggregator(2, 0).aggregate());
+
+        List<TransactionRollup> eventDays = buckets(Dimension.EVENT, "7", Granularity.DAY);
+        assertEquals(1, eventDays.size());
+        assertEquals(2, eventDays.get(0).getTransactionCount());
+        assertEquals(600, eventDays.get(0).getAmountTotal());
+        assertEquals(day, eventDays.get(0).getBucketStart());
+
+        List<TransactionRollup> eventHours = buckets(Dimension.EVENT, "7", Granularity.HOUR);
+        assertEquals(1, eventHours.size());
+        assertEquals(day.plusHours(9), eventHours.get(0).getBucketStart());
+
+        List<TransactionRollup> userDays = buckets(Dimension.USER, String.valueOf(user.getId()), Granularity.DAY);
+        assertEquals(2, userDays.size());
+        assertEquals(1000, userDays.stream()
+                .filter(r -> r.getType() == Transaction.TransactionType.TOP_UP)
+                .findFirst().orElseThrow().getAmountTotal());
+
+        List<TransactionRollup> platform = buckets(Dimension.ALL, TransactionRollup.ALL_KEY, Granularity.DAY);
+        assertEquals(2100, platform.stream().mapToLong(TransactionRollup::getAmountTotal).sum());
+        assertEquals(4.0, meterRegistry.get("transaction.rollup.aggregated").counter().count());
+    }
+
+    @Test
+    void laterRunsOnlyAddNewTransactions() {
+        TransactionRollupAggregator aggregator = aggregator(100, 0);
+        save(Transaction.TransactionType.TICKET_PURCHASE, Transaction.TransactionStatus.SUCCESS, 300, day.plusHours(9), "7");
+        aggregator.aggregate();
+
+        assertEquals(0, aggregator.aggregate());
+        save(Transaction.TransactionType.TICKET_PURCHASE, Transaction.TransactionStatus.SUCCESS, 200, day.plusHours(10), "7");
+        assertEquals(1, aggregator.aggregate());
+
+        TransactionRollup eventDay = buckets(Dimension.EVENT, "7", Granularity.DAY).get(0);
+        assertEquals(2, eventDay.getTransactionCount());
+        assertEquals(500, eventDay.getAmountTotal());
+    }
+
+    @Test
+    void recentTransactionsWaitForTheLag() {
+        save(Transaction.TransactionType.TOP_UP, Transaction.TransactionStatus.SUCCESS, 100, LocalDateTime.now(), null);
+
+        assertEquals(0, aggregator(100, 60).aggregate());
+        assertEquals(1, aggregator(100, 0).aggregate());
+    }
+
+    @Test
+    void rebuildReplaysFromScratch() {
+        TransactionRollupAggregator aggregator = aggregator(100, 0);
+        save(Transaction.TransactionType.TICKET_PURCHASE, Transaction.TransactionStatus.SUCCESS, 300, day.plusHours(9), "7");
+        aggregator.aggregate();
+        jdbcTemplate.update("UPDATE transaction_rollups SET amount_total = 1");
+
+        assertEquals(1, aggregator.rebuild());
+
+        assertEquals(300, buckets(Dimension.EVENT, "7", Granularity.DAY).get(0).getAmountTotal());
+    }
+}
@@ -3,23 +3,36 @@ package id.ac.ui.cs.advprog.eventsphere.topup.service;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
 import id.ac.ui.cs.advprog.eventsphere.authentication.model.User;
 import id.ac.ui.cs.advprog.eventsphere.authentication.repository.UserRepository;
+import id.ac.ui.cs.advprog.eventsphere.authentication.security.AuthenticatedUser;
+import id.ac.ui.cs.advprog.eventsphere.authentication.service.UserBalanceService;
 import id.ac.ui.cs.advprog.eventsphere.ticket.dto.TicketResponse;
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.Ticket;
+import id.ac.ui.cs.advprog.eventsphere.ticket.model.TicketReservation;
+import id.ac.ui.cs.advprog.eventsphere.ticket.service.TicketReservationService;
 import id.ac.ui.cs.advprog.eventsphere.ticket.service.TicketService;
 import id.ac.ui.cs.advprog.eventsphere.topup.dto.TopUpResponseDTO;
 import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionHistoryFilter;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionPageDTO;
 import id.ac.ui.cs.advprog.eventsphere.topup.model.Transaction;
+import id.ac.ui.cs.advprog.eventsphere.topup.repository.TicketPurchaseJdbcRepository;
+import id.ac.ui.cs.advprog.eventsphere.topup.repository.TicketPurchaseJdbcRepository.PurchaseSnapshot;
 import id.ac.ui.cs.advprog.eventsphere.topup.repository.TransactionRepository;
 import id.ac.ui.cs.advprog.eventsphere.topup.util.CurrentUserUtil;
+import id.ac.ui.cs.advprog.eventsphere.topup.util.TransactionCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
@@ -42,6 +55,18 @@ class TransactionServiceImplTest {
     @Mock
     private TicketService ticketService;
 
+    @Mock
+    private TicketReservationService reservationService;
+
+    @Mock
+    private TicketPurchaseJdbcRepository purchaseRepository;
+
+    @Mock
+    private FailedTransactionRecorder failedTransactionRecorder;
+
+    @Mock
+    private UserBalanceService userBalanceService;
+
     @InjectMocks
     private TransactionServiceImpl transactionService;
 
@@ -108,28 +133,215 @@ class TransactionServiceImplTest {
 
     @Test
     void processTicketPurchaseById_SuccessfulPurchase_ReturnsTopUpResponseDTO() {
-        when(currentUserUtil.getCurrentUserEmail()).thenReturn(TEST_EMAIL);
-        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.of(testUser));
-        when(ticketService.getTicketById(TICKET_ID)).thenReturn(testTicket);
-        when(ticketService.purchaseTicket(TICKET_ID)).thenReturn(testTicket);
-        when(userRepository.save(testUser)).thenReturn(testUser);
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(testTransaction);
+        when(currentUserUtil.getCurrentUser()).thenReturn(principal(testUser));
+        when(ticketService.tryAdmitPurchase(TICKET_ID)).thenReturn(true);
+        when(purchaseRepository.lockForPurchase(USER_ID, TICKET_ID)).thenReturn(Optional.of(snapshot(100000, 0, 10)));
+        when(purchaseRepository.applyPurchase(any(), eq(TICKET_ID), anyString(), any())).thenReturn(true);
 
         TopUpResponseDTO result = transactionService.processTicketPurchaseById(TICKET_ID);
 
         assertNotNull(result);
-        assertEquals(TRANSACTION_ID, result.getTransactionId());
+        assertNotNull(result.getTransactionId());
         assertEquals(USER_ID, result.getUserId());
         assertEquals(50000, result.getAmount());
-        assertEquals(50000, result.getNewBalance()); 
+        assertEquals(50000, result.getNewBalance());
+        assertEquals("SUCCESS", result.getStatus());
+
+        verify(currentUserUtil).getCurrentUser();
+        verify(purchaseRepository).applyPurchase(any(), eq(TICKET_ID), eq(result.getTransactionId()), eq(result.getTimestamp()));
+        verify(ticketService).purchaseApplied(TICKET_ID, 1);
+        verify(ticketService, never()).purchaseRejected(any(), anyBoolean());
+        verifyNoInteractions(userRepository, transactionRepository);
+    }
+
+    @Test
+    void processTicketPurchase_WithExplicitBuyer_SkipsSecurityContext() {
+        when(ticketService.tryAdmitPurchase(TICKET_ID)).thenReturn(true);
+        when(purchaseRepository.lockForPurchase(USER_ID, TICKET_ID)).thenReturn(Optional.of(snapshot(100000, 0, 10)));
+        when(purchaseRepository.applyPurchase(any(), eq(TICKET_ID), anyString(), any())).thenReturn(true);
+
+        TopUpResponseDTO result = transactionService.processTicketPurchase(TICKET_ID, principal(testUser));
+
         assertEquals("SUCCESS", result.getStatus());
+        verifyNoInteractions(currentUserUtil);
+    }
+
+    @Test
+    void processTicketPurchases_SettlesRunInOrderWithOneApply() {
+        AuthenticatedUser ghost = new AuthenticatedUser(99L, "ghost@example.com", Role.ATTENDEE, 0);
+        when(ticketService.tryAdmitPurchase(TICKET_ID)).thenReturn(true);
+        when(purchaseRepository.lockTicket(TICKET_ID)).thenReturn(Optional.of(ticketSnapshot(0, 10)));
+        when(purchaseRepository.lockBalances(List.of(USER_ID, OTHER_USER_ID, 99L)))
+                .thenReturn(new HashMap<>(Map.of(USER_ID, 100000, OTHER_USER_ID, 30000)));
+        when(purchaseRepository.applyPurchases(eq(TICKET_ID), any(), anyList(), any())).thenReturn(true);
+
+        List<TopUpResponseDTO> results = transactionService.processTicketPurchases(TICKET_ID,
+                List.of(principal(testUser), principal(otherUser), principal(testUser), ghost));
+
+        assertEquals(List.of("SUCCESS", "FAILED", "SUCCESS", "FAILED"),
+                results.stream().map(TopUpResponseDTO::getStatus).toList());
+        assertEquals(50000, results.get(0).getNewBalance());
+        assertEquals(0, results.get(2).getNewBalance());
+        assertTrue(results.get(1).getMessage().contains("Insufficient balance"));
+        assertEquals("User not found", results.get(3).getMessage());
+
+        verify(purchaseRepository).applyPurchases(eq(TICKET_ID), any(), eq(List.of(
+                new TicketPurchaseJdbcRepository.QueuedPurchase(USER_ID, results.get(0).getTransactionId()),
+                new TicketPurchaseJdbcRepository.QueuedPurchase(USER_ID, results.get(2).getTransactionId()))),
+                eq(results.get(0).getTimestamp()));
+        verify(ticketService, times(2)).purchaseRejected(TICKET_ID, false);
+        verify(ticketService).purchaseApplied(TICKET_ID, 2);
+        verify(failedTransactionRecorder).record(eq(OTHER_USER_ID), eq(50000),
+                eq(Transaction.TransactionType.TICKET_PURCHASE), eq("Failed: Insufficient balance"), eq("1"));
+    }
+
+    @Test
+    void processTicketPurchases_StockRunsOutMidRun() {
+        when(ticketService.tryAdmitPurchase(TICKET_ID)).thenReturn(true);
+        when(purchaseRepository.lockTicket(TICKET_ID)).thenReturn(Optional.of(ticketSnapshot(0, 1)));
+        when(purchaseRepository.lockBalances(List.of(USER_ID, OTHER_USER_ID)))
+                .thenReturn(new HashMap<>(Map.of(USER_ID, 100000, OTHER_USER_ID, 100000)));
+        when(purchaseRepository.applyPurchases(eq(TICKET_ID), any(), anyList(), any())).thenReturn(true);
+
+        List<TopUpResponseDTO> results = transactionService.processTicketPurchases(TICKET_ID,
+                List.of(principal(testUser), principal(otherUser)));
+
+        assertEquals("SUCCESS", results.get(0).getStatus());
+        assertEquals("Ticket is sold out", results.get(1).getMessage());
+        verify(ticketService).purchaseRejected(TICKET_ID, true);
+    }
+
+    @Test
+    void processTicketPurchases_SoldOutInMemory_SkipsDatabase() {
+        when(ticketService.tryAdmitPurchase(TICKET_ID)).thenReturn(false);
+
+        List<TopUpResponseDTO> results = transactionService.processTicketPurchases(TICKET_ID,
+                List.of(principal(testUser), principal(otherUser)));
+
+        assertTrue(results.stream().allMatch(result -> "Ticket is sold out".equals(result.getMessage())));
+        verifyNoInteractions(purchaseRepository);
+        verify(failedTransactionRecorder, times(2)).record(any(), eq(0), any(), eq("Failed: Ticket is sold out"), eq("N/A"));
+    }
+
+    @Test
+    void processTicketPurchases_NotApplied_ReleasesPermitsWithoutAuditRows() {
+        when(ticketService.tryAdmitPurchase(TICKET_ID)).thenReturn(true);
+        when(purchaseRepository.lockTicket(TICKET_ID)).thenReturn(Optional.of(ticketSnapshot(0, 10)));
+        when(purchaseRepository.lockBalances(List.of(USER_ID, OTHER_USER_ID)))
+                .thenReturn(new HashMap<>(Map.of(USER_ID, 100000, OTHER_USER_ID, 100)));
+        when(purchaseRepository.applyPurchases(eq(TICKET_ID), any(), anyList(), any())).thenReturn(false);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                transactionService.processTicketPurchases(TICKET_ID, List.of(principal(testUser), principal(otherUser))));
+
+        assertTrue(exception.getMessage().contains("Failed to purchase tickets"));
+        // One permit for the rejected buyer straight away, one for the buyer whose purchase rolled back
+        verify(ticketService, times(2)).purchaseRejected(TICKET_ID, false);
+        verifyNoInteractions(failedTransactionRecorder);
+    }
+
+    @Test
+    void processTicketPurchases_DebitFailsAfterStockUpdate_ReleasesEachPermitOnce() {
+        when(ticketService.tryAdmitPurchase(TICKET_ID)).thenReturn(true);
+        when(purchaseRepository.lockTicket(TICKET_ID)).thenReturn(Optional.of(ticketSnapshot(0, 10)));
+        when(purchaseRepository.lockBalances(List.of(USER_ID, OTHER_USER_ID)))
+                .thenReturn(new HashMap<>(Map.of(USER_ID, 100000, OTHER_USER_ID, 100000)));
+        // The stock update ran, then the ledger insert failed
+        when(purchaseRepository.applyPurchases(eq(TICKET_ID), any(), anyList(), any()))
+                .thenThrow(new DataIntegrityViolationException("balance_ledger insert failed"));
+
+        assertThrows(DataIntegrityViolationException.class, () ->
+                transactionService.processTicketPurchases(TICKET_ID, List.of(principal(testUser), principal(otherUser))));
+
+        // Both permits go back here; none is also registered for release on rollback
+        verify(ticketService, times(2)).purchaseRejected(TICKET_ID, false);
+        verify(ticketService, never()).purchaseApplied(any(), anyInt());
+    }
+
+    private static TicketPurchaseJdbcRepository.TicketSnapshot ticketSnapshot(int sold, int quota) {
+        return new TicketPurchaseJdbcRepository.TicketSnapshot("Test Event Ticket", 50000, sold, quota, 1L);
+    }
+
+    private static AuthenticatedUser principal(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole(), 0);
+    }
+
+    private PurchaseSnapshot snapshot(int balance, int sold, int quota) {
+        return new PurchaseSnapshot(USER_ID, balance, 50000, sold, quota, 1L);
+    }
+
+    private TicketReservation heldReservation() {
+        Ticket ticket = new Ticket();
+        ticket.setId(TICKET_ID);
+        return TicketReservation.builder().id(9L).ticket(ticket).build();
+    }
+
+    @Test
+    void confirmReservation_Success_DeductsBalanceOnly() {
+        when(currentUserUtil.getCurrentUserId()).thenReturn(USER_ID);
+        when(userRepository.getReferenceById(USER_ID)).thenReturn(testUser);
+        when(userBalanceService.getBalance(testUser)).thenReturn(testUser.getBalance());
+        when(reservationService.getActiveHold(9L, USER_ID)).thenReturn(heldReservation());
+        when(ticketService.getTicketById(TICKET_ID)).thenReturn(testTicket);
+        when(reservationService.confirmHold(9L)).thenReturn(true);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(testTransaction);
+        when(userBalanceService.deductBalance(testUser, 50000, TRANSACTION_ID)).thenReturn(true);
+
+        TopUpResponseDTO result = transactionService.confirmReservation(9L);
+
+        assertEquals("SUCCESS", result.getStatus());
+        assertEquals(50000, result.getNewBalance());
+        verify(ticketService, never()).purchaseTicket(any());
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void confirmReservation_ConcurrentDebitWins_Throws() {
+        when(currentUserUtil.getCurrentUserId()).thenReturn(USER_ID);
+        when(userRepository.getReferenceById(USER_ID)).thenReturn(testUser);
+        when(userBalanceService.getBalance(testUser)).thenReturn(testUser.getBalance());
+        when(reservationService.getActiveHold(9L, USER_ID)).thenReturn(heldReservation());
+        when(ticketService.getTicketById(TICKET_ID)).thenReturn(testTicket);
+        when(reservationService.confirmHold(9L)).thenReturn(true);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(testTransaction);
+        when(userBalanceService.deductBalance(testUser, 50000, TRANSACTION_ID)).thenReturn(false);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                transactionService.confirmReservation(9L));
+
+        assertEquals("Failed to deduct balance", exception.getMessage());
+    }
+
+    @Test
+    void confirmReservation_InsufficientBalance_KeepsHold() {
+        when(currentUserUtil.getCurrentUserId()).thenReturn(USER_ID);
+        when(userRepository.getReferenceById(USER_ID)).thenReturn(testUser);
+        when(userBalanceService.getBalance(testUser)).thenReturn(1000);
+        when(reservationService.getActiveHold(9L, USER_ID)).thenReturn(heldReservation());
+        when(ticketService.getTicketById(TICKET_ID)).thenReturn(testTicket);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                transactionService.confirmReservation(9L));
+
+        assertTrue(exception.getMessage().startsWith("Insufficient balance"));
+        verify(reservationService, never()).confirmHold(any());
+        verify(failedTransactionRecorder).record(eq(USER_ID), eq(50000), eq(Transaction.TransactionType.TICKET_PURCHASE),
+                startsWith("Failed: Insufficient balance"), eq("1"));
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void confirmReservation_ExpiredWhileConfirming_Throws() {
+        when(currentUserUtil.getCurrentUserId()).thenReturn(USER_ID);
+        when(userRepository.getReferenceById(USER_ID)).thenReturn(testUser);
+        when(userBalanceService.getBalance(testUser)).thenReturn(testUser.getBalance());
+        when(reservationService.getActiveHold(9L, USER_ID)).thenReturn(heldReservation());
+        when(ticketService.getTicketById(TICKET_ID)).thenReturn(testTicket);
+        when(reservationService.confirmHold(9L)).thenReturn(false);
 
-        verify(currentUserUtil).getCurrentUserEmail();
-        verify(userRepository).findByEmail(TEST_EMAIL);
-        verify(ticketService).getTicketById(TICKET_ID);
-        verify(ticketService).purchaseTicket(TICKET_ID);
-        verify(userRepository).save(testUser);
-        verify(transactionRepository).save(any(Transaction.class));
+        assertThrows(IllegalStateException.class, () -> transactionService.confirmReservation(9L));
+        verify(userBalanceService, never()).deductBalance(any(), anyInt(), any());
+        assertEquals(100000, testUser.getBalance());
     }
 
     @Test
@@ -149,70 +361,83 @@ class TransactionServiceImplTest {
 
     @Test
     void processTicketPurchaseById_UserNotFound_ThrowsException() {
-        when(currentUserUtil.getCurrentUserEmail()).thenReturn(TEST_EMAIL);
-        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.empty());
+        when(currentUserUtil.getCurrentUser()).thenReturn(principal(testUser));
+        when(ticketService.tryAdmitPurchase(TICKET_ID)).thenReturn(true);
+        when(purchaseRepository.lockForPurchase(USER_ID, TICKET_ID)).thenReturn(Optional.empty());
+        when(purchaseRepository.userExists(USER_ID)).thenReturn(false);
 
         RuntimeException exception = assertThrows(RuntimeException.class, () ->
                 transactionService.processTicketPurchaseById(TICKET_ID));
         assertEquals("User not found", exception.getMessage());
 
-        verify(currentUserUtil).getCurrentUserEmail();
-        verify(userRepository).findByEmail(TEST_EMAIL);
-        verifyNoInteractions(ticketService);
+        verify(ticketService).purchaseRejected(TICKET_ID, false);
+        verify(purchaseRepository, never()).applyPurchase(any(), any(), any(), any());
     }
 
     @Test
     void processTicketPurchaseById_TicketNotFound_ThrowsException() {
-        when(currentUserUtil.getCurrentUserEmail()).thenReturn(TEST_EMAIL);
-        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.of(testUser));
-        when(ticketService.getTicketById(TICKET_ID)).thenThrow(new RuntimeException("Ticket not found"));
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(testTransaction);
+        when(currentUserUtil.getCurrentUser()).thenReturn(principal(testUser));
+        when(ticketService.tryAdmitPurchase(TICKET_ID)).thenThrow(new RuntimeException("Ticket tidak ditemukan"));
 
         RuntimeException exception = assertThrows(RuntimeException.class, () ->
                 transactionService.processTicketPurchaseById(TICKET_ID));
         assertTrue(exception.getMessage().contains("Ticket not found"));
 
-        verify(currentUserUtil).getCurrentUserEmail();
-        verify(userRepository).findByEmail(TEST_EMAIL);
-        verify(ticketService).getTicketById(TICKET_ID);
-        verify(transactionRepository).save(any(Transaction.class)); 
-        verifyNoMoreInteractions(ticketService);
+        verify(failedTransactionRecorder).record(eq(USER_ID), anyInt(), eq(Transaction.TransactionType.TICKET_PURCHASE), anyString(), anyString());
+        verify(transactionRepository, never()).save(any());
+        verifyNoInteractions(userRepository);
+        verifyNoInteractions(purchaseRepository);
     }
 
     @Test
-    void processTicketPurchaseById_SoldOutTicket_ThrowsException() {
-        TicketResponse soldOutTicket = new TicketResponse.Builder()
-                .id(TICKET_ID)
-                .name("Sold Out Ticket")
-                .price(50000.0)
-                .quota(0)
-                .soldOut(true)
-                .eventId(1L)
-                .build();
+    void processTicketPurchaseById_TicketRowMissing_ThrowsException() {
+        when(currentUserUtil.getCurrentUser()).thenReturn(principal(testUser));
+        when(ticketService.tryAdmitPurchase(TICKET_ID)).thenReturn(true);
+        when(purchaseRepository.lockForPurchase(USER_ID, TICKET_ID)).thenReturn(Optional.empty());
+        when(purchaseRepository.userExists(USER_ID)).thenReturn(true);
 
-        when(currentUserUtil.getCurrentUserEmail()).thenReturn(TEST_EMAIL);
-        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.of(testUser));
-        when(ticketService.getTicketById(TICKET_ID)).thenReturn(soldOutTicket);
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(testTransaction);
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                transactionService.processTicketPurchaseById(TICKET_ID));
+        assertTrue(exception.getMessage().contains("Ticket not found"));
+        verify(ticketService).purchaseRejected(TICKET_ID, false);
+    }
+
+    @Test
+    void processTicketPurchaseById_SoldOutInMemory_SkipsDatabase() {
+        when(currentUserUtil.getCurrentUser()).thenReturn(principal(testUser));
+        when(ticketService.tryAdmitPurchase(TICKET_ID)).thenReturn(false);
 
         RuntimeException exception = assertThrows(RuntimeException.class, () ->
                 transactionService.processTicketPurchaseById(TICKET_ID));
         assertEquals("Ticket is sold out", exception.getMessage());
 
-        verify(currentUserUtil).getCurrentUserEmail();
-        verify(userRepository).findByEmail(TEST_EMAIL);
-        verify(ticketService).getTicketById(TICKET_ID);
-        verify(transactionRepository).save(any(Transaction.class)); 
-        verify(ticketService, never()).purchaseTicket(any()); 
+        verify(failedTransactionRecorder).record(eq(USER_ID), anyInt(), eq(Transaction.TransactionType.TICKET_PURCHASE), anyString(), anyString());
+        verify(transactionRepository, never()).save(any());
+        verifyNoInteractions(userRepository);
+        verifyNoInteractions(purchaseRepository);
+    }
+
+    @Test
+    void processTicketPurchaseById_SoldOutTicket_ThrowsException() {
+        when(currentUserUtil.getCurrentUser()).thenReturn(principal(testUser));
+        when(ticketService.tryAdmitPurchase(TICKET_ID)).thenReturn(true);
+        when(purchaseRepository.lockForPurchase(USER_ID, TICKET_ID)).thenReturn(Optional.of(snapshot(100000, 5, 5)));
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                transactionService.processTicketPurchaseById(TICKET_ID));
+        assertEquals("Ticket is sold out", exception.getMessage());
+
+        verify(failedTransactionRecorder).record(eq(USER_ID), anyInt(), eq(Transaction.TransactionType.TICKET_PURCHASE), anyString(), anyString());
+        verify(transactionRepository, never()).save(any());
+        verify(ticketService).purchaseRejected(TICKET_ID, true);
+        verify(purchaseRepository, never()).applyPurchase(any(), any(), any(), any());
     }
 
     @Test
     void processTicketPurchaseById_InsufficientBalance_ThrowsException() {
-        testUser.setBalance(10000); 
-        when(currentUserUtil.getCurrentUserEmail()).thenReturn(TEST_EMAIL);
-        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.of(testUser));
-        when(ticketService.getTicketById(TICKET_ID)).thenReturn(testTicket);
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(testTransaction);
+        when(currentUserUtil.getCurrentUser()).thenReturn(principal(testUser));
+        when(ticketService.tryAdmitPurchase(TICKET_ID)).thenReturn(true);
+        when(purchaseRepository.lockForPurchase(USER_ID, TICKET_ID)).thenReturn(Optional.of(snapshot(10000, 0, 10)));
 
         RuntimeException exception = assertThrows(RuntimeException.class, () ->
                 transactionService.processTicketPurchaseById(TICKET_ID));
@@ -220,73 +445,60 @@ class TransactionServiceImplTest {
         assertTrue(exception.getMessage().contains("Required: 50000"));
         assertTrue(exception.getMessage().contains("Available: 10000"));
 
-        verify(currentUserUtil).getCurrentUserEmail();
-        verify(userRepository).findByEmail(TEST_EMAIL);
-        verify(ticketService).getTicketById(TICKET_ID);
-        verify(transactionRepository).save(any(Transaction.class));
-        verify(ticketService, never()).purchaseTicket(any()); 
+        verify(failedTransactionRecorder).record(eq(USER_ID), anyInt(), eq(Transaction.TransactionType.TICKET_PURCHASE), anyString(), anyString());
+        verify(transactionRepository, never()).save(any());
+        verify(ticketService).purchaseRejected(TICKET_ID, false);
+        verify(purchaseRepository, never()).applyPurchase(any(), any(), any(), any());
     }
 
     @Test
-    void processTicketPurchaseById_PurchaseTicketFails_ThrowsException() {
-        when(currentUserUtil.getCurrentUserEmail()).thenReturn(TEST_EMAIL);
-        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.of(testUser));
-        when(ticketService.getTicketById(TICKET_ID)).thenReturn(testTicket);
-        when(ticketService.purchaseTicket(TICKET_ID)).thenThrow(new RuntimeException("Purchase failed"));
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(testTransaction);
+    void processTicketPurchaseById_BatchNotApplied_ThrowsException() {
+        when(currentUserUtil.getCurrentUser()).thenReturn(principal(testUser));
+        when(ticketService.tryAdmitPurchase(TICKET_ID)).thenReturn(true);
+        when(purchaseRepository.lockForPurchase(USER_ID, TICKET_ID)).thenReturn(Optional.of(snapshot(100000, 0, 10)));
+        when(purchaseRepository.applyPurchase(any(), eq(TICKET_ID), anyString(), any())).thenReturn(false);
 
         RuntimeException exception = assertThrows(RuntimeException.class, () ->
                 transactionService.processTicketPurchaseById(TICKET_ID));
         assertTrue(exception.getMessage().contains("Failed to purchase ticket"));
-
-        verify(currentUserUtil).getCurrentUserEmail();
-        verify(userRepository).findByEmail(TEST_EMAIL);
-        verify(ticketService).getTicketById(TICKET_ID);
-        verify(ticketService).purchaseTicket(TICKET_ID);
-        verify(transactionRepository).save(any(Transaction.class)); 
-        verify(userRepository, never()).save(testUser); 
+        verify(ticketService).purchaseRejected(TICKET_ID, false);
     }
 
     @Test
     void processTicketPurchaseById_UnexpectedErrorDuringProcessing_ThrowsException() {
-        when(currentUserUtil.getCurrentUserEmail()).thenReturn(TEST_EMAIL);
-        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.of(testUser));
-        when(ticketService.getTicketById(TICKET_ID)).thenReturn(testTicket);
-        when(ticketService.purchaseTicket(TICKET_ID)).thenReturn(testTicket);
-        when(userRepository.save(testUser)).thenThrow(new RuntimeException("Database error"));
+        when(currentUserUtil.getCurrentUser()).thenReturn(principal(testUser));
+        when(ticketService.tryAdmitPurchase(TICKET_ID)).thenReturn(true);
+        when(purchaseRepository.lockForPurchase(USER_ID, TICKET_ID)).thenReturn(Optional.of(snapshot(100000, 0, 10)));
+        when(purchaseRepository.applyPurchase(any(), eq(TICKET_ID), anyString(), any()))
+                .thenThrow(new RuntimeException("Database error"));
 
         RuntimeException exception = assertThrows(RuntimeException.class, () ->
                 transactionService.processTicketPurchaseById(TICKET_ID));
         assertEquals("Database error", exception.getMessage());
-
-        verify(currentUserUtil).getCurrentUserEmail();
-        verify(userRepository).findByEmail(TEST_EMAIL);
-        verify(ticketService).getTicketById(TICKET_ID);
-        verify(ticketService).purchaseTicket(TICKET_ID);
-        verify(userRepository).save(testUser);
+        verify(ticketService).purchaseRejected(TICKET_ID, false);
+        verify(ticketService, never()).purchaseApplied(any(), anyInt());
     }
 
     @Test
     void processTicketPurchaseByIdAsync_SuccessfulPurchase_ReturnsCompletableFuture() throws Exception {
-        when(currentUserUtil.getCurrentUserEmail()).thenReturn(TEST_EMAIL);
-        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.of(testUser));
-        when(ticketService.getTicketById(TICKET_ID)).thenReturn(testTicket);
-        when(ticketService.purchaseTicket(TICKET_ID)).thenReturn(testTicket);
-        when(userRepository.save(testUser)).thenReturn(testUser);
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(testTransaction);
+        when(currentUserUtil.getCurrentUser()).thenReturn(principal(testUser));
+        when(ticketService.tryAdmitPurchase(TICKET_ID)).thenReturn(true);
+        when(purchaseRepository.lockForPurchase(USER_ID, TICKET_ID)).thenReturn(Optional.of(snapshot(100000, 0, 10)));
+        when(purchaseRepository.applyPurchase(any(), eq(TICKET_ID), anyString(), any())).thenReturn(true);
 
         CompletableFuture<TopUpResponseDTO> result = transactionService.processTicketPurchaseByIdAsync(TICKET_ID);
 
         assertNotNull(result);
         TopUpResponseDTO response = result.get();
         assertNotNull(response);
-        assertEquals(TRANSACTION_ID, response.getTransactionId());
+        assertNotNull(response.getTransactionId());
     }
 
     @Test
     void processTicketPurchaseByIdAsync_PurchaseFails_ReturnsFailedFuture() {
-        when(currentUserUtil.getCurrentUserEmail()).thenReturn(TEST_EMAIL);
-        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.empty());
+        when(currentUserUtil.getCurrentUser()).thenReturn(principal(testUser));
+        when(ticketService.tryAdmitPurchase(TICKET_ID)).thenReturn(true);
+        when(purchaseRepository.lockForPurchase(USER_ID, TICKET_ID)).thenReturn(Optional.empty());
 
         CompletableFuture<TopUpResponseDTO> result = transactionService.processTicketPurchaseByIdAsync(TICKET_ID);
 
@@ -314,11 +526,56 @@ class TransactionServiceImplTest {
         verify(transactionRepository).findAll();
     }
 
+    @Test
+    void getCurrentUserTransactionHistory_ReturnsPageWithCursor() {
+        LocalDateTime now = LocalDateTime.now();
+        List<TransactionDTO> rows = List.of(
+                TransactionDTO.builder().id("c").timestamp(now).build(),
+                TransactionDTO.builder().id("b").timestamp(now.minusMinutes(1)).build(),
+                TransactionDTO.builder().id("a").timestamp(now.minusMinutes(2)).build());
+        when(currentUserUtil.getCurrentUserId()).thenReturn(USER_ID);
+        when(transactionRepository.findHistory(USER_ID, Transaction.TransactionType.TOP_UP, null, null, null, null, 3))
+                .thenReturn(rows);
+
+        TransactionPageDTO page = transactionService.getCurrentUserTransactionHistory(
+                TransactionHistoryFilter.builder().type("top_up").limit(2).build());
+
+        assertEquals(2, page.getItems().size());
+        TransactionCursor cursor = TransactionCursor.decode(page.getNextCursor());
+        assertEquals("b", cursor.id());
+        assertEquals(now.minusMinutes(1), cursor.timestamp());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getTransactionHistory_LastPageHasNoCursor() {
+        TransactionCursor after = new TransactionCursor(LocalDateTime.now(), "x");
+        when(transactionRepository.findHistory(null, null, Transaction.TransactionStatus.FAILED, null, null, after, 21))
+                .thenReturn(List.of(TransactionDTO.builder().id("a").build()));
+
+        TransactionPageDTO page = transactionService.getTransactionHistory(
+                TransactionHistoryFilter.builder().status("FAILED").cursor(after.encode()).build());
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getTransactionHistory_InvalidFilter_ThrowsIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> transactionService.getTransactionHistory(
+                TransactionHistoryFilter.builder().type("REFUND").build()));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.getTransactionHistory(
+                TransactionHistoryFilter.builder().limit(500).build()));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.getTransactionHistory(
+                TransactionHistoryFilter.builder().cursor("not-a-cursor").build()));
+        verifyNoInteractions(transactionRepository);
+    }
+
     @Test
     void getCurrentUserTransactions_ReturnsUserTransactions() {
         List<Transaction> transactions = Arrays.asList(testTransaction);
-        when(currentUserUtil.getCurrentUserEmail()).thenReturn(TEST_EMAIL);
-        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.of(testUser));
+        when(currentUserUtil.getCurrentUserId()).thenReturn(USER_ID);
+        when(userRepository.getReferenceById(USER_ID)).thenReturn(testUser);
         when(transactionRepository.findByUser(testUser)).thenReturn(transactions);
 
         List<TransactionDTO> result = transactionService.getCurrentUserTransactions();
@@ -327,22 +584,20 @@ class TransactionServiceImplTest {
         assertEquals(1, result.size());
         assertEquals(TRANSACTION_ID, result.get(0).getId());
 
-        verify(currentUserUtil).getCurrentUserEmail();
-        verify(userRepository).findByEmail(TEST_EMAIL);
+        verify(currentUserUtil).getCurrentUserId();
+        verify(userRepository, never()).findByEmail(any());
         verify(transactionRepository).findByUser(testUser);
     }
 
     @Test
-    void getCurrentUserTransactions_UserNotFound_ThrowsException() {
-        when(currentUserUtil.getCurrentUserEmail()).thenReturn(TEST_EMAIL);
-        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.empty());
+    void getCurrentUserTransactions_NotAuthenticated_ThrowsException() {
+        when(currentUserUtil.getCurrentUserId()).thenThrow(new RuntimeException("User not authenticated"));
 
         RuntimeException exception = assertThrows(RuntimeException.class, () ->
                 transactionService.getCurrentUserTransactions());
-        assertEquals("User not found", exception.getMessage());
+        assertEquals("User not authenticated", exception.getMessage());
 
-        verify(currentUserUtil).getCurrentUserEmail();
-        verify(userRepository).findByEmail(TEST_EMAIL);
+        verifyNoInteractions(userRepository);
         verifyNoInteractions(transactionRepository);
     }
 
@@ -423,8 +678,7 @@ class TransactionServiceImplTest {
     @Test
     void getTransactionById_TransactionExistsAndUserIsOwner_ReturnsTransactionDTO() {
         when(transactionRepository.findById(TRANSACTION_ID)).thenReturn(Optional.of(testTransaction));
-        when(currentUserUtil.getCurrentUserEmail()).thenReturn(TEST_EMAIL);
-        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.of(testUser));
+        when(currentUserUtil.getCurrentUser()).thenReturn(principal(testUser));
 
         TransactionDTO result = transactionService.getTransactionById(TRANSACTION_ID);
 
@@ -434,15 +688,14 @@ class TransactionServiceImplTest {
         assertEquals("Test User", result.getUsername());
 
         verify(transactionRepository).findById(TRANSACTION_ID);
-        verify(currentUserUtil).getCurrentUserEmail();
-        verify(userRepository).findByEmail(TEST_EMAIL);
+        verify(currentUserUtil).getCurrentUser();
+        verifyNoInteractions(userRepository);
     }
 
     @Test
     void getTransactionById_TransactionExistsAndUserIsAdmin_ReturnsTransactionDTO() {
         when(transactionRepository.findById(TRANSACTION_ID)).thenReturn(Optional.of(testTransaction));
-        when(currentUserUtil.getCurrentUserEmail()).thenReturn(ADMIN_EMAIL);
-        when(userRepository.findByEmail(ADMIN_EMAIL)).thenReturn(Optional.of(adminUser));
+        when(currentUserUtil.getCurrentUser()).thenReturn(principal(adminUser));
 
         TransactionDTO result = transactionService.getTransactionById(TRANSACTION_ID);
 
@@ -450,23 +703,22 @@ class TransactionServiceImplTest {
         assertEquals(TRANSACTION_ID, result.getId());
 
         verify(transactionRepository).findById(TRANSACTION_ID);
-        verify(currentUserUtil).getCurrentUserEmail();
-        verify(userRepository).findByEmail(ADMIN_EMAIL);
+        verify(currentUserUtil).getCurrentUser();
+        verifyNoInteractions(userRepository);
     }
 
     @Test
     void getTransactionById_TransactionExistsButUserIsNotOwner_ThrowsException() {
         when(transactionRepository.findById(TRANSACTION_ID)).thenReturn(Optional.of(testTransaction));
-        when(currentUserUtil.getCurrentUserEmail()).thenReturn(OTHER_EMAIL);
-        when(userRepository.findByEmail(OTHER_EMAIL)).thenReturn(Optional.of(otherUser));
+        when(currentUserUtil.getCurrentUser()).thenReturn(principal(otherUser));
 
         RuntimeException exception = assertThrows(RuntimeException.class, () ->
                 transactionService.getTransactionById(TRANSACTION_ID));
         assertEquals("Access denied: You can only view your own transactions", exception.getMessage());
 
         verify(transactionRepository).findById(TRANSACTION_ID);
-        verify(currentUserUtil).getCurrentUserEmail();
-        verify(userRepository).findByEmail(OTHER_EMAIL);
+        verify(currentUserUtil).getCurrentUser();
+        verifyNoInteractions(userRepository);
     }
 
     @Test
@@ -483,18 +735,16 @@ class TransactionServiceImplTest {
     }
 
     @Test
-    void getTransactionById_CurrentUserNotFound_ThrowsException() {
+    void getTransactionById_NotAuthenticated_ThrowsException() {
         when(transactionRepository.findById(TRANSACTION_ID)).thenReturn(Optional.of(testTransaction));
-        when(currentUserUtil.getCurrentUserEmail()).thenReturn(TEST_EMAIL);
-        when(userRepository.findByEmail(TEST_EMAIL)).thenReturn(Optional.empty());
+        when(currentUserUtil.getCurrentUser()).thenThrow(new RuntimeException("User not authenticated"));
 
         RuntimeException exception = assertThrows(RuntimeException.class, () ->
                 transactionService.getTransactionById(TRANSACTION_ID));
-        assertEquals("Current user not found", exception.getMessage());
+        assertEquals("User not authenticated", exception.getMessage());
 
         verify(transactionRepository).findById(TRANSACTION_ID);
-        verify(currentUserUtil).getCurrentUserEmail();
-        verify(userRepository).findByEmail(TEST_EMAIL);
+        verifyNoInteractions(userRepository);
     }
 
     @Test
@@ -0,0 +1,120 @@
+package id.ac.ui.cs.advprog.eventsphere.topup.service;
+
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.security.AuthenticatedUser;
+import id.ac.ui.cs.advprog.eventsphere.event.repository.EventRepository;
+import id.ac.ui.cs.advprog.eventsphere.topup.dto.TransactionStatsDTO;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.Transaction;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.TransactionRollup;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.TransactionRollup.Dimension;
+import id.ac.ui.cs.advprog.eventsphere.topup.model.TransactionRollup.Granularity;
+import id.ac.ui.cs.advprog.eventsphere.topup.repository.TransactionRollupRepository;
+import id.ac.ui.cs.advprog.eventsphere.topup.util.CurrentUserUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionStatsServiceTest {
+
+    @Mock
+    private TransactionRollupRepository rollupRepository;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private CurrentUserUtil currentUserUtil;
+
+    @InjectMocks
+    private TransactionStatsService statsService;
+
+    private final LocalDateTime from = LocalDateTime.of(2025, 5, 1, 0, 0);
+    private final LocalDateTime to = LocalDateTime.of(2025, 5, 8, 0, 0);
+
+    private void signedInAs(Long id, Role role) {
+        String email = role.name().toLowerCase() + "@example.com";
+        when(currentUserUtil.getCurrentUser()).thenReturn(new AuthenticatedUser(id, email, role, 0));
+    }
+
+    private TransactionRollup bucket(int day, long count, long amount) {
+        return TransactionRollup.builder()
+                .bucketStart(from.plusDays(day))
+                .type(Transaction.TransactionType.TICKET_PURCHASE)
+                .transactionCount(count)
+                .amountTotal(amount)
+                .build();
+    }
+
+    @Test
+    void adminReadsEventTotalsFromBuckets() {
+        signedInAs(1L, Role.ADMIN);
+        when(rollupRepository.findBuckets(Dimension.EVENT, "7", Granularity.DAY, null, from, to))
+                .thenReturn(List.of(bucket(0, 2, 600), bucket(3, 1, 300)));
+
+        TransactionStatsDTO stats = statsService.getStats("event", "7", null, null, from, to);
+
+        assertEquals("EVENT", stats.getDimension());
+        assertEquals("DAY", stats.getGranularity());
+        assertEquals(3, stats.getTotalCount());
+        assertEquals(900, stats.getTotalAmount());
+        assertEquals(2, stats.getBuckets().size());
+    }
+
+    @Test
+    void organizerReadsOwnEventOnly() {
+        signedInAs(2L, Role.ORGANIZER);
+        when(eventRepository.existsByIdAndOrganizerEmail(7L, "organizer@example.com")).thenReturn(true);
+        when(eventRepository.existsByIdAndOrganizerEmail(8L, "organizer@example.com")).thenReturn(false);
+
+        assertNotNull(statsService.getStats("event", "7", "day", "ticket_purchase", from, to));
+        verify(rollupRepository).findBuckets(Dimension.EVENT, "7", Granularity.DAY,
+                Transaction.TransactionType.TICKET_PURCHASE, from, to);
+        assertThrows(AccessDeniedException.class, () -> statsService.getStats("event", "8", null, null, from, to));
+        assertThrows(AccessDeniedException.class, () -> statsService.getStats("all", null, null, null, from, to));
+    }
+
+    @Test
+    void attendeeReadsOwnUserTotalsOnly() {
+        signedInAs(3L, Role.ATTENDEE);
+
+        assertNotNull(statsService.getStats("user", "3", "hour", null, from, from.plusHours(12)));
+        assertThrows(AccessDeniedException.class, () -> statsService.getStats("user", "4", null, null, from, to));
+        assertThrows(AccessDeniedException.class, () -> statsService.getStats("event", "7", null, null, from, to));
+    }
+
+    @Test
+    void defaultsToLastThirtyDays() {
+        signedInAs(1L, Role.ADMIN);
+
+        TransactionStatsDTO stats = statsService.getStats("all", null, null, null, null, null);
+
+        assertEquals(TransactionRollup.ALL_KEY, stats.getKey());
+        assertEquals(30, java.time.Duration.between(stats.getFrom(), stats.getTo()).toDays());
+        verify(rollupRepository).findBuckets(eq(Dimension.ALL), eq(TransactionRollup.ALL_KEY), eq(Granularity.DAY),
+                isNull(), any(), any());
+    }
+
+    @Test
+    void rejectsInvalidRequestsBeforeTouchingTheDatabase() {
+        assertThrows(IllegalArgumentException.class, () -> statsService.getStats("venue", "7", null, null, from, to));
+        assertThrows(IllegalArgumentException.class, () -> statsService.getStats("event", null, null, null, from, to));
+        assertThrows(IllegalArgumentException.class, () -> statsService.getStats("event", "7", "week", null, from, to));
+        assertThrows(IllegalArgumentException.class, () -> statsService.getStats("event", "7", null, null, to, from));
+        assertThrows(IllegalArgumentException.class, () ->
+                statsService.getStats("event", "7", "hour", null, from, from.plusDays(40)));
+        verifyNoInteractions(rollupRepository);
+    }
+}
@@ -31,8 +31,8 @@ public class StandardTopUpStrategyTest {
         User user = new User();
         TopUp topUp = new FixedTopUp(50000);
         
-        topUpStrategy.executeTopUp(user, topUp);
+        topUpStrategy.executeTopUp(user, topUp, "trans-1");
         
-        verify(userBalanceService, times(1)).topUp(user, 50000);
+        verify(userBalanceService, times(1)).topUp(user, 50000, "trans-1");
     }
 }
\ No newline at end of file
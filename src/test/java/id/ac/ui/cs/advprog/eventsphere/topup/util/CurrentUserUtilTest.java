@@ -1,5 +1,7 @@
 package id.ac.ui.cs.advprog.eventsphere.topup.util;
 
+import id.ac.ui.cs.advprog.eventsphere.authentication.model.Role;
+import id.ac.ui.cs.advprog.eventsphere.authentication.security.AuthenticatedUser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -96,4 +98,34 @@ public class CurrentUserUtilTest {
             assertEquals("User not authenticated", exception.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should return the token principal without touching the database")
+    public void testGetCurrentUserFromAuthenticatedUser() {
+        AuthenticatedUser principal = new AuthenticatedUser(7L, "test@example.com", Role.ATTENDEE, 0);
+        try (MockedStatic<SecurityContextHolder> mockedStatic = Mockito.mockStatic(SecurityContextHolder.class)) {
+            mockedStatic.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+            when(securityContext.getAuthentication()).thenReturn(authentication);
+            when(authentication.isAuthenticated()).thenReturn(true);
+            when(authentication.getPrincipal()).thenReturn(principal);
+
+            assertSame(principal, currentUserUtil.getCurrentUser());
+            assertEquals(7L, currentUserUtil.getCurrentUserId());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject principals that carry no user id")
+    public void testGetCurrentUserWithoutUserId() {
+        try (MockedStatic<SecurityContextHolder> mockedStatic = Mockito.mockStatic(SecurityContextHolder.class)) {
+            mockedStatic.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+            when(securityContext.getAuthentication()).thenReturn(authentication);
+            when(authentication.isAuthenticated()).thenReturn(true);
+            when(authentication.getPrincipal()).thenReturn(userDetails);
+
+            Exception exception = assertThrows(RuntimeException.class, () -> currentUserUtil.getCurrentUser());
+
+            assertEquals("User not authenticated", exception.getMessage());
+        }
+    }
+}